@@ -0,0 +1,119 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.JWTService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.MyUserDetailService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtFilter for a request carrying a bearer token the filter has already seen, which is the common case for
+ * a logged-in client. Run with {@code java -jar target/benchmarks.jar JwtFilterBenchmark -prof gc}.
+ * <ul>
+ *   <li>repeatedBearerToken - current token carrying the uid claim; no user lookup at all</li>
+ *   <li>repeatedLegacyBearerToken - token without uid; the user comes from a warm UserPrincipalCache</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = Base64.getEncoder()
+        .encodeToString("benchmark-secret-benchmark-secret".getBytes(StandardCharsets.UTF_8));
+
+    private JwtFilter filter;
+    private HttpServletRequest request;
+    private HttpServletRequest legacyRequest;
+    private HttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() throws Exception {
+        User user = new User();
+        user.setUserId(1L);
+        user.setUuid(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setUserName("bench");
+        user.setEmailVerified(true);
+
+        UserRepository userRepository = proxy(UserRepository.class, (p, method, args) ->
+            "findByUuid".equals(method.getName()) ? user : null);
+        UserPrincipalCache userCache = new UserPrincipalCache(userRepository, 100, Duration.ofHours(1));
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(MyUserDetailService.class, () -> new MyUserDetailService(userCache));
+        context.refresh();
+
+        JWTService jwtService = new JWTService(SECRET, 3_600_000L, 10_000);
+        filter = new JwtFilter(jwtService, context);
+
+        request = request(jwtService.generateToken(user.getUuid().toString(), user.getUserId()));
+        legacyRequest = request(jwtService.generateToken(user.getUuid().toString(), null));
+        response = proxy(HttpServletResponse.class, (p, method, args) -> null);
+        chain = (req, res) -> { };
+
+        if (repeatedBearerToken() == null || repeatedLegacyBearerToken() == null) {
+            throw new IllegalStateException("JwtFilter did not authenticate the benchmark request");
+        }
+    }
+
+    @Benchmark
+    public Authentication repeatedBearerToken() throws Exception {
+        return authenticate(request);
+    }
+
+    @Benchmark
+    public Authentication repeatedLegacyBearerToken() throws Exception {
+        return authenticate(legacyRequest);
+    }
+
+    private Authentication authenticate(HttpServletRequest request) throws Exception {
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static HttpServletRequest request(String token) {
+        String bearer = "Bearer " + token;
+        return proxy(HttpServletRequest.class, (p, method, args) -> switch (method.getName()) {
+            case "getMethod" -> "GET";
+            case "getRequestURI" -> "/api/dashboard/quick-stats";
+            case "getHeader" -> "Authorization".equals(args[0]) ? bearer : null;
+            case "getRemoteAddr" -> "127.0.0.1";
+            default -> null;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
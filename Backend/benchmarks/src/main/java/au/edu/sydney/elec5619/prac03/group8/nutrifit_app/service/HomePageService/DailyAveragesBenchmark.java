@@ -0,0 +1,152 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Weekly + monthly daily averages as computed for quick stats.
+ * Run with {@code java -jar target/benchmarks.jar DailyAveragesBenchmark -prof gc} and compare
+ * gc.alloc.rate.norm (bytes per call) between the three strategies:
+ * <ul>
+ *   <li>perMealStreams - original: every meal in each window, grouped by day once per metric</li>
+ *   <li>perWindowRollupStreams - rollup rows fetched per window, one stream pass per metric</li>
+ *   <li>singlePassArrays - rollup rows fetched once, primitive per-day arrays, both windows in one sweep</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyAveragesBenchmark {
+
+    private static final int[] WINDOWS = {7, 30};
+    private static final int MAX_WINDOW = 30;
+
+    @Param({"3", "6"})
+    public int mealsPerDay;
+
+    private LocalDate today;
+    private List<Meal> meals;
+    private List<DailySummary> summaries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        today = LocalDate.now();
+        meals = new ArrayList<>();
+        summaries = new ArrayList<>();
+
+        for (int offset = MAX_WINDOW; offset >= 0; offset--) {
+            LocalDate day = today.minusDays(offset);
+            DailySummary summary = new DailySummary();
+            summary.setSummaryDate(day);
+            BigDecimal calories = BigDecimal.ZERO, protein = BigDecimal.ZERO, carbs = BigDecimal.ZERO, fat = BigDecimal.ZERO;
+            for (int m = 0; m < mealsPerDay; m++) {
+                Meal meal = new Meal();
+                meal.setMealTime(day.atTime(7 + m * 2, 0));
+                meal.setTotalCalories(BigDecimal.valueOf(200 + random.nextInt(600)));
+                meal.setProteinG(BigDecimal.valueOf(5 + random.nextInt(40)));
+                meal.setCarbsG(BigDecimal.valueOf(10 + random.nextInt(80)));
+                meal.setFatG(BigDecimal.valueOf(2 + random.nextInt(30)));
+                meals.add(meal);
+                calories = calories.add(meal.getTotalCalories());
+                protein = protein.add(meal.getProteinG());
+                carbs = carbs.add(meal.getCarbsG());
+                fat = fat.add(meal.getFatG());
+            }
+            summary.setTotalCaloriesConsumed(calories);
+            summary.setTotalProteinG(protein);
+            summary.setTotalCarbsG(carbs);
+            summary.setTotalFatG(fat);
+            summary.setMealCount(mealsPerDay);
+            summary.setWorkoutCount(offset % 2);
+            summary.setTotalWorkoutMinutes(offset % 2 * 45);
+            summary.setTotalCaloriesBurned(BigDecimal.valueOf(offset % 2 * 320));
+            summaries.add(summary);
+        }
+    }
+
+    @Benchmark
+    public void perMealStreams(Blackhole blackhole) {
+        for (int days : WINDOWS) {
+            LocalDate start = today.minusDays(days);
+            // Each window was a separate repository call returning a fresh list
+            List<Meal> window = meals.stream()
+                .filter(m -> !m.getMealTime().toLocalDate().isBefore(start))
+                .collect(Collectors.toList());
+            blackhole.consume(window.stream().map(Meal::getTotalCalories).filter(Objects::nonNull)
+                .mapToDouble(BigDecimal::doubleValue).sum());
+            blackhole.consume(perMealDailyAverage(window, Meal::getTotalCalories));
+            blackhole.consume(perMealDailyAverage(window, Meal::getProteinG));
+            blackhole.consume(perMealDailyAverage(window, Meal::getCarbsG));
+            blackhole.consume(perMealDailyAverage(window, Meal::getFatG));
+        }
+    }
+
+    @Benchmark
+    public void perWindowRollupStreams(Blackhole blackhole) {
+        for (int days : WINDOWS) {
+            LocalDate start = today.minusDays(days);
+            List<DailySummary> window = summaries.stream()
+                .filter(s -> !s.getSummaryDate().isBefore(start))
+                .collect(Collectors.toList());
+            List<DailySummary> mealDays = window.stream()
+                .filter(s -> s.getMealCount() != null && s.getMealCount() > 0)
+                .collect(Collectors.toList());
+            blackhole.consume(rollupSum(window, DailySummary::getTotalCaloriesConsumed));
+            blackhole.consume(rollupSum(mealDays, DailySummary::getTotalCaloriesConsumed) / mealDays.size());
+            blackhole.consume(rollupSum(mealDays, DailySummary::getTotalProteinG) / mealDays.size());
+            blackhole.consume(rollupSum(mealDays, DailySummary::getTotalCarbsG) / mealDays.size());
+            blackhole.consume(rollupSum(mealDays, DailySummary::getTotalFatG) / mealDays.size());
+            blackhole.consume(window.stream().map(DailySummary::getWorkoutCount).filter(Objects::nonNull)
+                .mapToInt(Integer::intValue).sum());
+            blackhole.consume(window.stream().map(DailySummary::getTotalWorkoutMinutes).filter(Objects::nonNull)
+                .mapToInt(Integer::intValue).sum());
+            blackhole.consume(rollupSum(window, DailySummary::getTotalCaloriesBurned));
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, DailyAveragesAggregator.Window> singlePassArrays() {
+        return new DailyAveragesAggregator(today, MAX_WINDOW).addAll(summaries).windows(WINDOWS);
+    }
+
+    private static double perMealDailyAverage(List<Meal> meals, Function<Meal, BigDecimal> column) {
+        return meals.stream()
+            .collect(Collectors.groupingBy(meal -> meal.getMealTime().toLocalDate()))
+            .values().stream()
+            .mapToDouble(day -> day.stream().map(column).filter(Objects::nonNull)
+                .mapToDouble(BigDecimal::doubleValue).sum())
+            .average()
+            .orElse(0.0);
+    }
+
+    private static double rollupSum(List<DailySummary> rows, Function<DailySummary, BigDecimal> column) {
+        return rows.stream().map(column).filter(Objects::nonNull).mapToDouble(BigDecimal::doubleValue).sum();
+    }
+}
@@ -0,0 +1,111 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyAveragesDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressSeriesDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.NutritionSummaryExportDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DashboardService and PdfExportService hot paths for a synthetic user with 1, 3 or 5 years of history,
+ * against in-memory repositories so only the service code is measured.
+ * Run with {@code java -jar target/benchmarks.jar DashboardServiceBenchmark -prof gc} and compare ops/ms and
+ * gc.alloc.rate.norm (bytes per call) against a baseline run before merging a change to these paths.
+ * <ul>
+ *   <li>dailyAverages - weekly + monthly quick-stats averages, including calculateAverageMacros</li>
+ *   <li>dailyProgress / dailyProgressSeries - chart series over the whole history, per-point and columnar</li>
+ *   <li>nutritionSummaryExport - export nutrition section, dominated by calculateDailyNutritionBreakdown</li>
+ *   <li>currentStreaks - workout and nutrition streaks over the streak window</li>
+ *   <li>pdfReport - full PDF export over the whole history (AI insights omitted)</li>
+ * </ul>
+ * The private calculation helpers are measured through the public method that calls them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardServiceBenchmark {
+
+    @Param({"1", "3", "5"})
+    public int years;
+
+    private DashboardService dashboardService;
+    private PdfExportService pdfExportService;
+    private String fullHistory;
+
+    @Setup
+    public void setUp() {
+        SyntheticUserHistory history = new SyntheticUserHistory(years);
+        fullHistory = history.firstDay + "," + history.today;
+
+        dashboardService = new DashboardService();
+        SyntheticUserHistory.inject(dashboardService, "userRepository", history.userRepository());
+        SyntheticUserHistory.inject(dashboardService, "userProfileRepository", history.userProfileRepository());
+        SyntheticUserHistory.inject(dashboardService, "userMetricsRepository", history.userMetricsRepository());
+        SyntheticUserHistory.inject(dashboardService, "dailySummaryRepository", history.dailySummaryRepository());
+        SyntheticUserHistory.inject(dashboardService, "mealRepository", history.mealRepository());
+        SyntheticUserHistory.inject(dashboardService, "workoutRepository", history.workoutRepository());
+
+        User user = history.user;
+        SecurityUtil securityUtil = new SecurityUtil(new UserPrincipalCache(history.userRepository(), 1, Duration.ofMinutes(1))) {
+            @Override
+            public User getCurrentUserOrThrow() {
+                return user;
+            }
+        };
+        pdfExportService = new PdfExportService();
+        SyntheticUserHistory.inject(pdfExportService, "dashboardService", dashboardService);
+        SyntheticUserHistory.inject(pdfExportService, "securityUtil", securityUtil);
+    }
+
+    @Benchmark
+    public Map<Integer, DailyAveragesDTO> dailyAverages() {
+        return dashboardService.getDailyAveragesDTOs(SyntheticUserHistory.USER_ID, 7, 30);
+    }
+
+    @Benchmark
+    public List<DailyProgressPointDTO> dailyProgress() {
+        return dashboardService.getDailyProgress(SyntheticUserHistory.USER_ID, fullHistory);
+    }
+
+    @Benchmark
+    public DailyProgressSeriesDTO dailyProgressSeries() {
+        return dashboardService.getDailyProgressSeries(SyntheticUserHistory.USER_ID, fullHistory);
+    }
+
+    @Benchmark
+    public NutritionSummaryExportDTO nutritionSummaryExport() {
+        return dashboardService.getNutritionSummaryForExport(SyntheticUserHistory.USER_ID, fullHistory);
+    }
+
+    @Benchmark
+    public Map<String, Object> currentStreaks() {
+        return dashboardService.getCurrentStreaks(SyntheticUserHistory.USER_ID);
+    }
+
+    @Benchmark
+    public byte[] pdfReport() throws IOException {
+        return pdfExportService.generatePdfReport(SyntheticUserHistory.USER_ID, fullHistory);
+    }
+}
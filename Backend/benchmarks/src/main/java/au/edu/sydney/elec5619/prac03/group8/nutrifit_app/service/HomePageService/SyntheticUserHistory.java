@@ -0,0 +1,278 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Gender;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserProfile;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.DailySummaryRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserMetricsRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserProfileRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * One synthetic user with N years of daily history ending today, served by in-memory repositories.
+ * Meals and workouts are generated individually and then rolled up the way the database queries do
+ * (daily summaries, per-day nutrition totals, per-(day, type) workout totals), so the service code sees the
+ * same row counts it would in production. Range queries copy a slice of a date-sorted list, standing in for
+ * the rows a real query would materialise.
+ */
+final class SyntheticUserHistory {
+
+    static final Long USER_ID = 1L;
+
+    private static final String[] WORKOUT_TYPES = {"cardio", "strength", "yoga", "hiit"};
+
+    final LocalDate firstDay;
+    final LocalDate today;
+    final User user;
+
+    private final UserProfile profile;
+    private final List<DailySummary> summaries = new ArrayList<>();
+    private final List<MealRepository.DailyNutritionTotal> nutritionTotals = new ArrayList<>();
+    private final List<WorkoutRepository.DailyWorkoutTotal> workoutTotals = new ArrayList<>();
+    private final List<LocalDate> workoutDays = new ArrayList<>();
+    private final List<UserMetrics> metrics = new ArrayList<>();
+
+    int mealCount;
+    int workoutCount;
+
+    SyntheticUserHistory(int years) {
+        Random random = new Random(42);
+        today = LocalDate.now();
+        firstDay = today.minusYears(years).plusDays(1);
+
+        user = new User();
+        user.setUserId(USER_ID);
+        user.setUserName("bench");
+        user.setEmail("bench@example.com");
+
+        profile = new UserProfile();
+        profile.setUser(user);
+        profile.setBirthDate(today.minusYears(34));
+        profile.setGender(Gender.FEMALE);
+
+        double weight = 78.0;
+        for (LocalDate day = firstDay; !day.isAfter(today); day = day.plusDays(1)) {
+            // Roughly one day in twenty has nothing logged
+            if (random.nextInt(20) == 0) {
+                continue;
+            }
+
+            int meals = 2 + random.nextInt(4);
+            BigDecimal calories = BigDecimal.ZERO, protein = BigDecimal.ZERO, carbs = BigDecimal.ZERO, fat = BigDecimal.ZERO;
+            for (int m = 0; m < meals; m++) {
+                calories = calories.add(BigDecimal.valueOf(250 + random.nextInt(550)));
+                protein = protein.add(BigDecimal.valueOf(5 + random.nextInt(40)));
+                carbs = carbs.add(BigDecimal.valueOf(10 + random.nextInt(80)));
+                fat = fat.add(BigDecimal.valueOf(2 + random.nextInt(30)));
+            }
+            mealCount += meals;
+            nutritionTotals.add(new NutritionTotal(day, calories, protein, carbs, fat, meals));
+
+            int workouts = random.nextInt(10) < 6 ? 1 + random.nextInt(2) : 0;
+            int minutes = 0;
+            BigDecimal burned = BigDecimal.ZERO;
+            for (int w = 0; w < workouts; w++) {
+                int duration = 20 + random.nextInt(70);
+                BigDecimal workoutBurned = BigDecimal.valueOf(duration * (6 + random.nextInt(6)));
+                workoutTotals.add(new WorkoutTotal(day, WORKOUT_TYPES[(w + day.getDayOfYear()) % WORKOUT_TYPES.length],
+                    1, duration, workoutBurned));
+                minutes += duration;
+                burned = burned.add(workoutBurned);
+            }
+            if (workouts > 0) {
+                workoutDays.add(day);
+                workoutCount += workouts;
+            }
+
+            DailySummary summary = new DailySummary();
+            summary.setUser(user);
+            summary.setSummaryDate(day);
+            summary.setTotalCaloriesConsumed(calories);
+            summary.setTotalProteinG(protein);
+            summary.setTotalCarbsG(carbs);
+            summary.setTotalFatG(fat);
+            summary.setMealCount(meals);
+            summary.setWorkoutCount(workouts);
+            summary.setTotalWorkoutMinutes(minutes);
+            summary.setTotalCaloriesBurned(burned);
+            summaries.add(summary);
+
+            // A weigh-in about twice a week
+            if (random.nextInt(7) < 2) {
+                weight += (random.nextDouble() - 0.55) * 0.6;
+                UserMetrics metric = new UserMetrics();
+                metric.setUser(user);
+                metric.setWeight(BigDecimal.valueOf(weight).setScale(2, RoundingMode.HALF_UP).doubleValue());
+                metric.setHeight(168.0);
+                metric.setCreatedAt(day.atTime(7, 30));
+                metric.setRecordAt(day.atTime(7, 30));
+                metrics.add(metric);
+            }
+        }
+    }
+
+    UserRepository userRepository() {
+        return repository(UserRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.of(user);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    UserProfileRepository userProfileRepository() {
+        return repository(UserProfileRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findByUserUserId" -> Optional.of(profile);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    DailySummaryRepository dailySummaryRepository() {
+        return repository(DailySummaryRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc" ->
+                between(summaries, DailySummary::getSummaryDate, (LocalDate) args[1], (LocalDate) args[2]);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    MealRepository mealRepository() {
+        return repository(MealRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findDailyNutritionTotals" -> between(nutritionTotals, MealRepository.DailyNutritionTotal::getDay,
+                ((LocalDateTime) args[1]).toLocalDate(), ((LocalDateTime) args[2]).toLocalDate());
+            default -> unsupported(method.getName());
+        });
+    }
+
+    WorkoutRepository workoutRepository() {
+        return repository(WorkoutRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findDistinctWorkoutDates" ->
+                between(workoutDays, Function.identity(), (LocalDate) args[1], (LocalDate) args[2]);
+            case "findDailyWorkoutTotals" ->
+                between(workoutTotals, WorkoutRepository.DailyWorkoutTotal::getDay, (LocalDate) args[1], (LocalDate) args[2]);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    UserMetricsRepository userMetricsRepository() {
+        return repository(UserMetricsRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            // Ascending by recordAt, as the derived query name says
+            case "findTopByUserUserIdOrderByRecordAt" -> metrics.isEmpty() ? Optional.empty() : Optional.of(metrics.get(0));
+            case "findSecondLatestByUserId" ->
+                metrics.size() < 2 ? Optional.empty() : Optional.of(metrics.get(metrics.size() - 2));
+            case "findLastWeightBefore" -> lastWeightBefore((LocalDateTime) args[1]);
+            case "findWeightsBetween" -> weightsBetween((LocalDateTime) args[1], (LocalDateTime) args[2]);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    /**
+     * Set an {@code @Autowired} field the way Spring would, for services that use field injection
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    private Optional<UserMetricsRepository.WeightPoint> lastWeightBefore(LocalDateTime before) {
+        for (int i = metrics.size() - 1; i >= 0; i--) {
+            if (metrics.get(i).getCreatedAt().isBefore(before)) {
+                return Optional.of(weightPoint(metrics.get(i)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<UserMetricsRepository.WeightPoint> weightsBetween(LocalDateTime start, LocalDateTime end) {
+        List<UserMetricsRepository.WeightPoint> points = new ArrayList<>();
+        for (UserMetrics metric : between(metrics, m -> m.getCreatedAt().toLocalDate(), start.toLocalDate(), end.toLocalDate())) {
+            points.add(weightPoint(metric));
+        }
+        return points;
+    }
+
+    private static UserMetricsRepository.WeightPoint weightPoint(UserMetrics metric) {
+        return new UserMetricsRepository.WeightPoint() {
+            @Override
+            public LocalDateTime getCreatedAt() { return metric.getCreatedAt(); }
+
+            @Override
+            public BigDecimal getWeightKg() { return metric.getWeightKg(); }
+        };
+    }
+
+    /**
+     * Rows whose day falls in [start, end], from a list sorted by day
+     */
+    private static <T> List<T> between(List<T> sorted, Function<T, LocalDate> day, LocalDate start, LocalDate end) {
+        int from = lowerBound(sorted, day, start);
+        int to = lowerBound(sorted, day, end.plusDays(1));
+        return from < to ? new ArrayList<>(sorted.subList(from, to)) : Collections.emptyList();
+    }
+
+    private static <T> int lowerBound(List<T> sorted, Function<T, LocalDate> day, LocalDate target) {
+        int low = 0, high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (day.apply(sorted.get(mid)).isBefore(target)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <R> R repository(Class<R> type, InvocationHandler queries) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> "InMemory" + type.getSimpleName();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> queries.invoke(proxy, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException(method + " is not stubbed for benchmarks");
+    }
+
+    private record NutritionTotal(LocalDate day, BigDecimal calories, BigDecimal protein, BigDecimal carbs,
+                                  BigDecimal fat, long meals) implements MealRepository.DailyNutritionTotal {
+        @Override public LocalDate getDay() { return day; }
+        @Override public BigDecimal getTotalCalories() { return calories; }
+        @Override public BigDecimal getTotalProteinG() { return protein; }
+        @Override public BigDecimal getTotalCarbsG() { return carbs; }
+        @Override public BigDecimal getTotalFatG() { return fat; }
+        @Override public Long getMealCount() { return meals; }
+    }
+
+    private record WorkoutTotal(LocalDate day, String type, long count, long minutes, BigDecimal burned)
+        implements WorkoutRepository.DailyWorkoutTotal {
+        @Override public LocalDate getDay() { return day; }
+        @Override public String getWorkoutType() { return type; }
+        @Override public Long getWorkoutCount() { return count; }
+        @Override public Long getTotalDurationMinutes() { return minutes; }
+        @Override public BigDecimal getTotalCaloriesBurned() { return burned; }
+    }
+}
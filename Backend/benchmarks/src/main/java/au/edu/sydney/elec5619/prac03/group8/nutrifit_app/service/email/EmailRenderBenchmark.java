@@ -0,0 +1,227 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Rendering a drained outbox batch of verification and reset emails, reported per message.
+ * Run with {@code java -jar target/benchmarks.jar EmailRenderBenchmark -prof gc}.
+ * <ul>
+ *   <li>legacyBuilders - the previous per-send String.format / formatted() builders, kept here as the baseline</li>
+ *   <li>renderEach - EmailService.render once per message</li>
+ *   <li>renderAll - EmailService.renderAll over the whole batch</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final String FRONTEND = "https://nutrifit.example.com";
+
+    private EmailService emailService;
+    private List<EmailOutboxMessage> batch;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(new RestTemplate());
+        set("frontendBaseUrl", FRONTEND);
+        batch = IntStream.range(0, BATCH)
+            .mapToObj(i -> EmailOutboxMessage.builder()
+                .emailType(i % 4 == 0 ? EmailType.PASSWORD_RESET : EmailType.VERIFICATION)
+                .recipient("user" + i + "@example.com")
+                .recipientName("User " + i)
+                .token(UUID.randomUUID().toString())
+                .build())
+            .toList();
+
+        // Same output, so the comparison is like for like
+        EmailService.RenderedEmail current = emailService.render(batch.get(1));
+        String[] legacy = legacy(batch.get(1));
+        if (!current.text().equals(legacy[0]) || !current.html().equals(legacy[1])) {
+            throw new IllegalStateException("Compiled templates no longer match the legacy builders");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String[]> legacyBuilders() {
+        List<String[]> rendered = new ArrayList<>(BATCH);
+        for (EmailOutboxMessage message : batch) {
+            rendered.add(legacy(message));
+        }
+        return rendered;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<EmailService.RenderedEmail> renderEach() {
+        List<EmailService.RenderedEmail> rendered = new ArrayList<>(BATCH);
+        for (EmailOutboxMessage message : batch) {
+            rendered.add(emailService.render(message));
+        }
+        return rendered;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<EmailService.RenderedEmail> renderAll() {
+        return emailService.renderAll(batch);
+    }
+
+    private static String[] legacy(EmailOutboxMessage message) {
+        if (message.getEmailType() == EmailType.VERIFICATION) {
+            String url = UriComponentsBuilder.fromUriString(FRONTEND)
+                .path("/verify-email")
+                .queryParam("token", message.getToken())
+                .toUriString();
+            return new String[]{buildVerificationEmailText(message.getRecipientName(), url),
+                buildVerificationEmailHtml(message.getRecipientName(), url)};
+        }
+        String url = UriComponentsBuilder.fromUriString(FRONTEND)
+            .path("/reset-password")
+            .queryParam("token", message.getToken())
+            .toUriString();
+        return new String[]{buildPasswordResetEmailText(message.getRecipientName(), url),
+            buildPasswordResetEmailHtml(message.getRecipientName(), url)};
+    }
+
+    private void set(String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(EmailService.class, fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, emailService, value);
+    }
+
+    private static String buildVerificationEmailHtml(String userName, String verificationUrl) {
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Verify Your Email</title>
+            </head>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
+                <div style="background-color: #f8f9fa; border-radius: 10px; padding: 30px; margin-bottom: 20px;">
+                    <h1 style="color: #28a745; margin-bottom: 20px;">Welcome to NutriFit!</h1>
+                    <p>Hi %s,</p>
+                    <p>Thank you for registering with NutriFit. Please verify your email address to activate your account.</p>
+                    <div style="text-align: center; margin: 30px 0;">
+                        <a href="%s"
+                           style="display: inline-block; background-color: #28a745; color: white; padding: 12px 30px; text-decoration: none; border-radius: 5px; font-weight: bold;">
+                            Verify Email Address
+                        </a>
+                    </div>
+                    <p>Or copy and paste this link into your browser:</p>
+                    <p style="word-break: break-all; color: #666; font-size: 14px;">%s</p>
+                    <p style="color: #999; font-size: 12px; margin-top: 30px;">
+                        This verification link will expire in 24 hours. If you didn't create an account with NutriFit, please ignore this email.
+                    </p>
+                </div>
+                <div style="text-align: center; color: #999; font-size: 12px;">
+                    <p>&copy; 2025 NutriFit. All rights reserved.</p>
+                </div>
+            </body>
+            </html>
+            """.formatted(userName, verificationUrl, verificationUrl);
+    }
+
+    private static String buildVerificationEmailText(String userName, String verificationUrl) {
+        return String.format("""
+            Welcome to NutriFit!
+
+            Hi %s,
+
+            Thank you for registering with NutriFit. Please verify your email address to activate your account.
+
+            Click the link below to verify your email:
+            %s
+
+            This verification link will expire in 24 hours.
+
+            If you didn't create an account with NutriFit, please ignore this email.
+
+            Best regards,
+            The NutriFit Team
+            """, userName, verificationUrl);
+    }
+
+    private static String buildPasswordResetEmailHtml(String userName, String resetUrl) {
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Reset Your Password</title>
+            </head>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
+                <div style="background-color: #f8f9fa; border-radius: 10px; padding: 30px; margin-bottom: 20px;">
+                    <h1 style="color: #dc3545; margin-bottom: 20px;">Reset Your Password</h1>
+                    <p>Hi %s,</p>
+                    <p>We received a request to reset your password for your NutriFit account.</p>
+                    <div style="text-align: center; margin: 30px 0;">
+                        <a href="%s"
+                           style="display: inline-block; background-color: #dc3545; color: white; padding: 12px 30px; text-decoration: none; border-radius: 5px; font-weight: bold;">
+                            Reset Password
+                        </a>
+                    </div>
+                    <p>Or copy and paste this link into your browser:</p>
+                    <p style="word-break: break-all; color: #666; font-size: 14px;">%s</p>
+                    <p style="color: #999; font-size: 12px; margin-top: 30px;">
+                        This password reset link will expire in 1 hour. If you didn't request a password reset, please ignore this email.
+                    </p>
+                </div>
+                <div style="text-align: center; color: #999; font-size: 12px;">
+                    <p>&copy; 2025 NutriFit. All rights reserved.</p>
+                </div>
+            </body>
+            </html>
+            """.formatted(userName, resetUrl, resetUrl);
+    }
+
+    private static String buildPasswordResetEmailText(String userName, String resetUrl) {
+        return String.format("""
+            Reset Your Password
+
+            Hi %s,
+
+            We received a request to reset your password for your NutriFit account.
+
+            Click the link below to reset your password:
+            %s
+
+            This password reset link will expire in 1 hour.
+
+            If you didn't request a password reset, please ignore this email.
+
+            Best regards,
+            The NutriFit Team
+            """, userName, resetUrl);
+    }
+}
@@ -2,8 +2,10 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class NutrifitAppApplication {
 
 	public static void main(String[] args) {
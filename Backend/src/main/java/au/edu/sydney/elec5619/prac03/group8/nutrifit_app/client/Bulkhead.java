@@ -0,0 +1,142 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many calls of one kind run at once. Calls over the cap wait in a bounded FIFO queue without holding
+ * a thread; a full queue, or a wait longer than {@code maxWait}, is refused with {@link TooManyRequestsException}.
+ */
+@Slf4j
+public final class Bulkhead {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final Duration maxWait;
+
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private int active;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int queueCapacity, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            CompletableFuture<Void> slot = acquire();
+            if (slot == null) {
+                rejected.increment();
+                log.warn("{} bulkhead full ({} running, {} waiting), rejecting call", name, maxConcurrent, queueCapacity);
+                return Mono.error(tooManyRequests());
+            }
+            return Mono.fromFuture(slot, true)
+                .timeout(maxWait, Mono.error(() -> {
+                    timedOut.increment();
+                    log.warn("{} call waited {} for a slot, rejecting it", name, maxWait);
+                    return tooManyRequests();
+                }))
+                .doOnError(error -> abandon(slot))
+                .doOnCancel(() -> abandon(slot))
+                .then(Mono.defer(() -> Mono.defer(call).doFinally(signal -> release())));
+        });
+    }
+
+    /**
+     * Registers the bulkhead's meters, tagged so several bulkheads can share a registry
+     */
+    public void bindTo(MeterRegistry registry, Iterable<Tag> tags) {
+        Gauge.builder("llm.bulkhead.active", this, bulkhead -> bulkhead.stats().active())
+            .description("Calls holding a slot")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder("llm.bulkhead.queued", this, bulkhead -> bulkhead.stats().queued())
+            .description("Calls waiting for a slot")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder("llm.bulkhead.max_concurrent", this, bulkhead -> bulkhead.maxConcurrent)
+            .description("Slots available to calls of this kind")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("llm.bulkhead.rejected", rejected, LongAdder::sum)
+            .description("Calls refused because the queue was full")
+            .tags(tags)
+            .tag("reason", "queue_full")
+            .register(registry);
+        FunctionCounter.builder("llm.bulkhead.rejected", timedOut, LongAdder::sum)
+            .description("Calls refused because they waited longer than the maximum for a slot")
+            .tags(tags)
+            .tag("reason", "timed_out")
+            .register(registry);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(maxConcurrent, active, waiting.size(), rejected.sum(), timedOut.sum());
+    }
+
+    /**
+     * A completed future when a slot is free, a pending one when the call must queue, or null when the queue is full
+     */
+    private synchronized CompletableFuture<Void> acquire() {
+        if (active < maxConcurrent) {
+            active++;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (waiting.size() >= queueCapacity) {
+            return null;
+        }
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        waiting.add(slot);
+        return slot;
+    }
+
+    private void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        // The slot passes straight to the next caller, so active is unchanged
+        next.complete(null);
+    }
+
+    private void abandon(CompletableFuture<Void> slot) {
+        synchronized (this) {
+            if (waiting.remove(slot)) {
+                return;
+            }
+        }
+        // Handed a slot just as the caller stopped waiting for it: pass it on
+        release();
+    }
+
+    private TooManyRequestsException tooManyRequests() {
+        return new TooManyRequestsException("Too many " + name + " requests, please try again shortly", RETRY_AFTER);
+    }
+
+    public record Stats(int maxConcurrent, int active, int queued, long rejected, long timedOut) {
+    }
+}
@@ -0,0 +1,170 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the outcomes of the last {@code windowSize} calls. Once at least
+ * {@code minimumCalls} have been seen and the failure rate reaches the threshold, the circuit opens and calls
+ * are refused without being made. After {@code openDuration} one trial call is let through: success closes
+ * the circuit, failure opens it again.
+ */
+@Slf4j
+public final class CircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int failures;
+    private int next;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                          LongSupplier nanoClock) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a call may be made now; every permitted call must end in success, failure or cancel
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                shortCircuited.increment();
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                shortCircuited.increment();
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("OpenRouter trial call succeeded, closing the circuit");
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && failureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * A permitted call that never reached the provider: it says nothing about the provider's health
+     */
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * The state gauge has one series per state, 1 for the current one and 0 for the others
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State candidate : State.values()) {
+            Gauge.builder("llm.circuit_breaker.state", this, breaker -> breaker.currentState() == candidate ? 1 : 0)
+                .description("Whether the OpenRouter circuit is in this state")
+                .tag("state", candidate.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+        Gauge.builder("llm.circuit_breaker.failure_rate", this, breaker -> breaker.stats().failureRate())
+            .description("Failure rate over the calls recorded since the circuit last closed")
+            .register(registry);
+        FunctionCounter.builder("llm.circuit_breaker.short_circuited", shortCircuited, LongAdder::sum)
+            .description("Calls refused without being made because the circuit was open")
+            .register(registry);
+        FunctionCounter.builder("llm.circuit_breaker.opened", opened, LongAdder::sum)
+            .description("Times the circuit opened")
+            .register(registry);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(state, failureRate(), recorded, shortCircuited.sum(), opened.sum());
+    }
+
+    private synchronized State currentState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length && outcomes[next]) {
+            failures--;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        recorded = Math.min(recorded + 1, outcomes.length);
+    }
+
+    private double failureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        opened.increment();
+        log.warn("OpenRouter failure rate {} over the last {} calls, failing fast for {}",
+            failureRate(), recorded, Duration.ofNanos(openNanos));
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * @param failureRate over the calls recorded since the circuit last closed
+     */
+    public record Stats(State state, double failureRate, int recordedCalls, long shortCircuited, long timesOpened) {
+    }
+}
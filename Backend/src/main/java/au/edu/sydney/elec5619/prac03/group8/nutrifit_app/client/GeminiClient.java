@@ -4,23 +4,47 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * OpenRouter chat completions over a pooled, non-blocking Reactor Netty client. A call holds a pooled
+ * connection rather than a thread while the model answers, so a few event-loop threads carry every
+ * in-flight request. The {@code *Async} methods complete on a bounded-elastic thread, never the event loop,
+ * so callers may block in their continuations (JPA saves); {@link #estimateWorkout} waits on the caller's thread.
+ * Missing configuration and bad input are thrown straight away; failed calls surface as IllegalStateException.
+ * Answers that parse are kept in {@link LlmResponseCache}, so a repeated request is served without a call, and
+ * identical requests made while one is in flight share it through {@link SingleFlight}. Calls that do reach
+ * OpenRouter pass {@link OpenRouterGuard}, which may refuse them with TooManyRequestsException or, while the
+ * provider is failing, fail them fast.
+ */
 @Slf4j
 @Component
 public class GeminiClient {
@@ -30,27 +54,59 @@ public class GeminiClient {
     private static final String MEAL_MODEL_NAME = "google/gemini-2.5-flash-lite-preview-09-2025";
     private static final Pattern CODE_BLOCK_PATTERN = Pattern.compile("```(?:json)?\\s*(\\{.*?})\\s*```", Pattern.DOTALL);
 
-    private final RestTemplate restTemplate;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String apiUrl;
+    private final LlmResponseCache responseCache;
+    private final SingleFlight singleFlight;
+    private final OpenRouterGuard guard;
 
-    public GeminiClient(RestTemplateBuilder restTemplateBuilder,
+    @Autowired
+    public GeminiClient(WebClient.Builder webClientBuilder,
                         ObjectMapper objectMapper,
+                        LlmResponseCache responseCache,
+                        SingleFlight singleFlight,
+                        OpenRouterGuard guard,
                         @Value("${gemini.api.key:}") String apiKey,
-                        @Value("${gemini.api.url:" + DEFAULT_CHAT_COMPLETIONS_URL + "}") String apiUrl) {
-        this.restTemplate = restTemplateBuilder.build();
+                        @Value("${gemini.api.url:" + DEFAULT_CHAT_COMPLETIONS_URL + "}") String apiUrl,
+                        @Value("${gemini.http.max-connections:200}") int maxConnections,
+                        @Value("${gemini.http.pending-acquire-max:400}") int pendingAcquireMax,
+                        @Value("${gemini.http.pending-acquire-timeout:PT10S}") Duration pendingAcquireTimeout,
+                        @Value("${gemini.http.connect-timeout:PT10S}") Duration connectTimeout,
+                        @Value("${gemini.http.response-timeout:PT60S}") Duration responseTimeout) {
+        this.connectionProvider = ConnectionProvider.builder("openrouter")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(responseTimeout);
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
         this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
+        this.guard = guard;
     }
 
+    /**
+     * Blocking variant for callers already inside a servlet-thread transaction (calorie backfill on save)
+     */
     public GeminiEstimation estimateWorkout(String description) {
+        return workoutEstimation(description).block();
+    }
+
+    public CompletableFuture<GeminiEstimation> estimateWorkoutAsync(String description) {
+        return toFuture(workoutEstimation(description));
+    }
+
+    private Mono<GeminiEstimation> workoutEstimation(String description) {
         log.info("Estimating workout for description: {}", description);
-        if (!StringUtils.hasText(apiKey)) {
-            log.error("Gemini API key is not configured");
-            throw new IllegalStateException("Gemini API key is not configured.");
-        }
+        requireApiKey();
         if (!StringUtils.hasText(description)) {
             log.error("Workout description is empty");
             throw new IllegalArgumentException("Workout description must not be empty.");
@@ -59,69 +115,17 @@ public class GeminiClient {
         String prompt = "Estimate the total duration and calories burned for the following workout: '" + description
                 + "'. Return result in JSON format like {duration_minutes, exercise_type, calories_burned}.";
 
-        OpenRouterRequest requestPayload = new OpenRouterRequest(
-                MODEL_NAME,
-                List.of(new OpenRouterMessage("user", prompt))
-        );
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
-
-        HttpEntity<OpenRouterRequest> requestEntity = new HttpEntity<>(requestPayload, headers);
-
         log.debug("Sending workout estimation request to OpenRouter API");
-        try {
-            ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(apiUrl, requestEntity, OpenRouterResponse.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.error("OpenRouter API returned non-success status: {}", response.getStatusCode());
-                throw new IllegalStateException("OpenRouter API returned status " + response.getStatusCode());
-            }
-
-            OpenRouterResponse responseBody = response.getBody();
-            if (responseBody == null) {
-                log.error("OpenRouter API returned empty response body");
-                throw new IllegalStateException("OpenRouter API returned no body.");
-            }
-
-            if (responseBody.getError() != null && StringUtils.hasText(responseBody.getError().getMessage())) {
-                log.error("OpenRouter API error: {}", responseBody.getError().getMessage());
-                throw new IllegalStateException("OpenRouter API error: " + responseBody.getError().getMessage());
-            }
-
-            String payload = responseBody.firstMessageContent()
-                    .map(String::trim)
-                    .filter(StringUtils::hasText)
-                    .orElseThrow(() -> {
-                        log.error("OpenRouter API response missing text content");
-                        return new IllegalStateException("OpenRouter API response missing text content.");
-                    });
-
-            log.debug("OpenRouter raw response payload: {}", payload);
-
-            String jsonPayload = extractJsonPayload(payload);
-
-            GeminiEstimation estimation = objectMapper.readValue(jsonPayload, GeminiEstimation.class);
-            log.info("Workout estimation successful: {} minutes, {} calories, type: {}",
-                    estimation.getDurationMinutes(), estimation.getCaloriesBurned(), estimation.getExerciseType());
-            return estimation;
-        } catch (JsonProcessingException ex) {
-            log.error("Failed to parse OpenRouter response payload: {}", ex.getMessage(), ex);
-            throw new IllegalStateException("Failed to parse OpenRouter response payload.", ex);
-        } catch (Exception ex) {
-            log.error("Error calling OpenRouter API for workout estimation: {}", ex.getMessage(), ex);
-            throw ex;
-        }
+        return complete(LlmOperation.WORKOUT_ESTIMATE, MODEL_NAME, prompt, null,
+                        List.of(new OpenRouterMessage("user", prompt)), payload -> readJson(payload, GeminiEstimation.class))
+                .doOnNext(estimation -> log.info("Workout estimation successful: {} minutes, {} calories, type: {}",
+                        estimation.getDurationMinutes(), estimation.getCaloriesBurned(), estimation.getExerciseType()));
     }
 
     // AI Insight Generation for homepage components
-    public String generateAIInsight(String analysisType, String userContext) {
+    public CompletableFuture<String> generateAIInsightAsync(String analysisType, String userContext) {
         log.info("Generating AI insight for analysis type: {}", analysisType);
-        if (!StringUtils.hasText(apiKey)) {
-            log.error("Gemini API key is not configured");
-            throw new IllegalStateException("Gemini API key is not configured.");
-        }
+        requireApiKey();
         if (!StringUtils.hasText(analysisType)) {
             log.error("Analysis type is empty");
             throw new IllegalArgumentException("Analysis type must not be empty.");
@@ -130,60 +134,16 @@ public class GeminiClient {
         String prompt = buildInsightPrompt(analysisType, userContext);
         log.debug("Generated insight prompt for type: {}", analysisType);
 
-        OpenRouterRequest requestPayload = new OpenRouterRequest(
-                MODEL_NAME,
-                List.of(new OpenRouterMessage("user", prompt))
-        );
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
-
-        HttpEntity<OpenRouterRequest> requestEntity = new HttpEntity<>(requestPayload, headers);
-
         log.debug("Sending AI insight request to OpenRouter API");
-        try {
-            ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(apiUrl, requestEntity, OpenRouterResponse.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.error("OpenRouter API returned non-success status: {}", response.getStatusCode());
-                throw new IllegalStateException("OpenRouter API returned status " + response.getStatusCode());
-            }
-
-            OpenRouterResponse responseBody = response.getBody();
-            if (responseBody == null) {
-                log.error("OpenRouter API returned empty response body");
-                throw new IllegalStateException("OpenRouter API returned no body.");
-            }
-
-            if (responseBody.getError() != null && StringUtils.hasText(responseBody.getError().getMessage())) {
-                log.error("OpenRouter API error: {}", responseBody.getError().getMessage());
-                throw new IllegalStateException("OpenRouter API error: " + responseBody.getError().getMessage());
-            }
-
-            String insight = responseBody.firstMessageContent()
-                    .map(String::trim)
-                    .filter(StringUtils::hasText)
-                    .orElseThrow(() -> {
-                        log.error("OpenRouter API response missing text content");
-                        return new IllegalStateException("OpenRouter API response missing text content.");
-                    });
-
-            log.info("AI insight generated successfully for analysis type: {}, length: {}",
-                    analysisType, insight.length());
-            return insight;
-        } catch (Exception ex) {
-            log.error("Error calling OpenRouter API for AI insight: {}", ex.getMessage(), ex);
-            throw ex;
-        }
+        return toFuture(complete(LlmOperation.INSIGHT, MODEL_NAME, prompt, null,
+                        List.of(new OpenRouterMessage("user", prompt)), Function.identity())
+                .doOnNext(insight -> log.info("AI insight generated successfully for analysis type: {}, length: {}",
+                        analysisType, insight.length())));
     }
 
-    public List<String> generateSuggestions(String suggestionType, String userGoal, String userContext) {
+    public CompletableFuture<List<String>> generateSuggestionsAsync(String suggestionType, String userGoal, String userContext) {
         log.info("Generating suggestions for type: {}, goal: {}", suggestionType, userGoal);
-        if (!StringUtils.hasText(apiKey)) {
-            log.error("Gemini API key is not configured");
-            throw new IllegalStateException("Gemini API key is not configured.");
-        }
+        requireApiKey();
         if (!StringUtils.hasText(suggestionType)) {
             log.error("Suggestion type is empty");
             throw new IllegalArgumentException("Suggestion type must not be empty.");
@@ -192,52 +152,10 @@ public class GeminiClient {
         String prompt = buildSuggestionPrompt(suggestionType, userGoal, userContext);
         log.debug("Generated suggestion prompt for type: {}", suggestionType);
 
-        OpenRouterRequest requestPayload = new OpenRouterRequest(
-                MODEL_NAME,
-                List.of(new OpenRouterMessage("user", prompt))
-        );
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
-
-        HttpEntity<OpenRouterRequest> requestEntity = new HttpEntity<>(requestPayload, headers);
-
         log.debug("Sending suggestions request to OpenRouter API");
-        try {
-            ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(apiUrl, requestEntity, OpenRouterResponse.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.error("OpenRouter API returned non-success status: {}", response.getStatusCode());
-                throw new IllegalStateException("OpenRouter API returned status " + response.getStatusCode());
-            }
-
-            OpenRouterResponse responseBody = response.getBody();
-            if (responseBody == null) {
-                log.error("OpenRouter API returned empty response body");
-                throw new IllegalStateException("OpenRouter API returned no body.");
-            }
-
-            if (responseBody.getError() != null && StringUtils.hasText(responseBody.getError().getMessage())) {
-                log.error("OpenRouter API error: {}", responseBody.getError().getMessage());
-                throw new IllegalStateException("OpenRouter API error: " + responseBody.getError().getMessage());
-            }
-
-            String content = responseBody.firstMessageContent()
-                    .map(String::trim)
-                    .filter(StringUtils::hasText)
-                    .orElseThrow(() -> {
-                        log.error("OpenRouter API response missing text content");
-                        return new IllegalStateException("OpenRouter API response missing text content.");
-                    });
-
-            List<String> suggestions = parseSuggestionsList(content);
-            log.info("Generated {} suggestions for type: {}", suggestions.size(), suggestionType);
-            return suggestions;
-        } catch (Exception ex) {
-            log.error("Error calling OpenRouter API for suggestions: {}", ex.getMessage(), ex);
-            throw ex;
-        }
+        return toFuture(complete(LlmOperation.SUGGESTIONS, MODEL_NAME, prompt, null,
+                        List.of(new OpenRouterMessage("user", prompt)), this::parseSuggestionsList)
+                .doOnNext(suggestions -> log.info("Generated {} suggestions for type: {}", suggestions.size(), suggestionType)));
     }
 
     private String buildInsightPrompt(String analysisType, String userContext) {
@@ -301,18 +219,15 @@ public class GeminiClient {
      *
      * @param imageUrl URL of the meal image (can be null if description provided)
      * @param description Text description of the meal (can be null if image provided)
-     * @return MealEstimation containing nutrition values
+     * @return MealEstimation containing nutrition values, once the model answers
      * @throws IllegalArgumentException if both imageUrl and description are empty
-     * @throws IllegalStateException if API call fails
+     * @throws IllegalStateException if the API key is missing; a failed call completes the future with one
      */
-    public MealEstimation estimateMeal(String imageUrl, String description) {
+    public CompletableFuture<MealEstimation> estimateMealAsync(String imageUrl, String description) {
         log.info("Estimating meal nutrition - hasImage: {}, hasDescription: {}",
                 StringUtils.hasText(imageUrl), StringUtils.hasText(description));
 
-        if (!StringUtils.hasText(apiKey)) {
-            log.error("Gemini API key is not configured");
-            throw new IllegalStateException("Gemini API key is not configured.");
-        }
+        requireApiKey();
 
         boolean hasImage = StringUtils.hasText(imageUrl);
         boolean hasDescription = StringUtils.hasText(description);
@@ -327,74 +242,125 @@ public class GeminiClient {
         log.debug("Built meal estimation prompt");
 
         // Build message content parts
-        List<ContentPart> contentParts = new java.util.ArrayList<>();
+        List<ContentPart> contentParts = new ArrayList<>();
         contentParts.add(MessageContent.text(prompt));
 
         if (hasImage) {
             contentParts.add(MessageContent.imageUrl(imageUrl));
-            log.debug("Added image URL to request: {}", imageUrl);
+            log.info("Sending image URL to Gemini AI: {}", imageUrl);
         }
 
-        OpenRouterMessage message = new OpenRouterMessage("user", contentParts);
-        OpenRouterRequest requestPayload = new OpenRouterRequest(MEAL_MODEL_NAME, List.of(message));
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+        log.debug("Sending meal estimation request to OpenRouter API, model: {}, content parts: {}",
+                MEAL_MODEL_NAME, contentParts.size());
+        return toFuture(complete(LlmOperation.MEAL_ESTIMATE, MEAL_MODEL_NAME, prompt, hasImage ? imageUrl : null,
+                        List.of(new OpenRouterMessage("user", contentParts)), payload -> readJson(payload, MealEstimation.class))
+                .doOnNext(estimation -> log.info("Meal estimation successful: {} calories, {}g protein, {}g carbs, {}g fat",
+                        estimation.getTotalCalories(), estimation.getProteinG(),
+                        estimation.getCarbsG(), estimation.getFatG())));
+    }
 
-        HttpEntity<OpenRouterRequest> requestEntity = new HttpEntity<>(requestPayload, headers);
+    @PreDestroy
+    void shutdown() {
+        connectionProvider.dispose();
+    }
 
-        log.debug("Sending meal estimation request to OpenRouter API");
-        log.debug("Model: {}", MEAL_MODEL_NAME);
-        log.debug("Content parts count: {}", contentParts.size());
-        if (hasImage) {
-            log.info("Sending image URL to Gemini AI: {}", imageUrl);
+    private void requireApiKey() {
+        if (!StringUtils.hasText(apiKey)) {
+            log.error("Gemini API key is not configured");
+            throw new IllegalStateException("Gemini API key is not configured.");
         }
-        try {
-            ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(apiUrl, requestEntity, OpenRouterResponse.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.error("OpenRouter API returned non-success status: {}", response.getStatusCode());
-                throw new IllegalStateException("OpenRouter API returned status " + response.getStatusCode());
-            }
+    }
 
-            OpenRouterResponse responseBody = response.getBody();
-            if (responseBody == null) {
-                log.error("OpenRouter API returned empty response body");
-                throw new IllegalStateException("OpenRouter API returned no body.");
-            }
+    /**
+     * A parsed answer, shared with any identical request already in flight
+     */
+    private <T> Mono<T> complete(LlmOperation operation, String model, String prompt, String imageUrl,
+                                 List<OpenRouterMessage> messages, Function<String, T> parser) {
+        String key = LlmResponseCache.key(model, prompt, imageUrl);
+        return singleFlight.execute(operation, key, () -> cachedOrCalled(operation, key, model, messages, parser));
+    }
 
-            if (responseBody.getError() != null && StringUtils.hasText(responseBody.getError().getMessage())) {
-                log.error("OpenRouter API error: {}", responseBody.getError().getMessage());
-                throw new IllegalStateException("OpenRouter API error: " + responseBody.getError().getMessage());
-            }
+    /**
+     * A parsed answer, from the response cache when the operation caches and the same request was answered before.
+     * Only content that parses is cached, so a malformed answer is asked for again next time. The cache may read
+     * and write Postgres, so it is consulted on a bounded-elastic thread rather than the event loop.
+     */
+    private <T> Mono<T> cachedOrCalled(LlmOperation operation, String key, String model,
+                                       List<OpenRouterMessage> messages, Function<String, T> parser) {
+        if (!responseCache.isEnabled(operation)) {
+            return chatCompletion(operation, model, messages).map(parser);
+        }
+        return Mono.fromCallable(() -> responseCache.get(operation, key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(cached -> cached
+                        .map(content -> {
+                            log.debug("Serving {} from the response cache", operation);
+                            return Mono.fromCallable(() -> parser.apply(content));
+                        })
+                        .orElseGet(() -> chatCompletion(operation, model, messages).flatMap(content -> {
+                            T parsed = parser.apply(content);
+                            return Mono.fromRunnable(() -> responseCache.put(operation, key, content))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .thenReturn(parsed);
+                        })));
+    }
 
-            String payload = responseBody.firstMessageContent()
-                    .map(String::trim)
-                    .filter(StringUtils::hasText)
-                    .orElseThrow(() -> {
-                        log.error("OpenRouter API response missing text content");
-                        return new IllegalStateException("OpenRouter API response missing text content.");
-                    });
+    /**
+     * One chat completion, resolving to the first non-blank message content
+     */
+    private Mono<String> chatCompletion(LlmOperation operation, String model, List<OpenRouterMessage> messages) {
+        return guard.execute(operation, () -> webClient.post()
+                        .uri(apiUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                        .bodyValue(new OpenRouterRequest(model, messages))
+                        .retrieve()
+                        .onStatus(status -> !status.is2xxSuccessful(), response -> {
+                            if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                                guard.onThrottled();
+                            }
+                            return response.releaseBody()
+                                    .then(Mono.fromSupplier(() -> new IllegalStateException("OpenRouter API returned status " + response.statusCode())));
+                        })
+                        .bodyToMono(OpenRouterResponse.class)
+                        .switchIfEmpty(Mono.error(() -> new IllegalStateException("OpenRouter API returned no body.")))
+                        .map(GeminiClient::contentOf))
+                .doOnNext(payload -> log.debug("OpenRouter raw response payload: {}", payload))
+                // Transport failures (refused connection, response timeout, pool exhausted) fail like API errors
+                .onErrorMap(ex -> !(ex instanceof IllegalStateException || ex instanceof TooManyRequestsException),
+                        ex -> new IllegalStateException("OpenRouter API request failed: " + describe(ex), ex))
+                .doOnError(ex -> log.error("Error calling OpenRouter API for {}: {}", operation, ex.getMessage(), ex));
+    }
 
-            log.debug("OpenRouter raw response payload: {}", payload);
+    private static String contentOf(OpenRouterResponse responseBody) {
+        if (responseBody.getError() != null && StringUtils.hasText(responseBody.getError().getMessage())) {
+            throw new IllegalStateException("OpenRouter API error: " + responseBody.getError().getMessage());
+        }
+        return responseBody.firstMessageContent()
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .orElseThrow(() -> new IllegalStateException("OpenRouter API response missing text content."));
+    }
 
-            String jsonPayload = extractJsonPayload(payload);
+    private static String describe(Throwable ex) {
+        // Timeouts arrive wrapped, with no message of their own
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        return Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getSimpleName());
+    }
 
-            MealEstimation estimation = objectMapper.readValue(jsonPayload, MealEstimation.class);
-            log.info("Meal estimation successful: {} calories, {}g protein, {}g carbs, {}g fat",
-                    estimation.getTotalCalories(), estimation.getProteinG(),
-                    estimation.getCarbsG(), estimation.getFatG());
-            return estimation;
+    private <T> T readJson(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(extractJsonPayload(payload), type);
         } catch (JsonProcessingException ex) {
-            log.error("Failed to parse OpenRouter response payload: {}", ex.getMessage(), ex);
             throw new IllegalStateException("Failed to parse OpenRouter response payload.", ex);
-        } catch (Exception ex) {
-            log.error("Error calling OpenRouter API for meal estimation: {}", ex.getMessage(), ex);
-            throw ex;
         }
     }
 
+    private static <T> CompletableFuture<T> toFuture(Mono<T> call) {
+        // Off the event loop before anyone's continuation runs
+        return call.publishOn(Schedulers.boundedElastic()).toFuture();
+    }
+
     /**
      * Builds the prompt for meal estimation based on available inputs.
      */
@@ -0,0 +1,239 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmCachedResponse;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.LlmCachedResponseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache of OpenRouter answers, keyed by a hash of (model, normalized prompt, image URL).
+ * A bounded in-memory tier sits in front of an optional Postgres tier that survives restarts. Each operation
+ * has its own TTL, and a zero TTL turns caching off for it (insights, where freshness matters more than cost).
+ * The Postgres tier is best effort: a failed read is a miss and a failed write is logged, never thrown.
+ * {@link #get} and {@link #put} may touch the database, so call them off the event loop.
+ * Lookups and writes per operation are published as llm.cache.* meters.
+ */
+@Slf4j
+@Component
+public class LlmResponseCache implements MeterBinder {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<String, Entry> memory;
+    private final LlmCachedResponseRepository repository;
+    private final boolean persistent;
+    private final Map<LlmOperation, Duration> ttls;
+    private final Map<LlmOperation, Counters> counters = new EnumMap<>(LlmOperation.class);
+    private final Clock clock;
+
+    @Autowired
+    public LlmResponseCache(LlmCachedResponseRepository repository,
+                            @Value("${app.llm-cache.max-entries:10000}") long maxEntries,
+                            @Value("${app.llm-cache.persistent:true}") boolean persistent,
+                            @Value("${app.llm-cache.workout-estimate-ttl:P7D}") Duration workoutEstimateTtl,
+                            @Value("${app.llm-cache.meal-estimate-ttl:P1D}") Duration mealEstimateTtl,
+                            @Value("${app.llm-cache.insight-ttl:PT0S}") Duration insightTtl,
+                            @Value("${app.llm-cache.suggestions-ttl:PT0S}") Duration suggestionsTtl) {
+        this(repository, maxEntries, persistent, Map.of(
+            LlmOperation.WORKOUT_ESTIMATE, workoutEstimateTtl,
+            LlmOperation.MEAL_ESTIMATE, mealEstimateTtl,
+            LlmOperation.INSIGHT, insightTtl,
+            LlmOperation.SUGGESTIONS, suggestionsTtl), Clock.systemUTC());
+    }
+
+    LlmResponseCache(LlmCachedResponseRepository repository, long maxEntries, boolean persistent,
+                     Map<LlmOperation, Duration> ttls, Clock clock) {
+        this.repository = repository;
+        this.persistent = persistent;
+        this.ttls = new EnumMap<>(ttls);
+        this.clock = clock;
+        for (LlmOperation operation : LlmOperation.values()) {
+            counters.put(operation, new Counters());
+        }
+        this.memory = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(Expiry.creating((String key, Entry entry) -> entry.remaining(clock.instant())))
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * The cache key for a call: identical requests hash alike however their prompt is spaced or cased
+     */
+    public static String key(String model, String prompt, String imageUrl) {
+        String normalizedPrompt = prompt == null ? "" : WHITESPACE.matcher(prompt.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        // Image URLs are case-sensitive, so only trimmed
+        String material = model + '\u0000' + normalizedPrompt + '\u0000' + (imageUrl == null ? "" : imageUrl.trim());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public boolean isEnabled(LlmOperation operation) {
+        Duration ttl = ttls.get(operation);
+        return ttl != null && ttl.compareTo(Duration.ZERO) > 0;
+    }
+
+    /**
+     * The unexpired answer for the key, from memory or else from Postgres (which then warms memory)
+     */
+    public Optional<String> get(LlmOperation operation, String key) {
+        if (!isEnabled(operation)) {
+            return Optional.empty();
+        }
+        Counters operationCounters = counters.get(operation);
+        Instant now = clock.instant();
+
+        Entry entry = memory.getIfPresent(key);
+        if (entry != null && entry.expiresAt.isAfter(now)) {
+            operationCounters.memoryHits.increment();
+            return Optional.of(entry.content);
+        }
+
+        if (persistent) {
+            try {
+                Optional<LlmCachedResponse> stored = repository.findByCacheKeyAndExpiresAtAfter(key, now);
+                if (stored.isPresent()) {
+                    memory.put(key, new Entry(stored.get().getContent(), stored.get().getExpiresAt()));
+                    operationCounters.persistentHits.increment();
+                    return Optional.of(stored.get().getContent());
+                }
+            } catch (DataAccessException e) {
+                log.warn("LLM cache lookup failed for {}, calling the model instead: {}", operation, e.getMessage());
+            }
+        }
+
+        operationCounters.misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Remember an answer for the operation's TTL; callers store only answers they could parse
+     */
+    public void put(LlmOperation operation, String key, String content) {
+        if (!isEnabled(operation)) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttls.get(operation));
+        memory.put(key, new Entry(content, expiresAt));
+        counters.get(operation).writes.increment();
+
+        if (persistent) {
+            try {
+                repository.upsert(key, operation.name(), content, now, expiresAt);
+            } catch (DataAccessException e) {
+                log.warn("Could not persist LLM cache entry for {}: {}", operation, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.llm-cache.purge.initial-delay:PT15M}",
+               fixedDelayString = "${app.llm-cache.purge.interval:PT6H}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            int purged = repository.deleteExpiredBefore(clock.instant());
+            if (purged > 0) {
+                log.info("Purged {} expired LLM cache entries", purged);
+            }
+        } catch (RuntimeException e) {
+            // Logged rather than rethrown so the next scheduled run still happens
+            log.error("LLM cache purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counters.forEach((operation, operationCounters) -> {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            lookups(registry, name, "memory_hit", operationCounters.memoryHits);
+            lookups(registry, name, "persistent_hit", operationCounters.persistentHits);
+            lookups(registry, name, "miss", operationCounters.misses);
+            FunctionCounter.builder("llm.cache.puts", operationCounters.writes, LongAdder::sum)
+                .description("Parsed OpenRouter answers stored in the cache")
+                .tag("operation", name)
+                .register(registry);
+        });
+        FunctionCounter.builder("llm.cache.evictions", memory, cache -> cache.stats().evictionCount())
+            .description("Answers dropped from the in-memory tier for size")
+            .register(registry);
+        Gauge.builder("llm.cache.size", memory, Cache::estimatedSize)
+            .description("Answers held in the in-memory tier")
+            .register(registry);
+    }
+
+    private static void lookups(MeterRegistry registry, String operation, String result, LongAdder counter) {
+        FunctionCounter.builder("llm.cache.gets", counter, LongAdder::sum)
+            .description("Cache lookups for OpenRouter answers, by where the answer was found")
+            .tags("operation", operation, "result", result)
+            .register(registry);
+    }
+
+    public Stats stats() {
+        Map<LlmOperation, OperationStats> operations = new EnumMap<>(LlmOperation.class);
+        counters.forEach((operation, operationCounters) -> operations.put(operation, new OperationStats(
+            isEnabled(operation),
+            operationCounters.memoryHits.sum(),
+            operationCounters.persistentHits.sum(),
+            operationCounters.misses.sum(),
+            operationCounters.writes.sum())));
+        return new Stats(operations, memory.stats().evictionCount(), memory.estimatedSize());
+    }
+
+    private record Entry(String content, Instant expiresAt) {
+        Duration remaining(Instant now) {
+            Duration remaining = Duration.between(now, expiresAt);
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder memoryHits = new LongAdder();
+        private final LongAdder persistentHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+    }
+
+    public record Stats(Map<LlmOperation, OperationStats> operations, long evictions, long cachedEntries) {
+    }
+
+    public record OperationStats(boolean enabled, long memoryHits, long persistentHits, long misses, long writes) {
+        public double hitRate() {
+            long hits = memoryHits + persistentHits;
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps an OpenRouter slowdown from spreading. Each call passes, in order, a circuit breaker that fails fast
+ * while the provider is erroring, a per-operation bulkhead so one kind of call cannot take every slot, and a
+ * token bucket that keeps us within the provider's quota. Refusals from the bulkhead or the bucket are
+ * {@link TooManyRequestsException}; an open circuit is an IllegalStateException, like any failed call, so
+ * callers with a fallback (insights, suggestions) use it straight away.
+ * The state of all three is published as llm.circuit_breaker.*, llm.bulkhead.* and llm.rate_limit.* meters.
+ */
+@Component
+public class OpenRouterGuard implements MeterBinder {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Map<LlmOperation, Bulkhead> bulkheads = new EnumMap<>(LlmOperation.class);
+    private final TokenBucket rateLimiter;
+
+    @Autowired
+    public OpenRouterGuard(@Value("${gemini.bulkhead.workout-estimate:20}") int workoutEstimateConcurrency,
+                           @Value("${gemini.bulkhead.meal-estimate:20}") int mealEstimateConcurrency,
+                           @Value("${gemini.bulkhead.insight:10}") int insightConcurrency,
+                           @Value("${gemini.bulkhead.suggestions:10}") int suggestionsConcurrency,
+                           @Value("${gemini.bulkhead.queue-capacity:50}") int queueCapacity,
+                           @Value("${gemini.bulkhead.max-wait:PT10S}") Duration maxQueueWait,
+                           @Value("${gemini.rate-limit.requests-per-minute:300}") int requestsPerMinute,
+                           @Value("${gemini.rate-limit.burst:30}") int burst,
+                           @Value("${gemini.rate-limit.max-wait:PT5S}") Duration maxRateLimitWait,
+                           @Value("${gemini.circuit-breaker.window-size:20}") int windowSize,
+                           @Value("${gemini.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                           @Value("${gemini.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                           @Value("${gemini.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this(Map.of(
+                LlmOperation.WORKOUT_ESTIMATE, workoutEstimateConcurrency,
+                LlmOperation.MEAL_ESTIMATE, mealEstimateConcurrency,
+                LlmOperation.INSIGHT, insightConcurrency,
+                LlmOperation.SUGGESTIONS, suggestionsConcurrency),
+            queueCapacity, maxQueueWait,
+            new TokenBucket(requestsPerMinute, burst, maxRateLimitWait, System::nanoTime),
+            new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openDuration, System::nanoTime));
+    }
+
+    OpenRouterGuard(Map<LlmOperation, Integer> concurrency, int queueCapacity, Duration maxQueueWait,
+                    TokenBucket rateLimiter, CircuitBreaker circuitBreaker) {
+        for (LlmOperation operation : LlmOperation.values()) {
+            bulkheads.put(operation, new Bulkhead(operation.name().toLowerCase(Locale.ROOT).replace('_', ' '),
+                concurrency.get(operation), queueCapacity, maxQueueWait));
+        }
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public <T> Mono<T> execute(LlmOperation operation, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new IllegalStateException("OpenRouter is failing, not calling it for now"));
+            }
+            return bulkheads.get(operation).execute(() -> rateLimiter.acquire().then(Mono.defer(call)))
+                .doOnSuccess(result -> {
+                    circuitBreaker.onSuccess();
+                    rateLimiter.onSuccess();
+                })
+                .doOnError(error -> {
+                    if (error instanceof TooManyRequestsException) {
+                        // Refused here, so the provider was never asked
+                        circuitBreaker.onCancel();
+                    } else {
+                        circuitBreaker.onFailure();
+                    }
+                })
+                .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * The provider answered 429
+     */
+    public void onThrottled() {
+        rateLimiter.onThrottled();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        circuitBreaker.bindTo(registry);
+        bulkheads.forEach((operation, bulkhead) ->
+            bulkhead.bindTo(registry, Tags.of("operation", operation.name().toLowerCase(Locale.ROOT))));
+        rateLimiter.bindTo(registry);
+    }
+
+    public Stats stats() {
+        Map<LlmOperation, Bulkhead.Stats> bulkheadStats = new EnumMap<>(LlmOperation.class);
+        bulkheads.forEach((operation, bulkhead) -> bulkheadStats.put(operation, bulkhead.stats()));
+        return new Stats(circuitBreaker.stats(), bulkheadStats, rateLimiter.stats());
+    }
+
+    public record Stats(CircuitBreaker.Stats circuitBreaker, Map<LlmOperation, Bulkhead.Stats> bulkheads,
+                        TokenBucket.Stats rateLimiter) {
+    }
+}
@@ -0,0 +1,116 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical OpenRouter requests: while a call for a key is in flight, later callers with
+ * the same key wait on it instead of starting their own, and every caller gets the same parsed result or error.
+ * A key is released as soon as its call settles, so this never serves stale answers; {@link LlmResponseCache}
+ * is what remembers them. The shared call runs to completion even if the caller that started it goes away.
+ * Calls and coalesced callers per operation are published as llm.single_flight.* meters.
+ */
+@Slf4j
+@Component
+public class SingleFlight implements MeterBinder {
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<LlmOperation, Counters> counters = new EnumMap<>(LlmOperation.class);
+
+    public SingleFlight() {
+        for (LlmOperation operation : LlmOperation.values()) {
+            counters.put(operation, new Counters());
+        }
+    }
+
+    /**
+     * The result of the call in flight for the key, starting it with {@code call} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(LlmOperation operation, String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            FlightKey flightKey = new FlightKey(operation, key);
+            CompletableFuture<Object> started = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, started);
+            if (existing != null) {
+                counters.get(operation).coalesced.increment();
+                log.debug("Joining the {} call already in flight", operation);
+                return Mono.fromFuture((CompletableFuture<T>) existing, true);
+            }
+
+            counters.get(operation).calls.increment();
+            // Subscribed here rather than by the caller, so one caller cancelling does not cancel the others
+            Mono.defer(call).subscribe(
+                result -> settle(flightKey, started).complete(result),
+                error -> settle(flightKey, started).completeExceptionally(error),
+                () -> settle(flightKey, started).complete(null));
+            return Mono.fromFuture((CompletableFuture<T>) started, true);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counters.forEach((operation, operationCounters) -> {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder("llm.single_flight.calls", operationCounters.calls, LongAdder::sum)
+                .description("OpenRouter calls started")
+                .tag("operation", name)
+                .register(registry);
+            FunctionCounter.builder("llm.single_flight.coalesced", operationCounters.coalesced, LongAdder::sum)
+                .description("Callers that joined a call already in flight instead of starting their own")
+                .tag("operation", name)
+                .register(registry);
+        });
+        Gauge.builder("llm.single_flight.in_flight", inFlight, Map::size)
+            .description("Distinct OpenRouter calls in flight")
+            .register(registry);
+    }
+
+    public Stats stats() {
+        Map<LlmOperation, OperationStats> operations = new EnumMap<>(LlmOperation.class);
+        counters.forEach((operation, operationCounters) -> operations.put(operation,
+            new OperationStats(operationCounters.calls.sum(), operationCounters.coalesced.sum())));
+        return new Stats(operations, inFlight.size());
+    }
+
+    private CompletableFuture<Object> settle(FlightKey flightKey, CompletableFuture<Object> started) {
+        // Released before waiters are completed, so a caller reacting to the result starts a fresh call
+        inFlight.remove(flightKey, started);
+        return started;
+    }
+
+    private record FlightKey(LlmOperation operation, String key) {
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+
+    public record Stats(Map<LlmOperation, OperationStats> operations, int inFlight) {
+    }
+
+    /**
+     * Upstream calls started, and callers that shared one instead of starting their own
+     */
+    public record OperationStats(long calls, long coalesced) {
+        public double coalescedRate() {
+            long requests = calls + coalesced;
+            return requests == 0 ? 0.0 : (double) coalesced / requests;
+        }
+    }
+}
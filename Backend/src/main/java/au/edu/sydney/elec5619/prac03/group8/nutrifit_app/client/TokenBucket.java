@@ -0,0 +1,145 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket matching the provider's request quota: a call takes a token, waiting (without a
+ * thread) for the next one when the bucket is empty. A call that would wait longer than {@code maxWait} is
+ * refused with {@link TooManyRequestsException} instead of being queued behind the quota.
+ * The rate adapts: each 429 from the provider halves it, and successful calls win it back a step at a time.
+ */
+@Slf4j
+public final class TokenBucket implements MeterBinder {
+
+    private static final double MIN_RATE_FACTOR = 0.125;
+    private static final double RECOVERY_STEP = 0.05;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    private double rateFactor = 1.0;
+    private double tokens;
+    private long refilledAt;
+
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public TokenBucket(int requestsPerMinute, int burst, Duration maxWait, LongSupplier nanoClock) {
+        this.capacity = burst;
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Completes once the call may go ahead
+     */
+    public Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            long waitNanos = reserve();
+            if (waitNanos < 0) {
+                rejected.increment();
+                Duration retryAfter = Duration.ofNanos(-waitNanos);
+                log.warn("OpenRouter rate limit reached, next request slot in {}", retryAfter);
+                return Mono.error(new TooManyRequestsException("AI requests are rate limited, please try again shortly",
+                    retryAfter));
+            }
+            if (waitNanos == 0) {
+                return Mono.empty();
+            }
+            delayed.increment();
+            return Mono.delay(Duration.ofNanos(waitNanos)).then();
+        });
+    }
+
+    /**
+     * The provider answered 429: slow down, and spend what is left in the bucket
+     */
+    public synchronized void onThrottled() {
+        refill();
+        throttled.increment();
+        rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+        tokens = Math.min(tokens, 0);
+        log.warn("OpenRouter throttled us, request rate cut to {} of the quota", rateFactor);
+    }
+
+    public synchronized void onSuccess() {
+        if (rateFactor < 1.0) {
+            refill();
+            rateFactor = Math.min(1.0, rateFactor + RECOVERY_STEP);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("llm.rate_limit.tokens", this, bucket -> bucket.stats().availableTokens())
+            .description("Tokens left in the bucket; negative when callers are waiting on the refill")
+            .register(registry);
+        Gauge.builder("llm.rate_limit.requests_per_minute", this, bucket -> bucket.stats().requestsPerMinute())
+            .description("Current request rate, reduced after the provider throttles us")
+            .register(registry);
+        FunctionCounter.builder("llm.rate_limit.delayed", delayed, LongAdder::sum)
+            .description("Calls that waited for a token")
+            .register(registry);
+        FunctionCounter.builder("llm.rate_limit.rejected", rejected, LongAdder::sum)
+            .description("Calls refused because the wait for a token was too long")
+            .register(registry);
+        FunctionCounter.builder("llm.rate_limit.throttled", throttled, LongAdder::sum)
+            .description("429 answers from the provider")
+            .register(registry);
+    }
+
+    public synchronized Stats stats() {
+        refill();
+        return new Stats(tokens, capacity, rateFactor * tokensPerNano * TimeUnit.MINUTES.toNanos(1),
+            delayed.sum(), rejected.sum(), throttled.sum());
+    }
+
+    /**
+     * Takes a token and returns how long to wait for it, or, when that is longer than allowed, takes nothing
+     * and returns the wait negated
+     */
+    private synchronized long reserve() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / (tokensPerNano * rateFactor));
+        if (waitNanos > maxWaitNanos) {
+            return -waitNanos;
+        }
+        // Borrowed against the refill, so later callers queue behind this one
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano * rateFactor);
+        refilledAt = now;
+    }
+
+    /**
+     * @param requestsPerMinute the current, possibly reduced, rate
+     */
+    public record Stats(double availableTokens, double capacity, double requestsPerMinute,
+                        long delayed, long rejected, long throttled) {
+    }
+}
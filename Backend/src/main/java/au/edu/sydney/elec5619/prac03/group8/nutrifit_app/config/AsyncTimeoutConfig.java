@@ -0,0 +1,48 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets a handler give its async response a timeout other than spring.mvc.async.request-timeout.
+ * A StreamingResponseBody has no timeout of its own, so without this a long download is cut off at the
+ * limit meant for the AI endpoints.
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeout";
+
+    /**
+     * Use {@code timeout} for the async processing the current handler starts, typically a StreamingResponseBody
+     */
+    public static void overrideTimeout(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new TimeoutOverride());
+    }
+
+    static final class TimeoutOverride implements CallableProcessingInterceptor {
+
+        // Runs after the default timeout is set and before the async request starts, which is when it takes effect
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest asyncRequest
+                && request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Duration timeout) {
+                asyncRequest.setTimeout(timeout.toMillis());
+            }
+        }
+    }
+}
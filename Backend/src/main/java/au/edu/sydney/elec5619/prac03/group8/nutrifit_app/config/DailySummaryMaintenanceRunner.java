@@ -0,0 +1,53 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Backfill and consistency commands for the daily summary rollup.
+ * Run the app with --rebuild-daily-summaries (all users) or --rebuild-daily-summaries=42 (one user)
+ * to recompute rows from the raw tables, and --check-daily-summaries[=42] to report drift without writing.
+ */
+@Slf4j
+@Configuration
+public class DailySummaryMaintenanceRunner {
+
+    static final String REBUILD_OPTION = "rebuild-daily-summaries";
+    static final String CHECK_OPTION = "check-daily-summaries";
+
+    @Bean
+    ApplicationRunner dailySummaryMaintenance(DailySummaryService dailySummaryService) {
+        return args -> {
+            if (args.containsOption(REBUILD_OPTION)) {
+                for (Long userId : targetUsers(args, REBUILD_OPTION, dailySummaryService)) {
+                    dailySummaryService.rebuildForUser(userId);
+                }
+            }
+            if (args.containsOption(CHECK_OPTION)) {
+                for (Long userId : targetUsers(args, CHECK_OPTION, dailySummaryService)) {
+                    DailySummaryService.ConsistencyReport report = dailySummaryService.checkConsistency(userId);
+                    if (report.isConsistent()) {
+                        log.info("Daily summaries for user {} match the raw tables ({} days)", userId, report.checkedDays());
+                    } else {
+                        report.mismatches().forEach(m -> log.warn("Daily summary drift for user {} on {}: {} expected {} but was {}",
+                            userId, m.day(), m.column(), m.expected(), m.actual()));
+                    }
+                }
+            }
+        };
+    }
+
+    private List<Long> targetUsers(ApplicationArguments args, String option, DailySummaryService dailySummaryService) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.isEmpty()) {
+            return dailySummaryService.findAllUserIds();
+        }
+        return values.stream().map(Long::valueOf).toList();
+    }
+}
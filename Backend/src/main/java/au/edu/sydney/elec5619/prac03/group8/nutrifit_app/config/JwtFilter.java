@@ -1,7 +1,9 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.user.UserPrincipal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.JWTService;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.MyUserDetailService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 @Slf4j
 @Component
@@ -42,13 +45,15 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String requestUri = request.getRequestURI();
         String authHeader = request.getHeader("Authorization");
-        String token = null;
+        Claims claims = null;
         String uuid = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+            String token = authHeader.substring(7);
             try {
-                uuid = jwtService.extractUuid(token);
+                // Verified once here; validation below reuses the claims
+                claims = jwtService.extractAllClaims(token);
+                uuid = claims.getSubject();
                 log.debug("JWT filter processing request to {} for UUID: {}", requestUri, uuid);
             } catch (Exception e) {
                 log.warn("⚠️ 401 Unauthorized - Invalid token format for request: {} from IP: {}",
@@ -60,8 +65,12 @@ public class JwtFilter extends OncePerRequestFilter {
 
         if (uuid != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = context.getBean(MyUserDetailService.class).loadUserByUsername(uuid);
-                if (jwtService.validateToken(token, userDetails)) {
+                Long userId = jwtService.extractUserId(claims);
+                // Tokens carrying the user id authenticate without a lookup; older tokens load the user
+                UserDetails userDetails = userId != null
+                        ? new UserPrincipal(UUID.fromString(uuid), userId)
+                        : context.getBean(MyUserDetailService.class).loadUserByUsername(uuid);
+                if (jwtService.validateClaims(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetails(request));
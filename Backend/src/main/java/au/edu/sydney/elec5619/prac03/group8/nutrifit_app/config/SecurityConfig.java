@@ -1,5 +1,7 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.PasswordHasher;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -7,8 +9,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -34,7 +37,10 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(auth -> auth
+                        // Async results are written on a second dispatch the JWT filter skips; the first was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers(request -> request.getMethod().equals("OPTIONS")).permitAll()
                         .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults())
@@ -91,14 +97,14 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationManager authenticationManager(
-            HttpSecurity http,
-            BCryptPasswordEncoder passwordEncoder,
-            UserDetailsService userDetailsService) throws Exception {
+            PasswordHasher passwordHasher,
+            UserDetailsService userDetailsService) {
 
-        AuthenticationManagerBuilder authBuilder =
-                http.getSharedObject(AuthenticationManagerBuilder.class);
-        authBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        // Password checks run on the bounded hashing pool rather than the request thread
+        provider.setPasswordEncoder(passwordHasher);
 
-        return authBuilder.build();
+        // No parent manager, so a wrong password is checked once rather than again by the global fallback
+        return new ProviderManager(provider);
     }
 }
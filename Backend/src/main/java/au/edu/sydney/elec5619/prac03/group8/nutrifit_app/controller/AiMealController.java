@@ -2,16 +2,20 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.ErrorResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.AiMealEstimationRequestDTO;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.AiMealEstimationResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.AiMealService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Controller for AI-powered meal estimation.
  * Handles image upload and nutrition estimation requests.
@@ -40,6 +44,7 @@ public class AiMealController {
      * - save (Boolean, optional): Whether to save the meal (default: true)
      *
      * At least one of image or description must be provided.
+     * Async: the request thread is released while the model answers.
      *
      * @param image Optional image file
      * @param description Optional text description
@@ -48,7 +53,7 @@ public class AiMealController {
      * @return Response with nutrition estimates
      */
     @PostMapping(value = "/estimate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> estimateMeal(
+    public CompletableFuture<ResponseEntity<?>> estimateMeal(
             @RequestParam(value = "image", required = false) MultipartFile image,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "role") String role,
@@ -67,31 +72,45 @@ public class AiMealController {
             // Validate request
             if (!request.hasValidInput() && (image == null || image.isEmpty())) {
                 logger.warn("Invalid request: no image or description provided");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(new ErrorResponseDTO("INVALID_REQUEST",
-                                "At least one of image or description must be provided"));
+                                "At least one of image or description must be provided")));
             }
 
             // Call service
-            AiMealEstimationResponseDTO response = aiMealService.estimateMeal(image, request);
-
-            logger.info("AI meal estimation successful - mealId: {}, calories: {}",
-                    response.getMealId(), response.getTotalCalories());
+            return aiMealService.estimateMeal(image, request)
+                    .<ResponseEntity<?>>thenApply(response -> {
+                        logger.info("AI meal estimation successful - mealId: {}, calories: {}",
+                                response.getMealId(), response.getTotalCalories());
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(this::errorResponse);
 
-            return ResponseEntity.ok(response);
+        } catch (Exception ex) {
+            return CompletableFuture.completedFuture(errorResponse(ex));
+        }
+    }
 
-        } catch (IllegalArgumentException ex) {
+    private ResponseEntity<?> errorResponse(Throwable error) {
+        Throwable ex = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (ex instanceof IllegalArgumentException) {
             logger.error("Bad request for AI meal estimation: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponseDTO("INVALID_REQUEST", ex.getMessage()));
 
-        } catch (IllegalStateException ex) {
+        } else if (ex instanceof TooManyRequestsException tooMany) {
+            logger.warn("AI meal estimation refused: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .body(new ErrorResponseDTO("TOO_MANY_REQUESTS", ex.getMessage()));
+
+        } else if (ex instanceof IllegalStateException) {
             logger.error("Internal error during AI meal estimation: {}", ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponseDTO("SERVICE_ERROR",
                             "AI meal estimation failed: " + ex.getMessage()));
 
-        } catch (Exception ex) {
+        } else {
             logger.error("Unexpected error during AI meal estimation: {}", ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponseDTO("SERVICE_ERROR",
@@ -2,7 +2,11 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.AiWorkoutRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.AiWorkoutResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.AiWorkoutService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,23 +24,44 @@ public class AiWorkoutController {
         this.aiWorkoutService = aiWorkoutService;
     }
 
+    /**
+     * Async: the request thread is released while the model answers
+     */
     @PostMapping
-    public ResponseEntity<AiWorkoutResponseDto> estimateCalories(@RequestBody AiWorkoutRequestDto request) {
+    public CompletableFuture<ResponseEntity<AiWorkoutResponseDto>> estimateCalories(@RequestBody AiWorkoutRequestDto request) {
         try {
-            AiWorkoutResponseDto response = aiWorkoutService.estimateWorkout(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException ex) {
+            return aiWorkoutService.estimateWorkout(request)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(this::errorResponse);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.completedFuture(errorResponse(ex));
+        }
+    }
+
+    private ResponseEntity<AiWorkoutResponseDto> errorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(AiWorkoutResponseDto.builder()
                             .success(false)
-                            .message(ex.getMessage())
+                            .message(cause.getMessage())
+                            .build());
+        }
+        if (cause instanceof TooManyRequestsException tooMany) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .body(AiWorkoutResponseDto.builder()
+                            .success(false)
+                            .message(cause.getMessage())
                             .build());
-        } catch (IllegalStateException ex) {
+        }
+        if (cause instanceof IllegalStateException) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(AiWorkoutResponseDto.builder()
                             .success(false)
-                            .message(ex.getMessage())
+                            .message(cause.getMessage())
                             .build());
         }
+        throw error instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
     }
 }
@@ -9,11 +9,14 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.ResetPasswo
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.AuthResponseDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.EmailVerificationResponseDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.PasswordResetResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.AuthService;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,10 +33,11 @@ public class AuthController {
     private final PasswordResetService passwordResetService;
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponseDto> register(@Valid @RequestBody RegisterRequestDto request) {
+    public ResponseEntity<AuthResponseDto> register(@Valid @RequestBody RegisterRequestDto request,
+                                                    HttpServletRequest httpRequest) {
         log.info("Registration request received for email: {}", request.getEmail());
         try {
-            AuthResponseDto response = authService.register(request);
+            AuthResponseDto response = authService.register(request, httpRequest.getRemoteAddr());
             if (response.isSuccess()) {
                 log.info("User registered successfully: {}", request.getEmail());
                 return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -41,6 +45,13 @@ public class AuthController {
                 log.warn("Registration failed for email {}: {}", request.getEmail(), response.getMessage());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
+        } catch (TooManyRequestsException e) {
+            log.warn("Registration throttled for email {}: {}", request.getEmail(), e.getMessage());
+            return tooManyRequests(e)
+                    .body(AuthResponseDto.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (IllegalArgumentException e) {
             log.error("Registration validation error for email {}: {}", request.getEmail(), e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -59,10 +70,11 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginRequestDto request) {
+    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginRequestDto request,
+                                                 HttpServletRequest httpRequest) {
         log.info("Login request received for email: {}", request.getEmail());
         try {
-            AuthResponseDto response = authService.login(request);
+            AuthResponseDto response = authService.login(request, httpRequest.getRemoteAddr());
             if (response.isSuccess()) {
                 log.info("User logged in successfully: {}", request.getEmail());
                 return ResponseEntity.ok(response);
@@ -70,6 +82,13 @@ public class AuthController {
                 log.warn("Login failed for email {}: {}", request.getEmail(), response.getMessage());
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
+        } catch (TooManyRequestsException e) {
+            log.warn("Login throttled for email {}: {}", request.getEmail(), e.getMessage());
+            return tooManyRequests(e)
+                    .body(AuthResponseDto.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             log.error("Unexpected error during login for email {}: {}", request.getEmail(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -156,12 +175,14 @@ public class AuthController {
 
     @PostMapping("/reset-password")
     public ResponseEntity<PasswordResetResponseDto> resetPassword(
-            @Valid @RequestBody ResetPasswordRequestDto request) {
+            @Valid @RequestBody ResetPasswordRequestDto request,
+            HttpServletRequest httpRequest) {
         log.info("Reset password request received");
         try {
             PasswordResetResponseDto response = passwordResetService.resetPassword(
                     request.getToken(),
-                    request.getNewPassword()
+                    request.getNewPassword(),
+                    httpRequest.getRemoteAddr()
             );
 
             if (response.isSuccess()) {
@@ -171,6 +192,13 @@ public class AuthController {
                 log.warn("Password reset failed: {}", response.getMessage());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
+        } catch (TooManyRequestsException e) {
+            log.warn("Password reset throttled: {}", e.getMessage());
+            return tooManyRequests(e)
+                    .body(PasswordResetResponseDto.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             log.error("Unexpected error during password reset: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -180,4 +208,9 @@ public class AuthController {
                             .build());
         }
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity.BodyBuilder tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
+}
@@ -5,10 +5,16 @@ import org.springframework.web.bind.annotation.RestController;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.CreateInsightRequestDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.SuggestionRequestDTO;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.SuggestionResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.InsightJobResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.AIInsightService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.InsightJobService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,16 +23,29 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/homepage/ai-insights")
 public class AIInsightsController {
     @Autowired
     private AIInsightService aiInsightService;
+
+    @Autowired
+    private InsightJobService insightJobService;
+
+    @Value("${app.insight-jobs.events-timeout:PT2M}")
+    private Duration eventsTimeout;
     
     /**
      * Get latest personalized recommendations
@@ -55,21 +74,62 @@ public class AIInsightsController {
     /**
      * Trigger new AI analysis
      * Serves: AIInsights component when user requests new analysis
+     * Queues a job and answers 202 straight away; poll statusUrl or subscribe to eventsUrl for the insight
      */
     @PostMapping("/generate")
     public ResponseEntity<Map<String, Object>> generateInsight(@RequestBody CreateInsightRequestDTO request) {
         try {
-            AIInsightDTO newInsight = aiInsightService.generateInsight(request);
-            
-            return ResponseEntity.ok(Map.of(
-                "insight", newInsight,
-                "message", "New AI insight generated successfully"
-            ));
-            
+            InsightJobResponseDTO job = insightJobService.enqueue(request);
+            String statusUrl = "/api/homepage/ai-insights/jobs/" + job.jobId();
+
+            return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .body(Map.of(
+                    "job", job,
+                    "statusUrl", statusUrl,
+                    "eventsUrl", statusUrl + "/events",
+                    "message", "AI insight generation started"
+                ));
+
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to generate insight: " + e.getMessage()));
+            return errorResponse("Failed to generate insight: ", e);
+        }
+    }
+
+    /**
+     * Poll an insight job; once SUCCEEDED it carries the insight
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getInsightJob(@PathVariable String jobId) {
+        return insightJobService.getJob(jobId)
+            .map(job -> ResponseEntity.ok(Map.<String, Object>of("job", job)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Insight job not found")));
+    }
+
+    /**
+     * Server-sent events for an insight job: a "status" event with the job now, and another when it finishes
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamInsightJob(@PathVariable String jobId) {
+        Optional<InsightJobResponseDTO> job = insightJobService.getJob(jobId);
+        Optional<CompletableFuture<InsightJobResponseDTO>> finished = insightJobService.whenFinished(jobId);
+        if (job.isEmpty() || finished.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        // Stop listening once the client goes away or the stream times out
+        emitter.onCompletion(() -> finished.get().cancel(false));
+        sendStatus(emitter, job.get());
+        if (!job.get().status().isTerminal()) {
+            finished.get().thenAccept(done -> sendStatus(emitter, done));
+        }
+        return ResponseEntity.ok(emitter);
     }
     
     /**
@@ -99,19 +159,18 @@ public class AIInsightsController {
      * Serves: Both AIInsights and AIInsightModal when user wants specific suggestions
      */
     @PostMapping("/suggestions")
-    public ResponseEntity<Map<String, Object>> generateSuggestions(@RequestBody SuggestionRequestDTO request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> generateSuggestions(@RequestBody SuggestionRequestDTO request) {
         try {
-            SuggestionResponseDTO suggestions = aiInsightService.generateSuggestions(request);
-            
-            return ResponseEntity.ok(Map.of(
-                "suggestions", suggestions,
-                "timestamp", java.time.LocalDateTime.now(),
-                "requestId", java.util.UUID.randomUUID().toString()
-            ));
+            return aiInsightService.generateSuggestions(request)
+                .thenApply(suggestions -> ResponseEntity.ok(Map.<String, Object>of(
+                    "suggestions", suggestions,
+                    "timestamp", java.time.LocalDateTime.now(),
+                    "requestId", java.util.UUID.randomUUID().toString()
+                )))
+                .exceptionally(e -> errorResponse("Failed to generate suggestions: ", e));
             
         } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to generate suggestions: " + e.getMessage()));
+            return CompletableFuture.completedFuture(errorResponse("Failed to generate suggestions: ", e));
         }
     }
     
@@ -119,7 +178,7 @@ public class AIInsightsController {
      * Get suggestions by type (shorthand endpoint)
      */
     @GetMapping("/suggestions")
-    public ResponseEntity<Map<String, Object>> getSuggestions(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getSuggestions(
             @RequestParam String type, // "exercise" or "diet"
             @RequestParam(required = false, defaultValue = "maintenance") String goal) {
         
@@ -129,17 +188,16 @@ public class AIInsightsController {
             request.setUserGoal(goal);
             request.setTimeFrame("week");
             
-            SuggestionResponseDTO suggestions = aiInsightService.generateSuggestions(request);
-            
-            return ResponseEntity.ok(Map.of(
-                "suggestions", suggestions,
-                "type", type,
-                "goal", goal
-            ));
+            return aiInsightService.generateSuggestions(request)
+                .thenApply(suggestions -> ResponseEntity.ok(Map.<String, Object>of(
+                    "suggestions", suggestions,
+                    "type", type,
+                    "goal", goal
+                )))
+                .exceptionally(e -> errorResponse("Failed to get suggestions: ", e));
             
         } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to get suggestions: " + e.getMessage()));
+            return CompletableFuture.completedFuture(errorResponse("Failed to get suggestions: ", e));
         }
     }
     
@@ -186,4 +244,22 @@ public class AIInsightsController {
                 .body(Map.of("error", "Failed to delete suggestion: " + e.getMessage()));
         }
     }
+
+    private static void sendStatus(SseEmitter emitter, InsightJobResponseDTO job) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(job, MediaType.APPLICATION_JSON));
+            if (job.status().isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected or the emitter already timed out
+            emitter.completeWithError(e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(String prefix, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return ResponseEntity.internalServerError()
+            .body(Map.of("error", prefix + cause.getMessage()));
+    }
 }
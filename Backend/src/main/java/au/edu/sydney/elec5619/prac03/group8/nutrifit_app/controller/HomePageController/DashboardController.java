@@ -1,19 +1,27 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller.HomePageController;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config.AsyncTimeoutConfig;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.AIInsightService;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.DashboardService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.ExportSnapshot;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.PdfExportService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.StreamingJsonExportService;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.QuickStatsResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.ErrorResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.HashMap;
@@ -31,9 +39,15 @@ public class DashboardController {
     @Autowired
     private PdfExportService pdfExportService;
 
+    @Autowired
+    private StreamingJsonExportService streamingJsonExportService;
+
     @Autowired
     private SecurityUtil securityUtil;
 
+    @Value("${app.export.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
     /**
      * Get quick stats data specifically
      * Serves: QuickStats component when it needs individual updates
@@ -70,24 +84,43 @@ public class DashboardController {
     /**
      * Get complete dashboard data for export/reporting
      * Serves: Export report functionality
+     * @param stream - when true, the document is written straight to the response and also carries every meal
+     *               and workout in the range (nutritionSummary.meals, exerciseHistory.workouts); use for long ranges
      */
     @GetMapping("/export-data-json")
     public ResponseEntity<?> getExportData(
             @RequestParam(required = false) String format,
-            @RequestParam(required = false) String dateRange) {
+            @RequestParam(required = false) String dateRange,
+            @RequestParam(required = false, defaultValue = "false") boolean stream,
+            HttpServletRequest request) {
 
         try {
             Long userId = resolveAuthenticatedUserId();
 
+            if (stream) {
+                // Errors after this point surface as a truncated download rather than an error body
+                StreamingResponseBody body = out ->
+                    streamingJsonExportService.writeExport(userId, dateRange, format, aiInsightService, out);
+                // Multi-year exports outlast spring.mvc.async.request-timeout, which is sized for the AI endpoints
+                AsyncTimeoutConfig.overrideTimeout(request, streamTimeout);
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"nutrifit-export.json\"")
+                    .body(body);
+            }
+
             Map<String, Object> exportData = new HashMap<>();
 
+            // All sections read from one snapshot, so shared data is only queried once
+            ExportSnapshot snapshot = dashboardService.loadExportSnapshot(userId, dateRange, aiInsightService);
+
             // All comprehensive data for export
-            exportData.put("userProfile", dashboardService.getUserProfileForExport(userId));
-            exportData.put("nutritionSummary", dashboardService.getNutritionSummaryForExport(userId, dateRange));
-            exportData.put("exerciseHistory", dashboardService.getWorkoutHistoryForExport(userId, dateRange));
-            exportData.put("progressMetrics", dashboardService.getProgressMetricsForExport(userId, dateRange));
-            exportData.put("aiInsights", dashboardService.getAIInsightsForExport(userId, dateRange, aiInsightService));
-            exportData.put("achievements", dashboardService.getAchievementsForExport(userId));
+            exportData.put("userProfile", dashboardService.getUserProfileForExport(snapshot));
+            exportData.put("nutritionSummary", dashboardService.getNutritionSummaryForExport(snapshot));
+            exportData.put("exerciseHistory", dashboardService.getWorkoutHistoryForExport(snapshot));
+            exportData.put("progressMetrics", dashboardService.getProgressMetricsForExport(snapshot));
+            exportData.put("aiInsights", dashboardService.getAIInsightsForExport(snapshot));
+            exportData.put("achievements", dashboardService.getAchievementsForExport(snapshot));
 
             // Add metadata
             Map<String, Object> metadata = new HashMap<>();
@@ -154,14 +187,21 @@ public class DashboardController {
     /**
      * Daily progress time series for charts
      * dateRange supports: 7d, 30d, 90d, 365d, or "YYYY-MM-DD,YYYY-MM-DD". Defaults to 30d.
+     * @param compact - when true, returns parallel arrays (dates, weights, calories, workouts) instead of one
+     *                object per day; about half the payload for long ranges
      */
     @GetMapping("/daily-progress")
     public ResponseEntity<?> getDailyProgress(
-            @RequestParam(required = false) String dateRange
+            @RequestParam(required = false) String dateRange,
+            @RequestParam(required = false, defaultValue = "false") boolean compact
     ) {
         try {
             Long userId = resolveAuthenticatedUserId();
 
+            if (compact) {
+                return ResponseEntity.ok(dashboardService.getDailyProgressSeries(userId, dateRange));
+            }
+
             var series = dashboardService.getDailyProgress(userId, dateRange);
             return ResponseEntity.ok(series);
         } catch (IllegalStateException e) {
@@ -177,7 +217,7 @@ public class DashboardController {
     }
 
     private Long resolveAuthenticatedUserId() {
-        return securityUtil.getCurrentUserOrThrow().getUserId();
+        return securityUtil.getCurrentUserId();
     }
     
 }
@@ -5,6 +5,7 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.UpdateMealR
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.MealDetailResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.DailyIntakeSummaryDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.TodayMealDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.ErrorResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.NutritionService;
@@ -28,7 +29,7 @@ public class NutritionController {
     @GetMapping("/today-summary")
     public ResponseEntity<?> getTodaySummary() {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             DailyIntakeSummaryDTO dto = nutritionService.getTodaySummary(userId);
             return ResponseEntity.ok(dto);
         } catch (IllegalArgumentException e) {
@@ -46,7 +47,7 @@ public class NutritionController {
     @GetMapping("/today-meals")
     public ResponseEntity<?> getTodayMeals() {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             List<TodayMealDTO> meals = nutritionService.getTodayMeals(userId);
             return ResponseEntity.ok(meals);
         } catch (IllegalArgumentException e) {
@@ -65,7 +66,7 @@ public class NutritionController {
     public ResponseEntity<?> deleteMeal(
             @PathVariable Long mealId) {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             nutritionService.deleteMeal(userId, mealId);
             return ResponseEntity.ok().build();
         } catch (IllegalStateException e) {
@@ -83,7 +84,7 @@ public class NutritionController {
     @PostMapping("/meals")
     public ResponseEntity<?> createMeal(@Valid @RequestBody CreateMealRequestDTO request) {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             MealDetailResponseDTO meal = nutritionService.createMeal(userId, request);
             return ResponseEntity.status(HttpStatus.CREATED).body(meal);
         } catch (IllegalStateException e) {
@@ -103,7 +104,7 @@ public class NutritionController {
             @PathVariable Long mealId,
             @Valid @RequestBody UpdateMealRequestDTO request) {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             MealDetailResponseDTO meal = nutritionService.updateMeal(userId, mealId, request);
             return ResponseEntity.ok(meal);
         } catch (IllegalStateException e) {
@@ -121,7 +122,7 @@ public class NutritionController {
     @GetMapping("/meals/{mealId}")
     public ResponseEntity<?> getMeal(@PathVariable Long mealId) {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             MealDetailResponseDTO meal = nutritionService.getMeal(userId, mealId);
             return ResponseEntity.ok(meal);
         } catch (IllegalStateException e) {
@@ -136,12 +137,24 @@ public class NutritionController {
         }
     }
 
+    /**
+     * With {@code cursor} or {@code limit}, one keyset page (newest first) wrapped in a PageResponse; without
+     * either, the full list as before
+     */
     @GetMapping("/meals")
-    public ResponseEntity<?> getAllMeals() {
+    public ResponseEntity<?> getAllMeals(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "limit", required = false) Integer limit) {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
+            if (cursor != null || limit != null) {
+                PageResponse<MealDetailResponseDTO> page = nutritionService.getMealPage(userId, cursor, limit);
+                return ResponseEntity.ok(page);
+            }
             List<MealDetailResponseDTO> meals = nutritionService.getAllMeals(userId);
             return ResponseEntity.ok(meals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponseDTO("INVALID_REQUEST", e.getMessage()));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(new ErrorResponseDTO("UNAUTHENTICATED", e.getMessage()));
@@ -0,0 +1,44 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.ErrorResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.SyncChangesResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.sync.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+    private final SecurityUtil securityUtil;
+
+    /**
+     * Meals, workouts and metrics created, updated or deleted since {@code since}, the watermark returned by the
+     * previous call; omit it for the first sync.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(value = "since", required = false) String since) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            SyncChangesResponseDto changes = syncService.getChanges(userId, since);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponseDTO("INVALID_REQUEST", e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.error("Sync failed for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponseDTO("SERVICE_ERROR", e.getMessage()));
+        }
+    }
+}
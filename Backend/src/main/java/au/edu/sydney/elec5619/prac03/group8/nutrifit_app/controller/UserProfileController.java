@@ -26,7 +26,7 @@ public class UserProfileController {
     @GetMapping
     public ResponseEntity<?> getMyProfile() {
         try {
-            Long userId = securityUtil.getCurrentUserOrThrow().getUserId();
+            Long userId = securityUtil.getCurrentUserId();
             UserProfile profile = userProfileService.getProfile(userId);
             if (profile == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
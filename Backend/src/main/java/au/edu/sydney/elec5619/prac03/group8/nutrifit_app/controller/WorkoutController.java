@@ -3,6 +3,7 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.WorkoutDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.WorkoutRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.WorkoutResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.WorkoutService;
 import java.util.List;
@@ -40,12 +41,23 @@ public class WorkoutController {
         return ResponseEntity.status(result.status()).body(result.body());
     }
 
+    /**
+     * With {@code cursor} or {@code limit} (and no workout_date), one keyset page, newest first, wrapped in a
+     * PageResponse; sort_by does not apply to pages. Otherwise the list as before.
+     */
     @GetMapping
     public ResponseEntity<?> getWorkouts(@RequestParam(value = "workout_date", required = false) String workoutDate,
-                                         @RequestParam(value = "sort_by", required = false) String sortBy) {
+                                         @RequestParam(value = "sort_by", required = false) String sortBy,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "limit", required = false) Integer limit) {
         Long userId = resolveAuthenticatedUserId();
         log.info("Get workouts request for user ID: {}, date: {}, sortBy: {}", userId, workoutDate, sortBy);
         try {
+            if (workoutDate == null && (cursor != null || limit != null)) {
+                PageResponse<WorkoutDto> page = workoutService.getWorkoutPage(userId, cursor, limit);
+                log.debug("Retrieved page of {} workouts for user ID: {}", page.getData().size(), userId);
+                return ResponseEntity.ok(page);
+            }
             List<WorkoutDto> workouts = workoutService.getWorkouts(userId, workoutDate, sortBy);
             log.debug("Retrieved {} workouts for user ID: {}", workouts.size(), userId);
             return ResponseEntity.ok(workouts);
@@ -83,6 +95,6 @@ public class WorkoutController {
         if (securityUtil == null) {
             throw new IllegalStateException("SecurityUtil not configured");
         }
-        return securityUtil.getCurrentUserOrThrow().getUserId();
+        return securityUtil.getCurrentUserId();
     }
 }
@@ -13,4 +13,6 @@ import lombok.NoArgsConstructor;
 public class GetMetricsHistoryRequestDto extends PageRequest {
     private LocalDate startDate;
     private LocalDate endDate;
+    // nextCursor from a previous response; when set, the page continues after it and page is ignored
+    private String cursor;
 }
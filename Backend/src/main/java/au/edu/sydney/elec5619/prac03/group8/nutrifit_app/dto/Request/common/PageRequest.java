@@ -7,12 +7,15 @@ import lombok.Data;
 @Data
 public class PageRequest {
 
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
     @Min(value = 1, message = "Page number must be greater than 0")
     private Integer page = 1;
 
     @Min(value = 1, message = "Page size must be greater than 0")
-    @Max(value = 100, message = "Page size cannot exceed 100")
-    private Integer size = 20;
+    @Max(value = MAX_SIZE, message = "Page size cannot exceed 100")
+    private Integer size = DEFAULT_SIZE;
 
     private String sortBy;
 
@@ -20,7 +23,20 @@ public class PageRequest {
 
     public Integer getOffset() {
         int currentPage = page != null ? page : 1;
-        int pageSize = size != null ? size : 20;
+        int pageSize = size != null ? size : DEFAULT_SIZE;
         return (currentPage - 1) * pageSize;
     }
+
+    /**
+     * Page size for query-parameter endpoints that have no bound request body to validate
+     */
+    public static int resolveSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
 }
@@ -0,0 +1,33 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compact form of the daily progress series: one array per column instead of one object per day.
+ * Index i of every array describes dates[i]; values match {@link DailyProgressPointDTO}.
+ */
+public class DailyProgressSeriesDTO {
+    private List<LocalDate> dates;
+    private double[] weights;  // kg, 0 before the first recorded weight
+    private int[] calories;    // intake kcal
+    private int[] workouts;    // count
+
+    public DailyProgressSeriesDTO() {}
+
+    public DailyProgressSeriesDTO(List<LocalDate> dates, double[] weights, int[] calories, int[] workouts) {
+        this.dates = dates;
+        this.weights = weights;
+        this.calories = calories;
+        this.workouts = workouts;
+    }
+
+    public List<LocalDate> getDates() { return dates; }
+    public void setDates(List<LocalDate> dates) { this.dates = dates; }
+    public double[] getWeights() { return weights; }
+    public void setWeights(double[] weights) { this.weights = weights; }
+    public int[] getCalories() { return calories; }
+    public void setCalories(int[] calories) { this.calories = calories; }
+    public int[] getWorkouts() { return workouts; }
+    public void setWorkouts(int[] workouts) { this.workouts = workouts; }
+}
@@ -0,0 +1,25 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
+
+import java.time.Instant;
+
+/**
+ * @param insight set once the job has succeeded
+ * @param error   set once the job has failed
+ */
+public record InsightJobResponseDTO(String jobId,
+                                    Status status,
+                                    AIInsightDTO insight,
+                                    String error,
+                                    Instant createdAt,
+                                    Instant completedAt) {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+}
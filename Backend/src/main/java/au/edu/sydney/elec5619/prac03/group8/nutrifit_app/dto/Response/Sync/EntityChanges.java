@@ -0,0 +1,35 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Changes to one entity type since a sync watermark. {@code deleted} holds ids only.
+ */
+public record EntityChanges<T>(List<T> created, List<T> updated, List<Long> deleted) {
+
+    /**
+     * Split rows changed after {@code since} into created and updated by their creation time; with no
+     * {@code since} every row counts as created
+     */
+    public static <S, T> EntityChanges<T> of(List<S> rows, LocalDateTime since,
+                                             Function<S, LocalDateTime> createdAtOf, Function<S, T> mapper) {
+        List<T> created = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        for (S row : rows) {
+            LocalDateTime createdAt = createdAtOf.apply(row);
+            if (since == null || createdAt == null || createdAt.isAfter(since)) {
+                created.add(mapper.apply(row));
+            } else {
+                updated.add(mapper.apply(row));
+            }
+        }
+        return new EntityChanges<>(created, updated, List.of());
+    }
+
+    public EntityChanges<T> withDeleted(List<Long> deletedIds) {
+        return new EntityChanges<>(created, updated, deletedIds);
+    }
+}
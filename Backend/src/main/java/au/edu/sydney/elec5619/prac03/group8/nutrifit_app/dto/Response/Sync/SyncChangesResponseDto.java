@@ -0,0 +1,16 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.WorkoutDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.MealDetailResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Profile.UserMetricsResponseDto;
+
+/**
+ * @param watermark pass back as {@code since} on the next sync
+ * @param reset     the response holds every row rather than changes; the client replaces its cache with it
+ */
+public record SyncChangesResponseDto(String watermark,
+                                     boolean reset,
+                                     EntityChanges<MealDetailResponseDTO> meals,
+                                     EntityChanges<WorkoutDto> workouts,
+                                     EntityChanges<UserMetricsResponseDto> metrics) {
+}
@@ -0,0 +1,26 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Server time up to which a sync client has seen every change. Clients receive it as an opaque string and send
+ * it back unchanged as {@code since} on their next sync.
+ */
+public record SyncWatermark(LocalDateTime at) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(at.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncWatermark decode(String watermark) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            return new SyncWatermark(LocalDateTime.parse(raw));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync watermark", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: that row's sort key and its id as the tiebreaker.
+ * Clients receive it as an opaque string and send it back unchanged. A null key marks the rows that have no
+ * sort key, which are listed after all the rows that do.
+ */
+public record PageCursor(String key, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static String encode(Object key, long id) {
+        String raw = (key != null ? key.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            String key = raw.substring(0, separator);
+            return new PageCursor(key.isEmpty() ? null : key, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public LocalDate keyAsDate() {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public LocalDateTime keyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
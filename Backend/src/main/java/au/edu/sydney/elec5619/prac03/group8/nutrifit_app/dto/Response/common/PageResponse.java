@@ -22,6 +22,8 @@ public class PageResponse<T> {
     private List<T> data;
     private Boolean hasPrevious;
     private Boolean hasNext;
+    // Set on keyset pages (and on offset pages that can continue as keyset); pass back as cursor for the next page
+    private String nextCursor;
 
     public PageResponse(Integer currentPage, Integer pageSize, Long totalItems, List<T> data) {
         this.currentPage = currentPage;
@@ -59,4 +61,26 @@ public class PageResponse<T> {
         response.setHasNext(page.hasNext());
         return response;
     }
+
+    /**
+     * Keyset page from {@code rows} fetched with a limit of {@code pageSize + 1}: the extra row only signals a next
+     * page. Totals are left null, since they would need a count over the whole history on every page.
+     */
+    public static <S, T> PageResponse<T> fromKeyset(List<S> rows, int pageSize, boolean hasPrevious,
+                                                    Function<S, T> mapper,
+                                                    Function<S, ?> keyOf, Function<S, Long> idOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<S> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        PageResponse<T> response = new PageResponse<>();
+        response.setPageSize(pageSize);
+        response.setData(page.stream().map(mapper).collect(Collectors.toList()));
+        response.setHasPrevious(hasPrevious);
+        response.setHasNext(hasNext);
+        if (hasNext) {
+            S last = page.get(page.size() - 1);
+            response.setNextCursor(PageCursor.encode(keyOf.apply(last), idOf.apply(last)));
+        }
+        return response;
+    }
 }
@@ -0,0 +1,27 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception;
+
+import java.time.Duration;
+
+/**
+ * The request was refused to protect the server or an account; controllers answer 429 with Retry-After
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Whole seconds for the Retry-After header, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
@@ -11,7 +11,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ai_insights")
+@Table(name = "ai_insights",
+       indexes = @Index(name = "idx_ai_insights_user_active_created_at", columnList = "user_id, is_active, created_at DESC"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
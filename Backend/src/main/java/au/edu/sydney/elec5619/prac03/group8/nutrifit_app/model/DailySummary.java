@@ -12,7 +12,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "daily_summaries")
+@Table(name = "daily_summaries",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_summaries_user_date",
+                                             columnNames = {"user_id", "summary_date"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,9 +47,27 @@ public class DailySummary {
     @Column(name = "total_fat_g", precision = 8, scale = 2)
     private BigDecimal totalFatG;
     
+    @Column(name = "meal_count")
+    private Integer mealCount;
+    
     @Column(name = "workout_count")
     private Integer workoutCount;
     
+    @Column(name = "total_workout_minutes")
+    private Integer totalWorkoutMinutes;
+    
+    /**
+     * Workouts that logged a duration, which is what the average duration is taken over
+     */
+    @Column(name = "workout_duration_count")
+    private Integer workoutDurationCount;
+    
+    /**
+     * Workouts that logged calories burned, which is what the average calories burned is taken over
+     */
+    @Column(name = "workout_calories_count")
+    private Integer workoutCaloriesCount;
+    
     @Column(name = "net_calories", precision = 8, scale = 2)
     private BigDecimal netCalories;
     
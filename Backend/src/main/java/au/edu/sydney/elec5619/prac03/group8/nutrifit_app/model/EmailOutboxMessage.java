@@ -0,0 +1,59 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * An email written in the same transaction as the change that triggers it, delivered later by
+ * EmailOutboxDispatcher. Holds the template inputs rather than the rendered body.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "email_type", nullable = false, length = 32)
+    private EmailType emailType;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "recipient_name")
+    private String recipientName;
+
+    @Column(name = "token", nullable = false)
+    private String token;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private EmailOutboxStatus status;
+
+    // Incremented when a dispatcher claims the row, so a message that crashes delivery still runs out of attempts
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+}
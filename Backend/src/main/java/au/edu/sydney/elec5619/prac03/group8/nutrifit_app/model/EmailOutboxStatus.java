@@ -0,0 +1,9 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+/**
+ * PENDING rows are delivered and then deleted; PARKED rows failed for good and are kept for inspection.
+ */
+public enum EmailOutboxStatus {
+    PENDING,
+    PARKED
+}
@@ -0,0 +1,9 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+/**
+ * Kinds of transactional email queued in the outbox. Stored as string so queued rows survive reordering.
+ */
+public enum EmailType {
+    VERIFICATION,
+    PASSWORD_RESET
+}
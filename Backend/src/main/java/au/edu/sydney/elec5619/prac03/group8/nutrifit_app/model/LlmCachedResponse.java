@@ -0,0 +1,41 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The persistent tier of LlmResponseCache: a model's raw answer, keyed by the hash of what was asked.
+ * Rows past expires_at are never served and are purged on a schedule.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "llm_response_cache",
+       indexes = @Index(name = "idx_llm_response_cache_expires_at", columnList = "expires_at"))
+public class LlmCachedResponse {
+
+    // SHA-256 of (model, normalized prompt, image URL), hex encoded
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 32)
+    private LlmOperation operation;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
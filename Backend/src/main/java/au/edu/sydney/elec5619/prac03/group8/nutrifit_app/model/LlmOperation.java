@@ -0,0 +1,11 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+/**
+ * The kinds of OpenRouter call GeminiClient makes; caching is configured per operation
+ */
+public enum LlmOperation {
+    WORKOUT_ESTIMATE,
+    MEAL_ESTIMATE,
+    INSIGHT,
+    SUGGESTIONS
+}
@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "meals")
+@Table(name = "meals", indexes = {
+    @Index(name = "idx_meals_user_meal_time", columnList = "user_id, meal_time"),
+    @Index(name = "idx_meals_user_updated_at", columnList = "user_id, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
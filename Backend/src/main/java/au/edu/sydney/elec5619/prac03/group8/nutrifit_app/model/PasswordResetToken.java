@@ -14,7 +14,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = @Index(name = "idx_password_reset_tokens_expires_at", columnList = "expires_at"))
 public class PasswordResetToken {
 
     @Id
@@ -0,0 +1,10 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+/**
+ * Entities served by the delta sync endpoint. Stored as string in sync_tombstones.
+ */
+public enum SyncEntityType {
+    MEAL,
+    WORKOUT,
+    USER_METRICS
+}
@@ -0,0 +1,50 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted meal, workout or metrics entry, written in the same transaction as the delete so sync
+ * clients learn to drop their copy. Kept for app.sync.tombstone-retention; clients that have not synced for
+ * longer get a full reset instead.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sync_tombstones",
+       indexes = @Index(name = "idx_sync_tombstones_user_deleted_at", columnList = "user_id, deleted_at"))
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tombstone_id")
+    private Long tombstoneId;
+
+    // The owner at the time of the delete; not a foreign key so tombstones never block deleting a user
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Same clock as the entities' updated_at, which the sync watermark is compared against
+    @CreationTimestamp
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    public static SyncTombstone of(Long userId, SyncEntityType entityType, Long entityId) {
+        return SyncTombstone.builder().userId(userId).entityType(entityType).entityId(entityId).build();
+    }
+}
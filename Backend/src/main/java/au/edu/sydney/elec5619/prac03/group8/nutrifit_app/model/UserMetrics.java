@@ -5,12 +5,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_metrics")
+@Table(name = "user_metrics", indexes = {
+    @Index(name = "idx_user_metrics_user_created_at", columnList = "user_id, created_at DESC"),
+    @Index(name = "idx_user_metrics_user_updated_at", columnList = "user_id, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,6 +58,10 @@ public class UserMetrics {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     // Helper methods
     public Double getWeight() {
         return weightKg != null ? weightKg.doubleValue() : 0.0;
@@ -14,7 +14,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "verification_tokens")
+@Table(name = "verification_tokens", indexes = @Index(name = "idx_verification_tokens_expires_at", columnList = "expires_at"))
 public class VerificationToken {
 
     @Id
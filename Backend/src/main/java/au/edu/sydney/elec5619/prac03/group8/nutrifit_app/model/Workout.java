@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -20,7 +21,10 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "workouts")
+@Table(name = "workouts", indexes = {
+    @Index(name = "idx_workouts_user_workout_date", columnList = "user_id, workout_date"),
+    @Index(name = "idx_workouts_user_updated_at", columnList = "user_id, updated_at")
+})
 public class Workout {
 
     @Id
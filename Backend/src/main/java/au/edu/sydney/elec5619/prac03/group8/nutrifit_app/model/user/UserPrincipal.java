@@ -7,12 +7,38 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.UUID;
 
 public class UserPrincipal implements UserDetails {
     private final User user;
+    private final UUID uuid;
+    private final Long userId;
 
     public UserPrincipal(User user) {
         this.user = user;
+        this.uuid = user.getUuid();
+        this.userId = user.getUserId();
+    }
+
+    /**
+     * Principal built from a verified token's claims alone, without loading the user
+     */
+    public UserPrincipal(UUID uuid, Long userId) {
+        this.user = null;
+        this.uuid = uuid;
+        this.userId = userId;
+    }
+
+    /**
+     * The user this principal was built from, resolved once when the request was authenticated;
+     * null for a principal built from token claims
+     */
+    public User getUser() {
+        return user;
+    }
+
+    public Long getUserId() {
+        return userId;
     }
 
     @Override
@@ -22,12 +48,12 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public String getPassword() {
-        return user.getPasswordHash();
+        return user != null ? user.getPasswordHash() : null;
     }
 
     @Override
     public String getUsername() {
-        return user.getUuid().toString();
+        return uuid.toString();
     }
 
     @Override
@@ -47,6 +73,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return user.isEmailVerified();
+        // Token claims do not carry verification status; the filter never checked it for bearer tokens
+        return user == null || user.isEmailVerified();
     }
 }
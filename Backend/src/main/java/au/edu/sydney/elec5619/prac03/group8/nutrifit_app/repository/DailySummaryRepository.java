@@ -0,0 +1,124 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySummaryRepository extends JpaRepository<DailySummary, Long> {
+
+    // Two-int advisory lock key for a user's rollup: an arbitrary key space, then the user id folded into an int
+    String USER_LOCK_KEY = "3, CAST(:userId % 2147483647 AS integer)";
+
+    /**
+     * Rollup rows for a user within a date range, oldest first
+     */
+    List<DailySummary> findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(Long userId,
+                                                                                 LocalDate startDate,
+                                                                                 LocalDate endDate);
+
+    List<DailySummary> findByUserUserIdOrderBySummaryDateAsc(Long userId);
+
+    /**
+     * Add a delta to the user's rollup row for a day, creating the row if it does not exist yet.
+     * The increment happens inside the database so concurrent writers for the same day cannot lose updates.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_summaries (user_id, summary_date, total_calories_consumed, total_calories_burned, " +
+                   "total_protein_g, total_carbs_g, total_fat_g, meal_count, workout_count, total_workout_minutes, " +
+                   "workout_duration_count, workout_calories_count, net_calories, created_at, updated_at) " +
+                   "VALUES (:userId, :day, :caloriesConsumed, :caloriesBurned, :proteinG, :carbsG, :fatG, " +
+                   ":mealCount, :workoutCount, :workoutMinutes, :workoutDurationCount, :workoutCaloriesCount, " +
+                   ":netCalories, now(), now()) " +
+                   "ON CONFLICT (user_id, summary_date) DO UPDATE SET " +
+                   "total_calories_consumed = COALESCE(daily_summaries.total_calories_consumed, 0) + EXCLUDED.total_calories_consumed, " +
+                   "total_calories_burned = COALESCE(daily_summaries.total_calories_burned, 0) + EXCLUDED.total_calories_burned, " +
+                   "total_protein_g = COALESCE(daily_summaries.total_protein_g, 0) + EXCLUDED.total_protein_g, " +
+                   "total_carbs_g = COALESCE(daily_summaries.total_carbs_g, 0) + EXCLUDED.total_carbs_g, " +
+                   "total_fat_g = COALESCE(daily_summaries.total_fat_g, 0) + EXCLUDED.total_fat_g, " +
+                   "meal_count = COALESCE(daily_summaries.meal_count, 0) + EXCLUDED.meal_count, " +
+                   "workout_count = COALESCE(daily_summaries.workout_count, 0) + EXCLUDED.workout_count, " +
+                   "total_workout_minutes = COALESCE(daily_summaries.total_workout_minutes, 0) + EXCLUDED.total_workout_minutes, " +
+                   "workout_duration_count = COALESCE(daily_summaries.workout_duration_count, 0) + EXCLUDED.workout_duration_count, " +
+                   "workout_calories_count = COALESCE(daily_summaries.workout_calories_count, 0) + EXCLUDED.workout_calories_count, " +
+                   "net_calories = COALESCE(daily_summaries.net_calories, 0) + EXCLUDED.net_calories, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("day") LocalDate day,
+                   @Param("caloriesConsumed") BigDecimal caloriesConsumed,
+                   @Param("caloriesBurned") BigDecimal caloriesBurned,
+                   @Param("proteinG") BigDecimal proteinG,
+                   @Param("carbsG") BigDecimal carbsG,
+                   @Param("fatG") BigDecimal fatG,
+                   @Param("mealCount") int mealCount,
+                   @Param("workoutCount") int workoutCount,
+                   @Param("workoutMinutes") int workoutMinutes,
+                   @Param("workoutDurationCount") int workoutDurationCount,
+                   @Param("workoutCaloriesCount") int workoutCaloriesCount,
+                   @Param("netCalories") BigDecimal netCalories);
+
+    /**
+     * Shared per-user lock held by rollup writes until their transaction ends, so they never interleave with a rebuild
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(" + USER_LOCK_KEY + ")", nativeQuery = true)
+    int lockUserForWrite(@Param("userId") Long userId);
+
+    /**
+     * Exclusive per-user lock for a rebuild: waits for in-flight rollup writes to commit and holds off new ones
+     * until the rebuild's transaction ends
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(" + USER_LOCK_KEY + ")", nativeQuery = true)
+    int lockUserForRebuild(@Param("userId") Long userId);
+
+    /**
+     * Per-day totals recomputed from the raw meals and workouts tables, used for rebuilds and consistency checks
+     */
+    @Query(value = "SELECT raw.day AS \"day\", " +
+                   "SUM(raw.calories_consumed) AS \"caloriesConsumed\", SUM(raw.protein_g) AS \"proteinG\", " +
+                   "SUM(raw.carbs_g) AS \"carbsG\", SUM(raw.fat_g) AS \"fatG\", SUM(raw.meal_count) AS \"mealCount\", " +
+                   "SUM(raw.calories_burned) AS \"caloriesBurned\", SUM(raw.workout_minutes) AS \"workoutMinutes\", " +
+                   "SUM(raw.workout_count) AS \"workoutCount\", " +
+                   "SUM(raw.workout_duration_count) AS \"workoutDurationCount\", " +
+                   "SUM(raw.workout_calories_count) AS \"workoutCaloriesCount\" " +
+                   "FROM (" +
+                   "  SELECT CAST(m.meal_time AS date) AS day, COALESCE(m.total_calories, 0) AS calories_consumed, " +
+                   "  COALESCE(m.protein_g, 0) AS protein_g, COALESCE(m.carbs_g, 0) AS carbs_g, COALESCE(m.fat_g, 0) AS fat_g, " +
+                   "  1 AS meal_count, 0 AS calories_burned, 0 AS workout_minutes, 0 AS workout_count, " +
+                   "  0 AS workout_duration_count, 0 AS workout_calories_count " +
+                   "  FROM meals m WHERE m.user_id = :userId AND m.meal_time IS NOT NULL " +
+                   "  UNION ALL " +
+                   "  SELECT w.workout_date AS day, 0, 0, 0, 0, 0, COALESCE(w.calories_burned, 0), " +
+                   "  COALESCE(w.duration_minutes, 0), 1, " +
+                   "  CASE WHEN w.duration_minutes IS NOT NULL THEN 1 ELSE 0 END, " +
+                   "  CASE WHEN w.calories_burned IS NOT NULL THEN 1 ELSE 0 END " +
+                   "  FROM workouts w WHERE w.user_id = :userId AND w.workout_date IS NOT NULL" +
+                   ") raw GROUP BY raw.day ORDER BY raw.day",
+           nativeQuery = true)
+    List<RawDailyTotals> aggregateRawTotalsByDay(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM DailySummary ds WHERE ds.user.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    interface RawDailyTotals {
+        LocalDate getDay();
+        BigDecimal getCaloriesConsumed();
+        BigDecimal getProteinG();
+        BigDecimal getCarbsG();
+        BigDecimal getFatG();
+        Number getMealCount();
+        BigDecimal getCaloriesBurned();
+        Number getWorkoutMinutes();
+        Number getWorkoutCount();
+        Number getWorkoutDurationCount();
+        Number getWorkoutCaloriesCount();
+    }
+}
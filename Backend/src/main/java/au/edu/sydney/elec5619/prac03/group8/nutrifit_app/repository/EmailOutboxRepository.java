@@ -0,0 +1,53 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Claim up to {@code limit} due messages: each claimed row counts an attempt and is hidden from other
+     * dispatchers until {@code leaseUntil}, so a dispatcher that dies mid-delivery only delays the message.
+     * SKIP LOCKED lets several instances claim disjoint batches without waiting on each other.
+     */
+    @Transactional
+    @Query(value = "UPDATE email_outbox SET attempts = attempts + 1, next_attempt_at = :leaseUntil " +
+                   "WHERE outbox_id IN (SELECT outbox_id FROM email_outbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<EmailOutboxMessage> claimDue(@Param("now") Instant now,
+                                      @Param("leaseUntil") Instant leaseUntil,
+                                      @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.outboxId = :outboxId")
+    int deleteDelivered(@Param("outboxId") Long outboxId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.nextAttemptAt = :nextAttemptAt, m.lastError = :error " +
+           "WHERE m.outboxId = :outboxId")
+    int scheduleRetry(@Param("outboxId") Long outboxId,
+                      @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :status, m.lastError = :error WHERE m.outboxId = :outboxId")
+    int updateStatus(@Param("outboxId") Long outboxId,
+                     @Param("status") EmailOutboxStatus status,
+                     @Param("error") String error);
+}
@@ -0,0 +1,39 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmCachedResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface LlmCachedResponseRepository extends JpaRepository<LlmCachedResponse, String> {
+
+    Optional<LlmCachedResponse> findByCacheKeyAndExpiresAtAfter(String cacheKey, Instant now);
+
+    /**
+     * Insert or refresh an entry; two instances caching the same answer at once both succeed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO llm_response_cache (cache_key, operation, content, created_at, expires_at) " +
+                   "VALUES (:cacheKey, :operation, :content, :createdAt, :expiresAt) " +
+                   "ON CONFLICT (cache_key) DO UPDATE SET operation = EXCLUDED.operation, content = EXCLUDED.content, " +
+                   "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at",
+           nativeQuery = true)
+    int upsert(@Param("cacheKey") String cacheKey,
+               @Param("operation") String operation,
+               @Param("content") String content,
+               @Param("createdAt") Instant createdAt,
+               @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM LlmCachedResponse r WHERE r.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,11 +1,20 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 @Repository
 public interface MealRepository extends JpaRepository<Meal, Long> {
 
@@ -14,4 +23,77 @@ public interface MealRepository extends JpaRepository<Meal, Long> {
     List<Meal> findByUserUserIdAndMealTimeBetweenOrderByMealTimeDesc(Long userId, LocalDateTime startTime, LocalDateTime endTime);
 
     List<Meal> findByUserUserId(Long userId);
+
+    /**
+     * Meals created or edited after a sync watermark
+     */
+    List<Meal> findByUserUserIdAndUpdatedAtAfter(Long userId, LocalDateTime since);
+
+    /**
+     * First keyset page of a user's meals, newest first, with meal_id breaking ties
+     */
+    List<Meal> findByUserUserIdAndMealTimeNotNullOrderByMealTimeDescMealIdDesc(Long userId, Limit limit);
+
+    /**
+     * Keyset page continuing after (mealTime, mealId); seeks into the (user_id, meal_time) index, so deep pages
+     * cost the same as the first
+     */
+    @Query("SELECT m FROM Meal m WHERE m.user.userId = :userId AND m.mealTime IS NOT NULL " +
+           "AND (m.mealTime, m.mealId) < (:mealTime, :mealId) ORDER BY m.mealTime DESC, m.mealId DESC")
+    List<Meal> findPageAfter(@Param("userId") Long userId,
+                             @Param("mealTime") LocalDateTime mealTime,
+                             @Param("mealId") Long mealId,
+                             Limit limit);
+
+    /**
+     * Meals without a meal time, listed after all timed ones, newest id first
+     */
+    List<Meal> findByUserUserIdAndMealTimeIsNullAndMealIdLessThanOrderByMealIdDesc(Long userId, Long mealId, Limit limit);
+
+    /**
+     * Per-day nutrition totals for a user within a time window (one row per day that has meals), newest first
+     */
+    @Query("SELECT CAST(m.mealTime AS LocalDate) AS day, SUM(m.totalCalories) AS totalCalories, " +
+           "SUM(m.proteinG) AS totalProteinG, SUM(m.carbsG) AS totalCarbsG, SUM(m.fatG) AS totalFatG, " +
+           "COUNT(m) AS mealCount " +
+           "FROM Meal m WHERE m.user.userId = :userId AND m.mealTime BETWEEN :startTime AND :endTime " +
+           "GROUP BY CAST(m.mealTime AS LocalDate) ORDER BY CAST(m.mealTime AS LocalDate) DESC")
+    List<DailyNutritionTotal> findDailyNutritionTotals(@Param("userId") Long userId,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+
+    interface DailyNutritionTotal {
+        LocalDate getDay();
+        BigDecimal getTotalCalories();
+        BigDecimal getTotalProteinG();
+        BigDecimal getTotalCarbsG();
+        BigDecimal getTotalFatG();
+        Long getMealCount();
+    }
+
+    /**
+     * Forward-only read of a user's meals within a time window, oldest first, for streaming exports.
+     * Must be consumed inside a transaction and closed; rows are projections, so none are kept in the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m.mealId AS mealId, m.mealTime AS mealTime, m.role AS role, m.mealDescription AS mealDescription, " +
+           "m.totalCalories AS totalCalories, m.proteinG AS proteinG, m.carbsG AS carbsG, m.fatG AS fatG, " +
+           "m.isAiGenerated AS aiGenerated " +
+           "FROM Meal m WHERE m.user.userId = :userId AND m.mealTime BETWEEN :startTime AND :endTime " +
+           "ORDER BY m.mealTime ASC, m.mealId ASC")
+    Stream<MealExportRow> streamForExport(@Param("userId") Long userId,
+                                          @Param("startTime") LocalDateTime startTime,
+                                          @Param("endTime") LocalDateTime endTime);
+
+    interface MealExportRow {
+        Long getMealId();
+        LocalDateTime getMealTime();
+        String getRole();
+        String getMealDescription();
+        BigDecimal getTotalCalories();
+        BigDecimal getProteinG();
+        BigDecimal getCarbsG();
+        BigDecimal getFatG();
+        Boolean getAiGenerated();
+    }
 }
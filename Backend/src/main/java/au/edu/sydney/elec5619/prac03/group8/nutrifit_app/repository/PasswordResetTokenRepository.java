@@ -5,7 +5,6 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -14,7 +13,5 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     Optional<PasswordResetToken> findByToken(String token);
 
     void deleteByUser(User user);
-
-    void deleteByExpiresAtBefore(Instant now);
 }
 
@@ -0,0 +1,23 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    List<SyncTombstone> findByUserIdAndDeletedAtAfter(Long userId, LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
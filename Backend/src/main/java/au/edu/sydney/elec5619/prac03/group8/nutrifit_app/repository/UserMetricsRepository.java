@@ -1,6 +1,7 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +20,11 @@ public interface UserMetricsRepository extends JpaRepository<UserMetrics, Long>
     Optional<UserMetrics> findTopByUserUserIdOrderByRecordAt(Long userUserId);
 
     Optional<UserMetrics> findTopByUserUserIdOrderByCreatedAtDesc(Long userUserId);
+
+    /**
+     * Metrics entries created or edited after a sync watermark
+     */
+    List<UserMetrics> findByUserUserIdAndUpdatedAtAfter(Long userId, LocalDateTime since);
     
     /**
      * Find the second latest metrics entry for a user
@@ -45,6 +52,25 @@ public interface UserMetricsRepository extends JpaRepository<UserMetrics, Long>
      */
     List<UserMetrics> findByUserUserIdOrderByCreatedAtDesc(Long userId);
 
+    /**
+     * Last weight recorded before the given time, used to seed carry-forward at the start of a chart range
+     */
+    @Query("SELECT um.createdAt AS createdAt, um.weightKg AS weightKg FROM UserMetrics um " +
+           "WHERE um.user.userId = :userId AND um.createdAt < :before " +
+           "ORDER BY um.createdAt DESC LIMIT 1")
+    Optional<WeightPoint> findLastWeightBefore(@Param("userId") Long userId,
+                                               @Param("before") LocalDateTime before);
+
+    /**
+     * Weights recorded within a range, oldest first
+     */
+    @Query("SELECT um.createdAt AS createdAt, um.weightKg AS weightKg FROM UserMetrics um " +
+           "WHERE um.user.userId = :userId AND um.createdAt BETWEEN :startTime AND :endTime " +
+           "ORDER BY um.createdAt ASC")
+    List<WeightPoint> findWeightsBetween(@Param("userId") Long userId,
+                                         @Param("startTime") LocalDateTime startTime,
+                                         @Param("endTime") LocalDateTime endTime);
+
     /**
      * Paginated metrics for a user
      */
@@ -55,6 +81,21 @@ public interface UserMetricsRepository extends JpaRepository<UserMetrics, Long>
      */
     Page<UserMetrics> findByUserUserIdAndCreatedAtBetween(Long userId, LocalDateTime startDate,
                                                          LocalDateTime endDate, Pageable pageable);
+
+    /**
+     * Keyset page within a date range continuing after (createdAt, metricId), newest first; seeks into the
+     * (user_id, created_at DESC) index instead of skipping an OFFSET
+     */
+    @Query("SELECT um FROM UserMetrics um WHERE um.user.userId = :userId " +
+           "AND um.createdAt BETWEEN :startDate AND :endDate " +
+           "AND (um.createdAt, um.metricId) < (:createdAt, :metricId) " +
+           "ORDER BY um.createdAt DESC, um.metricId DESC")
+    List<UserMetrics> findPageAfter(@Param("userId") Long userId,
+                                    @Param("startDate") LocalDateTime startDate,
+                                    @Param("endDate") LocalDateTime endDate,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("metricId") Long metricId,
+                                    Limit limit);
     
     /**
      * Get the latest N entries for a user
@@ -72,4 +113,12 @@ public interface UserMetricsRepository extends JpaRepository<UserMetrics, Long>
      * Count total metrics entries for a user
      */
     long countByUserUserId(Long userId);
+
+    /**
+     * Weight reading with its timestamp
+     */
+    interface WeightPoint {
+        LocalDateTime getCreatedAt();
+        BigDecimal getWeightKg();
+    }
 }
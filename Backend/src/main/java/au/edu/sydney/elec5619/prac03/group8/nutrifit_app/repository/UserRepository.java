@@ -2,10 +2,12 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -15,5 +17,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     User findByUuid(UUID uuid);
+
+    @Query("SELECT u.userId FROM User u ORDER BY u.userId")
+    List<Long> findAllUserIds();
 }
 
@@ -5,7 +5,6 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.VerificationToken
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -15,8 +14,6 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
 
     Optional<VerificationToken> findByUserAndVerifiedAtIsNull(User user);
 
-    void deleteByExpiresAtBefore(Instant expiryDate);
-
     void deleteByUser(User user);
 }
 
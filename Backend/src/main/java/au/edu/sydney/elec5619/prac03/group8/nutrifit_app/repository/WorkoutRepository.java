@@ -1,10 +1,19 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,9 +21,87 @@ public interface WorkoutRepository extends JpaRepository<Workout, Long> {
 
     List<Workout> findByUserUserId(Long userId, Sort sort);
 
+    /**
+     * Workouts created or edited after a sync watermark
+     */
+    List<Workout> findByUserUserIdAndUpdatedAtAfter(Long userId, LocalDateTime since);
+
+    /**
+     * First keyset page of a user's workouts, newest first, with workout_id breaking ties
+     */
+    List<Workout> findByUserUserIdAndWorkoutDateNotNullOrderByWorkoutDateDescWorkoutIdDesc(Long userId, Limit limit);
+
+    /**
+     * Keyset page continuing after (workoutDate, workoutId); seeks into the (user_id, workout_date) index, so deep
+     * pages cost the same as the first
+     */
+    @Query("SELECT w FROM Workout w WHERE w.user.userId = :userId AND w.workoutDate IS NOT NULL " +
+           "AND (w.workoutDate, w.workoutId) < (:workoutDate, :workoutId) " +
+           "ORDER BY w.workoutDate DESC, w.workoutId DESC")
+    List<Workout> findPageAfter(@Param("userId") Long userId,
+                                @Param("workoutDate") LocalDate workoutDate,
+                                @Param("workoutId") Long workoutId,
+                                Limit limit);
+
+    /**
+     * Workouts without a date, listed after all dated ones, newest id first
+     */
+    List<Workout> findByUserUserIdAndWorkoutDateIsNullAndWorkoutIdLessThanOrderByWorkoutIdDesc(Long userId, Long workoutId,
+                                                                                               Limit limit);
+
     List<Workout> findByUserUserIdAndWorkoutDate(Long userId, LocalDate workoutDate, Sort sort);
 
     List<Workout> findByUserUserIdAndWorkoutDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
 
     List<Workout> findByUserUserIdAndWorkoutDate(Long userId, LocalDate workoutDate);
+
+    /**
+     * Distinct days with at least one workout within a date window, newest first
+     */
+    @Query("SELECT DISTINCT w.workoutDate FROM Workout w WHERE w.user.userId = :userId " +
+           "AND w.workoutDate BETWEEN :startDate AND :endDate ORDER BY w.workoutDate DESC")
+    List<LocalDate> findDistinctWorkoutDates(@Param("userId") Long userId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    /**
+     * Per-day workout totals for a user within a date window, one row per (day, workout type), oldest first
+     */
+    @Query("SELECT w.workoutDate AS day, w.workoutType AS workoutType, COUNT(w) AS workoutCount, " +
+           "SUM(w.durationMinutes) AS totalDurationMinutes, SUM(w.caloriesBurned) AS totalCaloriesBurned " +
+           "FROM Workout w WHERE w.user.userId = :userId AND w.workoutDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY w.workoutDate, w.workoutType ORDER BY w.workoutDate ASC, w.workoutType ASC")
+    List<DailyWorkoutTotal> findDailyWorkoutTotals(@Param("userId") Long userId,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    interface DailyWorkoutTotal {
+        LocalDate getDay();
+        String getWorkoutType();
+        Long getWorkoutCount();
+        Long getTotalDurationMinutes();
+        BigDecimal getTotalCaloriesBurned();
+    }
+
+    /**
+     * Forward-only read of a user's workouts within a date window, oldest first, for streaming exports.
+     * Must be consumed inside a transaction and closed; rows are projections, so none are kept in the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT w.workoutId AS workoutId, w.workoutDate AS workoutDate, w.workoutType AS workoutType, " +
+           "w.durationMinutes AS durationMinutes, w.caloriesBurned AS caloriesBurned, w.notes AS notes " +
+           "FROM Workout w WHERE w.user.userId = :userId AND w.workoutDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY w.workoutDate ASC, w.workoutId ASC")
+    Stream<WorkoutExportRow> streamForExport(@Param("userId") Long userId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    interface WorkoutExportRow {
+        Long getWorkoutId();
+        LocalDate getWorkoutDate();
+        String getWorkoutType();
+        Integer getDurationMinutes();
+        BigDecimal getCaloriesBurned();
+        String getNotes();
+    }
 }
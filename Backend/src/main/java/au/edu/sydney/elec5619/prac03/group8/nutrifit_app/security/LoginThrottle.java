@@ -0,0 +1,155 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory, per-instance limits on credential attempts, checked before any password is hashed.
+ * Each client IP may make a fixed number of attempts per window, which stops one source from trying many
+ * accounts. Each email may fail a fixed number of logins per window, which stops many sources from trying
+ * one account. A successful login clears that email's failures. Refusals and tracked keys are published as
+ * login.throttle.* meters, tagged limit=email or limit=ip.
+ */
+@Slf4j
+@Component
+public class LoginThrottle implements MeterBinder {
+
+    private final int maxFailuresPerEmail;
+    private final int maxAttemptsPerIp;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final Cache<String, Window> failuresByEmail;
+    private final Cache<String, Window> attemptsByIp;
+    private final LongAdder rejectedByEmail = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    @Autowired
+    public LoginThrottle(@Value("${app.login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                         @Value("${app.login-throttle.max-attempts-per-ip:100}") int maxAttemptsPerIp,
+                         @Value("${app.login-throttle.window:PT15M}") Duration window,
+                         @Value("${app.login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this(maxFailuresPerEmail, maxAttemptsPerIp, window, maxTrackedKeys, System::nanoTime);
+    }
+
+    LoginThrottle(int maxFailuresPerEmail, int maxAttemptsPerIp, Duration window, long maxTrackedKeys,
+                  LongSupplier nanoClock) {
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.failuresByEmail = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterWrite(window).build();
+        this.attemptsByIp = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterWrite(window).build();
+    }
+
+    /**
+     * Count an attempt from this IP, and refuse it if the IP or the email is over its limit.
+     * Either argument may be null, e.g. registration only limits by IP.
+     */
+    public void acquire(String email, String clientIp) {
+        long now = nanoClock.getAsLong();
+        if (email != null) {
+            Window failures = failuresByEmail.getIfPresent(normalize(email));
+            if (failures != null && failures.isCurrent(now) && failures.count >= maxFailuresPerEmail) {
+                rejectedByEmail.increment();
+                log.warn("Throttling credential attempts for {}: {} failures in the current window", email, failures.count);
+                throw new TooManyRequestsException("Too many failed attempts for this account, please try again later",
+                    failures.remaining(now));
+            }
+        }
+        if (clientIp != null) {
+            Window attempts = increment(attemptsByIp, clientIp, now);
+            if (attempts.count > maxAttemptsPerIp) {
+                rejectedByIp.increment();
+                log.warn("Throttling credential attempts from {}: {} attempts in the current window", clientIp, attempts.count);
+                throw new TooManyRequestsException("Too many attempts from this address, please try again later",
+                    attempts.remaining(now));
+            }
+        }
+    }
+
+    public void recordFailure(String email) {
+        if (email != null) {
+            increment(failuresByEmail, normalize(email), nanoClock.getAsLong());
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            failuresByEmail.invalidate(normalize(email));
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(rejectedByEmail.sum(), rejectedByIp.sum(),
+            failuresByEmail.estimatedSize(), attemptsByIp.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("login.throttle.rejected", rejectedByEmail, LongAdder::sum)
+            .description("Credential attempts refused because the account had too many failures")
+            .tag("limit", "email")
+            .register(registry);
+        FunctionCounter.builder("login.throttle.rejected", rejectedByIp, LongAdder::sum)
+            .description("Credential attempts refused because the address made too many attempts")
+            .tag("limit", "ip")
+            .register(registry);
+        Gauge.builder("login.throttle.tracked", failuresByEmail, Cache::estimatedSize)
+            .description("Accounts with failures in the current window")
+            .tag("limit", "email")
+            .register(registry);
+        Gauge.builder("login.throttle.tracked", attemptsByIp, Cache::estimatedSize)
+            .description("Addresses with attempts in the current window")
+            .tag("limit", "ip")
+            .register(registry);
+    }
+
+    private Window increment(Cache<String, Window> windows, String key, long now) {
+        return windows.asMap().compute(key, (k, window) ->
+            window != null && window.isCurrent(now) ? window.plusOne() : new Window(now, 1));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Window {
+        private final long startNanos;
+        private final int count;
+
+        private Window(long startNanos, int count) {
+            this.startNanos = startNanos;
+            this.count = count;
+        }
+
+        boolean isCurrent(long now) {
+            return now - startNanos < windowNanos;
+        }
+
+        Window plusOne() {
+            return new Window(startNanos, count + 1);
+        }
+
+        Duration remaining(long now) {
+            return Duration.ofNanos(Math.max(windowNanos - (now - startNanos), 0));
+        }
+    }
+
+    public record Stats(long rejectedByEmail, long rejectedByIp, long trackedEmails, long trackedIps) {
+    }
+}
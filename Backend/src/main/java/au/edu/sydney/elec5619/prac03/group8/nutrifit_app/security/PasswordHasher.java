@@ -0,0 +1,189 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt hashing and verification on a small pool sized to the CPU, so a burst of logins queues here
+ * instead of occupying every servlet thread with CPU-bound work. When the queue is full, or a hash cannot
+ * start within the configured wait, the caller gets a {@link TooManyRequestsException} straight away.
+ * Also used as the authentication manager's {@link PasswordEncoder}. Queue depth, hash and wait times and
+ * refusals are published as password.hash.* meters.
+ */
+@Slf4j
+@Component
+public class PasswordHasher implements PasswordEncoder, MeterBinder {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final BCryptPasswordEncoder delegate;
+    private final Duration maxWait;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private volatile Timer hashTimer;
+    private volatile Timer waitTimer;
+
+    public PasswordHasher(BCryptPasswordEncoder passwordEncoder,
+                          @Value("${app.password-hashing.threads:0}") int threads,
+                          @Value("${app.password-hashing.queue-capacity:32}") int queueCapacity,
+                          @Value("${app.password-hashing.max-wait:PT5S}") Duration maxWait) {
+        this.delegate = passwordEncoder;
+        this.maxWait = maxWait;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Queue depth, outcome counters and latency of the hashing pool
+     */
+    public Stats stats() {
+        long count = completed.sum();
+        return new Stats(
+            executor.getQueue().size(),
+            executor.getActiveCount(),
+            count,
+            rejected.sum(),
+            timedOut.sum(),
+            count > 0 ? Duration.ofNanos(totalHashNanos.sum() / count) : Duration.ZERO,
+            Duration.ofNanos(maxHashNanos.get()),
+            count > 0 ? Duration.ofNanos(totalWaitNanos.sum() / count) : Duration.ZERO
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hash.queue", executor, pool -> pool.getQueue().size())
+            .description("Hashes waiting for a hashing thread")
+            .register(registry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashes running now")
+            .register(registry);
+        FunctionCounter.builder("password.hash.rejected", rejected, LongAdder::sum)
+            .description("Hashes refused because the queue was full")
+            .tag("reason", "queue_full")
+            .register(registry);
+        FunctionCounter.builder("password.hash.rejected", timedOut, LongAdder::sum)
+            .description("Hashes abandoned because they could not finish within the maximum wait")
+            .tag("reason", "timed_out")
+            .register(registry);
+        hashTimer = Timer.builder("password.hash")
+            .description("Time spent in BCrypt per hash or verification")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        waitTimer = Timer.builder("password.hash.wait")
+            .description("Time from submission until a hashing thread picked the hash up")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                T result = hash.call();
+                long finished = System.nanoTime();
+                completed.increment();
+                totalWaitNanos.add(started - submitted);
+                totalHashNanos.add(finished - started);
+                maxHashNanos.accumulate(finished - started);
+                record(hashTimer, finished - started);
+                record(waitTimer, started - submitted);
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new TooManyRequestsException("Too many sign-in requests, please try again shortly", RETRY_AFTER);
+        }
+
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            log.warn("Password hash did not complete within {}, rejecting request", maxWait);
+            throw new TooManyRequestsException("Too many sign-in requests, please try again shortly", RETRY_AFTER);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @param meanWait time from submission until a hashing thread picked the hash up
+     */
+    public record Stats(int queueDepth, int activeHashes, long completed, long rejected, long timedOut,
+                        Duration meanHash, Duration maxHash, Duration meanWait) {
+    }
+}
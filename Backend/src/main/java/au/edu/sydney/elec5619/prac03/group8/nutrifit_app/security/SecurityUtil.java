@@ -1,7 +1,7 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.user.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -15,7 +15,7 @@ import java.util.UUID;
 @Component
 @RequiredArgsConstructor
 public class SecurityUtil {
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     public Optional<UserDetails> getCurrentUserDetails() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -52,9 +52,18 @@ public class SecurityUtil {
         });
     }
 
+    /**
+     * The authenticated user. Requests authenticated by the JWT filter with an older token already carry it
+     * on their principal; anything else is resolved through the shared user cache.
+     */
     public Optional<User> getCurrentUser() {
+        Optional<User> resolved = getCurrentPrincipal().map(UserPrincipal::getUser);
+        if (resolved.isPresent()) {
+            return resolved;
+        }
+
         return getCurrentUserUuid().map(uuid -> {
-            User user = userRepository.findByUuid(uuid);
+            User user = userPrincipalCache.get(uuid);
             if (user == null) {
                 throw new IllegalStateException("Authenticated user not found");
             }
@@ -67,6 +76,18 @@ public class SecurityUtil {
                 .orElseThrow(() -> new IllegalStateException("No authenticated user found"));
     }
 
+    /**
+     * The authenticated user's id. Taken from the token's signed claim when present, so callers that only
+     * need the id cost no user lookup; otherwise falls back to {@link #getCurrentUserOrThrow()}.
+     */
+    public Long getCurrentUserId() {
+        Optional<Long> userId = getCurrentPrincipal().map(UserPrincipal::getUserId);
+        if (userId.isPresent()) {
+            return userId.get();
+        }
+        return getCurrentUserOrThrow().getUserId();
+    }
+
     public boolean isAuthenticated() {
         return isAuthenticated(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -81,4 +102,10 @@ public class SecurityUtil {
         Object principal = authentication.getPrincipal();
         return principal != null && !"anonymousUser".equals(String.valueOf(principal));
     }
+
+    private Optional<UserPrincipal> getCurrentPrincipal() {
+        return getCurrentUserDetails()
+                .filter(UserPrincipal.class::isInstance)
+                .map(UserPrincipal.class::cast);
+    }
 }
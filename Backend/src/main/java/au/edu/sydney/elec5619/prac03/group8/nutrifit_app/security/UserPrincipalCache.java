@@ -0,0 +1,104 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Bounded, TTL-evicted cache of authenticated users by uuid, shared by the JWT filter's user lookup and
+ * {@link SecurityUtil}. Only the user's own columns are kept, and every lookup hands out a fresh detached
+ * {@link User}, so callers can never see another request's changes to the object or its lazy associations.
+ * Services that change credentials or verification status call {@link #invalidate(UUID)}.
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, CachedUser> entries;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${app.user-cache.max-users:10000}") long maxUsers,
+                              @Value("${app.user-cache.ttl:PT2M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * The user with this uuid, loading it on a miss; null if there is no such user (misses are not cached)
+     */
+    public User get(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        CachedUser cached = entries.getIfPresent(uuid);
+        if (cached == null) {
+            User user = userRepository.findByUuid(uuid);
+            if (user == null) {
+                return null;
+            }
+            cached = CachedUser.of(user);
+            entries.put(uuid, cached);
+        }
+        return cached.toUser();
+    }
+
+    /**
+     * Drop the cached user once the current transaction commits (or now, outside one)
+     */
+    public void invalidate(UUID uuid) {
+        if (uuid == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(uuid);
+                }
+            });
+        } else {
+            evict(uuid);
+        }
+    }
+
+    private void evict(UUID uuid) {
+        entries.invalidate(uuid);
+        log.debug("Invalidated cached user {}", uuid);
+    }
+
+    private record CachedUser(Long userId, UUID uuid, String email, String userName, String passwordHash,
+                              boolean emailVerified, Instant createdAt, Instant updatedAt) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getUserId(), user.getUuid(), user.getEmail(), user.getUserName(),
+                user.getPasswordHash(), user.isEmailVerified(), user.getCreatedAt(), user.getUpdatedAt());
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setUserId(userId);
+            user.setUuid(uuid);
+            user.setEmail(email);
+            user.setUserName(userName);
+            user.setPasswordHash(passwordHash);
+            user.setEmailVerified(emailVerified);
+            user.setCreatedAt(createdAt);
+            user.setUpdatedAt(updatedAt);
+            return user;
+        }
+    }
+}
@@ -8,13 +8,17 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for AI-powered meal estimation.
@@ -29,28 +33,38 @@ public class AiMealService {
     private final GeminiClient geminiClient;
     private final MealRepository mealRepository;
     private final SecurityUtil securityUtil;
+    private final DailySummaryService dailySummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final QuickStatsCache quickStatsCache;
 
     public AiMealService(ImgBBClient imgBBClient,
                          GeminiClient geminiClient,
                          MealRepository mealRepository,
-                         SecurityUtil securityUtil) {
+                         SecurityUtil securityUtil,
+                         DailySummaryService dailySummaryService,
+                         TransactionTemplate transactionTemplate,
+                         QuickStatsCache quickStatsCache) {
         this.imgBBClient = imgBBClient;
         this.geminiClient = geminiClient;
         this.mealRepository = mealRepository;
         this.securityUtil = securityUtil;
+        this.dailySummaryService = dailySummaryService;
+        this.transactionTemplate = transactionTemplate;
+        this.quickStatsCache = quickStatsCache;
     }
 
     /**
      * Estimates meal nutrition from an uploaded image and/or text description.
      * Optionally saves the meal to the database.
+     * The upload and validation run on the calling thread; the AI estimation and save complete the future later.
      *
      * @param imageFile Optional image file to upload
      * @param request Request containing description, role, and save preference
-     * @return Response with estimated nutrition values
+     * @return Response with estimated nutrition values, once the model has answered
      * @throws IllegalArgumentException if validation fails
-     * @throws IllegalStateException if external API calls fail
+     * @throws IllegalStateException if the image upload fails; a failed AI call completes the future with one
      */
-    public AiMealEstimationResponseDTO estimateMeal(MultipartFile imageFile, AiMealEstimationRequestDTO request) {
+    public CompletableFuture<AiMealEstimationResponseDTO> estimateMeal(MultipartFile imageFile, AiMealEstimationRequestDTO request) {
         if (request == null) {
             throw new IllegalArgumentException("Request body is required.");
         }
@@ -81,11 +95,13 @@ public class AiMealService {
 
         // Step 2: Call AI estimation
         logger.info("Calling AI for meal estimation");
-        GeminiClient.MealEstimation estimation = geminiClient.estimateMeal(
-                request.getImageUrl(),
-                request.getDescription()
-        );
+        String uploadedImageUrl = imageUrl;
+        return geminiClient.estimateMealAsync(request.getImageUrl(), request.getDescription())
+                .thenApply(estimation -> toResponse(request, currentUser, uploadedImageUrl, estimation));
+    }
 
+    private AiMealEstimationResponseDTO toResponse(AiMealEstimationRequestDTO request, User currentUser,
+                                                   String imageUrl, GeminiClient.MealEstimation estimation) {
         // Use AI description if no user description provided
         String finalDescription = StringUtils.hasText(request.getDescription())
                 ? request.getDescription()
@@ -137,6 +153,7 @@ public class AiMealService {
 
     /**
      * Saves a meal entity with AI-generated data.
+     * Only the insert and its daily summary update run in a transaction, not the AI round trip before it.
      */
     private Meal saveMeal(User user, String photoUrl, String description,
                           java.math.BigDecimal calories, java.math.BigDecimal protein,
@@ -155,6 +172,11 @@ public class AiMealService {
         meal.setIsAiGenerated(true);
         meal.setUserEdited(false);
 
-        return mealRepository.save(meal);
+        return transactionTemplate.execute(status -> {
+            Meal savedMeal = mealRepository.save(meal);
+            dailySummaryService.recordMeal(savedMeal);
+            quickStatsCache.invalidate(user.getUserId());
+            return savedMeal;
+        });
     }
 }
@@ -5,9 +5,9 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.AiWorkoutRe
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.WorkoutRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.AiWorkoutResponseDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.WorkoutResponseDto;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -27,21 +27,28 @@ public class AiWorkoutService {
         this.securityUtil = securityUtil;
     }
 
-    public AiWorkoutResponseDto estimateWorkout(AiWorkoutRequestDto request) {
+    /**
+     * Validates and resolves the user on the calling thread, then completes once the model has answered and any
+     * requested save is done. Invalid input is thrown rather than returned as a failed future.
+     */
+    public CompletableFuture<AiWorkoutResponseDto> estimateWorkout(AiWorkoutRequestDto request) {
         if (request == null) {
             throw new IllegalArgumentException("Request body is required.");
         }
 
-        User currentUser = securityUtil.getCurrentUserOrThrow();
-        Long userId = currentUser.getUserId();
+        Long userId = securityUtil.getCurrentUserId();
         request.setUserId(userId);
 
         if (!StringUtils.hasText(request.getDescription())) {
             throw new IllegalArgumentException("Workout description is required.");
         }
 
-        GeminiClient.GeminiEstimation estimation = geminiClient.estimateWorkout(request.getDescription());
+        return geminiClient.estimateWorkoutAsync(request.getDescription())
+                .thenApply(estimation -> toResponse(request, userId, estimation));
+    }
 
+    private AiWorkoutResponseDto toResponse(AiWorkoutRequestDto request, Long userId,
+                                            GeminiClient.GeminiEstimation estimation) {
         AiWorkoutResponseDto.AiWorkoutSummary summary = AiWorkoutResponseDto.AiWorkoutSummary.builder()
                 .durationMinutes(estimation.getDurationMinutes())
                 .exerciseType(estimation.getExerciseType())
@@ -18,10 +18,13 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 @Service
 @Transactional
@@ -53,9 +56,9 @@ public class AIInsightService {
             // First, mark expired insights as inactive
             markExpiredInsights();
 
-            User currentUser = securityUtil.getCurrentUserOrThrow();
+            Long currentUserId = securityUtil.getCurrentUserId();
             
-            List<AIInsight> insights = aiInsightRepository.findLatestActiveInsights(currentUser.getUserId());
+            List<AIInsight> insights = aiInsightRepository.findLatestActiveInsights(currentUserId);
             
             return insights.stream()
                 .limit(10) // Limit to 10 most recent
@@ -68,12 +71,13 @@ public class AIInsightService {
     }
     
     /**
-     * Generate new AI insights for user
+     * Generate new AI insights for the user, who is passed in because this runs on an {@link InsightJobService}
+     * worker rather than the request thread. Deliberately outside any transaction: the recent-insight check,
+     * prompt context and final save each borrow a connection briefly, and none is held while the model answers.
      */
-    public AIInsightDTO generateInsight(CreateInsightRequestDTO request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<AIInsightDTO> generateInsight(User user, CreateInsightRequestDTO request) {
         try {
-            User user = securityUtil.getCurrentUserOrThrow();
-
             Long resolvedUserId = user.getUserId();
             if (request.getUserId() != null && !request.getUserId().equals(resolvedUserId)) {
                 // Frontend may send stale or anonymous IDs; respect authenticated user instead of failing
@@ -96,30 +100,34 @@ public class AIInsightService {
                     .findRecentInsights(user.getUserId(), recentThreshold);
 
                 if (!recentInsights.isEmpty()) {
-                    return convertToDTO(recentInsights.get(0));
+                    return CompletableFuture.completedFuture(convertToDTO(recentInsights.get(0)));
                 }
             }
             
             // Generate new insight based on analysis type
-            String insightContent = generateInsightContent(user, promptAnalysisType);
-            String suggestionFormat = determineSuggestionFormat(insightContent, normalizedAnalysisType);
-            
-            // Create new insight
-            AIInsight newInsight = new AIInsight();
-            newInsight.setUser(user);
-            newInsight.setContent(insightContent);
-            newInsight.setSuggestionFormat(suggestionFormat);
-            newInsight.setIsActive(true);
-            newInsight.setExpiresAt(LocalDateTime.now().plusDays(7)); // Expire in 7 days
-            
-            AIInsight savedInsight = aiInsightRepository.save(newInsight);
-            
-            return convertToDTO(savedInsight);
+            return generateInsightContent(user, promptAnalysisType)
+                .thenApply(insightContent -> saveInsight(user, insightContent, normalizedAnalysisType));
             
         } catch (Exception e) {
             throw new RuntimeException("Error generating insight: " + e.getMessage());
         }
     }
+
+    private AIInsightDTO saveInsight(User user, String insightContent, String analysisType) {
+        String suggestionFormat = determineSuggestionFormat(insightContent, analysisType);
+
+        // Create new insight
+        AIInsight newInsight = new AIInsight();
+        newInsight.setUser(user);
+        newInsight.setContent(insightContent);
+        newInsight.setSuggestionFormat(suggestionFormat);
+        newInsight.setIsActive(true);
+        newInsight.setExpiresAt(LocalDateTime.now().plusDays(7)); // Expire in 7 days
+
+        AIInsight savedInsight = aiInsightRepository.save(newInsight);
+
+        return convertToDTO(savedInsight);
+    }
     
     /**
      * Get detailed insight by ID
@@ -129,10 +137,10 @@ public class AIInsightService {
             AIInsight insight = aiInsightRepository.findById(insightId)
                 .orElseThrow(() -> new RuntimeException("Insight not found"));
 
-            User currentUser = securityUtil.getCurrentUserOrThrow();
+            Long currentUserId = securityUtil.getCurrentUserId();
             
             // Verify insight belongs to user
-            if (!insight.getUser().getUserId().equals(currentUser.getUserId())) {
+            if (!insight.getUser().getUserId().equals(currentUserId)) {
                 throw new RuntimeException("Unauthorized access to insight");
             }
             
@@ -144,9 +152,9 @@ public class AIInsightService {
     }
     
     /**
-     * Generate specific exercise/diet suggestions
+     * Generate specific exercise/diet suggestions; saved once the model has answered, as for insights
      */
-    public SuggestionResponseDTO generateSuggestions(SuggestionRequestDTO request) {
+    public CompletableFuture<SuggestionResponseDTO> generateSuggestions(SuggestionRequestDTO request) {
         try {
             User user = securityUtil.getCurrentUserOrThrow();
 
@@ -160,26 +168,29 @@ public class AIInsightService {
                 request.setTimeFrame("week");
             }
             
-            SuggestionResponseDTO response;
+            CompletableFuture<SuggestionResponseDTO> pending;
 
             if ("exercise".equalsIgnoreCase(request.getSuggestionType())) {
-                response = generateExerciseSuggestions(user, request);
+                pending = generateExerciseSuggestions(user, request);
             } else if ("diet".equalsIgnoreCase(request.getSuggestionType())) {
-                response = generateDietSuggestions(user, request);
+                pending = generateDietSuggestions(user, request);
             } else {
-                response = new SuggestionResponseDTO();
+                SuggestionResponseDTO response = new SuggestionResponseDTO();
                 response.setRecommendations(Collections.emptyList());
                 response.setSpecificMetrics(Collections.emptyMap());
                 response.setRationale("Unsupported suggestion type: " + request.getSuggestionType());
                 response.setConfidenceScore(0);
+                pending = CompletableFuture.completedFuture(response);
             }
 
-            response.setSuggestionType(request.getSuggestionType());
-            response.setUserGoal(request.getUserGoal());
+            return pending.thenApply(response -> {
+                response.setSuggestionType(request.getSuggestionType());
+                response.setUserGoal(request.getUserGoal());
 
-            saveSuggestion(user, request, response);
+                saveSuggestion(user, request, response);
 
-            return response;
+                return response;
+            });
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating suggestions: " + e.getMessage(), e);
@@ -190,12 +201,12 @@ public class AIInsightService {
      * Soft delete an insight by marking it inactive for the current user.
      */
     public void deactivateInsight(Long insightId) {
-        User currentUser = securityUtil.getCurrentUserOrThrow();
+        Long currentUserId = securityUtil.getCurrentUserId();
 
         AIInsight insight = aiInsightRepository.findById(insightId)
             .orElseThrow(() -> new RuntimeException("Insight not found"));
 
-        if (!insight.getUser().getUserId().equals(currentUser.getUserId())) {
+        if (!insight.getUser().getUserId().equals(currentUserId)) {
             throw new RuntimeException("Unauthorized access to insight");
         }
 
@@ -209,12 +220,12 @@ public class AIInsightService {
      * Soft delete a suggestion belonging to the current user.
      */
     public void deleteSuggestion(Long suggestionId) {
-        User currentUser = securityUtil.getCurrentUserOrThrow();
+        Long currentUserId = securityUtil.getCurrentUserId();
 
         Suggestion suggestion = suggestionRepository.findById(suggestionId)
             .orElseThrow(() -> new RuntimeException("Suggestion not found"));
 
-        if (!suggestion.getUser().getUserId().equals(currentUser.getUserId())) {
+        if (!suggestion.getUser().getUserId().equals(currentUserId)) {
             throw new RuntimeException("Unauthorized access to suggestion");
         }
 
@@ -228,10 +239,10 @@ public class AIInsightService {
      * Fetch the latest active suggestion for the current user.
      */
     public Map<String, Object> getLatestSuggestionSummary() {
-        User currentUser = securityUtil.getCurrentUserOrThrow();
+        Long currentUserId = securityUtil.getCurrentUserId();
 
         return suggestionRepository
-            .findTopByUserUserIdAndIsActiveTrueOrderByCreatedAtDesc(currentUser.getUserId())
+            .findTopByUserUserIdAndIsActiveTrueOrderByCreatedAtDesc(currentUserId)
             .map(this::convertSuggestionToSummary)
             .orElse(null);
     }
@@ -284,21 +295,30 @@ public class AIInsightService {
         return value != null && !value.trim().isEmpty();
     }
 
-    private String generateInsightContent(User user, String analysisType) {
+    private CompletableFuture<String> generateInsightContent(User user, String analysisType) {
         try {
             // Get user's recent data
             QuickStatsResponseDTO quickStats = dashboardService.getQuickStats(user.getUserId());
             String userContext = buildUserContext(user, quickStats);
 
             // Use Gemini API to generate personalized insight
-            return geminiClient.generateAIInsight(analysisType, userContext);
+            return geminiClient.generateAIInsightAsync(analysisType, userContext)
+                .exceptionally(this::fallbackInsightContent);
 
         } catch (Exception e) {
-            // Fallback to default message if API fails
-            return "Unable to generate detailed analysis at this time. Please ensure your profile and recent activity data are up to date. Error: " + e.getMessage();
+            return CompletableFuture.completedFuture(fallbackInsightContent(e));
         }
     }
 
+    private String fallbackInsightContent(Throwable error) {
+        // Fallback to default message if API fails
+        return "Unable to generate detailed analysis at this time. Please ensure your profile and recent activity data are up to date. Error: " + unwrap(error).getMessage();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     private String determineSuggestionFormat(String content, String analysisType) {
         String normalizedType = normalizeAnalysisType(analysisType);
         if ("nutrition".equals(normalizedType) || "exercise".equals(normalizedType)) {
@@ -315,10 +335,7 @@ public class AIInsightService {
         }
     }
     
-    private SuggestionResponseDTO generateExerciseSuggestions(User user, SuggestionRequestDTO request) {
-        SuggestionResponseDTO response = new SuggestionResponseDTO();
-        Map<String, Object> metrics = new HashMap<>();
-
+    private CompletableFuture<SuggestionResponseDTO> generateExerciseSuggestions(User user, SuggestionRequestDTO request) {
         try {
             // Get user's recent workout data
             QuickStatsResponseDTO quickStats = dashboardService.getQuickStats(user.getUserId());
@@ -328,53 +345,67 @@ public class AIInsightService {
             String promptContext = mergeContexts(userContext, preferenceContext);
 
             // Use Gemini API to generate personalized exercise suggestions
-            List<String> recommendations = geminiClient.generateSuggestions("exercise", request.getUserGoal(), promptContext);
-            recommendations = limitRecommendationLength(recommendations);
-
-            // Set default metrics based on goal
-            switch (request.getUserGoal().toLowerCase()) {
-                case "weight_loss":
-                    metrics.put("targetCaloriesBurn", "300-500 per session");
-                    metrics.put("recommendedDuration", "30-45 minutes");
-                    metrics.put("weeklyFrequency", "4-5 times");
-                    break;
-                case "muscle_gain":
-                    metrics.put("targetSets", "3-4 per exercise");
-                    metrics.put("targetReps", "8-12 for hypertrophy");
-                    metrics.put("weeklyFrequency", "4-5 times");
-                    break;
-                case "maintenance":
-                default:
-                    metrics.put("weeklyMinutes", "150-300");
-                    metrics.put("weeklyFrequency", "3-4 times");
-                    break;
-            }
-
-            response.setRecommendations(recommendations);
-            response.setSpecificMetrics(metrics);
-            response.setRationale("AI-generated recommendations based on your goal of " + request.getUserGoal() + " and current activity level");
-            response.setConfidenceScore(90);
+            return geminiClient.generateSuggestionsAsync("exercise", request.getUserGoal(), promptContext)
+                .thenApply(recommendations -> exerciseSuggestions(request, recommendations))
+                .exceptionally(this::fallbackExerciseSuggestions);
 
         } catch (Exception e) {
-            // Fallback to basic recommendations if API fails
-            List<String> fallbackRecommendations = new ArrayList<>();
-            fallbackRecommendations.add("Consult with a fitness professional for personalized recommendations");
-            fallbackRecommendations.add("Start with moderate exercise 3-4 times per week");
-            fallbackRecommendations.add("Include both cardio and strength training");
+            return CompletableFuture.completedFuture(fallbackExerciseSuggestions(e));
+        }
+    }
 
-            response.setRecommendations(limitRecommendationLength(fallbackRecommendations));
-            response.setSpecificMetrics(metrics);
-            response.setRationale("Basic recommendations due to API unavailability: " + e.getMessage());
-            response.setConfidenceScore(50);
+    private SuggestionResponseDTO exerciseSuggestions(SuggestionRequestDTO request, List<String> recommendations) {
+        SuggestionResponseDTO response = new SuggestionResponseDTO();
+        Map<String, Object> metrics = new HashMap<>();
+        recommendations = limitRecommendationLength(recommendations);
+
+        // Set default metrics based on goal
+        switch (request.getUserGoal().toLowerCase()) {
+            case "weight_loss":
+                metrics.put("targetCaloriesBurn", "300-500 per session");
+                metrics.put("recommendedDuration", "30-45 minutes");
+                metrics.put("weeklyFrequency", "4-5 times");
+                break;
+            case "muscle_gain":
+                metrics.put("targetSets", "3-4 per exercise");
+                metrics.put("targetReps", "8-12 for hypertrophy");
+                metrics.put("weeklyFrequency", "4-5 times");
+                break;
+            case "maintenance":
+            default:
+                metrics.put("weeklyMinutes", "150-300");
+                metrics.put("weeklyFrequency", "3-4 times");
+                break;
         }
 
+        response.setRecommendations(recommendations);
+        response.setSpecificMetrics(metrics);
+        response.setRationale("AI-generated recommendations based on your goal of " + request.getUserGoal() + " and current activity level");
+        response.setConfidenceScore(90);
+
         return response;
     }
-    
-    private SuggestionResponseDTO generateDietSuggestions(User user, SuggestionRequestDTO request) {
-        SuggestionResponseDTO response = new SuggestionResponseDTO();
-        Map<String, Object> metrics = new HashMap<>();
 
+    private SuggestionResponseDTO fallbackExerciseSuggestions(Throwable error) {
+        // Fallback to basic recommendations if API fails
+        List<String> fallbackRecommendations = new ArrayList<>();
+        fallbackRecommendations.add("Consult with a fitness professional for personalized recommendations");
+        fallbackRecommendations.add("Start with moderate exercise 3-4 times per week");
+        fallbackRecommendations.add("Include both cardio and strength training");
+
+        return fallbackSuggestions(fallbackRecommendations, error);
+    }
+
+    private SuggestionResponseDTO fallbackSuggestions(List<String> fallbackRecommendations, Throwable error) {
+        SuggestionResponseDTO response = new SuggestionResponseDTO();
+        response.setRecommendations(limitRecommendationLength(fallbackRecommendations));
+        response.setSpecificMetrics(new HashMap<>());
+        response.setRationale("Basic recommendations due to API unavailability: " + unwrap(error).getMessage());
+        response.setConfidenceScore(50);
+        return response;
+    }
+    
+    private CompletableFuture<SuggestionResponseDTO> generateDietSuggestions(User user, SuggestionRequestDTO request) {
         try {
             // Get user's body metrics for calculations
             QuickStatsResponseDTO quickStats = dashboardService.getQuickStats(user.getUserId());
@@ -386,54 +417,63 @@ public class AIInsightService {
             String promptContext = mergeContexts(userContext, preferenceContext);
 
             // Use Gemini API to generate personalized diet suggestions
-            List<String> recommendations = geminiClient.generateSuggestions("diet", request.getUserGoal(), promptContext);
-            recommendations = limitRecommendationLength(recommendations);
-
-            // Calculate metrics based on goal and BMR
-            switch (request.getUserGoal().toLowerCase()) {
-                case "weight_loss":
-                    double deficitCalories = bmr * 1.4 - 300; // 300 calorie deficit
-                    metrics.put("targetCalories", Math.round(deficitCalories));
-                    metrics.put("proteinTarget", Math.round(weight * 1.6) + "g");
-                    metrics.put("calorieDeficit", "300-500 calories");
-                    break;
-                case "muscle_gain":
-                    double surplusCalories = bmr * 1.6 + 200; // 200 calorie surplus
-                    metrics.put("targetCalories", Math.round(surplusCalories));
-                    metrics.put("proteinTarget", Math.round(weight * 2.0) + "g");
-                    metrics.put("calorieSurplus", "200-300 calories");
-                    break;
-                case "maintenance":
-                default:
-                    double maintenanceCalories = bmr * 1.4;
-                    metrics.put("targetCalories", Math.round(maintenanceCalories));
-                    metrics.put("proteinTarget", Math.round(weight * 1.4) + "g");
-                    metrics.put("hydration", "8-10 glasses daily");
-                    break;
-            }
-
-            response.setRecommendations(recommendations);
-            response.setSpecificMetrics(metrics);
-            response.setRationale("AI-generated recommendations based on your BMR of " + Math.round(bmr) + " calories and " + request.getUserGoal() + " goal");
-            response.setConfidenceScore(95);
+            return geminiClient.generateSuggestionsAsync("diet", request.getUserGoal(), promptContext)
+                .thenApply(recommendations -> dietSuggestions(request, recommendations, weight, bmr))
+                .exceptionally(this::fallbackDietSuggestions);
 
         } catch (Exception e) {
-            // Fallback to basic recommendations if API fails
-            List<String> fallbackRecommendations = new ArrayList<>();
-            fallbackRecommendations.add("Consult with a nutritionist for personalized meal planning");
-            fallbackRecommendations.add("Focus on whole, unprocessed foods");
-            fallbackRecommendations.add("Stay hydrated throughout the day");
-            fallbackRecommendations.add("Practice portion control");
+            return CompletableFuture.completedFuture(fallbackDietSuggestions(e));
+        }
+    }
 
-            response.setRecommendations(limitRecommendationLength(fallbackRecommendations));
-            response.setSpecificMetrics(metrics);
-            response.setRationale("Basic recommendations due to API unavailability: " + e.getMessage());
-            response.setConfidenceScore(50);
+    private SuggestionResponseDTO dietSuggestions(SuggestionRequestDTO request, List<String> recommendations,
+                                                  double weight, double bmr) {
+        SuggestionResponseDTO response = new SuggestionResponseDTO();
+        Map<String, Object> metrics = new HashMap<>();
+        recommendations = limitRecommendationLength(recommendations);
+
+        // Calculate metrics based on goal and BMR
+        switch (request.getUserGoal().toLowerCase()) {
+            case "weight_loss":
+                double deficitCalories = bmr * 1.4 - 300; // 300 calorie deficit
+                metrics.put("targetCalories", Math.round(deficitCalories));
+                metrics.put("proteinTarget", Math.round(weight * 1.6) + "g");
+                metrics.put("calorieDeficit", "300-500 calories");
+                break;
+            case "muscle_gain":
+                double surplusCalories = bmr * 1.6 + 200; // 200 calorie surplus
+                metrics.put("targetCalories", Math.round(surplusCalories));
+                metrics.put("proteinTarget", Math.round(weight * 2.0) + "g");
+                metrics.put("calorieSurplus", "200-300 calories");
+                break;
+            case "maintenance":
+            default:
+                double maintenanceCalories = bmr * 1.4;
+                metrics.put("targetCalories", Math.round(maintenanceCalories));
+                metrics.put("proteinTarget", Math.round(weight * 1.4) + "g");
+                metrics.put("hydration", "8-10 glasses daily");
+                break;
         }
 
+        response.setRecommendations(recommendations);
+        response.setSpecificMetrics(metrics);
+        response.setRationale("AI-generated recommendations based on your BMR of " + Math.round(bmr) + " calories and " + request.getUserGoal() + " goal");
+        response.setConfidenceScore(95);
+
         return response;
     }
 
+    private SuggestionResponseDTO fallbackDietSuggestions(Throwable error) {
+        // Fallback to basic recommendations if API fails
+        List<String> fallbackRecommendations = new ArrayList<>();
+        fallbackRecommendations.add("Consult with a nutritionist for personalized meal planning");
+        fallbackRecommendations.add("Focus on whole, unprocessed foods");
+        fallbackRecommendations.add("Stay hydrated throughout the day");
+        fallbackRecommendations.add("Practice portion control");
+
+        return fallbackSuggestions(fallbackRecommendations, error);
+    }
+
     private void saveSuggestion(User user, SuggestionRequestDTO request, SuggestionResponseDTO response) {
         Suggestion suggestion = new Suggestion();
         suggestion.setUser(user);
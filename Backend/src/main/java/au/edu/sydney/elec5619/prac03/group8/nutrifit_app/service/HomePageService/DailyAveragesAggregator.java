@@ -0,0 +1,165 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates daily summary rows into primitive per-day arrays indexed by offset from the anchor day
+ * (0 = anchor, 1 = the day before, ...), then reads any number of trailing windows in a single sweep.
+ * A window of N days covers offsets 0..N inclusive, matching the [anchor - N, anchor] date range the
+ * dashboard has always queried.
+ */
+final class DailyAveragesAggregator {
+
+    private final long anchorDay;
+    private final int maxDays;
+
+    private final double[] calories;
+    private final double[] protein;
+    private final double[] carbs;
+    private final double[] fat;
+    private final double[] burned;
+    private final int[] meals;
+    private final int[] workouts;
+    private final int[] workoutMinutes;
+    private final int[] timedWorkouts;
+    private final int[] burnedWorkouts;
+
+    DailyAveragesAggregator(LocalDate anchor, int maxDays) {
+        this.anchorDay = anchor.toEpochDay();
+        this.maxDays = maxDays;
+        int slots = maxDays + 1;
+        this.calories = new double[slots];
+        this.protein = new double[slots];
+        this.carbs = new double[slots];
+        this.fat = new double[slots];
+        this.burned = new double[slots];
+        this.meals = new int[slots];
+        this.workouts = new int[slots];
+        this.workoutMinutes = new int[slots];
+        this.timedWorkouts = new int[slots];
+        this.burnedWorkouts = new int[slots];
+    }
+
+    /**
+     * First day that falls inside the widest window
+     */
+    static LocalDate windowStart(LocalDate anchor, int maxDays) {
+        return anchor.minusDays(maxDays);
+    }
+
+    DailyAveragesAggregator addAll(Iterable<DailySummary> summaries) {
+        for (DailySummary summary : summaries) {
+            add(summary);
+        }
+        return this;
+    }
+
+    void add(DailySummary summary) {
+        if (summary == null || summary.getSummaryDate() == null) {
+            return;
+        }
+        long offset = anchorDay - summary.getSummaryDate().toEpochDay();
+        if (offset < 0 || offset > maxDays) {
+            return;
+        }
+        int i = (int) offset;
+        calories[i] += toDouble(summary.getTotalCaloriesConsumed());
+        protein[i] += toDouble(summary.getTotalProteinG());
+        carbs[i] += toDouble(summary.getTotalCarbsG());
+        fat[i] += toDouble(summary.getTotalFatG());
+        burned[i] += toDouble(summary.getTotalCaloriesBurned());
+        meals[i] += toInt(summary.getMealCount());
+        workouts[i] += toInt(summary.getWorkoutCount());
+        workoutMinutes[i] += toInt(summary.getTotalWorkoutMinutes());
+        timedWorkouts[i] += toInt(summary.getWorkoutDurationCount());
+        burnedWorkouts[i] += toInt(summary.getWorkoutCaloriesCount());
+    }
+
+    Window window(int days) {
+        return windows(days).get(days);
+    }
+
+    /**
+     * Results for each requested window length, computed with one pass over the accumulated days
+     */
+    Map<Integer, Window> windows(int... days) {
+        int[] sorted = Arrays.stream(days).distinct().sorted().toArray();
+        if (sorted.length > 0 && (sorted[0] < 0 || sorted[sorted.length - 1] > maxDays)) {
+            throw new IllegalArgumentException("Window must be between 0 and " + maxDays + " days");
+        }
+
+        Map<Integer, Window> result = new LinkedHashMap<>();
+        double totalCalories = 0, mealDayCalories = 0, mealDayProtein = 0, mealDayCarbs = 0, mealDayFat = 0;
+        double totalBurned = 0;
+        int mealDays = 0, totalWorkouts = 0, totalMinutes = 0, totalTimedWorkouts = 0, totalBurnedWorkouts = 0;
+
+        int next = 0;
+        for (int i = 0; i <= maxDays && next < sorted.length; i++) {
+            totalCalories += calories[i];
+            totalBurned += burned[i];
+            totalWorkouts += workouts[i];
+            totalMinutes += workoutMinutes[i];
+            totalTimedWorkouts += timedWorkouts[i];
+            totalBurnedWorkouts += burnedWorkouts[i];
+            // Intake averages only count days with at least one logged meal
+            if (meals[i] > 0) {
+                mealDays++;
+                mealDayCalories += calories[i];
+                mealDayProtein += protein[i];
+                mealDayCarbs += carbs[i];
+                mealDayFat += fat[i];
+            }
+
+            while (next < sorted.length && sorted[next] == i) {
+                result.put(sorted[next], new Window(
+                    sorted[next],
+                    mealDays > 0 ? mealDayCalories / mealDays : 0.0,
+                    mealDays > 0 ? mealDayProtein / mealDays : 0.0,
+                    mealDays > 0 ? mealDayCarbs / mealDays : 0.0,
+                    mealDays > 0 ? mealDayFat / mealDays : 0.0,
+                    totalCalories,
+                    totalWorkouts,
+                    totalMinutes,
+                    totalBurned,
+                    totalTimedWorkouts,
+                    totalBurnedWorkouts
+                ));
+                next++;
+            }
+        }
+        return result;
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0.0;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Totals and per-day averages for one trailing window. Workout averages are taken over the workouts that
+     * logged the value, so a workout without a duration does not pull the average duration down.
+     */
+    record Window(int days,
+                  double avgCalories, double avgProtein, double avgCarbs, double avgFat,
+                  double totalCalories,
+                  int workoutCount, int totalWorkoutMinutes, double totalCaloriesBurned,
+                  int timedWorkoutCount, int burnedWorkoutCount) {
+
+        double avgWorkoutMinutes() {
+            return timedWorkoutCount > 0 ? (double) totalWorkoutMinutes / timedWorkoutCount : 0.0;
+        }
+
+        double avgCaloriesBurned() {
+            return burnedWorkoutCount > 0 ? totalCaloriesBurned / burnedWorkoutCount : 0.0;
+        }
+    }
+}
@@ -11,8 +11,13 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.Period;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,30 +37,63 @@ public class DashboardService {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Autowired
+    private QuickStatsCache quickStatsCache;
+
+    @Autowired
+    private QuickStatsSections quickStatsSections;
+
 
     /**
      * Get complete quick stats response including all required metrics
+     * Served from the per-user cache until one of the user's writes invalidates it
      * @param period - "weekly" or "monthly" to determine the data range
      */
     public QuickStatsResponseDTO getQuickStats(Long userId, String period) {
+        return quickStatsCache.load(userId, period, () -> computeQuickStats(userId, period));
+    }
+
+    /**
+     * The sections are independent, so they are forked together and each falls back to its default
+     * if it misses the request deadline
+     */
+    private QuickStatsCache.Loaded computeQuickStats(Long userId, String period) {
         try {
             // Determine the number of days based on period
             int days = period.equalsIgnoreCase("monthly") ? 30 : 7;
 
+            QuickStatsSections.Batch batch = quickStatsSections.begin();
+
             // Get body metrics
-            BodyMetricsDTO bodyMetrics = getLatestBodyMetricsDTO(userId);
+            var bodyMetrics = batch.fork("bodyMetrics",
+                () -> getLatestBodyMetricsDTO(userId), this::createDefaultBodyMetricsDTO);
 
-            // Get averages based on selected period
-            DailyAveragesDTO weeklyAverages = getDailyAveragesDTO(userId, 7);
-            DailyAveragesDTO monthlyAverages = getDailyAveragesDTO(userId, 30);
+            // Get weekly and monthly averages from one fetch of the monthly window
+            var averages = batch.fork("averages",
+                () -> getDailyAveragesDTOs(userId, 7, 30),
+                () -> Map.of(7, createDefaultDailyAveragesDTO(7), 30, createDefaultDailyAveragesDTO(30)));
 
             // Get workout frequency for the selected period
-            WorkoutFrequencyDTO workoutFrequency = getWorkoutFrequencyDTO(userId, days);
+            var workoutFrequency = batch.fork("workoutFrequency",
+                () -> getWorkoutFrequencyDTO(userId, days), () -> createDefaultWorkoutFrequencyDTO(days));
 
             // Get streak data
-            StreaksDTO streaks = getCurrentStreaksDTO(userId);
-
-            return new QuickStatsResponseDTO(bodyMetrics, weeklyAverages, monthlyAverages, workoutFrequency, streaks);
+            var streaks = batch.fork("streaks",
+                () -> getCurrentStreaksDTO(userId), this::createDefaultStreaksDTO);
+
+            // Joined once, so both windows come from the same result and a timeout is only counted once
+            Map<Integer, DailyAveragesDTO> dailyAverages = averages.join();
+            QuickStatsResponseDTO response = new QuickStatsResponseDTO(
+                bodyMetrics.join(),
+                dailyAverages.get(7),
+                dailyAverages.get(30),
+                workoutFrequency.join(),
+                streaks.join()
+            );
+            return new QuickStatsCache.Loaded(response, batch.isComplete());
 
         } catch (Exception e) {
             throw new RuntimeException("Error getting quick stats: " + e.getMessage());
@@ -103,55 +141,71 @@ public class DashboardService {
      * Note: Age and gender are now retrieved from UserProfile instead of UserMetrics
      */
     public Map<String, Object> getLatestBodyMetrics(Long userId) {
-        Map<String, Object> metrics = new HashMap<>();
+        try {
+            // Use the corrected method name
+            return toBodyMetrics(
+                findProfile(userId),
+                userMetricsRepository.findTopByUserUserIdOrderByRecordAt(userId),
+                () -> userMetricsRepository.findSecondLatestByUserId(userId)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching latest body metrics: " + e.getMessage());
+        }
+    }
 
+    private Map<String, Object> getLatestBodyMetrics(ExportSnapshot snapshot) {
         try {
-            // Get age and gender from UserProfile (current user data)
-            Map<String, Object> profileData = getAgeAndGenderFromProfile(userId);
-            Integer age = (Integer) profileData.get("age");
-            String gender = (String) profileData.get("gender");
+            return toBodyMetrics(snapshot.getProfile(), snapshot.getLatestMetrics(), snapshot::getPreviousMetrics);
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching latest body metrics: " + e.getMessage());
+        }
+    }
 
-            // Use the corrected method name
-            Optional<UserMetrics> latestMetrics = userMetricsRepository
-                .findTopByUserUserIdOrderByRecordAt(userId);
+    /**
+     * @param previousMetrics only fetched when there is a latest entry to compare against
+     */
+    private Map<String, Object> toBodyMetrics(Optional<UserProfile> profile,
+                                              Optional<UserMetrics> latestMetrics,
+                                              Supplier<Optional<UserMetrics>> previousMetrics) {
+        Map<String, Object> metrics = new HashMap<>();
 
-            if (latestMetrics.isPresent()) {
-                UserMetrics userMetrics = latestMetrics.get();
-
-                double weight = userMetrics.getWeight();
-                double height = userMetrics.getHeight();
-
-                metrics.put("weight", weight);
-                metrics.put("height", height);
-                metrics.put("bmi", calculateBMI(weight, height));
-                metrics.put("bmr", calculateBMR(weight, height, age, gender));
-                metrics.put("lastUpdated", userMetrics.getCreatedDate());
-
-                // Calculate weight change from previous entry
-                Optional<UserMetrics> previousMetrics = userMetricsRepository
-                    .findSecondLatestByUserId(userId);
-
-                if (previousMetrics.isPresent()) {
-                    double weightChange = weight - previousMetrics.get().getWeight();
-                    metrics.put("weightChange", Math.round(weightChange * 100.0) / 100.0);
-                    metrics.put("weightTrend", weightChange > 0 ? "up" : weightChange < 0 ? "down" : "stable");
-                } else {
-                    metrics.put("weightChange", 0.0);
-                    metrics.put("weightTrend", "stable");
-                }
+        // Get age and gender from UserProfile (current user data)
+        Map<String, Object> profileData = getAgeAndGender(profile);
+        Integer age = (Integer) profileData.get("age");
+        String gender = (String) profileData.get("gender");
+
+        if (latestMetrics.isPresent()) {
+            UserMetrics userMetrics = latestMetrics.get();
+
+            double weight = userMetrics.getWeight();
+            double height = userMetrics.getHeight();
+
+            metrics.put("weight", weight);
+            metrics.put("height", height);
+            metrics.put("bmi", calculateBMI(weight, height));
+            metrics.put("bmr", calculateBMR(weight, height, age, gender));
+            metrics.put("lastUpdated", userMetrics.getCreatedDate());
+
+            // Calculate weight change from previous entry
+            Optional<UserMetrics> previous = previousMetrics.get();
+
+            if (previous.isPresent()) {
+                double weightChange = weight - previous.get().getWeight();
+                metrics.put("weightChange", Math.round(weightChange * 100.0) / 100.0);
+                metrics.put("weightTrend", weightChange > 0 ? "up" : weightChange < 0 ? "down" : "stable");
             } else {
-                // Return default values if no metrics found
-                metrics.put("weight", 0.0);
-                metrics.put("height", 0.0);
-                metrics.put("bmi", 0.0);
-                metrics.put("bmr", 0.0);
                 metrics.put("weightChange", 0.0);
-                metrics.put("weightTrend", "no_data");
-                metrics.put("lastUpdated", null);
+                metrics.put("weightTrend", "stable");
             }
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching latest body metrics: " + e.getMessage());
+        } else {
+            // Return default values if no metrics found
+            metrics.put("weight", 0.0);
+            metrics.put("height", 0.0);
+            metrics.put("bmi", 0.0);
+            metrics.put("bmr", 0.0);
+            metrics.put("weightChange", 0.0);
+            metrics.put("weightTrend", "no_data");
+            metrics.put("lastUpdated", null);
         }
 
         return metrics;
@@ -190,14 +244,21 @@ public class DashboardService {
         return Period.between(birthDate, LocalDate.now()).getYears();
     }
 
+    private Optional<UserProfile> findProfile(Long userId) {
+        try {
+            return userProfileRepository.findByUserUserId(userId);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Get age and gender from UserProfile for current user data
      */
-    private Map<String, Object> getAgeAndGenderFromProfile(Long userId) {
+    private Map<String, Object> getAgeAndGender(Optional<UserProfile> profile) {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            Optional<UserProfile> profile = userProfileRepository.findByUserUserId(userId);
             if (profile.isPresent()) {
                 UserProfile userProfile = profile.get();
                 result.put("age", calculateAge(userProfile.getBirthDate()));
@@ -223,32 +284,35 @@ public class DashboardService {
                 return createDefaultDailyAveragesDTO(days);
             }
 
-            Map<String, Object> averages = getDailyAverages(userId, days);
-            @SuppressWarnings("unchecked")
-            Map<String, Double> avgMacrosMap = (Map<String, Double>) averages.get("avgMacros");
-
-            MacrosDTO avgMacros = new MacrosDTO(
-                avgMacrosMap.get("protein"),
-                avgMacrosMap.get("carbs"),
-                avgMacrosMap.get("fats")
-            );
-
-            return new DailyAveragesDTO(
-                (Integer) averages.get("avgCaloriesIntake"),
-                avgMacros,
-                (Integer) averages.get("avgWorkoutDuration"),
-                (Integer) averages.get("avgCaloriesBurned"),
-                (Integer) averages.get("periodDays"),
-                (Integer) averages.get("totalCaloriesIntake"),
-                (Integer) averages.get("totalWorkoutDuration"),
-                (Integer) averages.get("totalCaloriesBurned"),
-                (Integer) averages.get("workoutCount")
-            );
+            return toDailyAveragesDTO(getDailyAverages(userId, days));
         } catch (Exception e) {
             return createDefaultDailyAveragesDTO(days);
         }
     }
 
+    private DailyAveragesDTO toDailyAveragesDTO(Map<String, Object> averages) {
+        @SuppressWarnings("unchecked")
+        Map<String, Double> avgMacrosMap = (Map<String, Double>) averages.get("avgMacros");
+
+        MacrosDTO avgMacros = new MacrosDTO(
+            avgMacrosMap.get("protein"),
+            avgMacrosMap.get("carbs"),
+            avgMacrosMap.get("fats")
+        );
+
+        return new DailyAveragesDTO(
+            (Integer) averages.get("avgCaloriesIntake"),
+            avgMacros,
+            (Integer) averages.get("avgWorkoutDuration"),
+            (Integer) averages.get("avgCaloriesBurned"),
+            (Integer) averages.get("periodDays"),
+            (Integer) averages.get("totalCaloriesIntake"),
+            (Integer) averages.get("totalWorkoutDuration"),
+            (Integer) averages.get("totalCaloriesBurned"),
+            (Integer) averages.get("workoutCount")
+        );
+    }
+
     private DailyAveragesDTO createDefaultDailyAveragesDTO(int days) {
         MacrosDTO defaultMacros = new MacrosDTO(0.0, 0.0, 0.0);
         return new DailyAveragesDTO(0, defaultMacros, 0, 0, days, 0, 0, 0, 0);
@@ -292,20 +356,30 @@ public class DashboardService {
                 return createDefaultStreaksDTO();
             }
 
-            Map<String, Object> streaks = getCurrentStreaks(userId);
+            return toStreaksDTO(getCurrentStreaks(userId));
+        } catch (Exception e) {
+            return createDefaultStreaksDTO();
+        }
+    }
 
-            return new StreaksDTO(
-                (Integer) streaks.get("workoutStreak"),
-                (Integer) streaks.get("nutritionStreak"),
-                (Integer) streaks.get("consistencyStreak"),
-                (String) streaks.get("workoutStreakStatus"),
-                (String) streaks.get("nutritionStreakStatus")
-            );
+    private StreaksDTO getCurrentStreaksDTO(ExportSnapshot snapshot) {
+        try {
+            return toStreaksDTO(getCurrentStreaks(snapshot));
         } catch (Exception e) {
             return createDefaultStreaksDTO();
         }
     }
 
+    private StreaksDTO toStreaksDTO(Map<String, Object> streaks) {
+        return new StreaksDTO(
+            (Integer) streaks.get("workoutStreak"),
+            (Integer) streaks.get("nutritionStreak"),
+            (Integer) streaks.get("consistencyStreak"),
+            (String) streaks.get("workoutStreakStatus"),
+            (String) streaks.get("nutritionStreakStatus")
+        );
+    }
+
     private StreaksDTO createDefaultStreaksDTO() {
         return new StreaksDTO(0, 0, 0, "none", "none");
     }
@@ -320,12 +394,12 @@ public class DashboardService {
             LocalDate startDate = LocalDate.now().minusDays(days);
             LocalDate endDate = LocalDate.now();
             
-            List<Workout> workouts = workoutRepository
-                .findByUserUserIdAndWorkoutDateBetween(userId, startDate, endDate);
+            List<WorkoutRepository.DailyWorkoutTotal> dailyTotals = workoutRepository
+                .findDailyWorkoutTotals(userId, startDate, endDate);
     
             // Count unique workout days
-            long workoutDays = workouts.stream()
-                .map(Workout::getWorkoutDate)
+            long workoutDays = dailyTotals.stream()
+                .map(WorkoutRepository.DailyWorkoutTotal::getDay)
                 .distinct()
                 .count();
             
@@ -333,17 +407,18 @@ public class DashboardService {
             double frequencyPercentage = (double) workoutDays / days * 100;
             
             // Get workout types distribution
-            Map<String, Long> workoutTypes = workouts.stream()
+            Map<String, Long> workoutTypes = dailyTotals.stream()
                 .collect(Collectors.groupingBy(
-                    Workout::getWorkoutType,
-                    Collectors.counting()
+                    WorkoutRepository.DailyWorkoutTotal::getWorkoutType,
+                    Collectors.summingLong(total -> workoutCount(total))
                 ));
+            int totalWorkouts = Math.toIntExact(workoutTypes.values().stream().mapToLong(Long::longValue).sum());
             
             frequency.put("workoutDays", workoutDays);
             frequency.put("totalDays", days);
             frequency.put("frequencyPercentage", Math.round(frequencyPercentage * 100.0) / 100.0);
             frequency.put("workoutTypes", workoutTypes);
-            frequency.put("totalWorkouts", workouts.size());
+            frequency.put("totalWorkouts", totalWorkouts);
             
         } catch (Exception e) {
             throw new RuntimeException("Error calculating workout frequency: " + e.getMessage());
@@ -356,82 +431,10 @@ public class DashboardService {
      * Calculate daily averages for key indicators over specified number of days
      */
     public Map<String, Object> getDailyAverages(Long userId, int days) {
-        Map<String, Object> averages = new HashMap<>();
+        Map<String, Object> averages;
         
         try {
-            LocalDate startDate = LocalDate.now().minusDays(days);
-            LocalDate endDate = LocalDate.now();
-            
-            // Get nutrition data for the period
-            List<Meal> meals = mealRepository
-                .findByUserUserIdAndMealTimeBetween(userId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-
-            List<Meal> mealsWithTimestamps = meals.stream()
-                .filter(meal -> meal.getMealTime() != null)
-                .collect(Collectors.toList());
-
-            // Calculate calorie intake totals and average
-            double totalCalories = mealsWithTimestamps.stream()
-                .map(Meal::getTotalCalories)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum();
-            double avgCalories = mealsWithTimestamps.stream()
-                .collect(Collectors.groupingBy(meal -> meal.getMealTime().toLocalDate()))
-                .entrySet().stream()
-                .mapToDouble(entry -> entry.getValue().stream()
-                    .mapToDouble(meal -> meal.getTotalCalories() != null
-                        ? meal.getTotalCalories().doubleValue()
-                        : 0.0)
-                    .sum())
-                .average()
-                .orElse(0.0);
-            
-            // Calculate macro distribution averages
-            Map<String, Double> avgMacros = calculateAverageMacros(mealsWithTimestamps);
-
-            // Get workout data for the period
-            List<Workout> workouts = workoutRepository
-                .findByUserUserIdAndWorkoutDateBetween(userId, startDate, endDate);
-            
-            int totalWorkoutDuration = workouts.stream()
-                .map(Workout::getDurationMinutes)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
-
-            double avgWorkoutDuration = workouts.stream()
-                .map(Workout::getDurationMinutes)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .average()
-                .orElse(0.0);
-            
-            double totalCaloriesBurnedValue = workouts.stream()
-                .map(Workout::getCaloriesBurned)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum();
-            int totalCaloriesBurned = (int) Math.round(totalCaloriesBurnedValue);
-
-            double avgCaloriesBurnedValue = workouts.stream()
-                .map(Workout::getCaloriesBurned)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .average()
-                .orElse(0.0);
-            int avgCaloriesBurned = (int) Math.round(avgCaloriesBurnedValue);
-            
-            averages.put("avgCaloriesIntake", (int) Math.round(avgCalories));
-            averages.put("avgMacros", avgMacros);
-            averages.put("avgWorkoutDuration", (int) Math.round(avgWorkoutDuration));
-            averages.put("avgCaloriesBurned", avgCaloriesBurned);
-            averages.put("periodDays", days);
-            averages.put("totalCaloriesIntake", (int) Math.round(totalCalories));
-            averages.put("totalWorkoutDuration", totalWorkoutDuration);
-            averages.put("totalCaloriesBurned", totalCaloriesBurned);
-            averages.put("workoutCount", workouts.size());
-            
+            averages = toAveragesMap(aggregateDailyAverages(userId, days).window(days));
         } catch (Exception e) {
             throw new RuntimeException("Error calculating daily averages: " + e.getMessage());
         }
@@ -439,18 +442,82 @@ public class DashboardService {
         return averages;
     }
 
+    /**
+     * Daily averages for several trailing windows from a single fetch of the widest one
+     */
+    public Map<Integer, DailyAveragesDTO> getDailyAveragesDTOs(Long userId, int... windows) {
+        Map<Integer, DailyAveragesDTO> result = new LinkedHashMap<>();
+        try {
+            if (userId != null) {
+                int maxDays = Arrays.stream(windows).max().orElse(0);
+                aggregateDailyAverages(userId, maxDays).windows(windows)
+                    .forEach((days, window) -> result.put(days, toDailyAveragesDTO(toAveragesMap(window))));
+            }
+        } catch (Exception e) {
+            result.clear();
+        }
+        for (int days : windows) {
+            result.putIfAbsent(days, createDefaultDailyAveragesDTO(days));
+        }
+        return result;
+    }
+
+    private DailyAveragesAggregator aggregateDailyAverages(Long userId, int maxDays) {
+        LocalDate today = LocalDate.now();
+        // One rollup row per active day, fetched once for the widest window
+        List<DailySummary> summaries = dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(
+            userId, DailyAveragesAggregator.windowStart(today, maxDays), today);
+        return new DailyAveragesAggregator(today, maxDays).addAll(summaries);
+    }
+
+    private Map<String, Object> toAveragesMap(DailyAveragesAggregator.Window window) {
+        Map<String, Object> averages = new HashMap<>();
+        averages.put("avgCaloriesIntake", (int) Math.round(window.avgCalories()));
+        averages.put("avgMacros", calculateAverageMacros(window));
+        averages.put("avgWorkoutDuration", (int) Math.round(window.avgWorkoutMinutes()));
+        averages.put("avgCaloriesBurned", (int) Math.round(window.avgCaloriesBurned()));
+        averages.put("periodDays", window.days());
+        averages.put("totalCaloriesIntake", (int) Math.round(window.totalCalories()));
+        averages.put("totalWorkoutDuration", window.totalWorkoutMinutes());
+        averages.put("totalCaloriesBurned", (int) Math.round(window.totalCaloriesBurned()));
+        averages.put("workoutCount", window.workoutCount());
+        return averages;
+    }
+
     /**
      * Get current streaks (consecutive workout days, nutrition target hits)
      */
     public Map<String, Object> getCurrentStreaks(Long userId) {
+        LocalDate today = LocalDate.now();
+        return getCurrentStreaks(
+            () -> workoutRepository.findDistinctWorkoutDates(userId, StreakEngine.windowStart(today), today),
+            () -> mealRepository.findDailyNutritionTotals(userId, StreakEngine.windowStart(today).atStartOfDay(), today.atTime(23, 59, 59)),
+            () -> getUserCalorieTarget(userId),
+            today
+        );
+    }
+
+    private Map<String, Object> getCurrentStreaks(ExportSnapshot snapshot) {
+        return getCurrentStreaks(
+            snapshot::getStreakWorkoutDays,
+            snapshot::getStreakNutritionTotals,
+            () -> calorieTargetFrom(getLatestBodyMetrics(snapshot)),
+            LocalDate.now()
+        );
+    }
+
+    private Map<String, Object> getCurrentStreaks(Supplier<List<LocalDate>> workoutDays,
+                                                  Supplier<List<MealRepository.DailyNutritionTotal>> nutritionTotals,
+                                                  DoubleSupplier calorieTarget,
+                                                  LocalDate today) {
         Map<String, Object> streaks = new HashMap<>();
         
         try {
             // Calculate workout streak
-            int workoutStreak = calculateWorkoutStreak(userId);
+            int workoutStreak = calculateWorkoutStreak(workoutDays.get(), today);
             
             // Calculate nutrition target streak
-            int nutritionStreak = calculateNutritionTargetStreak(userId);
+            int nutritionStreak = calculateNutritionTargetStreak(nutritionTotals.get(), calorieTarget, today);
             
             // Calculate overall consistency streak (both workout and nutrition)
             int consistencyStreak = Math.min(workoutStreak, nutritionStreak);
@@ -470,121 +537,66 @@ public class DashboardService {
         return streaks;
     }
 
-    private Map<String, Double> calculateAverageMacros(List<Meal> meals) {
+    private Map<String, Double> calculateAverageMacros(DailyAveragesAggregator.Window window) {
         Map<String, Double> avgMacros = new HashMap<>();
-        
-        if (meals.isEmpty()) {
-            avgMacros.put("protein", 0.0);
-            avgMacros.put("carbs", 0.0);
-            avgMacros.put("fats", 0.0);
-            return avgMacros;
-        }
-        
-        Map<LocalDate, List<Meal>> dailyMeals = meals.stream()
-            .filter(meal -> meal.getMealTime() != null)
-            .collect(Collectors.groupingBy(meal -> meal.getMealTime().toLocalDate()));
-        
-        // Calculate daily totals first, then average
-        double avgProtein = dailyMeals.entrySet().stream()
-            .mapToDouble(entry -> entry.getValue().stream()
-                .map(Meal::getProteinG)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum())
-            .average()
-            .orElse(0.0);
-            
-        double avgCarbs = dailyMeals.entrySet().stream()
-            .mapToDouble(entry -> entry.getValue().stream()
-                .map(Meal::getCarbsG)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum())
-            .average()
-            .orElse(0.0);
-            
-        double avgFats = dailyMeals.entrySet().stream()
-            .mapToDouble(entry -> entry.getValue().stream()
-                .map(Meal::getFatG)
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum())
-            .average()
-            .orElse(0.0);
-        
-        avgMacros.put("protein", Math.round(avgProtein * 100.0) / 100.0);
-        avgMacros.put("carbs", Math.round(avgCarbs * 100.0) / 100.0);
-        avgMacros.put("fats", Math.round(avgFats * 100.0) / 100.0);
-        
+        avgMacros.put("protein", Math.round(window.avgProtein() * 100.0) / 100.0);
+        avgMacros.put("carbs", Math.round(window.avgCarbs() * 100.0) / 100.0);
+        avgMacros.put("fats", Math.round(window.avgFat() * 100.0) / 100.0);
         return avgMacros;
     }
-    
-    private int calculateWorkoutStreak(Long userId) {
-        LocalDate currentDate = LocalDate.now();
-        int streak = 0;
-        
-        // Check each day backwards until we find a day without workout
-        while (true) {
-            List<Workout> workoutsForDate = workoutRepository
-                .findByUserUserIdAndWorkoutDate(userId, currentDate.minusDays(streak));
-            
-            if (workoutsForDate.isEmpty()) {
-                break;
-            }
-            
-            streak++;
-            
-            // Prevent infinite loop - max reasonable streak check
-            if (streak > 365) break;
-        }
-        
-        return streak;
+
+    private static double sum(List<DailySummary> summaries, Function<DailySummary, BigDecimal> column) {
+        return summaries.stream()
+            .map(column)
+            .filter(Objects::nonNull)
+            .mapToDouble(BigDecimal::doubleValue)
+            .sum();
     }
     
-    private int calculateNutritionTargetStreak(Long userId) {
-        LocalDate currentDate = LocalDate.now();
-        int streak = 0;
-        
-        // You'll need to define what constitutes "hitting nutrition targets"
-        // For now, let's assume hitting 80% of calorie target
-        while (true) {
-            boolean hitTarget = checkNutritionTargetForDate(userId, currentDate.minusDays(streak));
-            
-            if (!hitTarget) {
-                break;
-            }
-            
-            streak++;
-            
-            // Prevent infinite loop
-            if (streak > 365) break;
-        }
-        
-        return streak;
+    /**
+     * Workout streak from a single distinct-dates fetch over the streak window
+     */
+    private int calculateWorkoutStreak(List<LocalDate> workoutDays, LocalDate today) {
+        return StreakEngine.currentStreak(workoutDays, today);
     }
-    
-    private boolean checkNutritionTargetForDate(Long userId, LocalDate date) {
-        // Get daily meals for the date
-        List<Meal> dailyMeals = mealRepository
-            .findByUserUserIdAndMealTimeBetween(userId, date.atStartOfDay(), date.atTime(23, 59, 59));
-        
-        if (dailyMeals.isEmpty()) return false;
-        
-        double totalCalories = dailyMeals.stream()
-            .mapToDouble(meal -> meal.getTotalCalories().doubleValue())
-            .sum();
-        
-        // Get user's calorie target (you'll need to implement this)
-        double calorieTarget = getUserCalorieTarget(userId);
-        
+
+    /**
+     * Nutrition streak from a single per-day nutrition rollup over the streak window
+     */
+    private int calculateNutritionTargetStreak(List<MealRepository.DailyNutritionTotal> dailyTotals,
+                                               DoubleSupplier calorieTargetSupplier,
+                                               LocalDate today) {
+        if (dailyTotals.isEmpty()) return 0;
+
+        // The target does not vary by day, so resolve it once for the whole window
+        double calorieTarget = calorieTargetSupplier.getAsDouble();
+
+        List<LocalDate> targetDays = dailyTotals.stream()
+            .filter(total -> hitsCalorieTarget(total, calorieTarget))
+            .map(MealRepository.DailyNutritionTotal::getDay)
+            .collect(Collectors.toList());
+
+        return StreakEngine.currentStreak(targetDays, today);
+    }
+
+    private boolean hitsCalorieTarget(MealRepository.DailyNutritionTotal dailyTotal, double calorieTarget) {
+        if (dailyTotal.getMealCount() == null || dailyTotal.getMealCount() == 0) return false;
+
+        double totalCalories = dailyTotal.getTotalCalories() != null
+            ? dailyTotal.getTotalCalories().doubleValue()
+            : 0.0;
+
         // Consider target hit if within 80-120% of target
         return totalCalories >= (calorieTarget * 0.8) && totalCalories <= (calorieTarget * 1.2);
     }
     
     private double getUserCalorieTarget(Long userId) {
+        return calorieTargetFrom(getLatestBodyMetrics(userId));
+    }
+
+    private double calorieTargetFrom(Map<String, Object> bodyMetrics) {
         // This should fetch from user preferences/goals
         // For now, return a default based on BMR * activity level
-        Map<String, Object> bodyMetrics = getLatestBodyMetrics(userId);
         double bmr = (Double) bodyMetrics.get("bmr");
         return bmr * 1.4; // Moderate activity level
     }
@@ -599,26 +611,54 @@ public class DashboardService {
 
     // Export Methods
 
+    /**
+     * Parse the export range and prepare the data behind every export section.
+     * Each piece is queried the first time a section reads it, then shared by the other sections.
+     * @param aiInsightService source of the user's insights, or null when insights are not exported
+     */
+    public ExportSnapshot loadExportSnapshot(Long userId, String dateRange, AIInsightService aiInsightService) {
+        LocalDate[] dates = parseDateRange(dateRange);
+        LocalDate startDate = dates[0];
+        LocalDate endDate = dates[1];
+        LocalDate today = LocalDate.now();
+        LocalDate streakStart = StreakEngine.windowStart(today);
+
+        return new ExportSnapshot(userId, dateRange, startDate, endDate,
+            () -> userRepository.findById(userId),
+            () -> findProfile(userId),
+            () -> userMetricsRepository.findTopByUserUserIdOrderByRecordAt(userId),
+            () -> userMetricsRepository.findSecondLatestByUserId(userId),
+            () -> dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(userId, startDate, endDate),
+            () -> workoutRepository.findDailyWorkoutTotals(userId, startDate, endDate),
+            () -> workoutRepository.findDistinctWorkoutDates(userId, streakStart, today),
+            () -> mealRepository.findDailyNutritionTotals(userId, streakStart.atStartOfDay(), today.atTime(23, 59, 59)),
+            () -> aiInsightService != null ? aiInsightService.getLatestInsights() : new ArrayList<>()
+        );
+    }
+
     /**
      * Get user profile data for export
      * Note: Age and gender are now retrieved from UserProfile instead of UserMetrics
      */
     public UserProfileExportDTO getUserProfileForExport(Long userId) {
+        return getUserProfileForExport(loadExportSnapshot(userId, null, null));
+    }
+
+    public UserProfileExportDTO getUserProfileForExport(ExportSnapshot snapshot) {
         try {
-            User user = userRepository.findById(userId)
+            User user = snapshot.getUser()
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-            Map<String, Object> bodyMetrics = getLatestBodyMetrics(userId);
+            Map<String, Object> bodyMetrics = getLatestBodyMetrics(snapshot);
 
             // Get age and gender from UserProfile (current user data)
-            Map<String, Object> profileData = getAgeAndGenderFromProfile(userId);
+            Map<String, Object> profileData = getAgeAndGender(snapshot.getProfile());
             Integer age = (Integer) profileData.get("age");
             String gender = (String) profileData.get("gender");
 
             // Get user goal from latest metrics (historical snapshot)
             String userGoal = null;
-            Optional<UserMetrics> latestMetrics = userMetricsRepository
-                .findTopByUserUserIdOrderByRecordAt(userId);
+            Optional<UserMetrics> latestMetrics = snapshot.getLatestMetrics();
 
             if (latestMetrics.isPresent()) {
                 userGoal = latestMetrics.get().getUserGoal();
@@ -646,24 +686,29 @@ public class DashboardService {
      * Get nutrition summary data for export
      */
     public NutritionSummaryExportDTO getNutritionSummaryForExport(Long userId, String dateRange) {
+        return getNutritionSummaryForExport(loadExportSnapshot(userId, dateRange, null));
+    }
+
+    public NutritionSummaryExportDTO getNutritionSummaryForExport(ExportSnapshot snapshot) {
         try {
-            LocalDate[] dates = parseDateRange(dateRange);
-            LocalDate startDate = dates[0];
-            LocalDate endDate = dates[1];
+            LocalDate startDate = snapshot.getStartDate();
+            LocalDate endDate = snapshot.getEndDate();
 
-            List<Meal> meals = mealRepository
-                .findByUserUserIdAndMealTimeBetween(userId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+            List<DailySummary> summaries = snapshot.getDailySummaries();
 
             // Calculate totals
-            double totalCalories = meals.stream()
-                .mapToDouble(meal -> meal.getTotalCalories().doubleValue())
+            double totalCalories = sum(summaries, DailySummary::getTotalCaloriesConsumed);
+            int totalMeals = summaries.stream()
+                .map(DailySummary::getMealCount)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
                 .sum();
 
             int dayCount = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
             double avgDailyCalories = totalCalories / dayCount;
 
             // Calculate macros
-            MacrosDTO totalMacros = calculateTotalMacros(meals);
+            MacrosDTO totalMacros = calculateTotalMacros(summaries);
             MacrosDTO avgDailyMacros = new MacrosDTO(
                 totalMacros.getProtein() / dayCount,
                 totalMacros.getCarbs() / dayCount,
@@ -671,10 +716,10 @@ public class DashboardService {
             );
 
             // Daily breakdown
-            List<NutritionSummaryExportDTO.DailyNutritionDTO> dailyBreakdown = calculateDailyNutritionBreakdown(meals, startDate, endDate);
+            List<NutritionSummaryExportDTO.DailyNutritionDTO> dailyBreakdown = calculateDailyNutritionBreakdown(summaries, startDate, endDate);
 
             // Calculate progress metrics
-            double calorieTarget = getUserCalorieTarget(userId);
+            double calorieTarget = calorieTargetFrom(getLatestBodyMetrics(snapshot));
             double calorieTargetProgress = (avgDailyCalories / calorieTarget) * 100;
             String nutritionGoalStatus = determineNutritionGoalStatus(calorieTargetProgress);
 
@@ -684,8 +729,8 @@ public class DashboardService {
                 avgDailyCalories,
                 totalMacros,
                 avgDailyMacros,
-                meals.size(),
-                (double) meals.size() / dayCount,
+                totalMeals,
+                (double) totalMeals / dayCount,
                 dailyBreakdown,
                 calorieTargetProgress,
                 nutritionGoalStatus
@@ -699,41 +744,45 @@ public class DashboardService {
      * Get workout history data for export
      */
     public WorkoutHistoryExportDTO getWorkoutHistoryForExport(Long userId, String dateRange) {
+        return getWorkoutHistoryForExport(loadExportSnapshot(userId, dateRange, null));
+    }
+
+    public WorkoutHistoryExportDTO getWorkoutHistoryForExport(ExportSnapshot snapshot) {
         try {
-            LocalDate[] dates = parseDateRange(dateRange);
-            LocalDate startDate = dates[0];
-            LocalDate endDate = dates[1];
+            LocalDate startDate = snapshot.getStartDate();
+            LocalDate endDate = snapshot.getEndDate();
 
-            List<Workout> workouts = workoutRepository
-                .findByUserUserIdAndWorkoutDateBetween(userId, startDate, endDate);
+            List<WorkoutRepository.DailyWorkoutTotal> dailyTotals = snapshot.getDailyWorkoutTotals();
 
             // Calculate totals
-            int totalWorkouts = workouts.size();
-            long totalWorkoutDays = workouts.stream()
-                .map(Workout::getWorkoutDate)
+            int totalWorkouts = dailyTotals.stream()
+                .mapToInt(total -> Math.toIntExact(workoutCount(total)))
+                .sum();
+            long totalWorkoutDays = dailyTotals.stream()
+                .map(WorkoutRepository.DailyWorkoutTotal::getDay)
                 .distinct()
                 .count();
 
-            double totalCaloriesBurned = workouts.stream()
-                .mapToDouble(w -> w.getCaloriesBurned().doubleValue())
+            double totalCaloriesBurned = dailyTotals.stream()
+                .mapToDouble(total -> caloriesBurned(total))
                 .sum();
 
-            int totalDurationMinutes = workouts.stream()
-                .mapToInt(Workout::getDurationMinutes)
+            int totalDurationMinutes = dailyTotals.stream()
+                .mapToInt(total -> durationMinutes(total))
                 .sum();
 
             double avgWorkoutDuration = totalWorkouts > 0 ? (double) totalDurationMinutes / totalWorkouts : 0.0;
             double avgCaloriesBurnedPerWorkout = totalWorkouts > 0 ? totalCaloriesBurned / totalWorkouts : 0.0;
 
             // Workout type distribution
-            Map<String, Integer> workoutTypeDistribution = workouts.stream()
+            Map<String, Integer> workoutTypeDistribution = dailyTotals.stream()
                 .collect(Collectors.groupingBy(
-                    Workout::getWorkoutType,
-                    Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
+                    WorkoutRepository.DailyWorkoutTotal::getWorkoutType,
+                    Collectors.summingInt(total -> Math.toIntExact(workoutCount(total)))
                 ));
 
             // Daily breakdown
-            List<WorkoutHistoryExportDTO.DailyWorkoutDTO> dailyBreakdown = calculateDailyWorkoutBreakdown(workouts, startDate, endDate);
+            List<WorkoutHistoryExportDTO.DailyWorkoutDTO> dailyBreakdown = calculateDailyWorkoutBreakdown(dailyTotals, startDate, endDate);
 
             // Calculate consistency metrics
             int dayCount = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
@@ -762,10 +811,14 @@ public class DashboardService {
      * Get progress metrics data for export
      */
     public ProgressMetricsExportDTO getProgressMetricsForExport(Long userId, String dateRange) {
+        return getProgressMetricsForExport(loadExportSnapshot(userId, dateRange, null));
+    }
+
+    public ProgressMetricsExportDTO getProgressMetricsForExport(ExportSnapshot snapshot) {
         try {
-            LocalDate[] dates = parseDateRange(dateRange);
-            LocalDate startDate = dates[0];
-            LocalDate endDate = dates[1];
+            Long userId = snapshot.getUserId();
+            LocalDate startDate = snapshot.getStartDate();
+            LocalDate endDate = snapshot.getEndDate();
 
             // Weight progress
             ProgressMetricsExportDTO.WeightProgressDTO weightProgress = calculateWeightProgress(userId, startDate, endDate);
@@ -803,15 +856,23 @@ public class DashboardService {
      * Get AI insights data for export with date filtering
      */
     public List<AIInsightDTO> getAIInsightsForExport(Long userId, String dateRange, AIInsightService aiInsightService) {
+        try {
+            return getAIInsightsForExport(loadExportSnapshot(userId, dateRange, aiInsightService));
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
+
+    public List<AIInsightDTO> getAIInsightsForExport(ExportSnapshot snapshot) {
         try {
             // Get latest insights from AI service
-            List<AIInsightDTO> insights = aiInsightService.getLatestInsights();
+            List<AIInsightDTO> insights = snapshot.getInsights();
 
             // Filter by date range if specified
+            String dateRange = snapshot.getDateRange();
             if (dateRange != null && !dateRange.isEmpty()) {
-                LocalDate[] dates = parseDateRange(dateRange);
-                LocalDate startDate = dates[0];
-                LocalDate endDate = dates[1];
+                LocalDate startDate = snapshot.getStartDate();
+                LocalDate endDate = snapshot.getEndDate();
 
                 insights = insights.stream()
                     .filter(insight -> {
@@ -832,14 +893,20 @@ public class DashboardService {
      * Get achievements data for export
      */
     public AchievementsExportDTO getAchievementsForExport(Long userId) {
+        return getAchievementsForExport(loadExportSnapshot(userId, null, null));
+    }
+
+    public AchievementsExportDTO getAchievementsForExport(ExportSnapshot snapshot) {
         try {
+            Long userId = snapshot.getUserId();
+
             // For now, create sample achievements data
             // In a real implementation, you would fetch from an achievements repository
 
             List<AchievementsExportDTO.AchievementDTO> completedAchievements = createSampleAchievements("completed");
             List<AchievementsExportDTO.AchievementDTO> inProgressAchievements = createSampleAchievements("in_progress");
 
-            StreaksDTO currentStreaks = getCurrentStreaksDTO(userId);
+            StreaksDTO currentStreaks = getCurrentStreaksDTO(snapshot);
             List<AchievementsExportDTO.MilestoneDTO> milestones = createSampleMilestones(userId);
 
             int totalAchievements = completedAchievements.size();
@@ -917,107 +984,145 @@ public class DashboardService {
      */
     public List<au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO>
     getDailyProgress(Long userId, String dateRange) {
+        DailyProgressSeriesDTO series = getDailyProgressSeries(userId, dateRange);
+
+        List<au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO> points =
+            new ArrayList<>(series.getDates().size());
+        for (int i = 0; i < series.getDates().size(); i++) {
+            points.add(new au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO(
+                series.getDates().get(i), series.getWeights()[i], series.getCalories()[i], series.getWorkouts()[i]
+            ));
+        }
+        return points;
+    }
+
+    /**
+     * Same series as {@link #getDailyProgress}, as parallel arrays for long ranges
+     */
+    public DailyProgressSeriesDTO getDailyProgressSeries(Long userId, String dateRange) {
         LocalDate[] dates = parseDateRange(dateRange);
         LocalDate startDate = dates[0];
         LocalDate endDate = dates[1];
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        List<LocalDate> seriesDates = new ArrayList<>(days);
+        double[] weights = new double[days];
+        int[] calories = new int[days];
+        int[] workouts = new int[days];
+
+        // Nutrition and workouts: read per-day totals straight from the rollup
+        List<DailySummary> summaries = dailySummaryRepository
+            .findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(userId, startDate, endDate);
+        for (DailySummary summary : summaries) {
+            long offset = ChronoUnit.DAYS.between(startDate, summary.getSummaryDate());
+            if (offset < 0 || offset >= days) {
+                continue;
+            }
+            if (summary.getTotalCaloriesConsumed() != null) {
+                calories[(int) offset] = (int) Math.round(summary.getTotalCaloriesConsumed().doubleValue());
+            }
+            if (summary.getWorkoutCount() != null) {
+                workouts[(int) offset] = summary.getWorkoutCount();
+            }
+        }
 
-        // Nutrition: gather meals in range and sum by day
-        List<Meal> meals = mealRepository
-            .findByUserUserIdAndMealTimeBetween(userId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        Map<LocalDate, Integer> caloriesByDay = meals.stream()
-            .collect(Collectors.groupingBy(m -> m.getMealTime().toLocalDate(),
-                    Collectors.collectingAndThen(
-                        Collectors.summingDouble(m -> m.getTotalCalories() != null ? m.getTotalCalories().doubleValue() : 0.0),
-                        d -> (int) Math.round(d)
-                    )));
-
-        // Workouts: count by day
-        List<Workout> workouts = workoutRepository
-            .findByUserUserIdAndWorkoutDateBetween(userId, startDate, endDate);
-        Map<LocalDate, Integer> workoutsByDay = workouts.stream()
-            .collect(Collectors.groupingBy(Workout::getWorkoutDate,
-                    Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)));
-
-        // Weight: carry-forward last-known weight from user_metrics up to each date
-        List<UserMetrics> metricsAll = userMetricsRepository
-            .findByUserUserIdOrderByCreatedAtDesc(userId);
-        // Reverse to ascending by createdAt for carry-forward
-        Collections.reverse(metricsAll);
-
-        List<au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO> points = new ArrayList<>();
-        Double lastWeight = null;
-        int metricIdx = 0;
-        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            // advance lastWeight if there is a metric created on/before this day
-            while (metricIdx < metricsAll.size()) {
-                UserMetrics m = metricsAll.get(metricIdx);
-                if (m.getCreatedDate() != null && !m.getCreatedDate().toLocalDate().isAfter(d)) {
-                    lastWeight = m.getWeight();
-                    metricIdx++;
-                } else {
-                    break;
-                }
+        // Weight: carry forward the last reading before the range, then the readings inside it
+        Double lastWeight = userMetricsRepository.findLastWeightBefore(userId, startDate.atStartOfDay())
+            .map(this::weightOf)
+            .orElse(null);
+        List<UserMetricsRepository.WeightPoint> readings = userMetricsRepository
+            .findWeightsBetween(userId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+
+        int readingIdx = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate d = startDate.plusDays(i);
+            // advance lastWeight past every reading taken on/before this day
+            while (readingIdx < readings.size()
+                && !readings.get(readingIdx).getCreatedAt().toLocalDate().isAfter(d)) {
+                lastWeight = weightOf(readings.get(readingIdx));
+                readingIdx++;
             }
 
-            int cals = caloriesByDay.getOrDefault(d, 0);
-            int wks = workoutsByDay.getOrDefault(d, 0);
-            points.add(new au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyProgressPointDTO(
-                d, lastWeight != null ? Math.round(lastWeight * 10.0) / 10.0 : 0.0, cals, wks
-            ));
+            seriesDates.add(d);
+            weights[i] = lastWeight != null ? Math.round(lastWeight * 10.0) / 10.0 : 0.0;
         }
 
-        return points;
+        return new DailyProgressSeriesDTO(seriesDates, weights, calories, workouts);
     }
 
-    private MacrosDTO calculateTotalMacros(List<Meal> meals) {
-        double totalProtein = meals.stream().mapToDouble(m -> m.getProteinG().doubleValue()).sum();
-        double totalCarbs = meals.stream().mapToDouble(m -> m.getCarbsG().doubleValue()).sum();
-        double totalFats = meals.stream().mapToDouble(m -> m.getFatG().doubleValue()).sum();
+    private double weightOf(UserMetricsRepository.WeightPoint reading) {
+        return reading.getWeightKg() != null ? reading.getWeightKg().doubleValue() : 0.0;
+    }
+
+    private MacrosDTO calculateTotalMacros(List<DailySummary> summaries) {
+        double totalProtein = sum(summaries, DailySummary::getTotalProteinG);
+        double totalCarbs = sum(summaries, DailySummary::getTotalCarbsG);
+        double totalFats = sum(summaries, DailySummary::getTotalFatG);
 
         return new MacrosDTO(totalProtein, totalCarbs, totalFats);
     }
 
-    private List<NutritionSummaryExportDTO.DailyNutritionDTO> calculateDailyNutritionBreakdown(List<Meal> meals, LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, List<Meal>> dailyMeals = meals.stream()
-            .collect(Collectors.groupingBy(meal -> meal.getMealTime().toLocalDate()));
+    private List<NutritionSummaryExportDTO.DailyNutritionDTO> calculateDailyNutritionBreakdown(List<DailySummary> summaries, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, DailySummary> summaryByDay = summaries.stream()
+            .collect(Collectors.toMap(DailySummary::getSummaryDate, summary -> summary, (a, b) -> a));
 
-        List<NutritionSummaryExportDTO.DailyNutritionDTO> breakdown = new ArrayList<>();;
+        List<NutritionSummaryExportDTO.DailyNutritionDTO> breakdown = new ArrayList<>();
 
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<Meal> dayMeals = dailyMeals.getOrDefault(date, new ArrayList<>());
+            DailySummary summary = summaryByDay.get(date);
+            List<DailySummary> day = summary != null ? List.of(summary) : List.of();
 
-            double dailyCalories = dayMeals.stream().mapToDouble(m -> m.getTotalCalories().doubleValue()).sum();
-            MacrosDTO dailyMacros = calculateTotalMacros(dayMeals);
+            double dailyCalories = sum(day, DailySummary::getTotalCaloriesConsumed);
+            MacrosDTO dailyMacros = calculateTotalMacros(day);
+            int dailyMeals = summary != null && summary.getMealCount() != null ? summary.getMealCount() : 0;
 
             breakdown.add(new NutritionSummaryExportDTO.DailyNutritionDTO(
-                date, dailyCalories, dailyMacros, dayMeals.size()
+                date, dailyCalories, dailyMacros, dailyMeals
             ));
         }
 
         return breakdown;
     }
 
-    private List<WorkoutHistoryExportDTO.DailyWorkoutDTO> calculateDailyWorkoutBreakdown(List<Workout> workouts, LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, List<Workout>> dailyWorkouts = workouts.stream()
-            .collect(Collectors.groupingBy(Workout::getWorkoutDate));
+    private List<WorkoutHistoryExportDTO.DailyWorkoutDTO> calculateDailyWorkoutBreakdown(List<WorkoutRepository.DailyWorkoutTotal> dailyTotals,
+                                                                                        LocalDate startDate, LocalDate endDate) {
+        // One row per (day, type) from the database, so each day only has a handful of rows to fold
+        Map<LocalDate, List<WorkoutRepository.DailyWorkoutTotal>> totalsByDay = dailyTotals.stream()
+            .collect(Collectors.groupingBy(WorkoutRepository.DailyWorkoutTotal::getDay));
 
         List<WorkoutHistoryExportDTO.DailyWorkoutDTO> breakdown = new ArrayList<>();
 
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<Workout> dayWorkouts = dailyWorkouts.getOrDefault(date, new ArrayList<>());
+            List<WorkoutRepository.DailyWorkoutTotal> dayTotals = totalsByDay.getOrDefault(date, Collections.emptyList());
 
-            int totalDuration = dayWorkouts.stream().mapToInt(Workout::getDurationMinutes).sum();
-            double totalCaloriesBurned = dayWorkouts.stream().mapToDouble(w -> w.getCaloriesBurned().doubleValue()).sum();
-            List<String> workoutTypes = dayWorkouts.stream().map(Workout::getWorkoutType).distinct().collect(Collectors.toList());
+            int workoutsCount = dayTotals.stream().mapToInt(total -> Math.toIntExact(workoutCount(total))).sum();
+            int totalDuration = dayTotals.stream().mapToInt(total -> durationMinutes(total)).sum();
+            double totalCaloriesBurned = dayTotals.stream().mapToDouble(total -> caloriesBurned(total)).sum();
+            List<String> workoutTypes = dayTotals.stream()
+                .map(WorkoutRepository.DailyWorkoutTotal::getWorkoutType)
+                .distinct()
+                .collect(Collectors.toList());
 
             breakdown.add(new WorkoutHistoryExportDTO.DailyWorkoutDTO(
-                date, dayWorkouts.size(), totalDuration, totalCaloriesBurned, workoutTypes
+                date, workoutsCount, totalDuration, totalCaloriesBurned, workoutTypes
             ));
         }
 
         return breakdown;
     }
 
+    private static long workoutCount(WorkoutRepository.DailyWorkoutTotal total) {
+        return total.getWorkoutCount() != null ? total.getWorkoutCount() : 0L;
+    }
+
+    private static int durationMinutes(WorkoutRepository.DailyWorkoutTotal total) {
+        return total.getTotalDurationMinutes() != null ? Math.toIntExact(total.getTotalDurationMinutes()) : 0;
+    }
+
+    private static double caloriesBurned(WorkoutRepository.DailyWorkoutTotal total) {
+        return total.getTotalCaloriesBurned() != null ? total.getTotalCaloriesBurned().doubleValue() : 0.0;
+    }
+
     private String determineNutritionGoalStatus(double calorieTargetProgress) {
         if (calorieTargetProgress >= 90 && calorieTargetProgress <= 110) return "On Track";
         else if (calorieTargetProgress < 80) return "Under Target";
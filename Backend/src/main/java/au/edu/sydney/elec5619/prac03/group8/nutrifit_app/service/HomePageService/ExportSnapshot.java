@@ -0,0 +1,124 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserProfile;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The data behind one export request: a user, a parsed date range, and everything the export sections read.
+ * Each piece is fetched the first time a section asks for it and then shared, so building every section
+ * costs one query per piece instead of one query set per section.
+ * Created by {@link DashboardService#loadExportSnapshot}; meant to live for a single request and thread.
+ */
+public final class ExportSnapshot {
+
+    private final Long userId;
+    private final String dateRange;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    private final Memo<Optional<User>> user;
+    private final Memo<Optional<UserProfile>> profile;
+    private final Memo<Optional<UserMetrics>> latestMetrics;
+    private final Memo<Optional<UserMetrics>> previousMetrics;
+    private final Memo<List<DailySummary>> dailySummaries;
+    private final Memo<List<WorkoutRepository.DailyWorkoutTotal>> dailyWorkoutTotals;
+    private final Memo<List<LocalDate>> streakWorkoutDays;
+    private final Memo<List<MealRepository.DailyNutritionTotal>> streakNutritionTotals;
+    private final Memo<List<AIInsightDTO>> insights;
+
+    ExportSnapshot(Long userId, String dateRange, LocalDate startDate, LocalDate endDate,
+                   Supplier<Optional<User>> user,
+                   Supplier<Optional<UserProfile>> profile,
+                   Supplier<Optional<UserMetrics>> latestMetrics,
+                   Supplier<Optional<UserMetrics>> previousMetrics,
+                   Supplier<List<DailySummary>> dailySummaries,
+                   Supplier<List<WorkoutRepository.DailyWorkoutTotal>> dailyWorkoutTotals,
+                   Supplier<List<LocalDate>> streakWorkoutDays,
+                   Supplier<List<MealRepository.DailyNutritionTotal>> streakNutritionTotals,
+                   Supplier<List<AIInsightDTO>> insights) {
+        this.userId = userId;
+        this.dateRange = dateRange;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.user = new Memo<>(user);
+        this.profile = new Memo<>(profile);
+        this.latestMetrics = new Memo<>(latestMetrics);
+        this.previousMetrics = new Memo<>(previousMetrics);
+        this.dailySummaries = new Memo<>(dailySummaries);
+        this.dailyWorkoutTotals = new Memo<>(dailyWorkoutTotals);
+        this.streakWorkoutDays = new Memo<>(streakWorkoutDays);
+        this.streakNutritionTotals = new Memo<>(streakNutritionTotals);
+        this.insights = new Memo<>(insights);
+    }
+
+    public Long getUserId() { return userId; }
+
+    /**
+     * The range as requested (may be null), used for export metadata
+     */
+    public String getDateRange() { return dateRange; }
+
+    public LocalDate getStartDate() { return startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+
+    public Optional<User> getUser() { return user.get(); }
+
+    public Optional<UserProfile> getProfile() { return profile.get(); }
+
+    public Optional<UserMetrics> getLatestMetrics() { return latestMetrics.get(); }
+
+    public Optional<UserMetrics> getPreviousMetrics() { return previousMetrics.get(); }
+
+    /**
+     * Rollup rows within the export range, oldest first
+     */
+    public List<DailySummary> getDailySummaries() { return dailySummaries.get(); }
+
+    /**
+     * Per (day, workout type) totals within the export range
+     */
+    public List<WorkoutRepository.DailyWorkoutTotal> getDailyWorkoutTotals() { return dailyWorkoutTotals.get(); }
+
+    /**
+     * Workout days over the streak window ending today, which does not depend on the export range
+     */
+    public List<LocalDate> getStreakWorkoutDays() { return streakWorkoutDays.get(); }
+
+    /**
+     * Per-day nutrition totals over the streak window ending today
+     */
+    public List<MealRepository.DailyNutritionTotal> getStreakNutritionTotals() { return streakNutritionTotals.get(); }
+
+    public List<AIInsightDTO> getInsights() { return insights.get(); }
+
+    /**
+     * Loads once on first access. A loader that throws is retried on the next access.
+     */
+    private static final class Memo<T> {
+        private Supplier<T> loader;
+        private T value;
+
+        Memo(Supplier<T> loader) {
+            this.loader = loader;
+        }
+
+        T get() {
+            if (loader != null) {
+                value = loader.get();
+                loader = null;
+            }
+            return value;
+        }
+    }
+}
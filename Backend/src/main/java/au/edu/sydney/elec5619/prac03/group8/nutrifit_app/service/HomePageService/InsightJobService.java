@@ -0,0 +1,182 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.CreateInsightRequestDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.InsightJobResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.InsightJobResponseDTO.Status;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs AI insight generation as background jobs, so the request that asks for one returns straight away with a
+ * job id. A small worker pool generates insights outside any transaction (see
+ * {@link AIInsightService#generateInsight}) and the insight is saved when the model answers; clients poll the
+ * job or wait for its completion event. Jobs live in memory on this instance for {@code retention} after they
+ * were last updated. When every worker is busy and the queue is full, new jobs are refused with
+ * {@link TooManyRequestsException}.
+ */
+@Slf4j
+@Service
+public class InsightJobService {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final AIInsightService aiInsightService;
+    private final SecurityUtil securityUtil;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Job> jobs;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public InsightJobService(AIInsightService aiInsightService,
+                             SecurityUtil securityUtil,
+                             @Value("${app.insight-jobs.threads:4}") int threads,
+                             @Value("${app.insight-jobs.queue-capacity:100}") int queueCapacity,
+                             @Value("${app.insight-jobs.retention:PT15M}") Duration retention,
+                             @Value("${app.insight-jobs.max-jobs:10000}") long maxJobs) {
+        this(aiInsightService, securityUtil, threads, queueCapacity, retention, maxJobs, Clock.systemUTC());
+    }
+
+    InsightJobService(AIInsightService aiInsightService, SecurityUtil securityUtil, int threads, int queueCapacity,
+                      Duration retention, long maxJobs, Clock clock) {
+        this.aiInsightService = aiInsightService;
+        this.securityUtil = securityUtil;
+        this.clock = clock;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "insight-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.jobs = Caffeine.newBuilder()
+            .maximumSize(maxJobs)
+            .expireAfterWrite(retention)
+            .build();
+    }
+
+    /**
+     * Queue an insight for the current user. The returned job is usually QUEUED, but a quick worker may have
+     * moved it on already.
+     */
+    public InsightJobResponseDTO enqueue(CreateInsightRequestDTO request) {
+        User user = securityUtil.getCurrentUserOrThrow();
+        Job job = new Job(user.getUserId(),
+            new InsightJobResponseDTO(UUID.randomUUID().toString(), Status.QUEUED, null, null, clock.instant(), null));
+        jobs.put(job.id(), job);
+
+        try {
+            executor.execute(() -> run(job, user, request));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id());
+            rejected.increment();
+            log.warn("Insight job queue full ({} waiting), rejecting request from user {}",
+                executor.getQueue().size(), user.getUserId());
+            throw new TooManyRequestsException("Too many insights are being generated, please try again shortly",
+                RETRY_AFTER);
+        }
+        log.debug("Queued insight job {} for user {}", job.id(), user.getUserId());
+        return job.snapshot;
+    }
+
+    /**
+     * The job, if it exists and belongs to the current user
+     */
+    public Optional<InsightJobResponseDTO> getJob(String jobId) {
+        return ownedJob(jobId).map(job -> job.snapshot);
+    }
+
+    /**
+     * Completes with the finished job; empty if the job does not exist or belongs to someone else
+     */
+    public Optional<CompletableFuture<InsightJobResponseDTO>> whenFinished(String jobId) {
+        return ownedJob(jobId).map(job -> job.finished.copy());
+    }
+
+    public Stats stats() {
+        return new Stats(executor.getQueue().size(), executor.getActiveCount(),
+            succeeded.sum(), failed.sum(), rejected.sum(), jobs.estimatedSize());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Optional<Job> ownedJob(String jobId) {
+        Long userId = securityUtil.getCurrentUserId();
+        return Optional.ofNullable(jobs.getIfPresent(jobId))
+            .filter(job -> job.userId.equals(userId));
+    }
+
+    private void run(Job job, User user, CreateInsightRequestDTO request) {
+        update(job, Status.RUNNING, null, null);
+        try {
+            // The worker waits here rather than a servlet thread, and with no connection held
+            AIInsightDTO insight = aiInsightService.generateInsight(user, request).join();
+            succeeded.increment();
+            update(job, Status.SUCCEEDED, insight, null);
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Insight job {} failed for user {}: {}", job.id(), user.getUserId(), cause.getMessage(), cause);
+            failed.increment();
+            update(job, Status.FAILED, null, cause.getMessage());
+        }
+    }
+
+    private void update(Job job, Status status, AIInsightDTO insight, String error) {
+        InsightJobResponseDTO previous = job.snapshot;
+        job.snapshot = new InsightJobResponseDTO(previous.jobId(), status, insight, error, previous.createdAt(),
+            status.isTerminal() ? clock.instant() : null);
+        // Re-inserted so retention counts from the last update
+        jobs.put(job.id(), job);
+        if (status.isTerminal()) {
+            job.finished.complete(job.snapshot);
+        }
+    }
+
+    private static final class Job {
+        private final Long userId;
+        private final CompletableFuture<InsightJobResponseDTO> finished = new CompletableFuture<>();
+        private volatile InsightJobResponseDTO snapshot;
+
+        private Job(Long userId, InsightJobResponseDTO snapshot) {
+            this.userId = userId;
+            this.snapshot = snapshot;
+        }
+
+        private String id() {
+            return snapshot.jobId();
+        }
+    }
+
+    public record Stats(int queued, int running, long succeeded, long failed, long rejected, long retainedJobs) {
+    }
+}
@@ -2,26 +2,37 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageServic
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.CreateMealRequestDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.UpdateMealRequestDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.common.PageRequest;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.MealDetailResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.DailyIntakeSummaryDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.TodayMealDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.NutritionTarget;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.NutritionTargetRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserMetricsRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +43,9 @@ public class NutritionService {
     private final UserRepository userRepository;
     private final UserMetricsRepository userMetricsRepository;
     private final SecurityUtil securityUtil;
+    private final DailySummaryService dailySummaryService;
+    private final QuickStatsCache quickStatsCache;
+    private final SyncTombstoneRepository syncTombstoneRepository;
 
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm");
 
@@ -112,6 +126,7 @@ public class NutritionService {
         return "dinner";
     }
 
+    @Transactional
     public void deleteMeal(Long userId, Long mealId) {
         // Ensure the meal exists and belongs to the user
         Meal meal = mealRepository.findById(mealId)
@@ -122,6 +137,9 @@ public class NutritionService {
 
         // Cascade on Meal -> MealItem ensures meal_items are removed
         mealRepository.delete(meal);
+        syncTombstoneRepository.save(SyncTombstone.of(userId, SyncEntityType.MEAL, mealId));
+        dailySummaryService.removeMeal(meal);
+        quickStatsCache.invalidate(userId);
     }
 
     private DailyIntakeSummaryDTO.Targets resolveTargets(Long userId) {
@@ -165,13 +183,14 @@ public class NutritionService {
     }
 
     private Long resolveUserId(Long requestedUserId) {
-        User currentUser = securityUtil.getCurrentUserOrThrow();
-        if (requestedUserId != null && !requestedUserId.equals(currentUser.getUserId())) {
+        Long currentUserId = securityUtil.getCurrentUserId();
+        if (requestedUserId != null && !requestedUserId.equals(currentUserId)) {
             throw new IllegalArgumentException("Authenticated user does not match request payload");
         }
-        return currentUser.getUserId();
+        return currentUserId;
     }
 
+    @Transactional
     public MealDetailResponseDTO createMeal(Long userId, CreateMealRequestDTO request) {
         Long resolvedUserId = resolveUserId(userId);
         User user = userRepository.findById(resolvedUserId)
@@ -201,9 +220,12 @@ public class NutritionService {
         }
 
         Meal savedMeal = mealRepository.save(meal);
+        dailySummaryService.recordMeal(savedMeal);
+        quickStatsCache.invalidate(resolvedUserId);
         return toMealDetailDTO(savedMeal);
     }
 
+    @Transactional
     public MealDetailResponseDTO updateMeal(Long userId, Long mealId, UpdateMealRequestDTO request) {
         Meal meal = mealRepository.findById(mealId)
             .orElseThrow(() -> new IllegalArgumentException("Meal not found"));
@@ -212,6 +234,9 @@ public class NutritionService {
             throw new IllegalArgumentException("Meal does not belong to the specified user");
         }
 
+        // Snapshot the rollup contribution before any field changes
+        DailySummaryService.Contribution before = DailySummaryService.Contribution.of(meal);
+
         // Update only provided fields
         if (request.getMealDescription() != null) {
             meal.setMealDescription(request.getMealDescription());
@@ -239,6 +264,8 @@ public class NutritionService {
         }
 
         Meal savedMeal = mealRepository.save(meal);
+        dailySummaryService.replaceMeal(before, savedMeal);
+        quickStatsCache.invalidate(userId);
         return toMealDetailDTO(savedMeal);
     }
 
@@ -261,6 +288,49 @@ public class NutritionService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * One keyset page of the user's meals, newest first. {@code cursor} is the previous page's nextCursor, or null
+     * for the first page; each page is an index seek, so deep pages cost the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<MealDetailResponseDTO> getMealPage(Long userId, String cursor, Integer limit) {
+        Long resolvedUserId = resolveUserId(userId);
+        int pageSize = PageRequest.resolveSize(limit);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+
+        // One row beyond the page tells whether there is a next one
+        List<Meal> rows = new ArrayList<>(pageSize + 1);
+        if (after == null) {
+            rows.addAll(mealRepository.findByUserUserIdAndMealTimeNotNullOrderByMealTimeDescMealIdDesc(
+                resolvedUserId, Limit.of(pageSize + 1)));
+        } else if (after.key() != null) {
+            rows.addAll(mealRepository.findPageAfter(
+                resolvedUserId, after.keyAsDateTime(), after.id(), Limit.of(pageSize + 1)));
+        }
+        if (rows.size() <= pageSize) {
+            // Timed meals are exhausted; continue with any that have no meal time
+            long untimedBefore = after != null && after.key() == null ? after.id() : Long.MAX_VALUE;
+            rows.addAll(mealRepository.findByUserUserIdAndMealTimeIsNullAndMealIdLessThanOrderByMealIdDesc(
+                resolvedUserId, untimedBefore, Limit.of(pageSize + 1 - rows.size())));
+        }
+
+        return PageResponse.fromKeyset(rows, pageSize, after != null,
+            this::toMealDetailDTO, Meal::getMealTime, Meal::getMealId);
+    }
+
+    /**
+     * Meals created or edited after {@code since}, or all of the user's meals when it is null; deletions are
+     * added by the caller from the tombstones
+     */
+    @Transactional(readOnly = true)
+    public EntityChanges<MealDetailResponseDTO> getMealChanges(Long userId, LocalDateTime since) {
+        Long resolvedUserId = resolveUserId(userId);
+        List<Meal> rows = since == null
+            ? mealRepository.findByUserUserId(resolvedUserId)
+            : mealRepository.findByUserUserIdAndUpdatedAtAfter(resolvedUserId, since);
+        return EntityChanges.of(rows, since, Meal::getCreatedAt, this::toMealDetailDTO);
+    }
+
     private MealDetailResponseDTO toMealDetailDTO(Meal meal) {
         return new MealDetailResponseDTO(
             meal.getMealId(),
@@ -17,7 +17,6 @@ import org.springframework.stereotype.Service;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.*;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 
 import java.io.ByteArrayOutputStream;
@@ -67,13 +66,14 @@ public class PdfExportService {
                 .setMarginBottom(20);
             document.add(title);
 
-            // Gather data from DashboardService
-            UserProfileExportDTO userProfile = dashboardService.getUserProfileForExport(resolvedUserId);
-            NutritionSummaryExportDTO nutritionSummary = dashboardService.getNutritionSummaryForExport(resolvedUserId, dateRange);
-            WorkoutHistoryExportDTO workoutHistory = dashboardService.getWorkoutHistoryForExport(resolvedUserId, dateRange);
-            ProgressMetricsExportDTO progressMetrics = dashboardService.getProgressMetricsForExport(resolvedUserId, dateRange);
-            List<AIInsightDTO> aiInsights = dashboardService.getAIInsightsForExport(resolvedUserId, dateRange, aiInsightService);
-            AchievementsExportDTO achievements = dashboardService.getAchievementsForExport(resolvedUserId);
+            // Gather data from DashboardService, sharing one snapshot across sections
+            ExportSnapshot snapshot = dashboardService.loadExportSnapshot(resolvedUserId, dateRange, aiInsightService);
+            UserProfileExportDTO userProfile = dashboardService.getUserProfileForExport(snapshot);
+            NutritionSummaryExportDTO nutritionSummary = dashboardService.getNutritionSummaryForExport(snapshot);
+            WorkoutHistoryExportDTO workoutHistory = dashboardService.getWorkoutHistoryForExport(snapshot);
+            ProgressMetricsExportDTO progressMetrics = dashboardService.getProgressMetricsForExport(snapshot);
+            List<AIInsightDTO> aiInsights = dashboardService.getAIInsightsForExport(snapshot);
+            AchievementsExportDTO achievements = dashboardService.getAchievementsForExport(snapshot);
 
             // Add user profile section
             addUserProfileSection(document, userProfile, normalFont, boldFont);
@@ -105,11 +105,11 @@ public class PdfExportService {
     }
 
     private Long resolveUserId(Long requestedUserId) {
-        User currentUser = securityUtil.getCurrentUserOrThrow();
-        if (requestedUserId != null && !requestedUserId.equals(currentUser.getUserId())) {
+        Long currentUserId = securityUtil.getCurrentUserId();
+        if (requestedUserId != null && !requestedUserId.equals(currentUserId)) {
             throw new IllegalArgumentException("Authenticated user does not match request payload");
         }
-        return currentUser.getUserId();
+        return currentUserId;
     }
 
     private void addUserProfileSection(Document document, UserProfileExportDTO profile, PdfFont normalFont, PdfFont boldFont) {
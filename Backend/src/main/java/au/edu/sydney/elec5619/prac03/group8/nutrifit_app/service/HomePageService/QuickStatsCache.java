@@ -0,0 +1,155 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.QuickStatsResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded per-user cache of {@link QuickStatsResponseDTO}, keyed by (userId, period, day).
+ * Write paths call {@link #invalidate(Long)} so a user never sees numbers from before their own commit.
+ * Hits, misses, evictions and size are published under the standard cache meter names, tagged cache=quick_stats.
+ */
+@Slf4j
+@Component
+public class QuickStatsCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "quick_stats";
+
+    private final Cache<Long, UserEntry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QuickStatsCache(@Value("${app.quick-stats-cache.max-users:10000}") long maxUsers,
+                           @Value("${app.quick-stats-cache.ttl:PT5M}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Cached stats for the user and period, computing them with the loader on a miss
+     */
+    public QuickStatsResponseDTO get(Long userId, String period, Supplier<QuickStatsResponseDTO> loader) {
+        return load(userId, period, () -> Loaded.complete(loader.get()));
+    }
+
+    /**
+     * Like {@link #get}, but a result the loader reports as partial is returned without being cached
+     */
+    public QuickStatsResponseDTO load(Long userId, String period, Supplier<Loaded> loader) {
+        if (userId == null) {
+            return loader.get().stats();
+        }
+
+        // Averages and streaks are relative to today, so yesterday's entry must not be served
+        PeriodKey key = new PeriodKey(normalizePeriod(period), LocalDate.now());
+        UserEntry entry = entries.get(userId, id -> new UserEntry());
+
+        QuickStatsResponseDTO cached = entry.values.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Loaded computed = loader.get();
+        if (computed.complete()) {
+            // If the user was invalidated while computing, this entry is detached and the value is never served
+            entry.values.put(key, computed.stats());
+        }
+        return computed.stats();
+    }
+
+    /**
+     * Drop every cached period for the user once the current transaction commits (or now, outside one)
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), entries.stats().evictionCount(), entries.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "result", "hit")
+            .description("Quick stats served from the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "result", "miss")
+            .description("Quick stats computed because nothing was cached")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", entries, cache -> cache.stats().evictionCount())
+            .tag("cache", CACHE_NAME)
+            .description("Users dropped from the cache for size")
+            .register(registry);
+        Gauge.builder("cache.size", entries, Cache::estimatedSize)
+            .tag("cache", CACHE_NAME)
+            .description("Users with cached quick stats")
+            .register(registry);
+    }
+
+    private void evict(Long userId) {
+        entries.invalidate(userId);
+        log.debug("Invalidated quick stats for user {}", userId);
+    }
+
+    private static String normalizePeriod(String period) {
+        return "monthly".equalsIgnoreCase(period) ? "monthly" : "weekly";
+    }
+
+    private record PeriodKey(String period, LocalDate day) {
+    }
+
+    private static final class UserEntry {
+        private final Map<PeriodKey, QuickStatsResponseDTO> values = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A freshly computed value, and whether every part of it was computed (rather than defaulted)
+     */
+    public record Loaded(QuickStatsResponseDTO stats, boolean complete) {
+        public static Loaded complete(QuickStatsResponseDTO stats) {
+            return new Loaded(stats, true);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long cachedUsers) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent quick-stats sections (body metrics, averages, workout frequency, streaks) either
+ * inline or concurrently on a bounded pool, under one deadline per request.
+ * A section that times out, is rejected by a full pool or throws gets its fallback value, and the batch is
+ * marked incomplete so the caller can avoid caching it. Per-section timings are kept for {@link #stats()} and
+ * published as the quick_stats.section timer (p50 and p99 per section), with fallbacks counted by reason.
+ */
+@Slf4j
+@Component
+public class QuickStatsSections implements MeterBinder {
+
+    private final boolean concurrent;
+    private final Duration deadline;
+    private final ExecutorService executor;
+    private final Map<String, SectionTimer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public QuickStatsSections(@Value("${app.quick-stats.concurrent:true}") boolean concurrent,
+                              @Value("${app.quick-stats.parallelism:8}") int parallelism,
+                              @Value("${app.quick-stats.queue-capacity:256}") int queueCapacity,
+                              @Value("${app.quick-stats.deadline:PT2S}") Duration deadline) {
+        this.concurrent = concurrent;
+        this.deadline = deadline;
+        this.executor = concurrent ? newExecutor(parallelism, queueCapacity) : null;
+    }
+
+    /**
+     * Start a batch of sections for one request; the deadline starts now
+     */
+    public Batch begin() {
+        return new Batch(System.nanoTime() + deadline.toNanos());
+    }
+
+    /**
+     * Timing and outcome counters per section name
+     */
+    public Map<String, SectionStats> stats() {
+        Map<String, SectionStats> result = new TreeMap<>();
+        timers.forEach((name, timer) -> result.put(name, timer.snapshot()));
+        return result;
+    }
+
+    /**
+     * Sections are named by the caller, so each one's meters are registered the first time it runs
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        timers.forEach((name, timer) -> timer.bind(name, registry));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newExecutor(int parallelism, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "quick-stats-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private SectionTimer timer(String name) {
+        return timers.computeIfAbsent(name, key -> {
+            SectionTimer timer = new SectionTimer();
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                timer.bind(key, registry);
+            }
+            return timer;
+        });
+    }
+
+    /**
+     * Sections forked for a single request, sharing its deadline
+     */
+    public final class Batch {
+
+        private final long deadlineNanos;
+        private volatile boolean complete = true;
+
+        private Batch(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Start a section; in sequential mode it runs before this method returns
+         */
+        public <T> Section<T> fork(String name, Supplier<T> work, Supplier<T> fallback) {
+            SectionTimer timer = timer(name);
+            long started = System.nanoTime();
+
+            if (executor == null) {
+                try {
+                    T value = work.get();
+                    timer.record(System.nanoTime() - started);
+                    return new Section<>(name, null, value, fallback);
+                } catch (RuntimeException e) {
+                    timer.failures.increment();
+                    return new Section<>(name, null, fallback(name, fallback, e), fallback);
+                }
+            }
+
+            try {
+                Future<T> future = executor.submit(() -> {
+                    T value = work.get();
+                    // Measured from fork, so time spent queued for a thread counts against the section
+                    timer.record(System.nanoTime() - started);
+                    return value;
+                });
+                return new Section<>(name, future, null, fallback);
+            } catch (RejectedExecutionException e) {
+                timer.rejections.increment();
+                return new Section<>(name, null, fallback(name, fallback, e), fallback);
+            }
+        }
+
+        /**
+         * False if any section had to use its fallback
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        private <T> T fallback(String name, Supplier<T> fallback, Exception cause) {
+            complete = false;
+            log.warn("Quick stats section {} fell back to defaults: {}", name, cause.toString());
+            return fallback.get();
+        }
+
+        /**
+         * Handle on one forked section
+         */
+        public final class Section<T> {
+
+            private final String name;
+            private final Future<T> future;
+            private final T value;
+            private final Supplier<T> fallback;
+
+            private Section(String name, Future<T> future, T value, Supplier<T> fallback) {
+                this.name = name;
+                this.future = future;
+                this.value = value;
+                this.fallback = fallback;
+            }
+
+            /**
+             * The section's value, or its fallback if it does not finish before the batch deadline
+             */
+            public T join() {
+                if (future == null) {
+                    return value;
+                }
+                try {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    timer(name).timeouts.increment();
+                    return fallback(name, fallback, e);
+                } catch (InterruptedException e) {
+                    future.cancel(true);
+                    Thread.currentThread().interrupt();
+                    return fallback(name, fallback, e);
+                } catch (ExecutionException | CancellationException e) {
+                    timer(name).failures.increment();
+                    return fallback(name, fallback, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Latency counters for one section. Percentiles come from power-of-two microsecond buckets, so they
+     * are upper bounds accurate to within a factor of two - enough to see which section dominates the tail.
+     */
+    private static final class SectionTimer {
+
+        private static final int BUCKETS = 32;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private volatile Timer meter;
+
+        void bind(String name, MeterRegistry registry) {
+            meter = Timer.builder("quick_stats.section")
+                .description("Time from fork until a quick-stats section produced its value")
+                .tag("section", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+            fallbacks(name, "timeout", timeouts, registry);
+            fallbacks(name, "failure", failures, registry);
+            fallbacks(name, "rejected", rejections, registry);
+        }
+
+        private static void fallbacks(String name, String reason, LongAdder counter, MeterRegistry registry) {
+            FunctionCounter.builder("quick_stats.section.fallbacks", counter, LongAdder::sum)
+                .description("Quick-stats sections that returned their fallback value")
+                .tags("section", name, "reason", reason)
+                .register(registry);
+        }
+
+        void record(long nanos) {
+            Timer bound = meter;
+            if (bound != null) {
+                bound.record(nanos, TimeUnit.NANOSECONDS);
+            }
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1);
+            int bucket = Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+            histogram.incrementAndGet(bucket);
+        }
+
+        SectionStats snapshot() {
+            long completed = count.sum();
+            return new SectionStats(
+                completed,
+                timeouts.sum(),
+                failures.sum(),
+                rejections.sum(),
+                completed > 0 ? Duration.ofNanos(totalNanos.sum() / completed) : Duration.ZERO,
+                percentile(0.50),
+                percentile(0.99),
+                Duration.ofNanos(maxNanos.get())
+            );
+        }
+
+        private Duration percentile(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return Duration.ZERO;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(2L << i));
+                }
+            }
+            return Duration.ofNanos(maxNanos.get());
+        }
+    }
+
+    /**
+     * @param completed sections that finished (including ones that finished after their request gave up)
+     */
+    public record SectionStats(long completed, long timeouts, long failures, long rejections,
+                               Duration mean, Duration p50, Duration p99, Duration max) {
+    }
+}
@@ -0,0 +1,54 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Computes current streaks from a set of "active" days using gaps-and-islands logic.
+ * Days are reduced to epoch-day numbers and sorted newest first; a day belongs to the
+ * island ending at the anchor when (anchor - day) equals its rank, so the current streak
+ * is the length of that leading island. No per-day lookups are needed.
+ */
+final class StreakEngine {
+
+    /** Longest streak reported, matching the previous day-by-day walk (today + 365 days back). */
+    static final int MAX_STREAK_DAYS = 366;
+
+    private StreakEngine() {
+    }
+
+    /**
+     * First day that can contribute to a streak ending at the anchor
+     */
+    static LocalDate windowStart(LocalDate anchor) {
+        return anchor.minusDays(MAX_STREAK_DAYS - 1);
+    }
+
+    /**
+     * Length of the run of consecutive active days ending at (and including) the anchor
+     */
+    static int currentStreak(Collection<LocalDate> activeDays, LocalDate anchor) {
+        if (activeDays == null || activeDays.isEmpty()) {
+            return 0;
+        }
+
+        long anchorDay = anchor.toEpochDay();
+        long[] days = activeDays.stream()
+            .filter(d -> d != null && !d.isAfter(anchor))
+            .mapToLong(LocalDate::toEpochDay)
+            .distinct()
+            .toArray();
+        Arrays.sort(days);
+
+        int streak = 0;
+        for (int i = days.length - 1; i >= 0 && streak < MAX_STREAK_DAYS; i--) {
+            // Same island as the anchor only while the gap to the anchor equals the rank
+            if (anchorDay - days[i] != streak) {
+                break;
+            }
+            streak++;
+        }
+        return streak;
+    }
+}
@@ -0,0 +1,175 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the JSON export directly to the response instead of building it in memory first.
+ * The document has the same top-level sections as the buffered export, with every meal and workout in the range
+ * streamed into nutritionSummary.meals and exerciseHistory.workouts, and metadata written last.
+ */
+@Slf4j
+@Service
+public class StreamingJsonExportService {
+
+    private final DashboardService dashboardService;
+    private final MealRepository mealRepository;
+    private final WorkoutRepository workoutRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StreamingJsonExportService(DashboardService dashboardService,
+                                      MealRepository mealRepository,
+                                      WorkoutRepository workoutRepository,
+                                      ObjectMapper objectMapper,
+                                      TransactionTemplate transactionTemplate) {
+        this.dashboardService = dashboardService;
+        this.mealRepository = mealRepository;
+        this.workoutRepository = workoutRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void writeExport(Long userId, String dateRange, String format,
+                            AIInsightService aiInsightService, OutputStream out) throws IOException {
+        ExportSnapshot snapshot = dashboardService.loadExportSnapshot(userId, dateRange, aiInsightService);
+
+        // The summary sections are small; build them before streaming so the insight lookup (which also
+        // expires old insights) runs in its own read-write transaction rather than the read-only one below
+        Map<String, Object> sections = new LinkedHashMap<>();
+        sections.put("userProfile", dashboardService.getUserProfileForExport(snapshot));
+        sections.put("nutritionSummary", dashboardService.getNutritionSummaryForExport(snapshot));
+        sections.put("exerciseHistory", dashboardService.getWorkoutHistoryForExport(snapshot));
+        sections.put("progressMetrics", dashboardService.getProgressMetricsForExport(snapshot));
+        sections.put("aiInsights", dashboardService.getAIInsightsForExport(snapshot));
+        sections.put("achievements", dashboardService.getAchievementsForExport(snapshot));
+
+        LocalDate startDate = snapshot.getStartDate();
+        LocalDate endDate = snapshot.getEndDate();
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Leave closing the response stream to the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            generator.writeObjectField("userProfile", sections.get("userProfile"));
+
+            generator.writeFieldName("nutritionSummary");
+            long mealCount = writeWithStreamedArray(generator, sections.get("nutritionSummary"), "meals",
+                () -> mealRepository.streamForExport(userId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59)),
+                this::writeMeal);
+
+            generator.writeFieldName("exerciseHistory");
+            long workoutCount = writeWithStreamedArray(generator, sections.get("exerciseHistory"), "workouts",
+                () -> workoutRepository.streamForExport(userId, startDate, endDate),
+                this::writeWorkout);
+
+            generator.writeObjectField("progressMetrics", sections.get("progressMetrics"));
+            generator.writeObjectField("aiInsights", sections.get("aiInsights"));
+            generator.writeObjectField("achievements", sections.get("achievements"));
+
+            // Metadata goes last so it can report what was actually streamed
+            generator.writeObjectFieldStart("metadata");
+            generator.writeStringField("exportFormat", format != null ? format : "json");
+            generator.writeStringField("dateRange", dateRange != null ? dateRange : "30d");
+            generator.writeObjectField("exportTimestamp", LocalDate.now());
+            generator.writeNumberField("totalDataPoints", dashboardService.calculateTotalDataPoints(sections));
+            generator.writeNumberField("mealCount", mealCount);
+            generator.writeNumberField("workoutCount", workoutCount);
+            generator.writeBooleanField("streamed", true);
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+            generator.flush();
+
+            log.debug("Streamed export for user {}: {} meals, {} workouts", userId, mealCount, workoutCount);
+        }
+    }
+
+    /**
+     * Write a section DTO as an object, followed by one extra array field filled from a forward-only stream
+     * @return number of streamed rows
+     */
+    private <T> long writeWithStreamedArray(JsonGenerator generator, Object section, String arrayField,
+                                            Supplier<Stream<T>> rows, RowWriter<T> rowWriter) throws IOException {
+        generator.writeStartObject();
+        if (section != null) {
+            JsonNode summary = objectMapper.valueToTree(section);
+            for (Map.Entry<String, JsonNode> field : summary.properties()) {
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+        }
+
+        generator.writeArrayFieldStart(arrayField);
+        long written;
+        try {
+            written = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<T> stream = rows.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        rowWriter.write(generator, iterator.next());
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        return written;
+    }
+
+    private void writeMeal(JsonGenerator generator, MealRepository.MealExportRow meal) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("mealId", meal.getMealId());
+        generator.writeObjectField("mealTime", meal.getMealTime());
+        generator.writeStringField("role", meal.getRole());
+        generator.writeStringField("mealDescription", meal.getMealDescription());
+        generator.writeObjectField("totalCalories", meal.getTotalCalories());
+        generator.writeObjectField("proteinG", meal.getProteinG());
+        generator.writeObjectField("carbsG", meal.getCarbsG());
+        generator.writeObjectField("fatG", meal.getFatG());
+        generator.writeObjectField("aiGenerated", meal.getAiGenerated());
+        generator.writeEndObject();
+    }
+
+    private void writeWorkout(JsonGenerator generator, WorkoutRepository.WorkoutExportRow workout) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("workoutId", workout.getWorkoutId());
+        generator.writeObjectField("workoutDate", workout.getWorkoutDate());
+        generator.writeStringField("workoutType", workout.getWorkoutType());
+        generator.writeObjectField("durationMinutes", workout.getDurationMinutes());
+        generator.writeObjectField("caloriesBurned", workout.getCaloriesBurned());
+        generator.writeStringField("notes", workout.getNotes());
+        generator.writeEndObject();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+}
@@ -3,19 +3,31 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.WorkoutDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.WorkoutRequestDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.common.PageRequest;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.WorkoutResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -29,12 +41,20 @@ public class WorkoutService {
     private final WorkoutRepository workoutRepository;
     private final UserRepository userRepository;
     private final CalorieEstimationService calorieEstimationService;
+    private final DailySummaryService dailySummaryService;
+    private final QuickStatsCache quickStatsCache;
+    private final SyncTombstoneRepository syncTombstoneRepository;
 
 
-    public WorkoutService(WorkoutRepository workoutRepository, UserRepository userRepository, CalorieEstimationService calorieEstimationService) {
+    public WorkoutService(WorkoutRepository workoutRepository, UserRepository userRepository, CalorieEstimationService calorieEstimationService,
+                          DailySummaryService dailySummaryService, QuickStatsCache quickStatsCache,
+                          SyncTombstoneRepository syncTombstoneRepository) {
         this.workoutRepository = workoutRepository;
         this.userRepository = userRepository;
         this.calorieEstimationService = calorieEstimationService;
+        this.dailySummaryService = dailySummaryService;
+        this.quickStatsCache = quickStatsCache;
+        this.syncTombstoneRepository = syncTombstoneRepository;
     }
 
     @Transactional
@@ -63,6 +83,8 @@ public class WorkoutService {
             workout.setNotes(request.getNotes());
 
             Workout savedWorkout = workoutRepository.save(workout);
+            dailySummaryService.recordWorkout(savedWorkout);
+            quickStatsCache.invalidate(user.getUserId());
             log.info("Workout created successfully with ID: {} for user: {}, calories: {}",
                     savedWorkout.getWorkoutId(), request.getUserId(), calories);
             return new WorkoutOperationResult(HttpStatus.CREATED,
@@ -107,6 +129,63 @@ public class WorkoutService {
         }
     }
 
+    /**
+     * One keyset page of the user's workouts, newest first. {@code cursor} is the previous page's nextCursor, or
+     * null for the first page; each page is an index seek, so deep pages cost the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<WorkoutDto> getWorkoutPage(Long userId, String cursor, Integer limit) {
+        log.debug("Fetching workout page for user ID: {}, limit: {}", userId, limit);
+        if (!userRepository.existsById(userId)) {
+            log.warn("User not found with ID: {}", userId);
+            throw new IllegalArgumentException("User with ID " + userId + " does not exist.");
+        }
+
+        int pageSize = PageRequest.resolveSize(limit);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+
+        try {
+            // One row beyond the page tells whether there is a next one
+            List<Workout> rows = new ArrayList<>(pageSize + 1);
+            if (after == null) {
+                rows.addAll(workoutRepository.findByUserUserIdAndWorkoutDateNotNullOrderByWorkoutDateDescWorkoutIdDesc(
+                        userId, Limit.of(pageSize + 1)));
+            } else if (after.key() != null) {
+                rows.addAll(workoutRepository.findPageAfter(
+                        userId, after.keyAsDate(), after.id(), Limit.of(pageSize + 1)));
+            }
+            if (rows.size() <= pageSize) {
+                // Dated workouts are exhausted; continue with any that have no date
+                long undatedBefore = after != null && after.key() == null ? after.id() : Long.MAX_VALUE;
+                rows.addAll(workoutRepository.findByUserUserIdAndWorkoutDateIsNullAndWorkoutIdLessThanOrderByWorkoutIdDesc(
+                        userId, undatedBefore, Limit.of(pageSize + 1 - rows.size())));
+            }
+
+            return PageResponse.fromKeyset(rows, pageSize, after != null,
+                    this::toDto, Workout::getWorkoutDate, Workout::getWorkoutId);
+        } catch (DataAccessException ex) {
+            log.error("Database error while fetching workouts for user {}: {}", userId, ex.getMessage(), ex);
+            throw new IllegalStateException("Database error while fetching workouts.", ex);
+        }
+    }
+
+    /**
+     * Workouts created or edited after {@code since}, or all of the user's workouts when it is null; deletions
+     * are added by the caller from the tombstones
+     */
+    @Transactional(readOnly = true)
+    public EntityChanges<WorkoutDto> getWorkoutChanges(Long userId, LocalDateTime since) {
+        try {
+            List<Workout> rows = since == null
+                    ? workoutRepository.findByUserUserId(userId, Sort.unsorted())
+                    : workoutRepository.findByUserUserIdAndUpdatedAtAfter(userId, since);
+            return EntityChanges.of(rows, since, Workout::getCreatedAt, this::toDto);
+        } catch (DataAccessException ex) {
+            log.error("Database error while fetching workout changes for user {}: {}", userId, ex.getMessage(), ex);
+            throw new IllegalStateException("Database error while fetching workouts.", ex);
+        }
+    }
+
     @Transactional
     public WorkoutOperationResult updateWorkout(Long workoutId, WorkoutRequestDto request) {
         log.debug("Updating workout ID: {} for user ID: {}", workoutId, request.getUserId());
@@ -125,6 +204,10 @@ public class WorkoutService {
                         new WorkoutResponseDto(false, "User with ID " + request.getUserId() + " does not exist."));
             }
 
+            // Snapshot the rollup contribution before user, date or totals change
+            DailySummaryService.Contribution before = DailySummaryService.Contribution.of(workout);
+            Long previousUserId = workout.getUser() != null ? workout.getUser().getUserId() : null;
+
             workout.setUser(user);
             workout.setWorkoutType(request.getWorkoutType());
             workout.setWorkoutDate(request.getWorkoutDate());
@@ -141,6 +224,13 @@ public class WorkoutService {
             workout.setNotes(request.getNotes());
 
             workoutRepository.save(workout);
+            if (previousUserId != null && !previousUserId.equals(user.getUserId())) {
+                // Gone from the previous owner's list as far as their sync clients are concerned
+                syncTombstoneRepository.save(SyncTombstone.of(previousUserId, SyncEntityType.WORKOUT, workoutId));
+            }
+            dailySummaryService.replaceWorkout(before, workout);
+            quickStatsCache.invalidate(previousUserId);
+            quickStatsCache.invalidate(user.getUserId());
             log.info("Workout updated successfully, ID: {}, new calories: {}", workoutId, calories);
             return new WorkoutOperationResult(HttpStatus.OK,
                     new WorkoutResponseDto(true, "Workout with ID " + workoutId + " updated."));
@@ -163,6 +253,12 @@ public class WorkoutService {
             }
 
             workoutRepository.delete(workout);
+            dailySummaryService.removeWorkout(workout);
+            if (workout.getUser() != null) {
+                syncTombstoneRepository.save(
+                        SyncTombstone.of(workout.getUser().getUserId(), SyncEntityType.WORKOUT, workoutId));
+                quickStatsCache.invalidate(workout.getUser().getUserId());
+            }
             log.info("Workout deleted successfully, ID: {}", workoutId);
             return new WorkoutOperationResult(HttpStatus.OK,
                     new WorkoutResponseDto(true, "Workout with ID " + workoutId + " deleted."));
@@ -9,7 +9,10 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.VerificationToken;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.VerificationTokenRepository;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.LoginThrottle;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.PasswordHasher;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,7 +20,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,15 +35,18 @@ public class AuthService {
     private final AuthenticationManager authManager;
     private final UserRepository userRepository;
     private final VerificationTokenRepository verificationTokenRepository;
-    private final BCryptPasswordEncoder encoder;
-    private final EmailService emailService;
+    private final PasswordHasher encoder;
+    private final EmailOutbox emailOutbox;
+    private final UserPrincipalCache userPrincipalCache;
+    private final LoginThrottle loginThrottle;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
     @Transactional
-    public AuthResponseDto register(RegisterRequestDto request) {
+    public AuthResponseDto register(RegisterRequestDto request, String clientIp) {
         log.debug("Starting registration process for email: {}", request.getEmail());
+        loginThrottle.acquire(null, clientIp);
         if (userRepository.existsByEmail(request.getEmail())) {
             log.warn("Registration failed - email already exists: {}", request.getEmail());
             return AuthResponseDto.builder()
@@ -69,20 +74,10 @@ public class AuthService {
                 .build();
         verificationTokenRepository.save(verificationToken);
 
-        // Send verification email
-        try {
-            emailService.sendVerificationEmail(
-                savedUser.getEmail(),
-                savedUser.getUserName(),
-                tokenString
-            );
-            log.info("Verification email sent successfully to: {}", savedUser.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send verification email to {}: {}", savedUser.getEmail(), e.getMessage());
-            // Continue with registration even if email fails
-        }
+        // Queue the verification email; it commits with the user and is sent after the response
+        emailOutbox.enqueueVerificationEmail(savedUser, tokenString);
 
-        String token = jwtService.generateToken(savedUser.getUuid().toString());
+        String token = jwtService.generateToken(savedUser.getUuid().toString(), savedUser.getUserId());
         log.debug("JWT token generated for user: {}", savedUser.getEmail());
 
         UserResponseDto userResponse = UserResponseDto.builder()
@@ -102,11 +97,14 @@ public class AuthService {
                 .build();
     }
 
-    public AuthResponseDto login(LoginRequestDto request) {
+    public AuthResponseDto login(LoginRequestDto request, String clientIp) {
         log.debug("Login attempt for email: {}", request.getEmail());
+        // Refuse throttled attempts before any password is hashed
+        loginThrottle.acquire(request.getEmail(), clientIp);
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> {
                     log.warn("Login failed - user not found: {}", request.getEmail());
+                    loginThrottle.recordFailure(request.getEmail());
                     return new BadCredentialsException("Invalid email or password");
                 });
 
@@ -117,13 +115,15 @@ public class AuthService {
 
             if (!authentication.isAuthenticated()) {
                 log.warn("Authentication failed for user: {}", request.getEmail());
+                loginThrottle.recordFailure(request.getEmail());
                 return AuthResponseDto.builder()
                         .success(false)
                         .message("Authentication failed")
                         .build();
             }
 
-            String token = jwtService.generateToken(user.getUuid().toString());
+            loginThrottle.recordSuccess(request.getEmail());
+            String token = jwtService.generateToken(user.getUuid().toString(), user.getUserId());
             log.info("Login successful for user: {}, emailVerified: {}", request.getEmail(), user.isEmailVerified());
 
             UserResponseDto userResponse = UserResponseDto.builder()
@@ -144,6 +144,7 @@ public class AuthService {
 
         } catch (BadCredentialsException e) {
             log.warn("Invalid credentials for user: {}", request.getEmail());
+            loginThrottle.recordFailure(request.getEmail());
             return AuthResponseDto.builder()
                     .success(false)
                     .message("Invalid email or password")
@@ -189,6 +190,8 @@ public class AuthService {
             // Verify email
             user.setEmailVerified(true);
             userRepository.save(user);
+            // A cached principal would still report the account as disabled
+            userPrincipalCache.invalidate(user.getUuid());
 
             verificationToken.setVerifiedAt(Instant.now());
             verificationTokenRepository.save(verificationToken);
@@ -254,23 +257,9 @@ public class AuthService {
             verificationTokenRepository.save(verificationToken);
             log.debug("New verification token generated for user: {}", email);
 
-            // Send verification email
-            boolean emailSent = emailService.sendVerificationEmail(
-                    user.getEmail(),
-                    user.getUserName(),
-                    tokenString
-            );
-
-            if (!emailSent) {
-                log.error("Failed to send verification email to: {}", email);
-                return EmailVerificationResponseDto.builder()
-                        .success(false)
-                        .message("Failed to send verification email. Please try again later.")
-                        .emailVerified(false)
-                        .build();
-            }
-
-            log.info("Verification email resent to: {}", email);
+            // Queue the verification email with the new token
+            emailOutbox.enqueueVerificationEmail(user, tokenString);
+            log.info("Verification email queued for: {}", email);
 
             return EmailVerificationResponseDto.builder()
                     .success(true)
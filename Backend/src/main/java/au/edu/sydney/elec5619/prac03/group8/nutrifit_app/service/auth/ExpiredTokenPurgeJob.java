@@ -0,0 +1,166 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically deletes expired verification and password-reset tokens.
+ * Each table is purged with bulk DELETEs of at most {@code batch-size} rows, each committed on its own, so a
+ * backlog never turns into one long transaction, and a run stops after {@code max-batches} per table.
+ * The run holds a Postgres session advisory lock on its connection, so only one instance purges at a time;
+ * the others skip that run. Rows purged and run duration are kept for {@link #stats()}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.token-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenPurgeJob {
+
+    // Arbitrary application-wide key for pg_try_advisory_lock; must not be reused by other jobs
+    static final long ADVISORY_LOCK_KEY = 5_619_008_001L;
+
+    // Both tables are indexed on expires_at (db/migration/V2__hot_path_indexes.sql), so each batch is an index range scan
+    static final List<String> TABLES = List.of("verification_tokens", "password_reset_tokens");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Clock clock;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+    private final Map<String, LongAdder> purgedByTable = new LinkedHashMap<>();
+    private final AtomicLong lastRunPurged = new AtomicLong();
+    private final AtomicReference<Duration> lastRunDuration = new AtomicReference<>(Duration.ZERO);
+
+    @Autowired
+    public ExpiredTokenPurgeJob(JdbcTemplate jdbcTemplate,
+                                @Value("${app.token-purge.batch-size:1000}") int batchSize,
+                                @Value("${app.token-purge.max-batches:100}") int maxBatches) {
+        this(jdbcTemplate, batchSize, maxBatches, Clock.systemUTC());
+    }
+
+    ExpiredTokenPurgeJob(JdbcTemplate jdbcTemplate, int batchSize, int maxBatches, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.clock = clock;
+        TABLES.forEach(table -> purgedByTable.put(table, new LongAdder()));
+    }
+
+    @Scheduled(initialDelayString = "${app.token-purge.initial-delay:PT5M}",
+               fixedDelayString = "${app.token-purge.interval:PT1H}")
+    public void purgeExpiredTokens() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            // Logged rather than rethrown so the next scheduled run still happens
+            log.error("Expired token purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Run one purge now; returns rows deleted per table, or an empty map if another instance holds the lock
+     */
+    public Map<String, Integer> purge() {
+        Instant cutoff = clock.instant();
+        long started = System.nanoTime();
+        Map<String, Integer> purged = jdbcTemplate.execute((ConnectionCallback<Map<String, Integer>>) connection -> {
+            if (!tryLock(connection)) {
+                return Map.of();
+            }
+            try {
+                Map<String, Integer> deleted = new LinkedHashMap<>();
+                for (String table : TABLES) {
+                    deleted.put(table, purgeTable(connection, table, cutoff));
+                }
+                return deleted;
+            } finally {
+                unlock(connection);
+            }
+        });
+
+        if (purged == null || purged.isEmpty()) {
+            skippedRuns.increment();
+            log.debug("Expired token purge skipped, another instance holds the lock");
+            return Map.of();
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        int total = purged.values().stream().mapToInt(Integer::intValue).sum();
+        runs.increment();
+        lastRunPurged.set(total);
+        lastRunDuration.set(duration);
+        purged.forEach((table, count) -> purgedByTable.get(table).add(count));
+        log.info("Purged {} expired tokens in {} ms: {}", total, duration.toMillis(), purged);
+        return purged;
+    }
+
+    public Stats stats() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        purgedByTable.forEach((table, count) -> totals.put(table, count.sum()));
+        return new Stats(runs.sum(), skippedRuns.sum(), totals, lastRunPurged.get(), lastRunDuration.get());
+    }
+
+    private int purgeTable(Connection connection, String table, Instant cutoff) throws SQLException {
+        String sql = "DELETE FROM " + table + " WHERE token_id IN ("
+            + "SELECT token_id FROM " + table + " WHERE expires_at < ? LIMIT ?)";
+        int total = 0;
+        try (PreparedStatement delete = connection.prepareStatement(sql)) {
+            delete.setTimestamp(1, Timestamp.from(cutoff));
+            delete.setInt(2, batchSize);
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int deleted = delete.executeUpdate();
+                total += deleted;
+                if (deleted < batchSize) {
+                    return total;
+                }
+            }
+        }
+        log.warn("Stopped purging {} after {} batches; the rest is left for the next run", table, maxBatches);
+        return total;
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            lock.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet result = lock.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            unlock.setLong(1, ADVISORY_LOCK_KEY);
+            unlock.execute();
+        }
+    }
+
+    /**
+     * @param skippedRuns runs that found another instance holding the lock
+     */
+    public record Stats(long runs, long skippedRuns, Map<String, Long> purgedByTable,
+                        long lastRunPurged, Duration lastRunDuration) {
+    }
+}
@@ -1,6 +1,10 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -10,24 +14,51 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Slf4j
 @Service
 public class JWTService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Numeric user id, so authenticated requests need no uuid -> id lookup
+    public static final String USER_ID_CLAIM = "uid";
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private final long expiration;
 
-    public String generateToken(String uuid) {
+    // Built once from the secret; the parser is immutable and thread-safe
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    // Claims of tokens that have already passed signature verification, keyed by SHA-256 of the token and
+    // kept until the token expires, so a client reusing its bearer token is not re-verified on every request
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JWTService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.claims-cache.max-tokens:10000}") long maxCachedTokens) {
+        this.expiration = expiration;
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+            .maximumSize(maxCachedTokens)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
+    }
+
+    public String generateToken(String uuid, Long userId) {
         log.debug("Generating JWT token for UUID: {}", uuid);
         Map<String, Object> claims = new HashMap<>();
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
         String token = Jwts.builder()
                 .claims()
                 .add(claims)
@@ -35,7 +66,7 @@ public class JWTService {
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
         log.debug("JWT token generated successfully for UUID: {}", uuid);
         return token;
@@ -43,30 +74,49 @@ public class JWTService {
 
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String uuid = extractUuid(token);
-            boolean isValid = uuid.equals(userDetails.getUsername()) && isTokenExpired(token);
-            if (!isValid) {
-                log.warn("⚠️ Token validation failed - UUID mismatch or expired token for user: {}", uuid);
-            }
-            log.debug("Token validation result for UUID {}: {}", uuid, isValid);
-            return isValid;
+            return validateClaims(extractAllClaims(token), userDetails);
         } catch (Exception e) {
             log.warn("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Same check as {@link #validateToken(String, UserDetails)} for claims already returned by
+     * {@link #extractAllClaims(String)}, so the filter verifies each request's token only once
+     */
+    public boolean validateClaims(Claims claims, UserDetails userDetails) {
+        final String uuid = claims.getSubject();
+        boolean isValid = uuid != null && uuid.equals(userDetails.getUsername()) && isTokenUnexpired(claims);
+        if (!isValid) {
+            log.warn("⚠️ Token validation failed - UUID mismatch or expired token for user: {}", uuid);
+        }
+        log.debug("Token validation result for UUID {}: {}", uuid, isValid);
+        return isValid;
+    }
+
+    /**
+     * Verified claims of the token, from the cache when this token has been verified before.
+     * Throws the parser's exception for a malformed, tampered or expired token.
+     */
+    public Claims extractAllClaims(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedClaims.put(digest, claims);
+            }
+        }
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * The signed user id, or null for tokens issued before the claim was added
+     */
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
@@ -79,12 +129,8 @@ public class JWTService {
         }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return !extractExpiration(token).before(new Date());
+    private boolean isTokenUnexpired(Claims claims) {
+        return claims.getExpiration() != null && !claims.getExpiration().before(new Date());
     }
 
 
@@ -98,4 +144,34 @@ public class JWTService {
             throw e;
         }
     }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Cached claims expire with their token
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -2,7 +2,7 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.user.UserPrincipal;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,12 +14,12 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 public class MyUserDetailService implements UserDetailsService {
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
 
     @Override
     public UserDetails loadUserByUsername(String uuid) throws UsernameNotFoundException {
-        User user = userRepository.findByUuid(UUID.fromString(uuid));
+        User user = userPrincipalCache.get(UUID.fromString(uuid));
         if (user == null) {
             throw new UsernameNotFoundException(uuid);
         }
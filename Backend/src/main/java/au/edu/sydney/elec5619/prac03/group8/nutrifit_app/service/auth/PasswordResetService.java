@@ -5,11 +5,13 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.PasswordResetToke
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.PasswordResetTokenRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.LoginThrottle;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.PasswordHasher;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,15 +27,14 @@ public class PasswordResetService {
 
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final PasswordHasher passwordEncoder;
+    private final EmailOutbox emailOutbox;
+    private final UserPrincipalCache userPrincipalCache;
+    private final LoginThrottle loginThrottle;
 
     @Value("${app.password-reset.token-validity-hours:24}")
     private int tokenValidityHours;
 
-    @Value("${app.frontend.url:http://localhost:3000}")
-    private String frontendUrl;
-
     @Transactional
     public PasswordResetResponseDto requestPasswordReset(String email) {
         log.info("Password reset requested for email: {}", email);
@@ -64,18 +65,9 @@ public class PasswordResetService {
 
         passwordResetTokenRepository.save(resetToken);
 
-        // Send password reset email
-        String resetLink = frontendUrl + "/reset-password?token=" + token;
-        try {
-            emailService.sendPasswordResetEmail(user.getEmail(), user.getUserName(), resetLink);
-            log.info("Password reset email sent successfully to: {}", email);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to {}: {}", email, e.getMessage(), e);
-            return PasswordResetResponseDto.builder()
-                    .success(false)
-                    .message("Failed to send password reset email. Please try again later.")
-                    .build();
-        }
+        // Queue the password reset email; EmailService builds the reset link from the token
+        emailOutbox.enqueuePasswordResetEmail(user, token);
+        log.info("Password reset email queued for: {}", email);
 
         return PasswordResetResponseDto.builder()
                 .success(true)
@@ -84,8 +76,9 @@ public class PasswordResetService {
     }
 
     @Transactional
-    public PasswordResetResponseDto resetPassword(String token, String newPassword) {
+    public PasswordResetResponseDto resetPassword(String token, String newPassword, String clientIp) {
         log.info("Password reset attempt with token");
+        loginThrottle.acquire(null, clientIp);
 
         Optional<PasswordResetToken> tokenOptional = passwordResetTokenRepository.findByToken(token);
 
@@ -121,6 +114,8 @@ public class PasswordResetService {
         User user = resetToken.getUser();
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        // Authentication must not keep using the old hash from the cache
+        userPrincipalCache.invalidate(user.getUuid());
 
         // Mark the token as used
         resetToken.setUsedAt(Instant.now());
@@ -133,10 +128,4 @@ public class PasswordResetService {
                 .message("Password has been reset successfully. You can now login with your new password.")
                 .build();
     }
-
-    @Transactional
-    public void cleanupExpiredTokens() {
-        log.info("Cleaning up expired password reset tokens");
-        passwordResetTokenRepository.deleteByExpiresAtBefore(Instant.now());
-    }
 }
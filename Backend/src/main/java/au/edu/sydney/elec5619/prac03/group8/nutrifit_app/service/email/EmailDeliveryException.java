@@ -0,0 +1,19 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+/**
+ * Mailgun did not accept a message. Permanent failures (rejected request) are not worth retrying;
+ * everything else (timeouts, 5xx, 429) is.
+ */
+public class EmailDeliveryException extends RuntimeException {
+
+    private final boolean permanent;
+
+    public EmailDeliveryException(String message, boolean permanent, Throwable cause) {
+        super(message, cause);
+        this.permanent = permanent;
+    }
+
+    public boolean isPermanent() {
+        return permanent;
+    }
+}
@@ -0,0 +1,48 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxStatus;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Queues transactional email in the caller's transaction, so the email exists exactly when the token it
+ * carries was committed, and the request never waits on Mailgun. {@link EmailOutboxDispatcher} sends it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutbox {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Transactional
+    public void enqueueVerificationEmail(User user, String verificationToken) {
+        enqueue(EmailType.VERIFICATION, user, verificationToken);
+    }
+
+    @Transactional
+    public void enqueuePasswordResetEmail(User user, String resetToken) {
+        enqueue(EmailType.PASSWORD_RESET, user, resetToken);
+    }
+
+    private void enqueue(EmailType emailType, User user, String token) {
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+            .emailType(emailType)
+            .recipient(user.getEmail())
+            .recipientName(user.getUserName())
+            .token(token)
+            .status(EmailOutboxStatus.PENDING)
+            .attempts(0)
+            .nextAttemptAt(Instant.now())
+            .build());
+        log.debug("Queued {} email for {}", emailType, user.getEmail());
+    }
+}
@@ -0,0 +1,179 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxStatus;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Drains the email outbox. Each poll claims due messages in batches and delivers them on a small worker pool;
+ * a delivered message is deleted, a failed one is retried with exponential backoff, and one that fails
+ * permanently or runs out of attempts is parked for inspection instead of blocking the queue.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Clock clock;
+    private final ThreadPoolExecutor workers;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+
+    @Autowired
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 EmailService emailService,
+                                 @Value("${app.email-outbox.threads:4}") int threads,
+                                 @Value("${app.email-outbox.batch-size:20}") int batchSize,
+                                 @Value("${app.email-outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.email-outbox.initial-backoff:PT30S}") Duration initialBackoff,
+                                 @Value("${app.email-outbox.max-backoff:PT1H}") Duration maxBackoff,
+                                 @Value("${app.email-outbox.lease:PT5M}") Duration lease) {
+        this(emailOutboxRepository, emailService, threads, batchSize, maxAttempts, initialBackoff, maxBackoff, lease,
+            Clock.systemUTC());
+    }
+
+    EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository, EmailService emailService, int threads,
+                          int batchSize, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                          Duration lease, Clock clock) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.clock = clock;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The queue holds one claimed batch, which is all that is ever submitted at once
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(batchSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Scheduled(initialDelayString = "${app.email-outbox.poll-interval:PT2S}",
+               fixedDelayString = "${app.email-outbox.poll-interval:PT2S}")
+    public void dispatchDue() {
+        try {
+            // Keep claiming while batches come back full, so a backlog drains without waiting for the next poll
+            while (dispatchBatch() == batchSize) {
+                log.debug("Email outbox batch was full, claiming another");
+            }
+        } catch (RuntimeException e) {
+            log.error("Email outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim and deliver one batch of due messages, returning how many were claimed
+     */
+    public int dispatchBatch() {
+        Instant now = clock.instant();
+        List<EmailOutboxMessage> claimed = emailOutboxRepository.claimDue(now, now.plus(lease), batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // Render the whole batch here in one pass, so the workers only wait on Mailgun
+        List<EmailService.RenderedEmail> rendered = emailService.renderAll(claimed);
+        List<Callable<Void>> deliveries = IntStream.range(0, claimed.size())
+            .mapToObj(i -> (Callable<Void>) () -> {
+                deliver(claimed.get(i), rendered.get(i));
+                return null;
+            })
+            .toList();
+        try {
+            workers.invokeAll(deliveries);
+        } catch (InterruptedException e) {
+            // Undelivered messages become due again once their lease runs out
+            Thread.currentThread().interrupt();
+        }
+        return claimed.size();
+    }
+
+    public Stats stats() {
+        return new Stats(sent.sum(), retried.sum(), parked.sum(), workers.getActiveCount());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void deliver(EmailOutboxMessage message, EmailService.RenderedEmail email) {
+        try {
+            emailService.send(email);
+            emailOutboxRepository.deleteDelivered(message.getOutboxId());
+            sent.increment();
+        } catch (EmailDeliveryException e) {
+            failed(message, e.getMessage(), e.isPermanent());
+        } catch (RuntimeException e) {
+            failed(message, e.toString(), false);
+        }
+    }
+
+    private void failed(EmailOutboxMessage message, String error, boolean permanent) {
+        String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (permanent || message.getAttempts() >= maxAttempts) {
+            emailOutboxRepository.updateStatus(message.getOutboxId(), EmailOutboxStatus.PARKED, lastError);
+            parked.increment();
+            log.error("Parked {} email {} for {} after {} attempts: {}", message.getEmailType(),
+                message.getOutboxId(), message.getRecipient(), message.getAttempts(), lastError);
+            return;
+        }
+        Duration backoff = backoff(message.getAttempts());
+        emailOutboxRepository.scheduleRetry(message.getOutboxId(), clock.instant().plus(backoff), lastError);
+        retried.increment();
+        log.warn("{} email {} for {} failed (attempt {}), retrying in {}s: {}", message.getEmailType(),
+            message.getOutboxId(), message.getRecipient(), message.getAttempts(), backoff.toSeconds(), lastError);
+    }
+
+    /**
+     * Doubles per attempt up to the cap, plus up to 20% jitter so messages failed by one outage do not all
+     * come due again at the same instant
+     */
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        return Duration.ofMillis(capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1));
+    }
+
+    /**
+     * @param activeDeliveries Mailgun requests in flight right now
+     */
+    public record Stats(long sent, long retried, long parked, int activeDeliveries) {
+    }
+}
@@ -1,140 +1,34 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final RestTemplate restTemplate;
-
-    @Value("${mailgun.api-key}")
-    private String mailgunApiKey;
-
-    @Value("${mailgun.domain}")
-    private String mailgunDomain;
-
-    @Value("${mailgun.from-email}")
-    private String fromEmail;
-
-    @Value("${mailgun.from-name}")
-    private String fromName;
-
-    @Value("${app.frontend.url}")
-    private String frontendBaseUrl;
-
-    /**
-     * Send verification email using Mailgun API
-     */
-    public boolean sendVerificationEmail(String toEmail, String userName, String verificationToken) {
-        try {
-            String verificationUrl = generateVerificationUrl(verificationToken);
-            String subject = "Verify Your NutriFit Account";
-            String htmlContent = buildVerificationEmailHtml(userName, verificationUrl);
-            String textContent = buildVerificationEmailText(userName, verificationUrl);
-
-            return sendEmail(toEmail, subject, textContent, htmlContent);
-
-        } catch (Exception e) {
-            log.error("Failed to send verification email to {}: {}", toEmail, e.getMessage(), e);
-            return false;
-        }
-    }
-
-    /**
-     * Send password reset email
-     */
-    public boolean sendPasswordResetEmail(String toEmail, String userName, String resetToken) {
-        try {
-            String resetUrl = generatePasswordResetUrl(resetToken);
-            String subject = "Reset Your NutriFit Password";
-            String htmlContent = buildPasswordResetEmailHtml(userName, resetUrl);
-            String textContent = buildPasswordResetEmailText(userName, resetUrl);
-
-            return sendEmail(toEmail, subject, textContent, htmlContent);
-
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to {}: {}", toEmail, e.getMessage(), e);
-            return false;
-        }
-    }
-
-    /**
-     * Generic method to send email via Mailgun API using RestTemplate
-     */
-    private boolean sendEmail(String toEmail, String subject, String textContent, String htmlContent) {
-        try {
-            String url = "https://api.mailgun.net/v3/" + mailgunDomain + "/messages";
-
-            // Create request headers with Basic Auth
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-            // Basic Auth: "api:YOUR_API_KEY"
-            String auth = "api:" + mailgunApiKey;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
-            headers.set("Authorization", "Basic " + encodedAuth);
-
-            // Create form data
-            MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
-            formData.add("from", fromName + " <" + fromEmail + ">");
-            formData.add("to", toEmail);
-            formData.add("subject", subject);
-            formData.add("text", textContent);
-            formData.add("html", htmlContent);
-
-            // Create HTTP entity
-            HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(formData, headers);
-
-            // Send request
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestEntity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Email sent successfully to {}", toEmail);
-                return true;
-            } else {
-                log.error("Failed to send email. Status code: {}, Response: {}",
-                    response.getStatusCode(), response.getBody());
-                return false;
-            }
-
-        } catch (Exception e) {
-            log.error("Error sending email via Mailgun: {}", e.getMessage(), e);
-            return false;
-        }
-    }
-
-    private String generateVerificationUrl(String token) {
-        return UriComponentsBuilder.fromUriString(frontendBaseUrl)
-            .path("/verify-email")
-            .queryParam("token", token)
-            .toUriString();
-    }
-
-    private String generatePasswordResetUrl(String token) {
-        return UriComponentsBuilder.fromUriString(frontendBaseUrl)
-            .path("/reset-password")
-            .queryParam("token", token)
-            .toUriString();
-    }
-
-    private String buildVerificationEmailHtml(String userName, String verificationUrl) {
-        return """
+    // Bodies are compiled once; rendering appends into a per-thread buffer instead of formatting a new string
+    private static final EmailTemplate VERIFICATION_HTML = EmailTemplate.compile("""
             <!DOCTYPE html>
             <html>
             <head>
@@ -145,16 +39,16 @@ public class EmailService {
             <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
                 <div style="background-color: #f8f9fa; border-radius: 10px; padding: 30px; margin-bottom: 20px;">
                     <h1 style="color: #28a745; margin-bottom: 20px;">Welcome to NutriFit!</h1>
-                    <p>Hi %s,</p>
+                    <p>Hi {{userName}},</p>
                     <p>Thank you for registering with NutriFit. Please verify your email address to activate your account.</p>
                     <div style="text-align: center; margin: 30px 0;">
-                        <a href="%s"
+                        <a href="{{link}}"
                            style="display: inline-block; background-color: #28a745; color: white; padding: 12px 30px; text-decoration: none; border-radius: 5px; font-weight: bold;">
                             Verify Email Address
                         </a>
                     </div>
                     <p>Or copy and paste this link into your browser:</p>
-                    <p style="word-break: break-all; color: #666; font-size: 14px;">%s</p>
+                    <p style="word-break: break-all; color: #666; font-size: 14px;">{{link}}</p>
                     <p style="color: #999; font-size: 12px; margin-top: 30px;">
                         This verification link will expire in 24 hours. If you didn't create an account with NutriFit, please ignore this email.
                     </p>
@@ -164,19 +58,17 @@ public class EmailService {
                 </div>
             </body>
             </html>
-            """.formatted(userName, verificationUrl, verificationUrl);
-    }
+            """, "userName", "link");
 
-    private String buildVerificationEmailText(String userName, String verificationUrl) {
-        return String.format("""
+    private static final EmailTemplate VERIFICATION_TEXT = EmailTemplate.compile("""
             Welcome to NutriFit!
 
-            Hi %s,
+            Hi {{userName}},
 
             Thank you for registering with NutriFit. Please verify your email address to activate your account.
 
             Click the link below to verify your email:
-            %s
+            {{link}}
 
             This verification link will expire in 24 hours.
 
@@ -184,11 +76,9 @@ public class EmailService {
 
             Best regards,
             The NutriFit Team
-            """, userName, verificationUrl);
-    }
+            """, "userName", "link");
 
-    private String buildPasswordResetEmailHtml(String userName, String resetUrl) {
-        return """
+    private static final EmailTemplate PASSWORD_RESET_HTML = EmailTemplate.compile("""
             <!DOCTYPE html>
             <html>
             <head>
@@ -199,16 +89,16 @@ public class EmailService {
             <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
                 <div style="background-color: #f8f9fa; border-radius: 10px; padding: 30px; margin-bottom: 20px;">
                     <h1 style="color: #dc3545; margin-bottom: 20px;">Reset Your Password</h1>
-                    <p>Hi %s,</p>
+                    <p>Hi {{userName}},</p>
                     <p>We received a request to reset your password for your NutriFit account.</p>
                     <div style="text-align: center; margin: 30px 0;">
-                        <a href="%s"
+                        <a href="{{link}}"
                            style="display: inline-block; background-color: #dc3545; color: white; padding: 12px 30px; text-decoration: none; border-radius: 5px; font-weight: bold;">
                             Reset Password
                         </a>
                     </div>
                     <p>Or copy and paste this link into your browser:</p>
-                    <p style="word-break: break-all; color: #666; font-size: 14px;">%s</p>
+                    <p style="word-break: break-all; color: #666; font-size: 14px;">{{link}}</p>
                     <p style="color: #999; font-size: 12px; margin-top: 30px;">
                         This password reset link will expire in 1 hour. If you didn't request a password reset, please ignore this email.
                     </p>
@@ -218,19 +108,17 @@ public class EmailService {
                 </div>
             </body>
             </html>
-            """.formatted(userName, resetUrl, resetUrl);
-    }
+            """, "userName", "link");
 
-    private String buildPasswordResetEmailText(String userName, String resetUrl) {
-        return String.format("""
+    private static final EmailTemplate PASSWORD_RESET_TEXT = EmailTemplate.compile("""
             Reset Your Password
 
-            Hi %s,
+            Hi {{userName}},
 
             We received a request to reset your password for your NutriFit account.
 
             Click the link below to reset your password:
-            %s
+            {{link}}
 
             This password reset link will expire in 1 hour.
 
@@ -238,6 +126,147 @@ public class EmailService {
 
             Best regards,
             The NutriFit Team
-            """, userName, resetUrl);
+            """, "userName", "link");
+
+    // Larger buffers, grown by an unusually long value, are not kept for the next render
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(
+        () -> new StringBuilder(VERIFICATION_HTML.literalLength() + 512));
+
+    private final RestTemplate restTemplate;
+
+    @Value("${mailgun.base-url:https://api.mailgun.net}")
+    private String mailgunBaseUrl;
+
+    @Value("${mailgun.api-key}")
+    private String mailgunApiKey;
+
+    @Value("${mailgun.domain}")
+    private String mailgunDomain;
+
+    @Value("${mailgun.from-email}")
+    private String fromEmail;
+
+    @Value("${mailgun.from-name}")
+    private String fromName;
+
+    @Value("${app.frontend.url}")
+    private String frontendBaseUrl;
+
+    /**
+     * Render and send a queued outbox message; throws {@link EmailDeliveryException} if Mailgun does not accept it
+     */
+    public void deliver(EmailOutboxMessage message) {
+        send(render(message));
+    }
+
+    public RenderedEmail render(EmailOutboxMessage message) {
+        return render(message, renderBuffer());
+    }
+
+    /**
+     * Render a batch of messages in one pass through a single buffer, e.g. everything the outbox claimed at once
+     */
+    public List<RenderedEmail> renderAll(List<EmailOutboxMessage> messages) {
+        StringBuilder buffer = renderBuffer();
+        List<RenderedEmail> rendered = new ArrayList<>(messages.size());
+        for (EmailOutboxMessage message : messages) {
+            rendered.add(render(message, buffer));
+        }
+        return rendered;
+    }
+
+    /**
+     * Send an already rendered email; throws {@link EmailDeliveryException} if Mailgun does not accept it
+     */
+    public void send(RenderedEmail email) {
+        sendEmail(email.to(), email.subject(), email.text(), email.html());
+    }
+
+    /**
+     * Generic method to send email via Mailgun API using RestTemplate
+     */
+    private void sendEmail(String toEmail, String subject, String textContent, String htmlContent) {
+        String url = mailgunBaseUrl + "/v3/" + mailgunDomain + "/messages";
+
+        // Create request headers with Basic Auth
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        // Basic Auth: "api:YOUR_API_KEY"
+        String auth = "api:" + mailgunApiKey;
+        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+        headers.set("Authorization", "Basic " + encodedAuth);
+
+        // Create form data
+        MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
+        formData.add("from", fromName + " <" + fromEmail + ">");
+        formData.add("to", toEmail);
+        formData.add("subject", subject);
+        formData.add("text", textContent);
+        formData.add("html", htmlContent);
+
+        // Create HTTP entity
+        HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(formData, headers);
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.postForEntity(url, requestEntity, String.class);
+        } catch (HttpStatusCodeException e) {
+            // A rejected request will be rejected again; rate limiting and server errors are worth retrying
+            boolean permanent = e.getStatusCode().is4xxClientError()
+                && e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value();
+            throw new EmailDeliveryException("Mailgun returned " + e.getStatusCode(), permanent, e);
+        } catch (RestClientException e) {
+            throw new EmailDeliveryException("Mailgun request failed: " + e.getMessage(), false, e);
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new EmailDeliveryException("Mailgun returned " + response.getStatusCode(), false, null);
+        }
+        log.info("Email sent successfully to {}", toEmail);
+    }
+
+    private RenderedEmail render(EmailOutboxMessage message, StringBuilder buffer) {
+        String userName = message.getRecipientName();
+        return switch (message.getEmailType()) {
+            case VERIFICATION -> {
+                String link = frontendLink("/verify-email", message.getToken());
+                yield new RenderedEmail(message.getRecipient(), "Verify Your NutriFit Account",
+                    render(VERIFICATION_TEXT, buffer, userName, link),
+                    render(VERIFICATION_HTML, buffer, userName, link));
+            }
+            case PASSWORD_RESET -> {
+                String link = frontendLink("/reset-password", message.getToken());
+                yield new RenderedEmail(message.getRecipient(), "Reset Your NutriFit Password",
+                    render(PASSWORD_RESET_TEXT, buffer, userName, link),
+                    render(PASSWORD_RESET_HTML, buffer, userName, link));
+            }
+        };
+    }
+
+    private String frontendLink(String path, String token) {
+        String base = frontendBaseUrl.endsWith("/")
+            ? frontendBaseUrl.substring(0, frontendBaseUrl.length() - 1)
+            : frontendBaseUrl;
+        return base + path + "?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+    }
+
+    private static String render(EmailTemplate template, StringBuilder buffer, String... values) {
+        buffer.setLength(0);
+        template.renderTo(buffer, values);
+        return buffer.toString();
+    }
+
+    private static StringBuilder renderBuffer() {
+        StringBuilder buffer = RENDER_BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            RENDER_BUFFER.remove();
+            buffer = RENDER_BUFFER.get();
+        }
+        return buffer;
+    }
+
+    public record RenderedEmail(String to, String subject, String text, String html) {
     }
 }
@@ -0,0 +1,97 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An email body parsed once into its literal text with the {@code {{name}}} placeholders cut out, plus the
+ * offset in that text where each placeholder goes. Rendering is then a run of appends into the caller's
+ * buffer, with no parsing, formatting or intermediate strings.
+ */
+final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // Template text without its placeholders
+    private final String literal;
+    // For the i-th placeholder: where it goes in literal, and which parameter fills it
+    private final int[] offsets;
+    private final int[] parameters;
+    private final int parameterCount;
+
+    private EmailTemplate(String literal, int[] offsets, int[] parameters, int parameterCount) {
+        this.literal = literal;
+        this.offsets = offsets;
+        this.parameters = parameters;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Parse {@code source}; each placeholder must name one of {@code parameterNames}, whose position is the
+     * position of its value in {@link #renderTo(StringBuilder, String...)}
+     */
+    static EmailTemplate compile(String source, String... parameterNames) {
+        StringBuilder literal = new StringBuilder(source.length());
+        List<int[]> placeholders = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open);
+            }
+            literal.append(source, position, open);
+            String name = source.substring(open + OPEN.length(), close).trim();
+            placeholders.add(new int[]{literal.length(), indexOf(parameterNames, name)});
+            position = close + CLOSE.length();
+        }
+        literal.append(source, position, source.length());
+
+        int[] offsets = new int[placeholders.size()];
+        int[] parameters = new int[placeholders.size()];
+        for (int i = 0; i < placeholders.size(); i++) {
+            offsets[i] = placeholders.get(i)[0];
+            parameters[i] = placeholders.get(i)[1];
+        }
+        return new EmailTemplate(literal.toString(), offsets, parameters, parameterNames.length);
+    }
+
+    /**
+     * Append the template to {@code out} with {@code values} in parameter order; null renders as empty
+     */
+    void renderTo(StringBuilder out, String... values) {
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException("Expected " + parameterCount + " values, got " + values.length);
+        }
+        int position = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            out.append(literal, position, offsets[i]);
+            String value = values[parameters[i]];
+            if (value != null) {
+                out.append(value);
+            }
+            position = offsets[i];
+        }
+        out.append(literal, position, literal.length());
+    }
+
+    /**
+     * Length of the text around the placeholders, the lower bound of any rendering
+     */
+    int literalLength() {
+        return literal.length();
+    }
+
+    private static int indexOf(String[] parameterNames, String name) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown placeholder {{" + name + "}}");
+    }
+}
@@ -3,20 +3,25 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.profile;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.Profile.GetMetricsHistoryRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.Profile.UserMetricsRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Profile.UserMetricsResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserMetricsRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -33,6 +38,7 @@ public class UserMetricService {
 
     private final UserMetricsRepository userMetricsRepository;
     private final SecurityUtil securityUtil;
+    private final QuickStatsCache quickStatsCache;
 
     public UserMetricsResponseDto getLatestUserMetrics() {
         Long currentUserId = getCurrentUserId();
@@ -58,15 +64,25 @@ public class UserMetricService {
             : "createdAt";
         Sort.Direction direction = parseSortDirection(effectiveRequest.getSortDirection());
 
+        LocalDateTime start = resolveStartDate(effectiveRequest.getStartDate());
+        LocalDateTime end = resolveEndDate(effectiveRequest.getEndDate());
+
+        if (StringUtils.hasText(effectiveRequest.getCursor())) {
+            // Keyset continuation: always newest first, seeking past the cursor instead of skipping an OFFSET
+            PageCursor after = PageCursor.decode(effectiveRequest.getCursor());
+            List<UserMetrics> rows = userMetricsRepository.findPageAfter(
+                currentUserId, start, end, after.keyAsDateTime(), after.id(), Limit.of(requestedSize + 1));
+            return PageResponse.fromKeyset(rows, requestedSize, true,
+                this::toResponseDto, UserMetrics::getCreatedAt, UserMetrics::getMetricId);
+        }
+
+        // metricId breaks ties so the order is total and a cursor from this page resumes exactly after it
         Pageable pageable = org.springframework.data.domain.PageRequest.of(
             Math.max(requestedPage - 1, 0),
             requestedSize,
-            Sort.by(direction, sortProperty)
+            Sort.by(direction, sortProperty).and(Sort.by(direction, "metricId"))
         );
 
-        LocalDateTime start = resolveStartDate(effectiveRequest.getStartDate());
-        LocalDateTime end = resolveEndDate(effectiveRequest.getEndDate());
-
         Page<UserMetrics> history = userMetricsRepository.findByUserUserIdAndCreatedAtBetween(
             currentUserId,
             start,
@@ -74,7 +90,24 @@ public class UserMetricService {
             pageable
         );
 
-        return PageResponse.from(history, this::toResponseDto, requestedPage);
+        PageResponse<UserMetricsResponseDto> response = PageResponse.from(history, this::toResponseDto, requestedPage);
+        if (history.hasNext() && "createdAt".equals(sortProperty) && direction == Sort.Direction.DESC) {
+            // The default order is the keyset order, so the client can switch to cursors from here
+            UserMetrics last = history.getContent().get(history.getNumberOfElements() - 1);
+            response.setNextCursor(PageCursor.encode(last.getCreatedAt(), last.getMetricId()));
+        }
+        return response;
+    }
+
+    /**
+     * Metrics entries created or edited after {@code since}, or all of the user's entries when it is null
+     */
+    @Transactional(readOnly = true)
+    public EntityChanges<UserMetricsResponseDto> getMetricChanges(Long userId, LocalDateTime since) {
+        List<UserMetrics> rows = since == null
+            ? userMetricsRepository.findByUserUserIdOrderByCreatedAtDesc(userId)
+            : userMetricsRepository.findByUserUserIdAndUpdatedAtAfter(userId, since);
+        return EntityChanges.of(rows, since, UserMetrics::getCreatedAt, this::toResponseDto);
     }
 
     @Transactional
@@ -95,6 +128,7 @@ public class UserMetricService {
         applyCalculatedValues(metrics);
 
         UserMetrics savedMetrics = userMetricsRepository.save(metrics);
+        quickStatsCache.invalidate(user.getUserId());
         return toResponseDto(savedMetrics);
     }
 
@@ -136,6 +170,7 @@ public class UserMetricService {
         applyCalculatedValues(metrics);
 
         UserMetrics savedMetrics = userMetricsRepository.save(metrics);
+        quickStatsCache.invalidate(currentUserId);
         return toResponseDto(savedMetrics);
     }
 
@@ -256,7 +291,7 @@ public class UserMetricService {
     }
 
     private Long getCurrentUserId() {
-        return getCurrentUser().getUserId();
+        return securityUtil.getCurrentUserId();
     }
 
     private User getCurrentUser() {
@@ -4,6 +4,7 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Gender;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserProfile;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserProfileRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,7 @@ import java.time.LocalDate;
 public class UserProfileService {
 
     private final UserProfileRepository userProfileRepository;
+    private final QuickStatsCache quickStatsCache;
 
     @Transactional
     public UserProfile upsertProfile(User user, LocalDate birthDate, Gender gender) {
@@ -30,7 +32,10 @@ public class UserProfileService {
                 });
         profile.setBirthDate(birthDate);
         profile.setGender(gender);
-        return userProfileRepository.save(profile);
+        UserProfile saved = userProfileRepository.save(profile);
+        // Age and gender feed the BMR shown in quick stats
+        quickStatsCache.invalidate(user.getUserId());
+        return saved;
     }
 
     public UserProfile getProfile(Long userId) {
@@ -0,0 +1,311 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.DailySummaryRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-user, per-day {@link DailySummary} rollup.
+ * Write paths call the record/remove/replace methods inside their own transaction so the rollup
+ * commits (or rolls back) together with the meal or workout change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailySummaryService {
+
+    private final DailySummaryRepository dailySummaryRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMeal(Meal meal) {
+        apply(Contribution.of(meal));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeMeal(Meal meal) {
+        apply(negate(Contribution.of(meal)));
+    }
+
+    /**
+     * @param before snapshot taken with {@link Contribution#of(Meal)} before the meal was modified
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replaceMeal(Contribution before, Meal after) {
+        replace(before, Contribution.of(after));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordWorkout(Workout workout) {
+        apply(Contribution.of(workout));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeWorkout(Workout workout) {
+        apply(negate(Contribution.of(workout)));
+    }
+
+    /**
+     * @param before snapshot taken with {@link Contribution#of(Workout)} before the workout was modified
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replaceWorkout(Contribution before, Workout after) {
+        replace(before, Contribution.of(after));
+    }
+
+    /**
+     * Rebuild a user's rollup from the raw meals and workouts tables. Holds the user's rollup lock, so meal and
+     * workout writes for that user wait for the rebuild instead of losing their deltas to it.
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuildForUser(Long userId) {
+        dailySummaryRepository.lockUserForRebuild(userId);
+        User user = userRepository.getReferenceById(userId);
+        dailySummaryRepository.deleteByUserId(userId);
+
+        List<DailySummary> rows = dailySummaryRepository.aggregateRawTotalsByDay(userId).stream()
+            .map(raw -> toSummary(user, raw))
+            .collect(Collectors.toList());
+        dailySummaryRepository.saveAll(rows);
+
+        log.info("Rebuilt {} daily summary rows for user {}", rows.size(), userId);
+        return rows.size();
+    }
+
+    /**
+     * Compare a user's rollup against the raw tables and report every day where they disagree
+     */
+    @Transactional(readOnly = true)
+    public ConsistencyReport checkConsistency(Long userId) {
+        Map<LocalDate, DailySummaryRepository.RawDailyTotals> rawByDay = dailySummaryRepository
+            .aggregateRawTotalsByDay(userId).stream()
+            .collect(Collectors.toMap(DailySummaryRepository.RawDailyTotals::getDay, Function.identity(),
+                (a, b) -> a, TreeMap::new));
+
+        Map<LocalDate, DailySummary> rollupByDay = dailySummaryRepository
+            .findByUserUserIdOrderBySummaryDateAsc(userId).stream()
+            .collect(Collectors.toMap(DailySummary::getSummaryDate, Function.identity(), (a, b) -> a, TreeMap::new));
+
+        Set<LocalDate> days = new TreeSet<>(rawByDay.keySet());
+        days.addAll(rollupByDay.keySet());
+
+        List<Mismatch> mismatches = new ArrayList<>();
+        for (LocalDate day : days) {
+            Contribution expected = rawByDay.containsKey(day)
+                ? Contribution.of(userId, rawByDay.get(day))
+                : Contribution.empty(userId, day);
+            Contribution actual = rollupByDay.containsKey(day)
+                ? Contribution.of(userId, rollupByDay.get(day))
+                : Contribution.empty(userId, day);
+            mismatches.addAll(expected.diff(actual));
+        }
+        mismatches.sort(Comparator.comparing(Mismatch::day));
+
+        return new ConsistencyReport(userId, days.size(), mismatches);
+    }
+
+    /**
+     * Ids of every user, for rebuilding or checking the whole table one user at a time
+     */
+    public List<Long> findAllUserIds() {
+        return userRepository.findAllUserIds();
+    }
+
+    private void replace(Contribution before, Contribution after) {
+        if (before != null && before.sameBucket(after)) {
+            apply(after.minus(before));
+            return;
+        }
+        apply(negate(before));
+        apply(after);
+    }
+
+    private static Contribution negate(Contribution contribution) {
+        return contribution != null ? contribution.negate() : null;
+    }
+
+    private void apply(Contribution delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        dailySummaryRepository.lockUserForWrite(delta.userId());
+        dailySummaryRepository.applyDelta(
+            delta.userId(),
+            delta.day(),
+            delta.caloriesConsumed(),
+            delta.caloriesBurned(),
+            delta.proteinG(),
+            delta.carbsG(),
+            delta.fatG(),
+            delta.mealCount(),
+            delta.workoutCount(),
+            delta.workoutMinutes(),
+            delta.workoutDurationCount(),
+            delta.workoutCaloriesCount(),
+            delta.caloriesConsumed().subtract(delta.caloriesBurned())
+        );
+    }
+
+    private DailySummary toSummary(User user, DailySummaryRepository.RawDailyTotals raw) {
+        DailySummary summary = new DailySummary();
+        summary.setUser(user);
+        summary.setSummaryDate(raw.getDay());
+        summary.setTotalCaloriesConsumed(orZero(raw.getCaloriesConsumed()));
+        summary.setTotalCaloriesBurned(orZero(raw.getCaloriesBurned()));
+        summary.setTotalProteinG(orZero(raw.getProteinG()));
+        summary.setTotalCarbsG(orZero(raw.getCarbsG()));
+        summary.setTotalFatG(orZero(raw.getFatG()));
+        summary.setMealCount(intValue(raw.getMealCount()));
+        summary.setWorkoutCount(intValue(raw.getWorkoutCount()));
+        summary.setTotalWorkoutMinutes(intValue(raw.getWorkoutMinutes()));
+        summary.setWorkoutDurationCount(intValue(raw.getWorkoutDurationCount()));
+        summary.setWorkoutCaloriesCount(intValue(raw.getWorkoutCaloriesCount()));
+        summary.setNetCalories(summary.getTotalCaloriesConsumed().subtract(summary.getTotalCaloriesBurned()));
+        return summary;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static int intValue(Number value) {
+        return value != null ? value.intValue() : 0;
+    }
+
+    /**
+     * What a single meal or workout (or a whole day) adds to one rollup row.
+     * The duration and calories counts are the workouts that logged each value.
+     */
+    public record Contribution(Long userId, LocalDate day,
+                               BigDecimal caloriesConsumed, BigDecimal proteinG, BigDecimal carbsG, BigDecimal fatG,
+                               int mealCount,
+                               BigDecimal caloriesBurned, int workoutMinutes, int workoutCount,
+                               int workoutDurationCount, int workoutCaloriesCount) {
+
+        public static Contribution of(Meal meal) {
+            if (meal == null || meal.getUser() == null || meal.getMealTime() == null) {
+                return null;
+            }
+            return new Contribution(meal.getUser().getUserId(), meal.getMealTime().toLocalDate(),
+                orZero(meal.getTotalCalories()), orZero(meal.getProteinG()), orZero(meal.getCarbsG()),
+                orZero(meal.getFatG()), 1,
+                BigDecimal.ZERO, 0, 0, 0, 0);
+        }
+
+        public static Contribution of(Workout workout) {
+            if (workout == null || workout.getUser() == null || workout.getWorkoutDate() == null) {
+                return null;
+            }
+            return new Contribution(workout.getUser().getUserId(), workout.getWorkoutDate(),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0,
+                orZero(workout.getCaloriesBurned()),
+                workout.getDurationMinutes() != null ? workout.getDurationMinutes() : 0, 1,
+                workout.getDurationMinutes() != null ? 1 : 0, workout.getCaloriesBurned() != null ? 1 : 0);
+        }
+
+        static Contribution of(Long userId, DailySummaryRepository.RawDailyTotals raw) {
+            return new Contribution(userId, raw.getDay(),
+                orZero(raw.getCaloriesConsumed()), orZero(raw.getProteinG()), orZero(raw.getCarbsG()),
+                orZero(raw.getFatG()), intValue(raw.getMealCount()),
+                orZero(raw.getCaloriesBurned()), intValue(raw.getWorkoutMinutes()), intValue(raw.getWorkoutCount()),
+                intValue(raw.getWorkoutDurationCount()), intValue(raw.getWorkoutCaloriesCount()));
+        }
+
+        static Contribution of(Long userId, DailySummary summary) {
+            return new Contribution(userId, summary.getSummaryDate(),
+                orZero(summary.getTotalCaloriesConsumed()), orZero(summary.getTotalProteinG()),
+                orZero(summary.getTotalCarbsG()), orZero(summary.getTotalFatG()), intValue(summary.getMealCount()),
+                orZero(summary.getTotalCaloriesBurned()), intValue(summary.getTotalWorkoutMinutes()),
+                intValue(summary.getWorkoutCount()), intValue(summary.getWorkoutDurationCount()),
+                intValue(summary.getWorkoutCaloriesCount()));
+        }
+
+        static Contribution empty(Long userId, LocalDate day) {
+            return new Contribution(userId, day, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0,
+                BigDecimal.ZERO, 0, 0, 0, 0);
+        }
+
+        Contribution negate() {
+            return new Contribution(userId, day, caloriesConsumed.negate(), proteinG.negate(), carbsG.negate(),
+                fatG.negate(), -mealCount, caloriesBurned.negate(), -workoutMinutes, -workoutCount,
+                -workoutDurationCount, -workoutCaloriesCount);
+        }
+
+        Contribution minus(Contribution other) {
+            return new Contribution(userId, day,
+                caloriesConsumed.subtract(other.caloriesConsumed), proteinG.subtract(other.proteinG),
+                carbsG.subtract(other.carbsG), fatG.subtract(other.fatG), mealCount - other.mealCount,
+                caloriesBurned.subtract(other.caloriesBurned), workoutMinutes - other.workoutMinutes,
+                workoutCount - other.workoutCount, workoutDurationCount - other.workoutDurationCount,
+                workoutCaloriesCount - other.workoutCaloriesCount);
+        }
+
+        boolean sameBucket(Contribution other) {
+            return other != null && Objects.equals(userId, other.userId) && Objects.equals(day, other.day);
+        }
+
+        boolean isEmpty() {
+            return caloriesConsumed.signum() == 0 && proteinG.signum() == 0 && carbsG.signum() == 0
+                && fatG.signum() == 0 && mealCount == 0 && caloriesBurned.signum() == 0
+                && workoutMinutes == 0 && workoutCount == 0
+                && workoutDurationCount == 0 && workoutCaloriesCount == 0;
+        }
+
+        List<Mismatch> diff(Contribution actual) {
+            List<Mismatch> result = new ArrayList<>();
+            compare(result, "total_calories_consumed", caloriesConsumed, actual.caloriesConsumed);
+            compare(result, "total_protein_g", proteinG, actual.proteinG);
+            compare(result, "total_carbs_g", carbsG, actual.carbsG);
+            compare(result, "total_fat_g", fatG, actual.fatG);
+            compare(result, "meal_count", BigDecimal.valueOf(mealCount), BigDecimal.valueOf(actual.mealCount));
+            compare(result, "total_calories_burned", caloriesBurned, actual.caloriesBurned);
+            compare(result, "total_workout_minutes", BigDecimal.valueOf(workoutMinutes), BigDecimal.valueOf(actual.workoutMinutes));
+            compare(result, "workout_count", BigDecimal.valueOf(workoutCount), BigDecimal.valueOf(actual.workoutCount));
+            compare(result, "workout_duration_count", BigDecimal.valueOf(workoutDurationCount),
+                BigDecimal.valueOf(actual.workoutDurationCount));
+            compare(result, "workout_calories_count", BigDecimal.valueOf(workoutCaloriesCount),
+                BigDecimal.valueOf(actual.workoutCaloriesCount));
+            return result;
+        }
+
+        private void compare(List<Mismatch> result, String column, BigDecimal expected, BigDecimal actual) {
+            if (expected.compareTo(actual) != 0) {
+                result.add(new Mismatch(day, column, expected, actual));
+            }
+        }
+    }
+
+    /**
+     * A rollup column that disagrees with the raw tables on a given day
+     */
+    public record Mismatch(LocalDate day, String column, BigDecimal expected, BigDecimal actual) {
+    }
+
+    public record ConsistencyReport(Long userId, int checkedDays, List<Mismatch> mismatches) {
+        public boolean isConsistent() {
+            return mismatches.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.sync;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.SyncChangesResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.SyncWatermark;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.NutritionService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.WorkoutService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.profile.UserMetricService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta sync for clients that cache meals, workouts and metrics locally: everything created, edited or deleted
+ * since the watermark of their previous sync, read from the (user_id, updated_at) indexes and sync_tombstones.
+ * <p>
+ * updated_at is stamped before the writing transaction commits, so a row can become visible with a time just
+ * behind a watermark already handed out. The watermark therefore trails the server clock by {@code overlap},
+ * and the rows changed inside that window come again on the next sync; applying them twice is harmless.
+ */
+@Slf4j
+@Service
+public class SyncService {
+
+    private final NutritionService nutritionService;
+    private final WorkoutService workoutService;
+    private final UserMetricService userMetricService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final Duration overlap;
+    private final Duration tombstoneRetention;
+    private final Clock clock;
+
+    @Autowired
+    public SyncService(NutritionService nutritionService,
+                       WorkoutService workoutService,
+                       UserMetricService userMetricService,
+                       SyncTombstoneRepository syncTombstoneRepository,
+                       @Value("${app.sync.overlap:PT1M}") Duration overlap,
+                       @Value("${app.sync.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this(nutritionService, workoutService, userMetricService, syncTombstoneRepository,
+            overlap, tombstoneRetention, Clock.systemDefaultZone());
+    }
+
+    SyncService(NutritionService nutritionService,
+                WorkoutService workoutService,
+                UserMetricService userMetricService,
+                SyncTombstoneRepository syncTombstoneRepository,
+                Duration overlap,
+                Duration tombstoneRetention,
+                Clock clock) {
+        this.nutritionService = nutritionService;
+        this.workoutService = workoutService;
+        this.userMetricService = userMetricService;
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.overlap = overlap;
+        this.tombstoneRetention = tombstoneRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * Changes for the user since {@code since}, a watermark from an earlier response. With no watermark, or one
+     * older than the tombstones go back, the response is a reset holding every row.
+     */
+    public SyncChangesResponseDto getChanges(Long userId, String since) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime sinceTime = since != null && !since.isBlank() ? SyncWatermark.decode(since).at() : null;
+        boolean reset = sinceTime == null || sinceTime.isBefore(now.minus(tombstoneRetention));
+        LocalDateTime changedAfter = reset ? null : sinceTime;
+
+        // Taken before the reads, so nothing committed from here on can fall behind it
+        String watermark = new SyncWatermark(now.minus(overlap)).encode();
+
+        Map<SyncEntityType, List<Long>> deleted = new EnumMap<>(SyncEntityType.class);
+        for (SyncEntityType type : SyncEntityType.values()) {
+            deleted.put(type, new ArrayList<>());
+        }
+        if (!reset) {
+            for (SyncTombstone tombstone : syncTombstoneRepository.findByUserIdAndDeletedAtAfter(userId, changedAfter)) {
+                deleted.get(tombstone.getEntityType()).add(tombstone.getEntityId());
+            }
+        }
+
+        return new SyncChangesResponseDto(
+            watermark,
+            reset,
+            nutritionService.getMealChanges(userId, changedAfter).withDeleted(deleted.get(SyncEntityType.MEAL)),
+            workoutService.getWorkoutChanges(userId, changedAfter).withDeleted(deleted.get(SyncEntityType.WORKOUT)),
+            userMetricService.getMetricChanges(userId, changedAfter).withDeleted(deleted.get(SyncEntityType.USER_METRICS))
+        );
+    }
+
+    @Scheduled(initialDelayString = "${app.sync.tombstone-purge.initial-delay:PT10M}",
+               fixedDelayString = "${app.sync.tombstone-purge.interval:PT6H}")
+    public void purgeExpiredTombstones() {
+        try {
+            int purged = syncTombstoneRepository.deleteDeletedBefore(LocalDateTime.now(clock).minus(tombstoneRetention));
+            if (purged > 0) {
+                log.info("Purged {} sync tombstones older than {}", purged, tombstoneRetention);
+            }
+        } catch (RuntimeException e) {
+            // Logged rather than rethrown so the next scheduled run still happens
+            log.error("Sync tombstone purge failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- Composite indexes for the per-user range and latest-first reads on the dashboard, history and purge paths.
+-- Each leads with user_id so a query only touches one user's rows, then the column it filters or orders by.
+-- CONCURRENTLY keeps the tables writable while the indexes build on existing databases; Flyway runs a script
+-- made only of such statements outside a transaction. IF NOT EXISTS covers databases where ddl-auto already
+-- created the token expiry indexes.
+
+-- MealRepository: findByUserUserIdAndMealTimeBetween, findDailyNutritionTotals, streamForExport
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_meals_user_meal_time ON meals (user_id, meal_time);
+
+-- WorkoutRepository: findByUserUserIdAndWorkoutDateBetween, findDistinctWorkoutDates, findDailyWorkoutTotals
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workouts_user_workout_date ON workouts (user_id, workout_date);
+
+-- UserMetricsRepository: latest entries and weight history ordered by created_at
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_metrics_user_created_at ON user_metrics (user_id, created_at DESC);
+
+-- AIInsightRepository: latest and recent active insights
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ai_insights_user_active_created_at ON ai_insights (user_id, is_active, created_at DESC);
+
+-- ExpiredTokenPurgeJob: each batch is a range scan on expires_at
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_verification_tokens_expires_at ON verification_tokens (expires_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_password_reset_tokens_expires_at ON password_reset_tokens (expires_at);
@@ -0,0 +1,20 @@
+-- Delta sync (/api/sync/changes) reads meals, workouts and user_metrics by updated_at and deletes from tombstones.
+
+-- Metrics entries can be edited, so they need an updated_at like the other two; existing rows count as
+-- last changed when created
+ALTER TABLE user_metrics ADD COLUMN updated_at timestamp(6);
+UPDATE user_metrics SET updated_at = created_at WHERE updated_at IS NULL;
+
+-- Meals written before @UpdateTimestamp was set on insert may have no updated_at
+UPDATE meals SET updated_at = COALESCE(created_at, meal_time, now()) WHERE updated_at IS NULL;
+
+create table sync_tombstones (
+    deleted_at timestamp(6) not null,
+    entity_id bigint not null,
+    tombstone_id bigint generated by default as identity,
+    user_id bigint not null,
+    entity_type varchar(16) not null check (entity_type in ('MEAL','WORKOUT','USER_METRICS')),
+    primary key (tombstone_id)
+);
+
+create index idx_sync_tombstones_user_deleted_at on sync_tombstones (user_id, deleted_at);
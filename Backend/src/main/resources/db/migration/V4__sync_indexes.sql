@@ -0,0 +1,5 @@
+-- Per-user change scans for delta sync: rows with updated_at after the client's watermark.
+-- Kept apart from V3 because Flyway only runs a script of CONCURRENTLY statements outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_meals_user_updated_at ON meals (user_id, updated_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workouts_user_updated_at ON workouts (user_id, updated_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_metrics_user_updated_at ON user_metrics (user_id, updated_at);
@@ -0,0 +1,13 @@
+-- Persistent tier of GeminiClient's response cache, so answers to repeated prompts survive restarts.
+-- Rows are only read by primary key; the expires_at index serves the scheduled purge.
+
+create table llm_response_cache (
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone not null,
+    cache_key varchar(64) not null,
+    operation varchar(32) not null check (operation in ('WORKOUT_ESTIMATE','MEAL_ESTIMATE','INSIGHT','SUGGESTIONS')),
+    content TEXT not null,
+    primary key (cache_key)
+);
+
+create index idx_llm_response_cache_expires_at on llm_response_cache (expires_at);
@@ -0,0 +1,48 @@
+-- Per-day rollup maintained by DailySummaryService on every meal and workout write.
+-- Its writes upsert deltas with ON CONFLICT (user_id, summary_date), so each user needs at most one row per day.
+
+ALTER TABLE daily_summaries ADD COLUMN IF NOT EXISTS meal_count integer;
+ALTER TABLE daily_summaries ADD COLUMN IF NOT EXISTS total_workout_minutes integer;
+
+-- Nothing kept daily_summaries unique before, so drop duplicate days (keeping the newest row) before the
+-- constraint goes on; the backfill below recomputes the totals of every day that has meals or workouts anyway
+DELETE FROM daily_summaries older
+USING daily_summaries newer
+WHERE older.user_id = newer.user_id
+  AND older.summary_date = newer.summary_date
+  AND older.summary_id < newer.summary_id;
+
+ALTER TABLE daily_summaries DROP CONSTRAINT IF EXISTS uk_daily_summaries_user_date;
+ALTER TABLE daily_summaries ADD CONSTRAINT uk_daily_summaries_user_date UNIQUE (user_id, summary_date);
+
+-- Backfill from the raw tables, as --rebuild-daily-summaries does for one user
+INSERT INTO daily_summaries (user_id, summary_date, total_calories_consumed, total_calories_burned,
+                             total_protein_g, total_carbs_g, total_fat_g, meal_count, workout_count,
+                             total_workout_minutes, net_calories, created_at, updated_at)
+SELECT raw.user_id, raw.day, SUM(raw.calories_consumed), SUM(raw.calories_burned),
+       SUM(raw.protein_g), SUM(raw.carbs_g), SUM(raw.fat_g), SUM(raw.meal_count), SUM(raw.workout_count),
+       SUM(raw.workout_minutes), SUM(raw.calories_consumed) - SUM(raw.calories_burned), now(), now()
+FROM (
+    SELECT m.user_id, CAST(m.meal_time AS date) AS day, COALESCE(m.total_calories, 0) AS calories_consumed,
+           COALESCE(m.protein_g, 0) AS protein_g, COALESCE(m.carbs_g, 0) AS carbs_g, COALESCE(m.fat_g, 0) AS fat_g,
+           1 AS meal_count, 0 AS calories_burned, 0 AS workout_minutes, 0 AS workout_count
+    FROM meals m
+    WHERE m.user_id IS NOT NULL AND m.meal_time IS NOT NULL
+    UNION ALL
+    SELECT w.user_id, w.workout_date, 0, 0, 0, 0, 0, COALESCE(w.calories_burned, 0),
+           COALESCE(w.duration_minutes, 0), 1
+    FROM workouts w
+    WHERE w.user_id IS NOT NULL AND w.workout_date IS NOT NULL
+) raw
+GROUP BY raw.user_id, raw.day
+ON CONFLICT (user_id, summary_date) DO UPDATE SET
+    total_calories_consumed = EXCLUDED.total_calories_consumed,
+    total_calories_burned = EXCLUDED.total_calories_burned,
+    total_protein_g = EXCLUDED.total_protein_g,
+    total_carbs_g = EXCLUDED.total_carbs_g,
+    total_fat_g = EXCLUDED.total_fat_g,
+    meal_count = EXCLUDED.meal_count,
+    workout_count = EXCLUDED.workout_count,
+    total_workout_minutes = EXCLUDED.total_workout_minutes,
+    net_calories = EXCLUDED.net_calories,
+    updated_at = now();
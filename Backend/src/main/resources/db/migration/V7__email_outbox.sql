@@ -0,0 +1,18 @@
+-- Transactional outbox for verification and reset emails, drained by EmailOutboxDispatcher.
+-- The dispatcher claims due rows by status and next_attempt_at.
+
+create table email_outbox (
+    attempts integer not null,
+    created_at timestamp(6) with time zone not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    outbox_id bigint generated by default as identity,
+    status varchar(16) not null check (status in ('PENDING','PARKED')),
+    email_type varchar(32) not null check (email_type in ('VERIFICATION','PASSWORD_RESET')),
+    last_error TEXT,
+    recipient varchar(255) not null,
+    recipient_name varchar(255),
+    token varchar(255) not null,
+    primary key (outbox_id)
+);
+
+create index idx_email_outbox_due on email_outbox (status, next_attempt_at);
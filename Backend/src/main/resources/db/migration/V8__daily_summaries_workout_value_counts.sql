@@ -0,0 +1,11 @@
+-- Workouts per day that logged a duration, and that logged calories burned. The dashboard averages minutes and
+-- calories burned over these rather than workout_count, since workouts missing a value never counted towards it.
+
+ALTER TABLE daily_summaries ADD COLUMN workout_duration_count integer;
+ALTER TABLE daily_summaries ADD COLUMN workout_calories_count integer;
+
+UPDATE daily_summaries ds
+SET workout_duration_count = (SELECT count(w.duration_minutes) FROM workouts w
+                              WHERE w.user_id = ds.user_id AND w.workout_date = ds.summary_date),
+    workout_calories_count = (SELECT count(w.calories_burned) FROM workouts w
+                              WHERE w.user_id = ds.user_id AND w.workout_date = ds.summary_date);
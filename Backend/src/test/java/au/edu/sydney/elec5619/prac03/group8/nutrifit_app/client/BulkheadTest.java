@@ -0,0 +1,95 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTest {
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    @Test
+    void callsOverTheCapQueueUntilASlotFrees() {
+        Bulkhead bulkhead = new Bulkhead("insight", 1, 1, Duration.ofSeconds(5));
+        Sinks.One<String> first = Sinks.one();
+
+        CompletableFuture<String> running = execute(bulkhead, first.asMono());
+        CompletableFuture<String> queued = execute(bulkhead, Mono.just("second"));
+
+        assertThat(started).hasValue(1);
+        assertThat(bulkhead.stats()).isEqualTo(new Bulkhead.Stats(1, 1, 1, 0, 0));
+
+        first.tryEmitValue("first");
+
+        assertThat(running.join()).isEqualTo("first");
+        assertThat(queued.join()).isEqualTo("second");
+        assertThat(bulkhead.stats()).isEqualTo(new Bulkhead.Stats(1, 0, 0, 0, 0));
+    }
+
+    @Test
+    void aFullQueueIsRefusedStraightAway() {
+        Bulkhead bulkhead = new Bulkhead("meal estimate", 1, 1, Duration.ofSeconds(5));
+        execute(bulkhead, Mono.never());
+        execute(bulkhead, Mono.never());
+
+        assertThatThrownBy(() -> execute(bulkhead, Mono.just("third")).join())
+            .cause()
+            .isInstanceOf(TooManyRequestsException.class)
+            .hasMessage("Too many meal estimate requests, please try again shortly");
+        assertThat(bulkhead.stats().rejected()).isEqualTo(1);
+        assertThat(started).hasValue(1);
+    }
+
+    @Test
+    void aCallThatWaitsTooLongIsRefusedAndLeavesTheQueue() {
+        Bulkhead bulkhead = new Bulkhead("suggestions", 1, 5, Duration.ofMillis(50));
+        Sinks.One<String> first = Sinks.one();
+        execute(bulkhead, first.asMono());
+
+        assertThatThrownBy(() -> execute(bulkhead, Mono.just("late")).join())
+            .cause()
+            .isInstanceOf(TooManyRequestsException.class);
+        assertThat(bulkhead.stats().timedOut()).isEqualTo(1);
+        assertThat(bulkhead.stats().queued()).isZero();
+
+        first.tryEmitValue("first");
+        assertThat(execute(bulkhead, Mono.just("next")).join()).isEqualTo("next");
+        assertThat(bulkhead.stats().active()).isZero();
+    }
+
+    @Test
+    void bindTo_publishesSlotsQueueAndRejectionsUnderTheGivenTags() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Bulkhead bulkhead = new Bulkhead("insight", 1, 1, Duration.ofSeconds(5));
+        bulkhead.bindTo(registry, Tags.of("operation", "insight"));
+        execute(bulkhead, Mono.never());
+        execute(bulkhead, Mono.never());
+        execute(bulkhead, Mono.just("third"));
+
+        assertThat(registry.get("llm.bulkhead.active").tag("operation", "insight").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("llm.bulkhead.queued").tag("operation", "insight").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("llm.bulkhead.max_concurrent").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("llm.bulkhead.rejected").tags("operation", "insight", "reason", "queue_full")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.bulkhead.rejected").tags("operation", "insight", "reason", "timed_out")
+            .functionCounter().count()).isZero();
+    }
+
+    private CompletableFuture<String> execute(Bulkhead bulkhead, Mono<String> call) {
+        return bulkhead.execute(() -> {
+            started.incrementAndGet();
+            return call;
+        }).toFuture();
+    }
+}
@@ -0,0 +1,105 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(30), nanos::get);
+
+    @Test
+    void staysClosedUntilEnoughCallsFail() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.stats().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.stats().failureRate()).isCloseTo(3.0 / 7, within(0.001));
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void opensAtTheThresholdAndRefusesCalls() {
+        open();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.stats().shortCircuited()).isEqualTo(1);
+        assertThat(breaker.stats().timesOpened()).isEqualTo(1);
+    }
+
+    @Test
+    void afterTheOpenDurationOneTrialDecides() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onFailure();
+        assertThat(breaker.stats().state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.stats().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.stats().recordedCalls()).isZero();
+    }
+
+    @Test
+    void aCancelledTrialLetsAnotherThrough() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onCancel();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker small = new CircuitBreaker(4, 4, 0.75, Duration.ofSeconds(30), nanos::get);
+        small.onFailure();
+        small.onFailure();
+        small.onSuccess();
+        small.onSuccess();
+        small.onSuccess();
+
+        assertThat(small.stats().failureRate()).isEqualTo(0.25);
+        assertThat(small.stats().recordedCalls()).isEqualTo(4);
+    }
+
+    @Test
+    void bindTo_publishesStateFailureRateAndCounters() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        breaker.bindTo(registry);
+
+        open();
+        breaker.tryAcquire();
+
+        assertThat(registry.get("llm.circuit_breaker.state").tag("state", "open").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("llm.circuit_breaker.state").tag("state", "closed").gauge().value()).isZero();
+        assertThat(registry.get("llm.circuit_breaker.failure_rate").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("llm.circuit_breaker.short_circuited").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.circuit_breaker.opened").functionCounter().count()).isEqualTo(1);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+        assertThat(breaker.stats().state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,283 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiClientTest {
+
+    private static final String WORKOUT_CONTENT = "```json\\n{\\\"duration_minutes\\\": 30, "
+        + "\\\"exercise_type\\\": \\\"Running\\\", \\\"calories_burned\\\": 300}\\n```";
+
+    private HttpServer openRouter;
+    private ExecutorService openRouterThreads;
+    private volatile int status = 200;
+    private volatile String responseBody = completion(WORKOUT_CONTENT);
+    private volatile long delayMillis;
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+
+    private LlmResponseCache responseCache;
+    private SingleFlight singleFlight;
+    private OpenRouterGuard guard;
+    private GeminiClient geminiClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        openRouter = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        openRouter.createContext("/chat/completions", exchange -> {
+            requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // Enough server threads that the client's pool, not the stub, bounds concurrency
+        openRouterThreads = Executors.newFixedThreadPool(64);
+        openRouter.setExecutor(openRouterThreads);
+        openRouter.start();
+
+        // Memory only, with the default TTLs: estimates cached, insights and suggestions not
+        responseCache = new LlmResponseCache(null, 100, false, Map.of(
+            LlmOperation.WORKOUT_ESTIMATE, Duration.ofDays(7),
+            LlmOperation.MEAL_ESTIMATE, Duration.ofDays(1),
+            LlmOperation.INSIGHT, Duration.ZERO,
+            LlmOperation.SUGGESTIONS, Duration.ZERO), Clock.systemUTC());
+        singleFlight = new SingleFlight();
+        // Roomy bulkheads and quota; a circuit that opens after four failed calls in a row
+        guard = new OpenRouterGuard(Map.of(
+            LlmOperation.WORKOUT_ESTIMATE, 100,
+            LlmOperation.MEAL_ESTIMATE, 100,
+            LlmOperation.INSIGHT, 100,
+            LlmOperation.SUGGESTIONS, 100), 100, Duration.ofSeconds(5),
+            new TokenBucket(6000, 100, Duration.ofSeconds(1), System::nanoTime),
+            new CircuitBreaker(4, 4, 1.0, Duration.ofMinutes(1), System::nanoTime));
+        geminiClient = client("test-key", Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        geminiClient.shutdown();
+        openRouter.stop(0);
+        openRouterThreads.shutdownNow();
+    }
+
+    @Test
+    void estimateWorkoutAsync_parsesFencedJsonAndCompletesOffTheEventLoop() {
+        GeminiClient.GeminiEstimation estimation = geminiClient.estimateWorkoutAsync("Ran 5k")
+            .thenApply(result -> {
+                assertThat(Thread.currentThread().getName()).startsWith("boundedElastic");
+                return result;
+            })
+            .join();
+
+        assertThat(estimation.getDurationMinutes()).isEqualTo(30);
+        assertThat(estimation.getExerciseType()).isEqualTo("Running");
+        assertThat(estimation.getCaloriesBurned()).isEqualByComparingTo(BigDecimal.valueOf(300));
+        assertThat(authorizations).containsExactly("Bearer test-key");
+        assertThat(requests).singleElement().asString()
+            .contains("\"model\":\"google/gemini-2.0-flash-001\"")
+            .contains("Ran 5k");
+    }
+
+    @Test
+    void estimateWorkout_blocksForTheSameResult() {
+        assertThat(geminiClient.estimateWorkout("Ran 5k").getExerciseType()).isEqualTo("Running");
+    }
+
+    @Test
+    void repeatedEstimate_isServedFromTheCacheWithoutACall() {
+        geminiClient.estimateWorkoutAsync("Ran 5k").join();
+        GeminiClient.GeminiEstimation again = geminiClient.estimateWorkoutAsync("ran   5K").join();
+
+        assertThat(again.getExerciseType()).isEqualTo("Running");
+        assertThat(requests).hasSize(1);
+        LlmResponseCache.OperationStats stats = responseCache.stats().operations().get(LlmOperation.WORKOUT_ESTIMATE);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void unparseableAnswer_isNotCached() {
+        responseBody = completion("I could not estimate that");
+        assertThatThrownBy(() -> geminiClient.estimateWorkout("Ran 5k"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("OpenRouter response did not include JSON payload.");
+
+        responseBody = completion(WORKOUT_CONTENT);
+        assertThat(geminiClient.estimateWorkout("Ran 5k").getExerciseType()).isEqualTo("Running");
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void insights_areNeverCached() {
+        responseBody = completion("Keep going");
+
+        geminiClient.generateAIInsightAsync("overall", "context").join();
+        geminiClient.generateAIInsightAsync("overall", "context").join();
+
+        assertThat(requests).hasSize(2);
+        assertThat(responseCache.stats().operations().get(LlmOperation.INSIGHT).misses()).isZero();
+    }
+
+    @Test
+    void concurrentIdenticalInsights_shareOneCall() {
+        responseBody = completion("Keep going");
+        delayMillis = 300;
+
+        List<CompletableFuture<String>> pending = IntStream.range(0, 5)
+            .mapToObj(i -> geminiClient.generateAIInsightAsync("overall", "context"))
+            .toList();
+
+        assertThat(pending).allSatisfy(call -> assertThat(call.join()).isEqualTo("Keep going"));
+        assertThat(requests).hasSize(1);
+        SingleFlight.OperationStats stats = singleFlight.stats().operations().get(LlmOperation.INSIGHT);
+        assertThat(stats.calls()).isEqualTo(1);
+        assertThat(stats.coalesced()).isEqualTo(4);
+        assertThat(singleFlight.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void generateSuggestionsAsync_parsesNumberedList() {
+        responseBody = completion("1. Walk daily\\n2. Lift twice a week\\nSome closing remark");
+
+        List<String> suggestions = geminiClient.generateSuggestionsAsync("exercise", "maintenance", null).join();
+
+        assertThat(suggestions).containsExactly("Walk daily", "Lift twice a week");
+    }
+
+    @Test
+    void apiErrorBodyFailsTheFutureWithIllegalState() {
+        responseBody = "{\"error\": {\"message\": \"model overloaded\"}}";
+
+        assertThatThrownBy(() -> geminiClient.generateAIInsightAsync("overall", "context").join())
+            .isInstanceOf(CompletionException.class)
+            .cause()
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("OpenRouter API error: model overloaded");
+    }
+
+    @Test
+    void nonSuccessStatusFailsWithIllegalState() {
+        status = 503;
+
+        assertThatThrownBy(() -> geminiClient.estimateWorkout("Ran 5k"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("OpenRouter API returned status 503");
+    }
+
+    @Test
+    void throttledResponse_slowsTheRateLimiter() {
+        status = 429;
+
+        assertThatThrownBy(() -> geminiClient.estimateWorkout("Ran 5k"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("OpenRouter API returned status 429");
+        TokenBucket.Stats rateLimiter = guard.stats().rateLimiter();
+        assertThat(rateLimiter.throttled()).isEqualTo(1);
+        assertThat(rateLimiter.requestsPerMinute()).isEqualTo(3000.0);
+    }
+
+    @Test
+    void repeatedFailures_openTheCircuitAndLaterCallsFailFast() {
+        status = 503;
+        for (int i = 0; i < 4; i++) {
+            String description = "Workout " + i;
+            assertThatThrownBy(() -> geminiClient.estimateWorkout(description)).isInstanceOf(IllegalStateException.class);
+        }
+
+        status = 200;
+        assertThatThrownBy(() -> geminiClient.generateAIInsightAsync("overall", "context").join())
+            .cause()
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("OpenRouter is failing, not calling it for now");
+        assertThat(requests).hasSize(4);
+        assertThat(guard.stats().circuitBreaker().state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void slowResponseTimesOutAsIllegalState() {
+        delayMillis = 1_000;
+        GeminiClient impatient = client("test-key", Duration.ofMillis(100));
+        try {
+            assertThatThrownBy(() -> impatient.estimateMealAsync(null, "Pasta").join())
+                .cause()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("OpenRouter API request failed");
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void missingApiKeyAndInputAreRejectedBeforeAnyCall() {
+        GeminiClient unconfigured = client("", Duration.ofSeconds(1));
+        try {
+            assertThatThrownBy(() -> unconfigured.estimateMealAsync(null, "Pasta"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Gemini API key is not configured.");
+            assertThatThrownBy(() -> geminiClient.estimateMealAsync(" ", null))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThat(requests).isEmpty();
+        } finally {
+            unconfigured.shutdown();
+        }
+    }
+
+    @Test
+    void manyInFlightCallsShareThePoolWithoutAThreadEach() {
+        delayMillis = 300;
+        int calls = 64;
+
+        long started = System.nanoTime();
+        List<CompletableFuture<GeminiClient.GeminiEstimation>> pending = IntStream.range(0, calls)
+            .mapToObj(i -> geminiClient.estimateWorkoutAsync("Workout " + i))
+            .toList();
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+
+        // 16 connections, 64 calls of 300ms each: about four rounds rather than 64 in a row
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(pending).allSatisfy(call -> assertThat(call.join().getExerciseType()).isEqualTo("Running"));
+        assertThat(requests).hasSize(calls);
+    }
+
+    private GeminiClient client(String apiKey, Duration responseTimeout) {
+        return new GeminiClient(WebClient.builder(), new ObjectMapper(), responseCache, singleFlight, guard, apiKey,
+            "http://localhost:" + openRouter.getAddress().getPort() + "/chat/completions",
+            16, 100, Duration.ofSeconds(5), Duration.ofSeconds(2), responseTimeout);
+    }
+
+    private static String completion(String content) {
+        return "{\"choices\": [{\"message\": {\"content\": \"" + content + "\"}}]}";
+    }
+}
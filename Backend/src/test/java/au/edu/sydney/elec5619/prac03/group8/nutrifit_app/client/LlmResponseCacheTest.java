@@ -0,0 +1,181 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmCachedResponse;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.LlmCachedResponseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LlmResponseCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-09-10T08:30:00Z");
+    private static final String KEY = LlmResponseCache.key("model", "Ran 5k", null);
+
+    @Mock
+    private LlmCachedResponseRepository repository;
+
+    private MutableClock clock;
+    private LlmResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        cache = new LlmResponseCache(repository, 100, true, Map.of(
+            LlmOperation.WORKOUT_ESTIMATE, Duration.ofDays(7),
+            LlmOperation.INSIGHT, Duration.ZERO), clock);
+    }
+
+    @Test
+    void key_ignoresPromptSpacingAndCaseButNotModelOrImage() {
+        assertThat(LlmResponseCache.key("model", "  ran\n5K ", null)).isEqualTo(KEY).hasSize(64);
+        assertThat(LlmResponseCache.key("other-model", "Ran 5k", null)).isNotEqualTo(KEY);
+        assertThat(LlmResponseCache.key("model", "Ran 5k", "https://img/A.jpg"))
+            .isNotEqualTo(LlmResponseCache.key("model", "Ran 5k", "https://img/a.jpg"));
+    }
+
+    @Test
+    void put_thenGet_isServedFromMemoryAndWrittenThrough() {
+        cache.put(LlmOperation.WORKOUT_ESTIMATE, KEY, "{\"calories_burned\": 300}");
+
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY)).contains("{\"calories_burned\": 300}");
+        verify(repository).upsert(KEY, "WORKOUT_ESTIMATE", "{\"calories_burned\": 300}", NOW, NOW.plus(Duration.ofDays(7)));
+        LlmResponseCache.OperationStats stats = cache.stats().operations().get(LlmOperation.WORKOUT_ESTIMATE);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    void expiredEntries_areMisses() {
+        cache.put(LlmOperation.WORKOUT_ESTIMATE, KEY, "answer");
+        clock.advance(Duration.ofDays(8));
+        Instant later = NOW.plus(Duration.ofDays(8));
+        when(repository.findByCacheKeyAndExpiresAtAfter(KEY, later)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY)).isEmpty();
+        assertThat(cache.stats().operations().get(LlmOperation.WORKOUT_ESTIMATE).misses()).isEqualTo(1);
+    }
+
+    @Test
+    void persistentHit_warmsMemory() {
+        when(repository.findByCacheKeyAndExpiresAtAfter(KEY, NOW)).thenReturn(Optional.of(LlmCachedResponse.builder()
+            .cacheKey(KEY)
+            .operation(LlmOperation.WORKOUT_ESTIMATE)
+            .content("answer")
+            .createdAt(NOW.minus(Duration.ofDays(1)))
+            .expiresAt(NOW.plus(Duration.ofDays(6)))
+            .build()));
+
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY)).contains("answer");
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY)).contains("answer");
+
+        verify(repository, times(1)).findByCacheKeyAndExpiresAtAfter(KEY, NOW);
+        LlmResponseCache.OperationStats stats = cache.stats().operations().get(LlmOperation.WORKOUT_ESTIMATE);
+        assertThat(stats.persistentHits()).isEqualTo(1);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    void bindTo_publishesLookupsAndWritesPerOperation() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.put(LlmOperation.WORKOUT_ESTIMATE, KEY, "answer");
+        cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY);
+        cache.get(LlmOperation.WORKOUT_ESTIMATE, LlmResponseCache.key("model", "Swam 1k", null));
+
+        assertThat(registry.get("llm.cache.gets").tags("operation", "workout_estimate", "result", "memory_hit")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.cache.gets").tags("operation", "workout_estimate", "result", "miss")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.cache.gets").tags("operation", "workout_estimate", "result", "persistent_hit")
+            .functionCounter().count()).isZero();
+        assertThat(registry.get("llm.cache.puts").tag("operation", "workout_estimate").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("llm.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void persistentFailures_degradeToMisses() {
+        when(repository.upsert(anyString(), anyString(), anyString(), any(), any()))
+            .thenThrow(new QueryTimeoutException("timeout"));
+        when(repository.findByCacheKeyAndExpiresAtAfter(KEY, NOW)).thenThrow(new QueryTimeoutException("timeout"));
+
+        cache.put(LlmOperation.WORKOUT_ESTIMATE, "other", "answer");
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, KEY)).isEmpty();
+        assertThat(cache.get(LlmOperation.WORKOUT_ESTIMATE, "other")).contains("answer");
+    }
+
+    @Test
+    void disabledOperations_neverStoreOrLookUp() {
+        cache.put(LlmOperation.INSIGHT, KEY, "insight");
+
+        assertThat(cache.isEnabled(LlmOperation.INSIGHT)).isFalse();
+        assertThat(cache.isEnabled(LlmOperation.MEAL_ESTIMATE)).isFalse();
+        assertThat(cache.get(LlmOperation.INSIGHT, KEY)).isEmpty();
+        verifyNoInteractions(repository);
+        assertThat(cache.stats().operations().get(LlmOperation.INSIGHT).enabled()).isFalse();
+    }
+
+    @Test
+    void purgeExpired_deletesPastExpiryAndSurvivesFailures() {
+        when(repository.deleteExpiredBefore(NOW))
+            .thenReturn(4)
+            .thenThrow(new QueryTimeoutException("timeout"));
+
+        cache.purgeExpired();
+        cache.purgeExpired();
+
+        verify(repository, times(2)).deleteExpiredBefore(NOW);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
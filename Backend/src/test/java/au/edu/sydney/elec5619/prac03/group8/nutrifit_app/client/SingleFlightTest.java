@@ -0,0 +1,100 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.LlmOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallersWithTheSameKeyShareOneCall() {
+        Sinks.One<String> upstream = Sinks.one();
+
+        CompletableFuture<String> first = execute(LlmOperation.WORKOUT_ESTIMATE, "key", upstream.asMono());
+        CompletableFuture<String> second = execute(LlmOperation.WORKOUT_ESTIMATE, "key", upstream.asMono());
+        CompletableFuture<String> otherKey = execute(LlmOperation.WORKOUT_ESTIMATE, "other", Mono.just("other"));
+        CompletableFuture<String> otherOperation = execute(LlmOperation.MEAL_ESTIMATE, "key", Mono.just("meal"));
+        upstream.tryEmitValue("estimate");
+
+        assertThat(first.join()).isSameAs(second.join()).isEqualTo("estimate");
+        assertThat(otherKey.join()).isEqualTo("other");
+        assertThat(otherOperation.join()).isEqualTo("meal");
+        assertThat(calls).hasValue(3);
+        SingleFlight.OperationStats stats = singleFlight.stats().operations().get(LlmOperation.WORKOUT_ESTIMATE);
+        assertThat(stats.calls()).isEqualTo(2);
+        assertThat(stats.coalesced()).isEqualTo(1);
+        assertThat(stats.coalescedRate()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void bindTo_publishesCallsCoalescedAndInFlight() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry);
+        Sinks.One<String> upstream = Sinks.one();
+
+        CompletableFuture<String> first = execute(LlmOperation.MEAL_ESTIMATE, "key", upstream.asMono());
+        CompletableFuture<String> second = execute(LlmOperation.MEAL_ESTIMATE, "key", upstream.asMono());
+        assertThat(registry.get("llm.single_flight.in_flight").gauge().value()).isEqualTo(1);
+        upstream.tryEmitValue("meal");
+        first.join();
+        second.join();
+
+        assertThat(registry.get("llm.single_flight.calls").tag("operation", "meal_estimate").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("llm.single_flight.coalesced").tag("operation", "meal_estimate").functionCounter()
+            .count()).isEqualTo(1);
+        assertThat(registry.get("llm.single_flight.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void failuresAreSharedAndReleaseTheKey() {
+        Sinks.One<String> upstream = Sinks.one();
+        CompletableFuture<String> first = execute(LlmOperation.INSIGHT, "key", upstream.asMono());
+        CompletableFuture<String> second = execute(LlmOperation.INSIGHT, "key", upstream.asMono());
+
+        upstream.tryEmitError(new IllegalStateException("api down"));
+
+        assertThatThrownBy(first::join).cause().isInstanceOf(IllegalStateException.class).hasMessage("api down");
+        assertThatThrownBy(second::join).cause().isInstanceOf(IllegalStateException.class).hasMessage("api down");
+        assertThat(singleFlight.stats().inFlight()).isZero();
+
+        assertThat(execute(LlmOperation.INSIGHT, "key", Mono.just("retried")).join()).isEqualTo("retried");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void aCallerGoingAwayDoesNotCancelTheSharedCall() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> call = upstream.asMono().doOnCancel(() -> cancelled.set(true));
+
+        Disposable leader = singleFlight.execute(LlmOperation.SUGGESTIONS, "key", () -> call).subscribe();
+        CompletableFuture<String> waiter = execute(LlmOperation.SUGGESTIONS, "key", call);
+        leader.dispose();
+        upstream.tryEmitValue("suggestions");
+
+        assertThat(waiter.join()).isEqualTo("suggestions");
+        assertThat(cancelled).isFalse();
+    }
+
+    private CompletableFuture<String> execute(LlmOperation operation, String key, Mono<String> call) {
+        return singleFlight.execute(operation, key, () -> {
+            calls.incrementAndGet();
+            return call;
+        }).toFuture();
+    }
+}
@@ -0,0 +1,80 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.client;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void burstIsFreeThenCallsWaitForTheRefill() {
+        // One token every 100ms
+        TokenBucket bucket = new TokenBucket(600, 2, Duration.ofSeconds(1), nanos::get);
+
+        bucket.acquire().block();
+        bucket.acquire().block();
+        long started = System.nanoTime();
+        bucket.acquire().block();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+        assertThat(bucket.stats().delayed()).isEqualTo(1);
+    }
+
+    @Test
+    void callsThatWouldWaitTooLongAreRefusedWithRetryAfter() {
+        // One token a minute
+        TokenBucket bucket = new TokenBucket(1, 1, Duration.ofSeconds(1), nanos::get);
+        bucket.acquire().block();
+
+        assertThatThrownBy(() -> bucket.acquire().block())
+            .isInstanceOfSatisfying(TooManyRequestsException.class,
+                refused -> assertThat(refused.getRetryAfterSeconds()).isEqualTo(60));
+        assertThat(bucket.stats().rejected()).isEqualTo(1);
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        bucket.acquire().block();
+    }
+
+    @Test
+    void throttlingHalvesTheRateAndSuccessesWinItBack() {
+        TokenBucket bucket = new TokenBucket(600, 10, Duration.ofSeconds(1), nanos::get);
+
+        bucket.onThrottled();
+        bucket.onThrottled();
+        assertThat(bucket.stats().requestsPerMinute()).isCloseTo(150.0, within(0.001));
+        assertThat(bucket.stats().availableTokens()).isZero();
+        assertThat(bucket.stats().throttled()).isEqualTo(2);
+
+        for (int i = 0; i < 40; i++) {
+            bucket.onSuccess();
+        }
+        assertThat(bucket.stats().requestsPerMinute()).isCloseTo(600.0, within(0.001));
+    }
+
+    @Test
+    void bindTo_publishesTokensRateAndCounters() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TokenBucket bucket = new TokenBucket(600, 10, Duration.ofSeconds(1), nanos::get);
+        bucket.bindTo(registry);
+
+        bucket.acquire().block();
+        bucket.onThrottled();
+        bucket.acquire().block();
+
+        assertThat(registry.get("llm.rate_limit.tokens").gauge().value()).isEqualTo(-1);
+        assertThat(registry.get("llm.rate_limit.requests_per_minute").gauge().value()).isCloseTo(300.0, within(0.001));
+        assertThat(registry.get("llm.rate_limit.throttled").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.rate_limit.delayed").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.rate_limit.rejected").functionCounter().count()).isZero();
+    }
+}
@@ -0,0 +1,103 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.config;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.controller.HomePageController.DashboardController;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.AIInsightService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.StreamingJsonExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBodyReturnValueHandler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives a streamed response through the same steps Spring MVC takes: the handler adapter applies
+ * spring.mvc.async.request-timeout, then the StreamingResponseBody return value handler starts async processing.
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncTimeoutConfigTest {
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 75_000;
+
+    @Mock
+    private StreamingJsonExportService streamingJsonExportService;
+
+    @Mock
+    private AIInsightService aiInsightService;
+
+    @Mock
+    private SecurityUtil securityUtil;
+
+    @InjectMocks
+    private DashboardController dashboardController;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dashboardController, "streamTimeout", Duration.ofMinutes(30));
+        request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void streamedExport_runsWithItsOwnTimeoutInsteadOfTheDefault() throws Exception {
+        when(securityUtil.getCurrentUserId()).thenReturn(7L);
+
+        ResponseEntity<?> export = dashboardController.getExportData(null, "2020-01-01,2025-01-01", true, request);
+        startStreaming(export);
+
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        verify(streamingJsonExportService).writeExport(eq(7L), eq("2020-01-01,2025-01-01"), eq(null),
+            eq(aiInsightService), any());
+    }
+
+    @Test
+    void otherAsyncResponses_keepTheDefaultTimeout() throws Exception {
+        StreamingResponseBody body = out -> out.write('x');
+
+        startStreaming(ResponseEntity.ok(body));
+
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(DEFAULT_TIMEOUT_MILLIS);
+        assertThat(response.getContentAsString()).isEqualTo("x");
+    }
+
+    private void startStreaming(ResponseEntity<?> returnValue) throws Exception {
+        StandardServletAsyncWebRequest asyncRequest = new StandardServletAsyncWebRequest(request, response);
+        asyncRequest.setTimeout(DEFAULT_TIMEOUT_MILLIS);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(asyncRequest);
+        // Runs the streaming task on the calling thread, so it has finished when this returns
+        asyncManager.setTaskExecutor(new TaskExecutorAdapter(Runnable::run));
+        asyncManager.registerCallableInterceptors(new AsyncTimeoutConfig.TimeoutOverride());
+
+        MethodParameter returnType = new MethodParameter(DashboardController.class.getMethod("getExportData",
+            String.class, String.class, boolean.class, HttpServletRequest.class), -1);
+        new StreamingResponseBodyReturnValueHandler()
+            .handleReturnValue(returnValue, returnType, new ModelAndViewContainer(), asyncRequest);
+    }
+}
@@ -0,0 +1,325 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against a real Postgres binary, with Hibernate validating the entities against
+ * them, then checks that the hot repository queries are planned as index scans.
+ * Each query is executed once so Hibernate's own SQL is captured, then explained as a generic plan with
+ * sequential scans disabled: a query no index can serve still comes out as a Seq Scan.
+ * Native queries that depend on Postgres locking are run here too, against a second connection.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.HotPathIndexTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class HotPathIndexTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 9, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(30);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        // Plain statements go over the simple query protocol, which leaves EXPLAIN's $n parameters to the server
+        registry.add("spring.datasource.url",
+            () -> POSTGRES.getJdbcUrl("postgres", "postgres") + "&preferQueryMode=extendedForPrepared");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MealRepository mealRepository;
+    @Autowired
+    private WorkoutRepository workoutRepository;
+    @Autowired
+    private UserMetricsRepository userMetricsRepository;
+    @Autowired
+    private AIInsightRepository aiInsightRepository;
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+    @Autowired
+    private DailySummaryRepository dailySummaryRepository;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Same transaction, and so the same connection, as the repository calls
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        seedYearOfHistory();
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    /**
+     * A year of daily rows for a handful of users, rolled back with the test. Several indexes lead with user_id,
+     * and on empty tables the planner cannot tell which of them fits a query; with statistics it can.
+     */
+    private void seedYearOfHistory() {
+        jdbcTemplate.execute("INSERT INTO users (user_id, uuid, email, user_name, email_verified, created_at, updated_at) "
+            + "SELECT u, gen_random_uuid(), 'user' || u || '@example.com', 'user' || u, true, now(), now() "
+            + "FROM generate_series(1, 20) u");
+        String days = "FROM generate_series(1, 20) u, generate_series(0, 364) d, "
+            + "LATERAL (SELECT TIMESTAMP '2024-10-01' + d * INTERVAL '1 day' AS at) t";
+        jdbcTemplate.execute("INSERT INTO meals (user_id, meal_time, created_at, updated_at) SELECT u, at, at, at " + days);
+        jdbcTemplate.execute("INSERT INTO workouts (user_id, workout_date, created_at, updated_at) "
+            + "SELECT u, at::date, at, at " + days);
+        jdbcTemplate.execute("INSERT INTO user_metrics (user_id, created_at, updated_at) SELECT u, at, at " + days);
+        jdbcTemplate.execute("ANALYZE users, meals, workouts, user_metrics");
+    }
+
+    @Test
+    void mealsInRange_useUserMealTimeIndex() {
+        mealRepository.findByUserUserIdAndMealTimeBetween(1L, FROM, TO);
+
+        assertThat(planOfLastQuery()).contains("idx_meals_user_meal_time").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void dailyNutritionTotals_useUserMealTimeIndex() {
+        mealRepository.findDailyNutritionTotals(1L, FROM, TO);
+
+        assertThat(planOfLastQuery()).contains("idx_meals_user_meal_time").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void workoutsInRange_useUserWorkoutDateIndex() {
+        workoutRepository.findByUserUserIdAndWorkoutDateBetween(1L, FROM.toLocalDate(), TO.toLocalDate());
+
+        assertThat(planOfLastQuery()).contains("idx_workouts_user_workout_date").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void distinctWorkoutDates_useUserWorkoutDateIndex() {
+        workoutRepository.findDistinctWorkoutDates(1L, LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+
+        assertThat(planOfLastQuery()).contains("idx_workouts_user_workout_date").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void latestMetrics_readUserCreatedAtIndexWithoutSorting() {
+        userMetricsRepository.findTopByUserUserIdOrderByCreatedAtDesc(1L);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_created_at").doesNotContain("Seq Scan", "Sort");
+
+        // The whole history: reading one user's rows in bulk and sorting them can be the cheaper plan
+        userMetricsRepository.findByUserUserIdOrderByCreatedAtDesc(1L);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_").doesNotContain("Seq Scan");
+
+        userMetricsRepository.findLatestNEntriesByUserId(1L, 5);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_created_at").doesNotContain("Seq Scan", "Sort");
+    }
+
+    @Test
+    void weightHistory_usesUserCreatedAtIndex() {
+        userMetricsRepository.findWeightsBetween(1L, FROM, TO);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_created_at").doesNotContain("Seq Scan");
+
+        userMetricsRepository.findLastWeightBefore(1L, TO);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_created_at").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void activeInsights_readUserActiveCreatedAtIndexWithoutSorting() {
+        aiInsightRepository.findLatestActiveInsights(1L);
+        assertThat(planOfLastQuery()).contains("idx_ai_insights_user_active_created_at").doesNotContain("Seq Scan", "Sort");
+
+        aiInsightRepository.findTopByUserUserIdAndIsActiveTrueOrderByCreatedAtDesc(1L);
+        assertThat(planOfLastQuery()).contains("idx_ai_insights_user_active_created_at").doesNotContain("Seq Scan", "Sort");
+
+        aiInsightRepository.findRecentInsights(1L, FROM);
+        assertThat(planOfLastQuery()).contains("idx_ai_insights_user_active_created_at").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void keysetPages_seekIntoTheIndexInsteadOfSkippingRows() {
+        mealRepository.findByUserUserIdAndMealTimeNotNullOrderByMealTimeDescMealIdDesc(1L, Limit.of(21));
+        assertThat(planOfLastQuery()).contains("idx_meals_user_meal_time").doesNotContain("Seq Scan");
+
+        mealRepository.findPageAfter(1L, TO, 50L, Limit.of(21));
+        assertThat(planOfLastQuery()).contains("idx_meals_user_meal_time").doesNotContain("Seq Scan");
+
+        workoutRepository.findPageAfter(1L, TO.toLocalDate(), 50L, Limit.of(21));
+        assertThat(planOfLastQuery()).contains("idx_workouts_user_workout_date").doesNotContain("Seq Scan");
+
+        userMetricsRepository.findPageAfter(1L, FROM, TO, TO, 50L, Limit.of(21));
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_created_at").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void syncChanges_useUserUpdatedAtIndexes() {
+        mealRepository.findByUserUserIdAndUpdatedAtAfter(1L, FROM);
+        assertThat(planOfLastQuery()).contains("idx_meals_user_updated_at").doesNotContain("Seq Scan");
+
+        workoutRepository.findByUserUserIdAndUpdatedAtAfter(1L, FROM);
+        assertThat(planOfLastQuery()).contains("idx_workouts_user_updated_at").doesNotContain("Seq Scan");
+
+        userMetricsRepository.findByUserUserIdAndUpdatedAtAfter(1L, FROM);
+        assertThat(planOfLastQuery()).contains("idx_user_metrics_user_updated_at").doesNotContain("Seq Scan");
+
+        syncTombstoneRepository.findByUserIdAndDeletedAtAfter(1L, FROM);
+        assertThat(planOfLastQuery()).contains("idx_sync_tombstones_user_deleted_at").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void expiredTokenPurgeBatches_useExpiresAtIndex() {
+        // The statement ExpiredTokenPurgeJob runs per batch
+        for (String table : List.of("verification_tokens", "password_reset_tokens")) {
+            String plan = explain("DELETE FROM " + table + " WHERE token_id IN ("
+                + "SELECT token_id FROM " + table + " WHERE expires_at < $1 LIMIT $2)");
+
+            assertThat(plan).contains("idx_" + table + "_expires_at").doesNotContain("Seq Scan");
+        }
+    }
+
+    @Test
+    void dailySummaryLocks_keepRebuildsAndWritesOfTheSameUserApart() {
+        dailySummaryRepository.lockUserForWrite(1L);
+        dailySummaryRepository.lockUserForRebuild(2L);
+        // A separate session, as another request or rebuild would use; its transaction-level locks end with each call
+        JdbcTemplate otherSession = new JdbcTemplate(POSTGRES.getPostgresDatabase());
+
+        assertThat(otherSession.queryForObject("SELECT pg_try_advisory_xact_lock(3, 1)", Boolean.class)).isFalse();
+        assertThat(otherSession.queryForObject("SELECT pg_try_advisory_xact_lock_shared(3, 1)", Boolean.class)).isTrue();
+        assertThat(otherSession.queryForObject("SELECT pg_try_advisory_xact_lock_shared(3, 2)", Boolean.class)).isFalse();
+        assertThat(otherSession.queryForObject("SELECT pg_try_advisory_xact_lock(3, 3)", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void outboxClaims_fromTwoTransactionsTakeDisjointBatches() throws Exception {
+        Instant now = Instant.parse("2025-09-01T00:00:00Z");
+        Instant leaseUntil = now.plus(Duration.ofMinutes(5));
+        // Committed outside the test transaction, so both claiming transactions can see the rows
+        JdbcTemplate otherSession = new JdbcTemplate(POSTGRES.getPostgresDatabase());
+        String insert = "INSERT INTO email_outbox (email_type, recipient, token, status, attempts, next_attempt_at, created_at) "
+            + "SELECT 'VERIFICATION', 'user' || n || '@example.com', 'token-' || n, ?, 0, ?::timestamptz, now() "
+            + "FROM generate_series(1, ?) n RETURNING outbox_id";
+        List<Long> due = otherSession.queryForList(insert, Long.class, "PENDING", now.minusSeconds(60).toString(), 5);
+        List<Long> notDue = otherSession.queryForList(insert, Long.class, "PENDING", now.plusSeconds(60).toString(), 1);
+        List<Long> parked = otherSession.queryForList(insert, Long.class, "PARKED", now.minusSeconds(60).toString(), 1);
+        try {
+            TransactionTemplate dispatcher = new TransactionTemplate(transactionManager);
+            dispatcher.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            List<List<EmailOutboxMessage>> batches = dispatcher.execute(status -> {
+                List<EmailOutboxMessage> firstBatch = emailOutboxRepository.claimDue(now, leaseUntil, 3);
+                // A second dispatcher claims while the first still holds its rows; it must skip them, not wait
+                List<EmailOutboxMessage> secondBatch = CompletableFuture
+                    .supplyAsync(() -> emailOutboxRepository.claimDue(now, leaseUntil, 10))
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+                return List.of(firstBatch, secondBatch);
+            });
+
+            List<Long> first = batches.get(0).stream().map(EmailOutboxMessage::getOutboxId).toList();
+            List<Long> second = batches.get(1).stream().map(EmailOutboxMessage::getOutboxId).toList();
+            assertThat(first).hasSize(3).doesNotContainAnyElementsOf(second);
+            assertThat(second).hasSize(2);
+            assertThat(batches.stream().flatMap(List::stream).map(EmailOutboxMessage::getOutboxId).toList())
+                .containsExactlyInAnyOrderElementsOf(due);
+            // RETURNING * maps the updated row back onto the entity
+            assertThat(batches.get(0)).allSatisfy(message -> {
+                assertThat(message.getAttempts()).isEqualTo(1);
+                assertThat(message.getNextAttemptAt()).isEqualTo(leaseUntil);
+                assertThat(message.getRecipient()).endsWith("@example.com");
+            });
+            assertThat(otherSession.queryForList("SELECT attempts FROM email_outbox WHERE outbox_id IN ("
+                + String.join(",", due.stream().map(String::valueOf).toList()) + ")", Integer.class))
+                .containsOnly(1);
+            assertThat(otherSession.queryForList("SELECT attempts FROM email_outbox WHERE outbox_id IN (?, ?)",
+                Integer.class, notDue.get(0), parked.get(0))).containsOnly(0);
+        } finally {
+            otherSession.update("DELETE FROM email_outbox");
+        }
+    }
+
+    private String planOfLastQuery() {
+        String sql = CapturingInspector.STATEMENTS.stream()
+            .filter(statement -> statement.startsWith("select"))
+            .reduce((first, second) -> second)
+            .orElseThrow(() -> new AssertionError("No query was executed"));
+        CapturingInspector.STATEMENTS.clear();
+        return explain(toNumberedParameters(sql));
+    }
+
+    private String explain(String sql) {
+        // GENERIC_PLAN (Postgres 16+) plans a statement with unbound $n parameters, as a prepared statement would be
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + sql, String.class));
+    }
+
+    private static String toNumberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start embedded Postgres", e);
+        }
+    }
+
+    /**
+     * Records the SQL Hibernate sends, unchanged
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
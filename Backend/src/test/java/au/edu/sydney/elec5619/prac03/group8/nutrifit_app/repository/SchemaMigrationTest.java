@@ -0,0 +1,139 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations on a real Postgres binary the two ways they reach a database: from empty, and on a database
+ * that ddl-auto built before migrations were introduced, which Flyway adopts at V1 and upgrades from there.
+ */
+class SchemaMigrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private JdbcTemplate fresh;
+    private JdbcTemplate upgraded;
+
+    @BeforeEach
+    void setUp() {
+        fresh = recreate("migrated_fresh");
+        upgraded = recreate("migrated_upgraded");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void adoptedDatabase_endsUpWithTheSameSchemaAsAFreshOne() {
+        migrate(fresh.getDataSource());
+        buildWithDdlAuto(upgraded.getDataSource());
+        migrate(upgraded.getDataSource());
+
+        // Hibernate validates the entities against the fresh schema in HotPathIndexTest, so this covers adopted ones
+        assertThat(schemaOf(upgraded)).isEqualTo(schemaOf(fresh));
+        assertThat(upgraded.queryForObject("SELECT type FROM flyway_schema_history WHERE version = '1'", String.class))
+            .isEqualTo("BASELINE");
+    }
+
+    @Test
+    void dailySummariesRollup_dropsDuplicateDaysAndBackfillsFromRawTables() {
+        buildWithDdlAuto(upgraded.getDataSource());
+        upgraded.execute("INSERT INTO users (user_id, uuid, email, user_name, email_verified, created_at, updated_at) "
+            + "VALUES (1, gen_random_uuid(), 'a@example.com', 'a', true, now(), now())");
+        upgraded.execute("INSERT INTO daily_summaries (user_id, summary_date, total_calories_consumed) "
+            + "VALUES (1, DATE '2025-09-01', 100), (1, DATE '2025-09-01', 200), (1, DATE '2025-08-01', 50)");
+        upgraded.execute("INSERT INTO meals (user_id, meal_time, total_calories, protein_g) VALUES "
+            + "(1, TIMESTAMP '2025-09-01 08:00', 500, 20), (1, TIMESTAMP '2025-09-01 19:00', 700, 30)");
+        upgraded.execute("INSERT INTO workouts (user_id, workout_date, calories_burned, duration_minutes, created_at, updated_at) "
+            + "VALUES (1, DATE '2025-09-01', 300, 45, now(), now()), (1, DATE '2025-09-02', 150, 20, now(), now()), "
+            + "(1, DATE '2025-09-02', NULL, NULL, now(), now())");
+
+        migrate(upgraded.getDataSource());
+
+        assertThat(upgraded.queryForObject("SELECT count(*) FROM daily_summaries", Integer.class)).isEqualTo(3);
+        Map<String, Object> first = day("2025-09-01");
+        assertThat((BigDecimal) first.get("total_calories_consumed")).isEqualByComparingTo("1200");
+        assertThat((BigDecimal) first.get("total_protein_g")).isEqualByComparingTo("50");
+        assertThat((BigDecimal) first.get("total_calories_burned")).isEqualByComparingTo("300");
+        assertThat((BigDecimal) first.get("net_calories")).isEqualByComparingTo("900");
+        assertThat(first).containsEntry("meal_count", 2).containsEntry("workout_count", 1)
+            .containsEntry("total_workout_minutes", 45);
+        Map<String, Object> second = day("2025-09-02");
+        assertThat(second).containsEntry("meal_count", 0).containsEntry("workout_count", 2)
+            .containsEntry("total_workout_minutes", 20)
+            .containsEntry("workout_duration_count", 1).containsEntry("workout_calories_count", 1);
+    }
+
+    private Map<String, Object> day(String date) {
+        return upgraded.queryForMap("SELECT * FROM daily_summaries WHERE user_id = 1 AND summary_date = CAST(? AS date)",
+            date);
+    }
+
+    /**
+     * The tables ddl-auto created before migrations, without any Flyway history. Deliberately not V1 itself:
+     * anything V1 has that ddl-auto never created is missing on adopted databases, and the comparison catches it.
+     */
+    private static void buildWithDdlAuto(DataSource dataSource) {
+        new ResourceDatabasePopulator(new ClassPathResource("db/ddl_auto_schema.sql")).execute(dataSource);
+    }
+
+    private static void migrate(DataSource dataSource) {
+        // Same settings as spring.flyway in application.yml; a transactional lock would block CREATE INDEX CONCURRENTLY
+        Flyway.configure()
+            .dataSource(dataSource)
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+            .load()
+            .migrate();
+    }
+
+    /**
+     * Columns, constraints and indexes of the public schema, in a stable order
+     */
+    private static List<Map<String, Object>> schemaOf(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList(
+            "SELECT 'column' AS kind, table_name AS owner, column_name AS name, "
+                + "  data_type || coalesce('(' || character_maximum_length || ')', '') || ' ' || is_nullable AS definition "
+                + "FROM information_schema.columns WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' "
+                + "UNION ALL "
+                + "SELECT 'constraint', conrelid::regclass::text, conname, pg_get_constraintdef(oid) "
+                + "FROM pg_constraint WHERE connamespace = 'public'::regnamespace "
+                + "  AND conrelid <> 'flyway_schema_history'::regclass "
+                + "UNION ALL "
+                + "SELECT 'index', tablename, indexname, indexdef "
+                + "FROM pg_indexes WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history' "
+                + "ORDER BY 1, 2, 3");
+    }
+
+    private static JdbcTemplate recreate(String database) {
+        JdbcTemplate admin = new JdbcTemplate(POSTGRES.getPostgresDatabase());
+        admin.execute("DROP DATABASE IF EXISTS " + database);
+        admin.execute("CREATE DATABASE " + database);
+        return new JdbcTemplate(POSTGRES.getDatabase("postgres", database));
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start embedded Postgres", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle(3, 5, Duration.ofMinutes(15), 1000, now::get);
+    }
+
+    @Test
+    void emailOverFailureLimit_isRejectedUntilWindowEnds() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("user@example.com", null);
+            throttle.recordFailure("user@example.com");
+        }
+
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+            () -> throttle.acquire("USER@example.com ", null));
+        assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMinutes(10));
+        assertThat(throttle.stats().rejectedByEmail()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertThatCode(() -> throttle.acquire("user@example.com", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void bindTo_publishesRejectionsPerLimit() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        throttle.bindTo(registry);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire(null, "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire(null, "10.0.0.1"));
+
+        assertThat(registry.get("login.throttle.rejected").tag("limit", "ip").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("login.throttle.rejected").tag("limit", "email").functionCounter().count()).isZero();
+        assertThat(registry.get("login.throttle.tracked").tag("limit", "ip").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void successfulLogin_clearsEmailFailures() {
+        throttle.recordFailure("user@example.com");
+        throttle.recordFailure("user@example.com");
+        throttle.recordSuccess("user@example.com");
+        throttle.recordFailure("user@example.com");
+
+        assertThatCode(() -> throttle.acquire("user@example.com", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void ipOverAttemptLimit_isRejectedWhateverTheEmail() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("other@example.com", "10.0.0.1"));
+        assertThatCode(() -> throttle.acquire("other@example.com", "10.0.0.2")).doesNotThrowAnyException();
+        assertThat(throttle.stats().rejectedByIp()).isEqualTo(1);
+    }
+}
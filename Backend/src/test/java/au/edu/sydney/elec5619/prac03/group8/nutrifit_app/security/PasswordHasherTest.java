@@ -0,0 +1,111 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void shutdown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_runOnHashingPoolAndRecordLatency() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(5));
+
+        String hash = hasher.encode("secret");
+
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("wrong", hash)).isFalse();
+        PasswordHasher.Stats stats = hasher.stats();
+        assertThat(stats.completed()).isEqualTo(3);
+        assertThat(stats.rejected()).isZero();
+        assertThat(stats.maxHash()).isPositive();
+    }
+
+    @Test
+    void bindTo_publishesQueueDepthAndHashTimers() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(5));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        hasher.bindTo(registry);
+
+        hasher.matches("secret", hasher.encode("secret"));
+
+        assertThat(registry.get("password.hash").timer().count()).isEqualTo(2);
+        assertThat(registry.get("password.hash").timer().max(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(registry.get("password.hash.wait").timer().count()).isEqualTo(2);
+        assertThat(registry.get("password.hash.queue").gauge().value()).isZero();
+        assertThat(registry.get("password.hash.rejected").tag("reason", "queue_full").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void fullQueue_rejectsWithoutHashing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        hasher = new PasswordHasher(new BlockingEncoder(started, release), 1, 1, Duration.ofSeconds(5));
+
+        // One hash running and one queued fill the pool
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("b"));
+        while (hasher.stats().queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> hasher.encode("c"));
+        assertThat(e.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(hasher.stats().rejected()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+    }
+
+    @Test
+    void hashNotFinishedWithinMaxWait_isRejected() {
+        CountDownLatch release = new CountDownLatch(1);
+        hasher = new PasswordHasher(new BlockingEncoder(new CountDownLatch(1), release), 1, 1, Duration.ofMillis(50));
+
+        assertThrows(TooManyRequestsException.class, () -> hasher.encode("slow"));
+        assertThat(hasher.stats().timedOut()).isEqualTo(1);
+        release.countDown();
+    }
+
+    private static final class BlockingEncoder extends BCryptPasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed";
+        }
+    }
+}
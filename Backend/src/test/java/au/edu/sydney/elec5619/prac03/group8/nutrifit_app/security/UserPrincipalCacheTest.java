@@ -0,0 +1,138 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.user.UserPrincipal;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserPrincipalCache cache;
+    private UUID uuid;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserPrincipalCache(userRepository, 100, Duration.ofMinutes(2));
+        uuid = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_loadsOnceAndHandsOutIndependentCopies() {
+        when(userRepository.findByUuid(uuid)).thenReturn(user("hash"));
+
+        User first = cache.get(uuid);
+        first.setUserName("changed by one request");
+        User second = cache.get(uuid);
+
+        verify(userRepository, times(1)).findByUuid(uuid);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getUserName()).isEqualTo("alex");
+        assertThat(second.getUserId()).isEqualTo(7L);
+        assertThat(second.getPasswordHash()).isEqualTo("hash");
+    }
+
+    @Test
+    void get_doesNotCacheMissingUsers() {
+        when(userRepository.findByUuid(uuid)).thenReturn(null, user("hash"));
+
+        assertThat(cache.get(uuid)).isNull();
+        assertThat(cache.get(uuid)).isNotNull();
+    }
+
+    @Test
+    void invalidate_insideTransactionWaitsForCommit() {
+        when(userRepository.findByUuid(uuid)).thenReturn(user("old"), user("new"));
+        cache.get(uuid);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(uuid);
+
+        // Still cached until the writer commits
+        assertThat(cache.get(uuid).getPasswordHash()).isEqualTo("old");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get(uuid).getPasswordHash()).isEqualTo("new");
+    }
+
+    @Test
+    void securityUtil_usesUserResolvedByTheFilter() {
+        User user = user("hash");
+        UserPrincipal principal = new UserPrincipal(user);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        SecurityUtil securityUtil = new SecurityUtil(cache);
+
+        assertThat(securityUtil.getCurrentUserOrThrow()).isSameAs(user);
+        assertThat(securityUtil.getCurrentUserOrThrow()).isSameAs(user);
+        verify(userRepository, never()).findByUuid(uuid);
+    }
+
+    @Test
+    void securityUtil_userIdFromTokenClaimsNeedsNoLookup() {
+        UserPrincipal principal = new UserPrincipal(uuid, 7L);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        SecurityUtil securityUtil = new SecurityUtil(cache);
+
+        assertThat(securityUtil.getCurrentUserId()).isEqualTo(7L);
+        verify(userRepository, never()).findByUuid(uuid);
+    }
+
+    @Test
+    void securityUtil_fullUserForTokenPrincipalComesFromCache() {
+        when(userRepository.findByUuid(uuid)).thenReturn(user("hash"));
+        UserPrincipal principal = new UserPrincipal(uuid, 7L);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        SecurityUtil securityUtil = new SecurityUtil(cache);
+
+        assertThat(securityUtil.getCurrentUserOrThrow().getEmail()).isEqualTo("alex@example.com");
+        assertThat(securityUtil.getCurrentUserOrThrow().getUserId()).isEqualTo(7L);
+        verify(userRepository, times(1)).findByUuid(uuid);
+    }
+
+    private User user(String passwordHash) {
+        User user = new User();
+        user.setUserId(7L);
+        user.setUuid(uuid);
+        user.setUserName("alex");
+        user.setEmail("alex@example.com");
+        user.setPasswordHash(passwordHash);
+        user.setEmailVerified(true);
+        return user;
+    }
+}
@@ -8,7 +8,10 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +20,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +47,15 @@ class AiMealServiceTest {
     @Mock
     private SecurityUtil securityUtil;
 
+    @Mock
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private QuickStatsCache quickStatsCache;
+
     @InjectMocks
     private AiMealService aiMealService;
 
@@ -90,14 +104,15 @@ class AiMealServiceTest {
         estimation.setCarbsG(BigDecimal.valueOf(40));
         estimation.setFatG(BigDecimal.valueOf(15));
 
-        when(geminiClient.estimateMeal(null, "description")).thenReturn(estimation);
+        when(geminiClient.estimateMealAsync(null, "description")).thenReturn(CompletableFuture.completedFuture(estimation));
 
-        AiMealEstimationResponseDTO response = aiMealService.estimateMeal(null, request);
+        AiMealEstimationResponseDTO response = aiMealService.estimateMeal(null, request).join();
 
         assertThat(response.getMealId()).isNull();
         assertThat(response.getMealDescription()).isEqualTo("description");
         assertThat(response.getTotalCalories()).isEqualTo(BigDecimal.valueOf(450));
         verify(mealRepository, never()).save(any(Meal.class));
+        verify(dailySummaryService, never()).recordMeal(any(Meal.class));
     }
 
     @Test
@@ -117,14 +132,16 @@ class AiMealServiceTest {
         estimation.setFatG(BigDecimal.valueOf(8));
 
         when(imgBBClient.uploadImage(file)).thenReturn("https://img.test/meal.jpg");
-        when(geminiClient.estimateMeal("https://img.test/meal.jpg", null)).thenReturn(estimation);
+        when(geminiClient.estimateMealAsync("https://img.test/meal.jpg", null)).thenReturn(CompletableFuture.completedFuture(estimation));
         when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> {
             Meal meal = invocation.getArgument(0, Meal.class);
             meal.setMealId(99L);
             return meal;
         });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
 
-        AiMealEstimationResponseDTO response = aiMealService.estimateMeal(file, request);
+        AiMealEstimationResponseDTO response = aiMealService.estimateMeal(file, request).join();
 
         assertThat(response.getMealId()).isEqualTo(99L);
         assertThat(response.getMealDescription()).isEqualTo("AI Oats");
@@ -136,5 +153,7 @@ class AiMealServiceTest {
         assertThat(savedMeal.getUser()).isSameAs(user);
         assertThat(savedMeal.getPhotoUrl()).isEqualTo("https://img.test/meal.jpg");
         assertThat(savedMeal.getIsAiGenerated()).isTrue();
+        verify(dailySummaryService).recordMeal(savedMeal);
+        verify(quickStatsCache).invalidate(user.getUserId());
     }
 }
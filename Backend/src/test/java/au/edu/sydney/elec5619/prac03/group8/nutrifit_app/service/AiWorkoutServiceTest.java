@@ -9,6 +9,8 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
@@ -50,7 +53,7 @@ class AiWorkoutServiceTest {
     }
 
     private void mockCurrentUser() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
     }
 
     @Test
@@ -82,9 +85,9 @@ class AiWorkoutServiceTest {
         ReflectionTestUtils.setField(estimation, "exerciseType", "Jogging");
         ReflectionTestUtils.setField(estimation, "caloriesBurned", BigDecimal.valueOf(250));
 
-        when(geminiClient.estimateWorkout("Light jog for 30 minutes")).thenReturn(estimation);
+        when(geminiClient.estimateWorkoutAsync("Light jog for 30 minutes")).thenReturn(CompletableFuture.completedFuture(estimation));
 
-        AiWorkoutResponseDto response = aiWorkoutService.estimateWorkout(request);
+        AiWorkoutResponseDto response = aiWorkoutService.estimateWorkout(request).join();
 
         assertThat(response.isSuccess()).isTrue();
         assertThat(response.getMessage()).isEqualTo("Calorie estimation successful");
@@ -108,13 +111,13 @@ class AiWorkoutServiceTest {
         ReflectionTestUtils.setField(estimation, "exerciseType", "Rowing");
         ReflectionTestUtils.setField(estimation, "caloriesBurned", BigDecimal.valueOf(180));
 
-        when(geminiClient.estimateWorkout("Rowing for 20 minutes")).thenReturn(estimation);
+        when(geminiClient.estimateWorkoutAsync("Rowing for 20 minutes")).thenReturn(CompletableFuture.completedFuture(estimation));
         WorkoutResponseDto workoutResponse = new WorkoutResponseDto(true, "Created");
         WorkoutService.WorkoutOperationResult saveResult =
             new WorkoutService.WorkoutOperationResult(HttpStatus.CREATED, workoutResponse);
         when(workoutService.saveWorkout(any(WorkoutRequestDto.class))).thenReturn(saveResult);
 
-        AiWorkoutResponseDto response = aiWorkoutService.estimateWorkout(request);
+        AiWorkoutResponseDto response = aiWorkoutService.estimateWorkout(request).join();
 
         assertThat(response.isSuccess()).isTrue();
         assertThat(response.getMessage()).contains("Calorie estimation successful");
@@ -138,12 +141,41 @@ class AiWorkoutServiceTest {
         ReflectionTestUtils.setField(estimation, "exerciseType", "Yoga");
         ReflectionTestUtils.setField(estimation, "caloriesBurned", BigDecimal.valueOf(50));
 
-        when(geminiClient.estimateWorkout("Workout failure case")).thenReturn(estimation);
+        when(geminiClient.estimateWorkoutAsync("Workout failure case")).thenReturn(CompletableFuture.completedFuture(estimation));
         WorkoutResponseDto workoutResponse = new WorkoutResponseDto(false, "persist failed");
         WorkoutService.WorkoutOperationResult saveResult =
             new WorkoutService.WorkoutOperationResult(HttpStatus.BAD_REQUEST, workoutResponse);
         when(workoutService.saveWorkout(any(WorkoutRequestDto.class))).thenReturn(saveResult);
 
-        assertThrows(IllegalStateException.class, () -> aiWorkoutService.estimateWorkout(request));
+        assertThatThrownBy(() -> aiWorkoutService.estimateWorkout(request).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void estimateWorkout_savesOnlyOnceTheModelAnswers() {
+        mockCurrentUser();
+        AiWorkoutRequestDto request = AiWorkoutRequestDto.builder()
+            .description("Swim for 40 minutes")
+            .save(true)
+            .build();
+
+        CompletableFuture<GeminiClient.GeminiEstimation> answer = new CompletableFuture<>();
+        when(geminiClient.estimateWorkoutAsync("Swim for 40 minutes")).thenReturn(answer);
+        when(workoutService.saveWorkout(any(WorkoutRequestDto.class))).thenReturn(
+            new WorkoutService.WorkoutOperationResult(HttpStatus.CREATED, new WorkoutResponseDto(true, "Created")));
+
+        CompletableFuture<AiWorkoutResponseDto> pending = aiWorkoutService.estimateWorkout(request);
+
+        assertThat(pending).isNotDone();
+        verify(workoutService, never()).saveWorkout(any(WorkoutRequestDto.class));
+
+        GeminiClient.GeminiEstimation estimation = new GeminiClient.GeminiEstimation();
+        ReflectionTestUtils.setField(estimation, "durationMinutes", 40);
+        ReflectionTestUtils.setField(estimation, "exerciseType", "Swimming");
+        answer.complete(estimation);
+
+        assertThat(pending.join().getData().getExerciseType()).isEqualTo("Swimming");
+        verify(workoutService).saveWorkout(any(WorkoutRequestDto.class));
     }
 }
@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -72,7 +73,7 @@ class AIInsightServiceTest {
 
     @Test
     void getLatestInsights_marksExpiredAndReturnsDtos() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         AIInsight expired = new AIInsight();
         expired.setUser(user);
@@ -103,7 +104,6 @@ class AIInsightServiceTest {
 
     @Test
     void generateInsight_returnsRecentWhenAvailable() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
 
         AIInsight recent = new AIInsight();
         recent.setInsightId(10L);
@@ -119,7 +119,7 @@ class AIInsightServiceTest {
         CreateInsightRequestDTO request = new CreateInsightRequestDTO();
         request.setAnalysisType("fitness");
 
-        AIInsightDTO dto = aiInsightService.generateInsight(request);
+        AIInsightDTO dto = aiInsightService.generateInsight(user, request).join();
 
         assertEquals("Recent insight", dto.getContent());
         verify(aiInsightRepository, never()).save(any());
@@ -127,9 +127,8 @@ class AIInsightServiceTest {
 
     @Test
     void generateInsight_createsNewInsightWhenNoneRecent() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
         when(dashboardService.getQuickStats(42L)).thenReturn(new QuickStatsResponseDTO());
-        when(geminiClient.generateAIInsight(eq("nutrition"), any())).thenReturn("Eat more greens");
+        when(geminiClient.generateAIInsightAsync(eq("nutrition"), any())).thenReturn(CompletableFuture.completedFuture("Eat more greens"));
 
         when(aiInsightRepository.save(any(AIInsight.class))).thenAnswer(invocation -> {
             AIInsight toSave = invocation.getArgument(0);
@@ -143,7 +142,7 @@ class AIInsightServiceTest {
         request.setAnalysisType("nutrition");
         request.setForceRegenerate(true);
 
-        AIInsightDTO dto = aiInsightService.generateInsight(request);
+        AIInsightDTO dto = aiInsightService.generateInsight(user, request).join();
 
         assertEquals(55L, dto.getInsightId());
         assertEquals("nutrition", dto.getSuggestionFormat());
@@ -167,15 +166,15 @@ class AIInsightServiceTest {
         );
 
         when(dashboardService.getQuickStats(42L)).thenReturn(quickStats);
-        when(geminiClient.generateSuggestions(eq("exercise"), eq("weight_loss"), any()))
-            .thenReturn(List.of("Recommendation one", "Recommendation two"));
+        when(geminiClient.generateSuggestionsAsync(eq("exercise"), eq("weight_loss"), any()))
+            .thenReturn(CompletableFuture.completedFuture(List.of("Recommendation one", "Recommendation two")));
 
         SuggestionRequestDTO request = new SuggestionRequestDTO();
         request.setSuggestionType("exercise");
         request.setUserGoal("weight_loss");
         request.setPreferredIntensity("moderate");
 
-        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request);
+        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request).join();
 
         assertEquals("exercise", response.getSuggestionType());
         assertEquals(90, response.getConfidenceScore());
@@ -188,7 +187,7 @@ class AIInsightServiceTest {
 
     @Test
     void deactivateInsight_marksInsightInactiveForOwner() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         AIInsight insight = new AIInsight();
         insight.setInsightId(3L);
@@ -204,7 +203,7 @@ class AIInsightServiceTest {
 
     @Test
     void deleteSuggestion_marksSuggestionInactive() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         Suggestion suggestion = new Suggestion();
         suggestion.setSuggestionId(8L);
@@ -220,7 +219,7 @@ class AIInsightServiceTest {
 
     @Test
     void getLatestSuggestionSummary_returnsStructuredData() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         Suggestion suggestion = new Suggestion();
         suggestion.setSuggestionId(9L);
@@ -249,7 +248,7 @@ class AIInsightServiceTest {
 
     @Test
     void deleteSuggestion_throwsWhenUnauthorized() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         User otherUser = new User();
         otherUser.setUserId(99L);
@@ -266,7 +265,7 @@ class AIInsightServiceTest {
 
     @Test
     void getInsightDetails_returnsDtoForOwner() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         AIInsight insight = new AIInsight();
         insight.setInsightId(12L);
@@ -286,7 +285,7 @@ class AIInsightServiceTest {
 
     @Test
     void getInsightDetails_throwsForUnauthorizedAccess() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
 
         User other = new User();
         other.setUserId(77L);
@@ -303,7 +302,6 @@ class AIInsightServiceTest {
 
     @Test
     void generateInsight_returnsFallbackWhenDashboardsFails() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
         when(aiInsightRepository.findRecentInsights(eq(42L), any())).thenReturn(Collections.emptyList());
         when(dashboardService.getQuickStats(42L)).thenThrow(new RuntimeException("dashboard down"));
         when(aiInsightRepository.save(any(AIInsight.class))).thenAnswer(invocation -> {
@@ -315,7 +313,7 @@ class AIInsightServiceTest {
         CreateInsightRequestDTO request = new CreateInsightRequestDTO();
         request.setAnalysisType("custom");
 
-        AIInsightDTO dto = aiInsightService.generateInsight(request);
+        AIInsightDTO dto = aiInsightService.generateInsight(user, request).join();
 
         assertThat(dto.getContent()).contains("Unable to generate detailed analysis");
         assertThat(dto.getSuggestionFormat()).isEqualTo("general");
@@ -323,10 +321,9 @@ class AIInsightServiceTest {
 
     @Test
     void generateInsight_setsSuggestionFormatFromContent() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
         when(aiInsightRepository.findRecentInsights(eq(42L), any())).thenReturn(Collections.emptyList());
         when(dashboardService.getQuickStats(42L)).thenReturn(sampleQuickStats(70.0, 1600.0));
-        when(geminiClient.generateAIInsight(eq("custom"), any())).thenReturn("Workout intensity should increase");
+        when(geminiClient.generateAIInsightAsync(eq("custom"), any())).thenReturn(CompletableFuture.completedFuture("Workout intensity should increase"));
         when(aiInsightRepository.save(any(AIInsight.class))).thenAnswer(invocation -> {
             AIInsight saved = invocation.getArgument(0);
             saved.setInsightId(88L);
@@ -336,48 +333,49 @@ class AIInsightServiceTest {
         CreateInsightRequestDTO request = new CreateInsightRequestDTO();
         request.setAnalysisType("custom");
 
-        AIInsightDTO dto = aiInsightService.generateInsight(request);
+        AIInsightDTO dto = aiInsightService.generateInsight(user, request).join();
 
         assertThat(dto.getSuggestionFormat()).isEqualTo("exercise");
-        verify(geminiClient).generateAIInsight(eq("custom"), any());
+        verify(geminiClient).generateAIInsightAsync(eq("custom"), any());
     }
 
     @Test
     void generateSuggestions_dietPathCalculatesMetrics() {
         when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
         when(dashboardService.getQuickStats(42L)).thenReturn(sampleQuickStats(68.0, 1550.0));
-        when(geminiClient.generateSuggestions(eq("diet"), eq("weight_loss"), any()))
-            .thenReturn(List.of("Eat more vegetables"));
+        when(geminiClient.generateSuggestionsAsync(eq("diet"), eq("weight_loss"), any()))
+            .thenReturn(CompletableFuture.completedFuture(List.of("Eat more vegetables")));
         when(suggestionRepository.save(any(Suggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SuggestionRequestDTO request = new SuggestionRequestDTO();
         request.setSuggestionType("diet");
         request.setUserGoal("weight_loss");
 
-        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request);
+        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request).join();
 
         assertThat(response.getRecommendations()).isNotEmpty();
         assertThat(response.getSpecificMetrics()).containsKeys("targetCalories", "proteinTarget");
-        verify(geminiClient).generateSuggestions(eq("diet"), eq("weight_loss"), any());
+        verify(geminiClient).generateSuggestionsAsync(eq("diet"), eq("weight_loss"), any());
     }
 
     @Test
     void generateSuggestions_exerciseUsesFallbackWhenGeminiFails() {
         when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
         when(dashboardService.getQuickStats(42L)).thenReturn(sampleQuickStats(70.0, 1600.0));
-        when(geminiClient.generateSuggestions(eq("exercise"), any(), any()))
-            .thenThrow(new RuntimeException("api down"));
+        when(geminiClient.generateSuggestionsAsync(eq("exercise"), any(), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("api down")));
         when(suggestionRepository.save(any(Suggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SuggestionRequestDTO request = new SuggestionRequestDTO();
         request.setSuggestionType("exercise");
         request.setUserGoal("maintenance");
 
-        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request);
+        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request).join();
 
         assertThat(response.getRecommendations()).hasSize(3);
         assertThat(response.getConfidenceScore()).isEqualTo(50);
-        verify(geminiClient).generateSuggestions(eq("exercise"), any(), any());
+        assertThat(response.getRationale()).endsWith("API unavailability: api down");
+        verify(geminiClient).generateSuggestionsAsync(eq("exercise"), any(), any());
     }
     @Test
     void generateSuggestions_handlesUnsupportedType() {
@@ -388,7 +386,7 @@ class AIInsightServiceTest {
         request.setSuggestionType("sleep");
         request.setUserGoal("rest");
 
-        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request);
+        SuggestionResponseDTO response = aiInsightService.generateSuggestions(request).join();
 
         assertEquals("sleep", response.getSuggestionType());
         assertThat(response.getRecommendations()).isEmpty();
@@ -397,7 +395,7 @@ class AIInsightServiceTest {
 
     @Test
     void getLatestSuggestionSummary_returnsNullWhenNoData() {
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
         when(suggestionRepository.findTopByUserUserIdAndIsActiveTrueOrderByCreatedAtDesc(42L))
             .thenReturn(java.util.Optional.empty());
 
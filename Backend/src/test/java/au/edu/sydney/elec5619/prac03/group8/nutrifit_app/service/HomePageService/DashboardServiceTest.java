@@ -2,17 +2,20 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageServic
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.AchievementsExportDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.DailyAveragesDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.NutritionSummaryExportDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.ProgressMetricsExportDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.QuickStatsResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.StreaksDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.UserProfileExportDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.WorkoutHistoryExportDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Gender;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserProfile;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.DailySummaryRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserMetricsRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserProfileRepository;
@@ -23,15 +26,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +63,15 @@ class DashboardServiceTest {
     @Mock
     private UserProfileRepository userProfileRepository;
 
+    @Mock
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Spy
+    private QuickStatsCache quickStatsCache = new QuickStatsCache(100, Duration.ofMinutes(5));
+
+    @Spy
+    private QuickStatsSections quickStatsSections = new QuickStatsSections(false, 1, 1, Duration.ofSeconds(2));
+
     @Mock
     private AIInsightService aiInsightService;
 
@@ -112,17 +132,12 @@ class DashboardServiceTest {
     @Test
     void getDailyAverages_calculatesAggregatedValues() {
         LocalDate today = LocalDate.now();
-        Meal breakfast = meal(today, 8, 500, 30, 40, 15);
-        Meal lunch = meal(today, 13, 400, 20, 50, 10);
-        Meal yesterdayMeal = meal(today.minusDays(1), 12, 600, 25, 60, 20);
-
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(), any()))
-            .thenReturn(Arrays.asList(breakfast, lunch, yesterdayMeal));
+        // Two meals and a workout today, one meal and a workout yesterday
+        DailySummary todaySummary = summary(today, 900, 50, 90, 25, 2, 1, 45, 300);
+        DailySummary yesterdaySummary = summary(today.minusDays(1), 600, 25, 60, 20, 1, 1, 30, 200);
 
-        Workout workout1 = workout(today, 45, 300, "cardio");
-        Workout workout2 = workout(today.minusDays(1), 30, 200, "strength");
-        when(workoutRepository.findByUserUserIdAndWorkoutDateBetween(eq(userId), any(), any()))
-            .thenReturn(Arrays.asList(workout1, workout2));
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(Arrays.asList(yesterdaySummary, todaySummary));
 
         Map<String, Object> averages = dashboardService.getDailyAverages(userId, 7);
 
@@ -143,14 +158,101 @@ class DashboardServiceTest {
     }
 
     @Test
-    void getWorkoutFrequency_calculatesWorkoutStats() {
+    void getDailyAverages_averagesWorkoutValuesOnlyOverWorkoutsThatLoggedThem() {
+        LocalDate today = LocalDate.now();
+        // A 40 minute, 300 kcal workout and one logged with neither duration nor calories
+        DailySummary day = summary(today, 0, 0, 0, 0, 0, 2, 40, 300);
+        day.setWorkoutDurationCount(1);
+        day.setWorkoutCaloriesCount(1);
+
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(List.of(day));
+
+        Map<String, Object> averages = dashboardService.getDailyAverages(userId, 7);
+
+        assertThat(averages.get("avgWorkoutDuration")).isEqualTo(40);
+        assertThat(averages.get("avgCaloriesBurned")).isEqualTo(300);
+        assertThat(averages.get("totalWorkoutDuration")).isEqualTo(40);
+        assertThat(averages.get("workoutCount")).isEqualTo(2);
+    }
+
+    @Test
+    void getDailyAverages_ignoresWorkoutOnlyDaysForIntakeAverages() {
+        LocalDate today = LocalDate.now();
+        DailySummary mealDay = summary(today, 800, 40, 80, 20, 2, 0, 0, 0);
+        DailySummary workoutOnlyDay = summary(today.minusDays(1), 0, 0, 0, 0, 0, 1, 60, 450);
+
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(Arrays.asList(workoutOnlyDay, mealDay));
+
+        Map<String, Object> averages = dashboardService.getDailyAverages(userId, 7);
+
+        assertThat(averages.get("avgCaloriesIntake")).isEqualTo(800);
+        assertThat(averages.get("avgWorkoutDuration")).isEqualTo(60);
+        assertThat(averages.get("avgCaloriesBurned")).isEqualTo(450);
+        verify(mealRepository, never()).findByUserUserIdAndMealTimeBetween(any(), any(), any());
+        verify(workoutRepository, never()).findDailyWorkoutTotals(any(), any(), any());
+    }
+
+    @Test
+    void getDailyAveragesDTOs_matchesSeparateWindowsFromOneFetch() {
         LocalDate today = LocalDate.now();
-        Workout workout1 = workout(today, 30, 200, "cardio");
-        Workout workout2 = workout(today.minusDays(1), 40, 300, "strength");
-        Workout workout3 = workout(today.minusDays(1), 20, 150, "cardio");
+        List<DailySummary> history = List.of(
+            summary(today.minusDays(31), 5000, 200, 500, 100, 3, 2, 120, 900),
+            summary(today.minusDays(30), 1800, 90, 200, 60, 3, 1, 40, 320),
+            summary(today.minusDays(12), 2100, 110, 230, 70, 4, 0, 0, 0),
+            summary(today.minusDays(7), 1500, 80, 150, 50, 2, 1, 30, 210),
+            summary(today.minusDays(3), 0, 0, 0, 0, 0, 1, 55, 480),
+            summary(today, 1950.5, 101.25, 220.75, 64.5, 3, 1, 25, 187.5)
+        );
+        // Return only the rows inside the requested date range, like the real query
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenAnswer(invocation -> {
+                LocalDate from = invocation.getArgument(1);
+                LocalDate to = invocation.getArgument(2);
+                return history.stream()
+                    .filter(s -> !s.getSummaryDate().isBefore(from) && !s.getSummaryDate().isAfter(to))
+                    .toList();
+            });
+
+        DailyAveragesDTO weekly = dashboardService.getDailyAveragesDTO(userId, 7);
+        DailyAveragesDTO monthly = dashboardService.getDailyAveragesDTO(userId, 30);
+        clearInvocations(dailySummaryRepository);
 
-        when(workoutRepository.findByUserUserIdAndWorkoutDateBetween(eq(userId), any(), any()))
-            .thenReturn(Arrays.asList(workout1, workout2, workout3));
+        Map<Integer, DailyAveragesDTO> combined = dashboardService.getDailyAveragesDTOs(userId, 7, 30);
+
+        verify(dailySummaryRepository, times(1))
+            .findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(userId, today.minusDays(30), today);
+        assertThat(combined.get(7)).usingRecursiveComparison().isEqualTo(weekly);
+        assertThat(combined.get(30)).usingRecursiveComparison().isEqualTo(monthly);
+
+        // Offsets 0..7 inclusive: two meal days (the workout-only day is skipped) and three workouts
+        assertThat(weekly.getAvgCaloriesIntake()).isEqualTo(1725);
+        assertThat(weekly.getAvgMacros().getProtein()).isEqualTo(90.63);
+        assertThat(weekly.getWorkoutCount()).isEqualTo(3);
+        assertThat(weekly.getAvgWorkoutDuration()).isEqualTo(37);
+        assertThat(monthly.getTotalCaloriesIntake()).isEqualTo(7351);
+        assertThat(monthly.getWorkoutCount()).isEqualTo(4);
+    }
+
+    @Test
+    void getDailyAveragesDTOs_returnsDefaultsForMissingUser() {
+        Map<Integer, DailyAveragesDTO> result = dashboardService.getDailyAveragesDTOs(null, 7, 30);
+
+        assertThat(result.get(7).getPeriodDays()).isEqualTo(7);
+        assertThat(result.get(30).getAvgCaloriesIntake()).isZero();
+        verifyNoMoreInteractions(dailySummaryRepository);
+    }
+
+    @Test
+    void getWorkoutFrequency_calculatesWorkoutStats() {
+        LocalDate today = LocalDate.now();
+        when(workoutRepository.findDailyWorkoutTotals(eq(userId), any(), any()))
+            .thenReturn(Arrays.asList(
+                dailyWorkouts(today.minusDays(1), "cardio", 1, 20, 150),
+                dailyWorkouts(today.minusDays(1), "strength", 1, 40, 300),
+                dailyWorkouts(today, "cardio", 1, 30, 200)
+            ));
 
         Map<String, Object> frequency = dashboardService.getWorkoutFrequency(userId, 7);
 
@@ -186,25 +288,16 @@ class DashboardServiceTest {
             .thenReturn(Optional.of(userProfile));
 
         LocalDate today = LocalDate.now();
-        when(workoutRepository.findByUserUserIdAndWorkoutDate(eq(userId), any(LocalDate.class)))
-            .thenAnswer(invocation -> {
-                LocalDate date = invocation.getArgument(1);
-                if (date.equals(today) || date.equals(today.minusDays(1))) {
-                    return List.of(workout(date, 30, 200, "cardio"));
-                }
-                return Collections.emptyList();
-            });
+        when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.of(today, today.minusDays(1), today.minusDays(3)));
 
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
-            .thenAnswer(invocation -> {
-                LocalDateTime start = invocation.getArgument(1);
-                LocalDate date = start.toLocalDate();
-                if (date.equals(today) || date.equals(today.minusDays(1))) {
-                    Meal meal = meal(date, 12, 2500, 0, 0, 0);
-                    return List.of(meal);
-                }
-                return Collections.emptyList();
-            });
+        when(mealRepository.findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(List.of(
+                dailyCalories(today, 2500, 1),
+                dailyCalories(today.minusDays(1), 2500, 2),
+                dailyCalories(today.minusDays(2), 900, 1),
+                dailyCalories(today.minusDays(3), 2500, 1)
+            ));
 
         Map<String, Object> streaks = dashboardService.getCurrentStreaks(userId);
 
@@ -215,6 +308,68 @@ class DashboardServiceTest {
         assertThat(streaks.get("nutritionStreakStatus")).isEqualTo("building");
     }
 
+    @Test
+    void getCurrentStreaks_queryCountIsConstantRegardlessOfStreakLength() {
+        UserProfile userProfile = new UserProfile();
+        userProfile.setBirthDate(LocalDate.now().minusYears(30));
+        userProfile.setGender(Gender.MALE);
+        UserMetrics metrics = new UserMetrics();
+        metrics.setWeight(80.0);
+        metrics.setHeight(180.0);
+        metrics.setCreatedAt(LocalDateTime.now());
+
+        when(userMetricsRepository.findTopByUserUserIdOrderByRecordAt(userId))
+            .thenReturn(Optional.of(metrics));
+        when(userProfileRepository.findByUserUserId(userId))
+            .thenReturn(Optional.of(userProfile));
+
+        for (int streakLength : new int[]{1, 30, 400}) {
+            clearInvocations(workoutRepository, mealRepository, userMetricsRepository, userProfileRepository);
+
+            LocalDate today = LocalDate.now();
+            List<LocalDate> workoutDays = new ArrayList<>();
+            List<MealRepository.DailyNutritionTotal> calorieDays = new ArrayList<>();
+            for (int i = 0; i < streakLength; i++) {
+                workoutDays.add(today.minusDays(i));
+                calorieDays.add(dailyCalories(today.minusDays(i), 2500, 3));
+            }
+            when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(workoutDays);
+            when(mealRepository.findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(calorieDays);
+
+            Map<String, Object> streaks = dashboardService.getCurrentStreaks(userId);
+
+            int expected = Math.min(streakLength, 366);
+            assertThat(streaks.get("workoutStreak")).isEqualTo(expected);
+            assertThat(streaks.get("nutritionStreak")).isEqualTo(expected);
+
+            verify(workoutRepository, times(1)).findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class));
+            verify(mealRepository, times(1)).findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class));
+            verify(userProfileRepository, times(1)).findByUserUserId(userId);
+            verify(userMetricsRepository, times(1)).findTopByUserUserIdOrderByRecordAt(userId);
+            verify(userMetricsRepository, times(1)).findSecondLatestByUserId(userId);
+            verifyNoMoreInteractions(workoutRepository, mealRepository, userMetricsRepository, userProfileRepository);
+        }
+    }
+
+    @Test
+    void getCurrentStreaks_streakStopsAtFirstGapAndIgnoresStaleRuns() {
+        LocalDate today = LocalDate.now();
+        when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.of(today.minusDays(1), today.minusDays(2), today.minusDays(3)));
+        when(mealRepository.findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(Collections.emptyList());
+
+        StreaksDTO streaks = dashboardService.getCurrentStreaksDTO(userId);
+
+        assertThat(streaks.getWorkoutStreak()).isZero();
+        assertThat(streaks.getNutritionStreak()).isZero();
+        assertThat(streaks.getConsistencyStreak()).isZero();
+        assertThat(streaks.getWorkoutStreakStatus()).isEqualTo("none");
+        verify(userMetricsRepository, never()).findTopByUserUserIdOrderByRecordAt(any());
+    }
+
     @Test
     void getAIInsightsForExport_filtersByDateRange() {
         LocalDate today = LocalDate.now();
@@ -265,13 +420,12 @@ class DashboardServiceTest {
         when(userProfileRepository.findByUserUserId(userId))
             .thenReturn(Optional.of(userProfile));
 
-        Meal sampleMeal = meal(LocalDate.now(), 8, 600, 30, 50, 20);
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(), any()))
-            .thenReturn(List.of(sampleMeal));
-        when(workoutRepository.findByUserUserIdAndWorkoutDateBetween(eq(userId), any(), any()))
-            .thenReturn(List.of(workout(LocalDate.now(), 45, 300, "cardio")));
-        when(workoutRepository.findByUserUserIdAndWorkoutDate(eq(userId), any(LocalDate.class)))
-            .thenReturn(Collections.singletonList(workout(LocalDate.now(), 30, 200, "cardio")));
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(List.of(summary(LocalDate.now(), 600, 30, 50, 20, 1, 1, 45, 300)));
+        when(workoutRepository.findDailyWorkoutTotals(eq(userId), any(), any()))
+            .thenReturn(List.of(dailyWorkouts(LocalDate.now(), "cardio", 1, 45, 300)));
+        when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.of(LocalDate.now()));
 
         QuickStatsResponseDTO response = dashboardService.getQuickStats(userId, "monthly");
 
@@ -282,6 +436,47 @@ class DashboardServiceTest {
         assertThat(response.getMonthlyAverages().getPeriodDays()).isEqualTo(30);
     }
 
+    @Test
+    void getQuickStats_servesRepeatCallsFromCacheUntilInvalidated() {
+        when(userMetricsRepository.findTopByUserUserIdOrderByRecordAt(userId)).thenReturn(Optional.empty());
+
+        QuickStatsResponseDTO first = dashboardService.getQuickStats(userId, "weekly");
+        QuickStatsResponseDTO second = dashboardService.getQuickStats(userId, "weekly");
+
+        assertThat(second).isSameAs(first);
+        verify(userMetricsRepository, times(1)).findTopByUserUserIdOrderByRecordAt(userId);
+
+        quickStatsCache.invalidate(userId);
+        QuickStatsResponseDTO third = dashboardService.getQuickStats(userId, "weekly");
+
+        assertThat(third).isNotSameAs(first);
+        verify(userMetricsRepository, times(2)).findTopByUserUserIdOrderByRecordAt(userId);
+        assertThat(quickStatsCache.stats().hits()).isEqualTo(1);
+        assertThat(quickStatsCache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void getQuickStats_countsATimedOutSectionOnceAndFallsBackForBothWindows() {
+        QuickStatsSections concurrentSections = new QuickStatsSections(true, 4, 16, Duration.ofMillis(200));
+        ReflectionTestUtils.setField(dashboardService, "quickStatsSections", concurrentSections);
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenAnswer(invocation -> {
+                Thread.sleep(5_000);
+                return List.of();
+            });
+        try {
+            QuickStatsResponseDTO response = dashboardService.getQuickStats(userId, "weekly");
+
+            assertThat(response.getWeeklyAverages().getPeriodDays()).isEqualTo(7);
+            assertThat(response.getMonthlyAverages().getPeriodDays()).isEqualTo(30);
+            QuickStatsSections.SectionStats averages = concurrentSections.stats().get("averages");
+            assertThat(averages.timeouts()).isEqualTo(1);
+            assertThat(averages.failures()).isZero();
+        } finally {
+            concurrentSections.shutdown();
+        }
+    }
+
     @Test
     void getUserProfileForExport_returnsUserSnapshot() {
         User user = new User();
@@ -323,13 +518,11 @@ class DashboardServiceTest {
         LocalDate start = LocalDate.now().minusDays(2);
         LocalDate end = LocalDate.now();
 
-        Meal meal1 = meal(start, 8, 500, 30, 40, 15);
-        Meal meal2 = meal(start.plusDays(1), 12, 600, 35, 55, 18);
-        meal1.setMealTime(start.atTime(8, 0));
-        meal2.setMealTime(start.plusDays(1).atTime(12, 0));
+        DailySummary day1 = summary(start, 500, 30, 40, 15, 1, 0, 0, 0);
+        DailySummary day2 = summary(start.plusDays(1), 600, 35, 55, 18, 1, 0, 0, 0);
 
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(), any()))
-            .thenReturn(List.of(meal1, meal2));
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(List.of(day1, day2));
 
         UserMetrics metrics = new UserMetrics();
         metrics.setWeight(70.0);
@@ -364,22 +557,29 @@ class DashboardServiceTest {
         LocalDate start = LocalDate.now().minusDays(3);
         LocalDate end = LocalDate.now();
 
-        Workout workout1 = workout(start, 30, 200, "cardio");
-        workout1.setCaloriesBurned(BigDecimal.valueOf(200));
-        workout1.setDurationMinutes(30);
-        Workout workout2 = workout(start.plusDays(1), 45, 350, "strength");
-        workout2.setCaloriesBurned(BigDecimal.valueOf(350));
-        workout2.setDurationMinutes(45);
-
-        when(workoutRepository.findByUserUserIdAndWorkoutDateBetween(eq(userId), any(), any()))
-            .thenReturn(List.of(workout1, workout2));
+        when(workoutRepository.findDailyWorkoutTotals(eq(userId), any(), any()))
+            .thenReturn(List.of(
+                dailyWorkouts(start, "cardio", 1, 30, 200),
+                dailyWorkouts(start.plusDays(1), "cardio", 1, 20, 150),
+                dailyWorkouts(start.plusDays(1), "strength", 2, 90, 700)
+            ));
 
         WorkoutHistoryExportDTO dto = dashboardService.getWorkoutHistoryForExport(
             userId, start + "," + end);
 
-        assertThat(dto.getTotalWorkouts()).isEqualTo(2);
+        assertThat(dto.getTotalWorkouts()).isEqualTo(4);
+        assertThat(dto.getTotalWorkoutDays()).isEqualTo(2);
+        assertThat(dto.getTotalDurationMinutes()).isEqualTo(140);
+        assertThat(dto.getTotalCaloriesBurned()).isEqualTo(1050.0);
+        assertThat(dto.getWorkoutTypeDistribution()).containsEntry("cardio", 2).containsEntry("strength", 2);
         assertThat(dto.getWeeklyFrequencyPercentage()).isGreaterThanOrEqualTo(0);
         assertThat(dto.getDailyBreakdown()).hasSize(4);
+
+        WorkoutHistoryExportDTO.DailyWorkoutDTO secondDay = dto.getDailyBreakdown().get(1);
+        assertThat(secondDay.getWorkoutsCount()).isEqualTo(3);
+        assertThat(secondDay.getTotalDuration()).isEqualTo(110);
+        assertThat(secondDay.getWorkoutTypes()).containsExactly("cardio", "strength");
+        assertThat(dto.getDailyBreakdown().get(2).getWorkoutsCount()).isZero();
     }
 
     @Test
@@ -394,9 +594,9 @@ class DashboardServiceTest {
 
     @Test
     void getAchievementsForExport_compilesLevelsAndMilestones() {
-        when(workoutRepository.findByUserUserIdAndWorkoutDate(eq(userId), any(LocalDate.class)))
+        when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.emptyList());
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(), any()))
+        when(mealRepository.findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(Collections.emptyList());
         AchievementsExportDTO dto = dashboardService.getAchievementsForExport(userId);
 
@@ -405,6 +605,56 @@ class DashboardServiceTest {
         assertThat(dto.getMilestones()).isNotEmpty();
     }
 
+    @Test
+    void exportSnapshot_buildsEverySectionWithOneQueryPerSource() {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUserName("Taylor");
+
+        UserMetrics metrics = new UserMetrics();
+        metrics.setWeight(70.0);
+        metrics.setHeight(172.0);
+        metrics.setCreatedAt(LocalDateTime.now());
+
+        UserProfile userProfile = new UserProfile();
+        userProfile.setBirthDate(LocalDate.now().minusYears(32));
+        userProfile.setGender(Gender.FEMALE);
+
+        LocalDate today = LocalDate.now();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userProfileRepository.findByUserUserId(userId)).thenReturn(Optional.of(userProfile));
+        when(userMetricsRepository.findTopByUserUserIdOrderByRecordAt(userId)).thenReturn(Optional.of(metrics));
+        when(userMetricsRepository.findSecondLatestByUserId(userId)).thenReturn(Optional.of(metrics));
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any()))
+            .thenReturn(List.of(summary(today, 1800, 90, 200, 60, 3, 1, 30, 250)));
+        when(workoutRepository.findDailyWorkoutTotals(eq(userId), any(), any()))
+            .thenReturn(List.of(dailyWorkouts(today, "cardio", 1, 30, 250)));
+        when(workoutRepository.findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.of(today));
+        when(mealRepository.findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(List.of(dailyCalories(today, 1800, 3)));
+        when(aiInsightService.getLatestInsights()).thenReturn(Collections.emptyList());
+
+        ExportSnapshot snapshot = dashboardService.loadExportSnapshot(userId, "7d", aiInsightService);
+
+        assertThat(dashboardService.getUserProfileForExport(snapshot).getUsername()).isEqualTo("Taylor");
+        assertThat(dashboardService.getNutritionSummaryForExport(snapshot).getTotalMeals()).isEqualTo(3);
+        assertThat(dashboardService.getWorkoutHistoryForExport(snapshot).getTotalWorkouts()).isEqualTo(1);
+        assertThat(dashboardService.getProgressMetricsForExport(snapshot)).isNotNull();
+        assertThat(dashboardService.getAIInsightsForExport(snapshot)).isEmpty();
+        assertThat(dashboardService.getAchievementsForExport(snapshot).getCurrentStreaks().getWorkoutStreak()).isEqualTo(1);
+
+        verify(userRepository, times(1)).findById(userId);
+        verify(userProfileRepository, times(1)).findByUserUserId(userId);
+        verify(userMetricsRepository, times(1)).findTopByUserUserIdOrderByRecordAt(userId);
+        verify(userMetricsRepository, times(1)).findSecondLatestByUserId(userId);
+        verify(dailySummaryRepository, times(1)).findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(), any());
+        verify(workoutRepository, times(1)).findDailyWorkoutTotals(eq(userId), any(), any());
+        verify(workoutRepository, times(1)).findDistinctWorkoutDates(eq(userId), any(LocalDate.class), any(LocalDate.class));
+        verify(mealRepository, times(1)).findDailyNutritionTotals(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(aiInsightService, times(1)).getLatestInsights();
+    }
+
     @Test
     void calculateTotalDataPoints_countsEntries() {
         Map<String, Object> exportData = new HashMap<>();
@@ -456,11 +706,11 @@ class DashboardServiceTest {
 
         LocalDate start = LocalDate.now().minusDays(1);
         LocalDate end = LocalDate.now();
-        Meal meal1 = meal(start, 9, 600, 30, 50, 20);
-        Meal meal2 = meal(end, 13, 700, 40, 60, 25);
+        DailySummary day1 = summary(start, 600, 30, 50, 20, 1, 0, 0, 0);
+        DailySummary day2 = summary(end, 700, 40, 60, 25, 1, 0, 0, 0);
 
-        when(mealRepository.findByUserUserIdAndMealTimeBetween(eq(userId), any(LocalDateTime.class), any(LocalDateTime.class)))
-            .thenReturn(Arrays.asList(meal1, meal2));
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(Arrays.asList(day1, day2));
 
         String range = start + "," + end;
         var summary = dashboardService.getNutritionSummaryForExport(userId, range);
@@ -474,6 +724,47 @@ class DashboardServiceTest {
         assertThat(summary.getDailyBreakdown()).hasSize(2);
     }
 
+    @Test
+    void getDailyProgress_carriesWeightForwardFromLastReadingBeforeRange() {
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        LocalDate end = LocalDate.of(2024, 3, 4);
+
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(userId, start, end))
+            .thenReturn(List.of(summary(start.plusDays(1), 1850.4, 0, 0, 0, 3, 1, 40, 300)));
+        when(userMetricsRepository.findLastWeightBefore(userId, start.atStartOfDay()))
+            .thenReturn(Optional.of(weight(start.minusDays(200).atTime(9, 0), 82.04)));
+        when(userMetricsRepository.findWeightsBetween(eq(userId), eq(start.atStartOfDay()), any(LocalDateTime.class)))
+            .thenReturn(List.of(weight(start.plusDays(2).atTime(20, 30), 81.46)));
+
+        var points = dashboardService.getDailyProgress(userId, start + "," + end);
+
+        assertThat(points).extracting(p -> p.getDate()).containsExactly(start, start.plusDays(1), start.plusDays(2), end);
+        assertThat(points).extracting(p -> p.getWeight()).containsExactly(82.0, 82.0, 81.5, 81.5);
+        assertThat(points).extracting(p -> p.getCalories()).containsExactly(0, 1850, 0, 0);
+        assertThat(points).extracting(p -> p.getWorkouts()).containsExactly(0, 1, 0, 0);
+        verify(userMetricsRepository, never()).findByUserUserIdOrderByCreatedAtDesc(any());
+    }
+
+    @Test
+    void getDailyProgressSeries_returnsParallelColumns() {
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        LocalDate end = LocalDate.of(2024, 3, 3);
+
+        when(dailySummaryRepository.findByUserUserIdAndSummaryDateBetweenOrderBySummaryDateAsc(userId, start, end))
+            .thenReturn(List.of(summary(end, 2100, 0, 0, 0, 3, 2, 60, 500)));
+        when(userMetricsRepository.findLastWeightBefore(userId, start.atStartOfDay()))
+            .thenReturn(Optional.empty());
+        when(userMetricsRepository.findWeightsBetween(eq(userId), eq(start.atStartOfDay()), any(LocalDateTime.class)))
+            .thenReturn(List.of(weight(start.plusDays(1).atTime(7, 0), 70.0)));
+
+        var series = dashboardService.getDailyProgressSeries(userId, start + "," + end);
+
+        assertThat(series.getDates()).containsExactly(start, start.plusDays(1), end);
+        assertThat(series.getWeights()).containsExactly(0.0, 70.0, 70.0);
+        assertThat(series.getCalories()).containsExactly(0, 0, 2100);
+        assertThat(series.getWorkouts()).containsExactly(0, 0, 2);
+    }
+
     private Meal meal(LocalDate date, int hour, double calories, double protein, double carbs, double fat) {
         Meal meal = new Meal();
         meal.setMealTime(date.atTime(hour, 0));
@@ -484,19 +775,77 @@ class DashboardServiceTest {
         return meal;
     }
 
-    private Workout workout(LocalDate date, int duration, double calories, String type) {
-        Workout workout = new Workout();
-        workout.setWorkoutDate(date);
-        workout.setDurationMinutes(duration);
-        workout.setCaloriesBurned(BigDecimal.valueOf(calories));
-        workout.setWorkoutType(type);
-        workout.setCreatedAt(LocalDateTime.now());
-        workout.setUpdatedAt(LocalDateTime.now());
-        return workout;
+    private DailySummary summary(LocalDate date, double calories, double protein, double carbs, double fat,
+                                 int meals, int workouts, int workoutMinutes, double caloriesBurned) {
+        DailySummary summary = new DailySummary();
+        summary.setSummaryDate(date);
+        summary.setTotalCaloriesConsumed(BigDecimal.valueOf(calories));
+        summary.setTotalProteinG(BigDecimal.valueOf(protein));
+        summary.setTotalCarbsG(BigDecimal.valueOf(carbs));
+        summary.setTotalFatG(BigDecimal.valueOf(fat));
+        summary.setMealCount(meals);
+        summary.setWorkoutCount(workouts);
+        summary.setTotalWorkoutMinutes(workoutMinutes);
+        summary.setWorkoutDurationCount(workouts);
+        summary.setWorkoutCaloriesCount(workouts);
+        summary.setTotalCaloriesBurned(BigDecimal.valueOf(caloriesBurned));
+        return summary;
+    }
+
+    private MealRepository.DailyNutritionTotal dailyCalories(LocalDate day, double calories, long mealCount) {
+        return new MealRepository.DailyNutritionTotal() {
+            @Override
+            public LocalDate getDay() { return day; }
+
+            @Override
+            public BigDecimal getTotalCalories() { return BigDecimal.valueOf(calories); }
+
+            @Override
+            public BigDecimal getTotalProteinG() { return BigDecimal.ZERO; }
+
+            @Override
+            public BigDecimal getTotalCarbsG() { return BigDecimal.ZERO; }
+
+            @Override
+            public BigDecimal getTotalFatG() { return BigDecimal.ZERO; }
+
+            @Override
+            public Long getMealCount() { return mealCount; }
+        };
+    }
+
+    private WorkoutRepository.DailyWorkoutTotal dailyWorkouts(LocalDate day, String type, long count,
+                                                              long minutes, double caloriesBurned) {
+        return new WorkoutRepository.DailyWorkoutTotal() {
+            @Override
+            public LocalDate getDay() { return day; }
+
+            @Override
+            public String getWorkoutType() { return type; }
+
+            @Override
+            public Long getWorkoutCount() { return count; }
+
+            @Override
+            public Long getTotalDurationMinutes() { return minutes; }
+
+            @Override
+            public BigDecimal getTotalCaloriesBurned() { return BigDecimal.valueOf(caloriesBurned); }
+        };
     }
 
     // Mockito's eq requires static import; provide helper to keep imports compact.
     private <T> T eq(T value) {
         return org.mockito.ArgumentMatchers.eq(value);
     }
+
+    private UserMetricsRepository.WeightPoint weight(LocalDateTime createdAt, double kg) {
+        return new UserMetricsRepository.WeightPoint() {
+            @Override
+            public LocalDateTime getCreatedAt() { return createdAt; }
+
+            @Override
+            public BigDecimal getWeightKg() { return BigDecimal.valueOf(kg); }
+        };
+    }
 }
@@ -0,0 +1,131 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.AIInsightDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.CreateInsightRequestDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.InsightJobResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.InsightJobResponseDTO.Status;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InsightJobServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-09-10T08:30:00Z");
+
+    @Mock
+    private AIInsightService aiInsightService;
+
+    @Mock
+    private SecurityUtil securityUtil;
+
+    private User user;
+    private InsightJobService insightJobService;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUserId(42L);
+        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        insightJobService = new InsightJobService(aiInsightService, securityUtil, 1, 1, Duration.ofMinutes(15), 100,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        insightJobService.shutdown();
+    }
+
+    @Test
+    void enqueue_returnsAtOnceAndTheWorkerSavesTheInsight() throws Exception {
+        AIInsightDTO insight = new AIInsightDTO();
+        insight.setInsightId(55L);
+        CreateInsightRequestDTO request = new CreateInsightRequestDTO();
+        when(aiInsightService.generateInsight(same(user), same(request)))
+            .thenReturn(CompletableFuture.completedFuture(insight));
+        when(securityUtil.getCurrentUserId()).thenReturn(42L);
+
+        InsightJobResponseDTO queued = insightJobService.enqueue(request);
+        InsightJobResponseDTO finished = insightJobService.whenFinished(queued.jobId()).orElseThrow()
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(queued.createdAt()).isEqualTo(NOW);
+        assertThat(finished.status()).isEqualTo(Status.SUCCEEDED);
+        assertThat(finished.insight()).isSameAs(insight);
+        assertThat(finished.completedAt()).isEqualTo(NOW);
+        assertThat(insightJobService.getJob(queued.jobId())).contains(finished);
+        assertThat(insightJobService.stats().succeeded()).isEqualTo(1);
+    }
+
+    @Test
+    void failedGeneration_finishesTheJobWithTheError() throws Exception {
+        when(aiInsightService.generateInsight(same(user), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("save failed")));
+        when(securityUtil.getCurrentUserId()).thenReturn(42L);
+
+        InsightJobResponseDTO queued = insightJobService.enqueue(new CreateInsightRequestDTO());
+        InsightJobResponseDTO finished = insightJobService.whenFinished(queued.jobId()).orElseThrow()
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(finished.status()).isEqualTo(Status.FAILED);
+        assertThat(finished.error()).isEqualTo("save failed");
+        assertThat(insightJobService.stats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheirOwner() {
+        CompletableFuture<AIInsightDTO> pending = new CompletableFuture<>();
+        when(aiInsightService.generateInsight(same(user), any())).thenReturn(pending);
+        when(securityUtil.getCurrentUserId()).thenReturn(7L);
+        try {
+            InsightJobResponseDTO queued = insightJobService.enqueue(new CreateInsightRequestDTO());
+            verify(aiInsightService, timeout(5000)).generateInsight(same(user), any());
+
+            assertThat(insightJobService.getJob(queued.jobId())).isEmpty();
+            assertThat(insightJobService.whenFinished(queued.jobId())).isEmpty();
+            assertThat(insightJobService.getJob("no-such-job")).isEmpty();
+        } finally {
+            pending.complete(new AIInsightDTO());
+        }
+    }
+
+    @Test
+    void enqueue_refusesJobsOnceWorkersAndQueueAreFull() {
+        CompletableFuture<AIInsightDTO> slow = new CompletableFuture<>();
+        when(aiInsightService.generateInsight(same(user), any())).thenReturn(slow);
+        try {
+            insightJobService.enqueue(new CreateInsightRequestDTO());
+            // Wait for the single worker to pick up the first job, so the second fills the queue
+            verify(aiInsightService, timeout(5000)).generateInsight(same(user), any());
+            insightJobService.enqueue(new CreateInsightRequestDTO());
+
+            assertThatThrownBy(() -> insightJobService.enqueue(new CreateInsightRequestDTO()))
+                .isInstanceOf(TooManyRequestsException.class);
+            assertThat(insightJobService.stats().rejected()).isEqualTo(1);
+            assertThat(insightJobService.stats().retainedJobs()).isEqualTo(2);
+        } finally {
+            slow.complete(new AIInsightDTO());
+        }
+    }
+}
@@ -5,20 +5,28 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.UpdateMealR
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.MealDetailResponseDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.DailyIntakeSummaryDTO;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Nutrition.TodayMealDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.NutritionTarget;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.NutritionTargetRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserMetricsRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.SecurityUtil;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -53,6 +61,15 @@ class NutritionServiceTest {
     @Mock
     private SecurityUtil securityUtil;
 
+    @Mock
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private QuickStatsCache quickStatsCache;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
     @InjectMocks
     private NutritionService nutritionService;
 
@@ -62,7 +79,7 @@ class NutritionServiceTest {
     void setUp() {
         user = new User();
         user.setUserId(15L);
-        lenient().when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        lenient().when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
     }
 
     @Test
@@ -146,6 +163,8 @@ class NutritionServiceTest {
                 saved.getMealDescription().equals("Yoghurt bowl") &&
                 Boolean.FALSE.equals(saved.getIsAiGenerated())
         ));
+        verify(dailySummaryService).recordMeal(argThat(saved -> saved.getMealId().equals(77L)));
+        verify(quickStatsCache).invalidate(15L);
     }
 
     @Test
@@ -168,6 +187,11 @@ class NutritionServiceTest {
         assertEquals(BigDecimal.valueOf(18), response.getProteinG());
         assertEquals(Boolean.TRUE, response.getUserEdited());
         verify(mealRepository).save(argThat(saved -> saved.getProteinG().equals(BigDecimal.valueOf(18))));
+
+        ArgumentCaptor<DailySummaryService.Contribution> before = ArgumentCaptor.forClass(DailySummaryService.Contribution.class);
+        verify(dailySummaryService).replaceMeal(before.capture(), eq(meal));
+        assertThat(before.getValue().proteinG()).isEqualByComparingTo("15");
+        verify(quickStatsCache).invalidate(15L);
     }
 
     @Test
@@ -182,6 +206,7 @@ class NutritionServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> nutritionService.deleteMeal(15L, 50L));
         verify(mealRepository, never()).delete(any());
+        verifyNoInteractions(dailySummaryService, quickStatsCache, syncTombstoneRepository);
     }
 
     @Test
@@ -211,6 +236,40 @@ class NutritionServiceTest {
         nutritionService.deleteMeal(15L, 60L);
 
         verify(mealRepository).delete(meal);
+        verify(dailySummaryService).removeMeal(meal);
+        verify(quickStatsCache).invalidate(15L);
+        verify(syncTombstoneRepository).save(argThat(tombstone -> tombstone.getUserId() == 15L
+            && tombstone.getEntityType() == SyncEntityType.MEAL && tombstone.getEntityId() == 60L));
+    }
+
+    @Test
+    void getMealChanges_withoutWatermarkReturnsEveryMealAsCreated() {
+        when(mealRepository.findByUserUserId(15L)).thenReturn(List.of(
+            meal(60L, "Oats", LocalDateTime.now(), 300, 10, 50, 5),
+            meal(61L, "Salad", LocalDateTime.now(), 250, 8, 20, 10)));
+
+        EntityChanges<MealDetailResponseDTO> changes = nutritionService.getMealChanges(15L, null);
+
+        assertThat(changes.created()).hasSize(2);
+        assertThat(changes.updated()).isEmpty();
+        verify(mealRepository, never()).findByUserUserIdAndUpdatedAtAfter(any(), any());
+    }
+
+    @Test
+    void getMealPage_continuesAfterCursorAndStopsOnTheLastPage() {
+        LocalDateTime cursorTime = LocalDateTime.of(2025, 9, 2, 12, 30, 15, 123_456_000);
+        when(mealRepository.findPageAfter(15L, cursorTime, 70L, Limit.of(3)))
+            .thenReturn(List.of(meal(69L, "Older", cursorTime, 300, 10, 20, 5)));
+        when(mealRepository.findByUserUserIdAndMealTimeIsNullAndMealIdLessThanOrderByMealIdDesc(15L, Long.MAX_VALUE, Limit.of(2)))
+            .thenReturn(List.of());
+
+        PageResponse<MealDetailResponseDTO> page = nutritionService.getMealPage(15L, PageCursor.encode(cursorTime, 70L), 2);
+
+        assertThat(page.getData()).hasSize(1);
+        assertThat(page.getHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getHasPrevious()).isTrue();
+        verify(mealRepository, never()).findByUserUserIdAndMealTimeNotNullOrderByMealTimeDescMealIdDesc(any(), any());
     }
 
     private Meal meal(Long id, String name, LocalDateTime time, double calories, double protein, double carbs, double fat) {
@@ -27,6 +27,7 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,7 +54,7 @@ class PdfExportServiceTest {
         user.setUserId(1L);
         user.setUserName("alex");
         user.setEmail("alex@example.com");
-        when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
     }
 
     @Test
@@ -128,23 +129,26 @@ class PdfExportServiceTest {
             "Keep pushing!"
         );
 
-        when(dashboardService.getUserProfileForExport(1L)).thenReturn(profile);
-        when(dashboardService.getNutritionSummaryForExport(1L, dateRange)).thenReturn(nutrition);
-        when(dashboardService.getWorkoutHistoryForExport(1L, dateRange)).thenReturn(workoutHistory);
-        when(dashboardService.getProgressMetricsForExport(1L, dateRange)).thenReturn(progress);
-        when(dashboardService.getAIInsightsForExport(1L, dateRange, aiInsightService)).thenReturn(insights);
-        when(dashboardService.getAchievementsForExport(1L)).thenReturn(achievements);
+        ExportSnapshot snapshot = mock(ExportSnapshot.class);
+        when(dashboardService.loadExportSnapshot(1L, dateRange, aiInsightService)).thenReturn(snapshot);
+        when(dashboardService.getUserProfileForExport(snapshot)).thenReturn(profile);
+        when(dashboardService.getNutritionSummaryForExport(snapshot)).thenReturn(nutrition);
+        when(dashboardService.getWorkoutHistoryForExport(snapshot)).thenReturn(workoutHistory);
+        when(dashboardService.getProgressMetricsForExport(snapshot)).thenReturn(progress);
+        when(dashboardService.getAIInsightsForExport(snapshot)).thenReturn(insights);
+        when(dashboardService.getAchievementsForExport(snapshot)).thenReturn(achievements);
 
         byte[] pdfBytes = pdfExportService.generatePdfReport(dateRange);
 
         assertThat(pdfBytes).isNotNull();
         assertThat(pdfBytes.length).isGreaterThan(0);
 
-        verify(dashboardService).getUserProfileForExport(1L);
-        verify(dashboardService).getNutritionSummaryForExport(1L, dateRange);
-        verify(dashboardService).getWorkoutHistoryForExport(1L, dateRange);
-        verify(dashboardService).getProgressMetricsForExport(1L, dateRange);
-        verify(dashboardService).getAIInsightsForExport(1L, dateRange, aiInsightService);
-        verify(dashboardService).getAchievementsForExport(1L);
+        verify(dashboardService).loadExportSnapshot(1L, dateRange, aiInsightService);
+        verify(dashboardService).getUserProfileForExport(snapshot);
+        verify(dashboardService).getNutritionSummaryForExport(snapshot);
+        verify(dashboardService).getWorkoutHistoryForExport(snapshot);
+        verify(dashboardService).getProgressMetricsForExport(snapshot);
+        verify(dashboardService).getAIInsightsForExport(snapshot);
+        verify(dashboardService).getAchievementsForExport(snapshot);
     }
 }
@@ -0,0 +1,125 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.QuickStatsResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuickStatsCacheTest {
+
+    private final QuickStatsCache cache = new QuickStatsCache(100, Duration.ofMinutes(5));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_cachesPerUserAndPeriod() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, "weekly", () -> load(loads));
+        cache.get(1L, "WEEKLY", () -> load(loads));
+        cache.get(1L, "monthly", () -> load(loads));
+        cache.get(2L, "weekly", () -> load(loads));
+
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(3);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.25);
+    }
+
+    @Test
+    void bindTo_publishesHitsMissesAndSize() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, "weekly", () -> load(loads));
+        cache.get(1L, "weekly", () -> load(loads));
+
+        assertThat(registry.get("cache.gets").tags("cache", "quick_stats", "result", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "quick_stats", "result", "miss").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "quick_stats").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_dropsAllPeriodsForOnlyThatUser() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, "weekly", () -> load(loads));
+        cache.get(1L, "monthly", () -> load(loads));
+        cache.get(2L, "weekly", () -> load(loads));
+
+        cache.invalidate(1L);
+
+        cache.get(1L, "weekly", () -> load(loads));
+        cache.get(1L, "monthly", () -> load(loads));
+        cache.get(2L, "weekly", () -> load(loads));
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void invalidate_insideTransactionWaitsForCommit() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, "weekly", () -> load(loads));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L);
+
+        // Still cached until the writer commits
+        cache.get(1L, "weekly", () -> load(loads));
+        assertThat(loads.get()).isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        cache.get(1L, "weekly", () -> load(loads));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_valueComputedDuringInvalidationIsNotServed() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, "weekly", () -> {
+            // A write for the same user commits while these stats are being computed
+            cache.invalidate(1L);
+            return load(loads);
+        });
+        cache.get(1L, "weekly", () -> load(loads));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void load_partialResultIsServedButNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        QuickStatsResponseDTO partial = cache.load(1L, "weekly",
+            () -> new QuickStatsCache.Loaded(load(loads), false));
+        QuickStatsResponseDTO next = cache.load(1L, "weekly",
+            () -> QuickStatsCache.Loaded.complete(load(loads)));
+        QuickStatsResponseDTO cached = cache.load(1L, "weekly",
+            () -> QuickStatsCache.Loaded.complete(load(loads)));
+
+        assertThat(partial).isNotNull();
+        assertThat(cached).isSameAs(next);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private QuickStatsResponseDTO load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new QuickStatsResponseDTO();
+    }
+}
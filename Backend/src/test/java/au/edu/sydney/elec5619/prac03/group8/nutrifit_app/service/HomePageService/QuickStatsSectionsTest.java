@@ -0,0 +1,171 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuickStatsSectionsTest {
+
+    private QuickStatsSections sections;
+
+    @AfterEach
+    void shutdown() {
+        if (sections != null) {
+            sections.shutdown();
+        }
+    }
+
+    @Test
+    void sequential_runsSectionsInlineAndRecordsTimings() {
+        sections = new QuickStatsSections(false, 1, 1, Duration.ofSeconds(2));
+        QuickStatsSections.Batch batch = sections.begin();
+
+        var first = batch.fork("first", () -> Thread.currentThread().getName(), () -> "fallback");
+        var second = batch.fork("second", () -> 42, () -> 0);
+
+        assertThat(first.join()).isEqualTo(Thread.currentThread().getName());
+        assertThat(second.join()).isEqualTo(42);
+        assertThat(batch.isComplete()).isTrue();
+        assertThat(sections.stats()).containsOnlyKeys("first", "second");
+        assertThat(sections.stats().get("second").completed()).isEqualTo(1);
+    }
+
+    @Test
+    void sequential_failingSectionFallsBack() {
+        sections = new QuickStatsSections(false, 1, 1, Duration.ofSeconds(2));
+        QuickStatsSections.Batch batch = sections.begin();
+
+        var section = batch.fork("broken", () -> { throw new IllegalStateException("db down"); }, () -> "fallback");
+
+        assertThat(section.join()).isEqualTo("fallback");
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(sections.stats().get("broken").failures()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrent_runsSectionsInParallel() throws InterruptedException {
+        sections = new QuickStatsSections(true, 2, 4, Duration.ofSeconds(5));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        QuickStatsSections.Batch batch = sections.begin();
+
+        // Each section only finishes once the other has started, so this deadlocks unless they overlap
+        var first = batch.fork("first", () -> awaitBoth(bothStarted), () -> false);
+        var second = batch.fork("second", () -> awaitBoth(bothStarted), () -> false);
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isTrue();
+        assertThat(batch.isComplete()).isTrue();
+    }
+
+    @Test
+    void concurrent_sectionMissingDeadlineFallsBackWithoutDelayingOthers() {
+        sections = new QuickStatsSections(true, 2, 4, Duration.ofMillis(200));
+        CountDownLatch never = new CountDownLatch(1);
+        QuickStatsSections.Batch batch = sections.begin();
+
+        var slow = batch.fork("slow", () -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }, () -> "fallback");
+        var fast = batch.fork("fast", () -> "fast", () -> "fallback");
+
+        long started = System.nanoTime();
+        assertThat(fast.join()).isEqualTo("fast");
+        assertThat(slow.join()).isEqualTo("fallback");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(sections.stats().get("slow").timeouts()).isEqualTo(1);
+        assertThat(sections.stats().get("fast").timeouts()).isZero();
+    }
+
+    @Test
+    void concurrent_failingSectionFallsBack() {
+        sections = new QuickStatsSections(true, 1, 1, Duration.ofSeconds(2));
+        QuickStatsSections.Batch batch = sections.begin();
+
+        var section = batch.fork("broken", () -> { throw new IllegalStateException("db down"); }, () -> "fallback");
+
+        assertThat(section.join()).isEqualTo("fallback");
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(sections.stats().get("broken").failures()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrent_sectionRejectedByFullPoolFallsBack() {
+        sections = new QuickStatsSections(true, 1, 1, Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        QuickStatsSections.Batch batch = sections.begin();
+
+        // One running and one queued section fill the pool, so the third is rejected immediately
+        batch.fork("running", () -> awaitQuietly(release), () -> false);
+        batch.fork("queued", () -> true, () -> false);
+        var rejected = batch.fork("rejected", () -> true, () -> false);
+
+        assertThat(rejected.join()).isFalse();
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(sections.stats().get("rejected").rejections()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void stats_reportsPercentilesAsUpperBounds() {
+        sections = new QuickStatsSections(false, 1, 1, Duration.ofSeconds(2));
+        for (int i = 0; i < 100; i++) {
+            sections.begin().fork("section", () -> "ok", () -> "fallback").join();
+        }
+
+        QuickStatsSections.SectionStats stats = sections.stats().get("section");
+        assertThat(stats.completed()).isEqualTo(100);
+        assertThat(stats.p50()).isPositive();
+        assertThat(stats.p99()).isGreaterThanOrEqualTo(stats.p50());
+    }
+
+    @Test
+    void bindTo_publishesATimerWithPercentilesAndFallbacksPerSection() {
+        sections = new QuickStatsSections(false, 1, 1, Duration.ofSeconds(2));
+        sections.begin().fork("before", () -> "ok", () -> "fallback").join();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        sections.bindTo(registry);
+
+        QuickStatsSections.Batch batch = sections.begin();
+        batch.fork("before", () -> "ok", () -> "fallback").join();
+        batch.fork("after", () -> "ok", () -> "fallback").join();
+        batch.fork("broken", () -> {
+            throw new IllegalStateException("boom");
+        }, () -> "fallback").join();
+
+        Timer after = registry.get("quick_stats.section").tag("section", "after").timer();
+        assertThat(after.count()).isEqualTo(1);
+        assertThat(after.takeSnapshot().percentileValues()).extracting(value -> value.percentile())
+            .containsExactly(0.5, 0.99);
+        assertThat(registry.get("quick_stats.section").tag("section", "before").timer().count()).isEqualTo(1);
+        assertThat(registry.get("quick_stats.section.fallbacks").tags("section", "broken", "reason", "failure")
+            .functionCounter().count()).isEqualTo(1);
+    }
+
+    private static boolean awaitBoth(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        return awaitQuietly(bothStarted);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
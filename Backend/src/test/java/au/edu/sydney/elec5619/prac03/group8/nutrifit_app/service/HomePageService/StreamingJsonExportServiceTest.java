@@ -0,0 +1,176 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.MacrosDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.NutritionSummaryExportDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Dashboard.WorkoutHistoryExportDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.MealRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingJsonExportServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2021, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 12, 31);
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private WorkoutRepository workoutRepository;
+
+    @Mock
+    private AIInsightService aiInsightService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private StreamingJsonExportService service;
+    private ExportSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        service = new StreamingJsonExportService(dashboardService, mealRepository, workoutRepository,
+            objectMapper, new TransactionTemplate(transactionManager));
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        snapshot = mock(ExportSnapshot.class);
+        when(snapshot.getStartDate()).thenReturn(START);
+        when(snapshot.getEndDate()).thenReturn(END);
+        when(dashboardService.loadExportSnapshot(1L, "2021-01-01,2023-12-31", aiInsightService)).thenReturn(snapshot);
+        when(dashboardService.getNutritionSummaryForExport(snapshot)).thenReturn(new NutritionSummaryExportDTO(
+            "1 Jan 2021 - 31 Dec 2023", 2000.0, 2000.0, new MacrosDTO(100.0, 200.0, 70.0),
+            new MacrosDTO(100.0, 200.0, 70.0), 1, 1.0, Collections.emptyList(), 100.0, "on_track"));
+        when(dashboardService.getWorkoutHistoryForExport(snapshot)).thenReturn(new WorkoutHistoryExportDTO(
+            "1 Jan 2021 - 31 Dec 2023", 1, 1, 300.0, 45, 45.0, 300.0, Map.of("cardio", 1),
+            Collections.emptyList(), "consistent", 0.1));
+        when(dashboardService.getAIInsightsForExport(snapshot)).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void writeExport_keepsSectionsAndStreamsRowsWithMetadataLast() throws IOException {
+        MealRepository.MealExportRow breakfast = meal(11L, START.atTime(8, 0), "Oats", "350.00");
+        MealRepository.MealExportRow dinner = meal(12L, END.atTime(19, 30), "Salmon", "620.00");
+        WorkoutRepository.WorkoutExportRow run = workout(21L, END, "cardio", 45, "300.00");
+
+        when(mealRepository.streamForExport(1L, START.atStartOfDay(), END.atTime(23, 59, 59)))
+            .thenReturn(Stream.of(breakfast, dinner));
+        when(workoutRepository.streamForExport(1L, START, END)).thenReturn(Stream.of(run));
+        when(dashboardService.calculateTotalDataPoints(anyMap())).thenReturn(42);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeExport(1L, "2021-01-01,2023-12-31", null, aiInsightService, out);
+
+        JsonNode document = objectMapper.readTree(out.toByteArray());
+        List<String> sections = new ArrayList<>();
+        document.fieldNames().forEachRemaining(sections::add);
+        assertThat(sections).containsExactly("userProfile", "nutritionSummary", "exerciseHistory",
+            "progressMetrics", "aiInsights", "achievements", "metadata");
+
+        JsonNode nutrition = document.get("nutritionSummary");
+        assertThat(nutrition.get("avgDailyCalories").asDouble()).isEqualTo(2000.0);
+        assertThat(nutrition.get("meals")).hasSize(2);
+        assertThat(nutrition.get("meals").get(0).get("mealId").asLong()).isEqualTo(11L);
+        assertThat(nutrition.get("meals").get(1).get("mealDescription").asText()).isEqualTo("Salmon");
+
+        JsonNode exercise = document.get("exerciseHistory");
+        assertThat(exercise.get("totalWorkouts").asInt()).isEqualTo(1);
+        assertThat(exercise.get("workouts")).hasSize(1);
+        assertThat(exercise.get("workouts").get(0).get("workoutDate").asText()).isEqualTo("2023-12-31");
+
+        JsonNode metadata = document.get("metadata");
+        assertThat(metadata.get("exportFormat").asText()).isEqualTo("json");
+        assertThat(metadata.get("dateRange").asText()).isEqualTo("2021-01-01,2023-12-31");
+        assertThat(metadata.get("totalDataPoints").asInt()).isEqualTo(42);
+        assertThat(metadata.get("mealCount").asLong()).isEqualTo(2);
+        assertThat(metadata.get("workoutCount").asLong()).isEqualTo(1);
+        assertThat(metadata.get("streamed").asBoolean()).isTrue();
+
+        // Rows are read inside read-only transactions
+        verify(transactionManager, times(2))
+            .getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void writeExport_closesRowStreamWhenARowFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+        MealRepository.MealExportRow broken = mock(MealRepository.MealExportRow.class);
+        when(broken.getMealTime()).thenThrow(new IllegalStateException("connection reset"));
+        when(mealRepository.streamForExport(1L, START.atStartOfDay(), END.atTime(23, 59, 59)))
+            .thenReturn(Stream.of(broken).onClose(() -> closed.set(true)));
+
+        assertThatThrownBy(() -> service.writeExport(1L, "2021-01-01,2023-12-31", "json", aiInsightService,
+                new ByteArrayOutputStream()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("connection reset");
+        assertThat(closed).isTrue();
+        verify(transactionManager).rollback(any());
+    }
+
+    private static MealRepository.MealExportRow meal(Long id, LocalDateTime time, String description, String calories) {
+        MealRepository.MealExportRow row = mock(MealRepository.MealExportRow.class);
+        when(row.getMealId()).thenReturn(id);
+        when(row.getMealTime()).thenReturn(time);
+        when(row.getRole()).thenReturn("user");
+        when(row.getMealDescription()).thenReturn(description);
+        when(row.getTotalCalories()).thenReturn(new BigDecimal(calories));
+        when(row.getProteinG()).thenReturn(new BigDecimal("20.00"));
+        when(row.getCarbsG()).thenReturn(new BigDecimal("40.00"));
+        when(row.getFatG()).thenReturn(new BigDecimal("10.00"));
+        when(row.getAiGenerated()).thenReturn(false);
+        return row;
+    }
+
+    private static WorkoutRepository.WorkoutExportRow workout(Long id, LocalDate date, String type, int minutes, String burned) {
+        WorkoutRepository.WorkoutExportRow row = mock(WorkoutRepository.WorkoutExportRow.class);
+        when(row.getWorkoutId()).thenReturn(id);
+        when(row.getWorkoutDate()).thenReturn(date);
+        when(row.getWorkoutType()).thenReturn(type);
+        when(row.getDurationMinutes()).thenReturn(minutes);
+        when(row.getCaloriesBurned()).thenReturn(new BigDecimal(burned));
+        when(row.getNotes()).thenReturn(null);
+        return row;
+    }
+}
@@ -3,6 +3,7 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageServic
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.Profile.GetMetricsHistoryRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.Profile.UserMetricsRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Profile.UserMetricsResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.UserMetrics;
@@ -16,6 +17,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 
 import java.math.BigDecimal;
@@ -43,6 +45,9 @@ class UserMetricServiceTest {
     @Mock
     private SecurityUtil securityUtil;
 
+    @Mock
+    private QuickStatsCache quickStatsCache;
+
     @InjectMocks
     private UserMetricService userMetricService;
 
@@ -53,6 +58,7 @@ class UserMetricServiceTest {
         user = new User();
         user.setUserId(4L);
         lenient().when(securityUtil.getCurrentUserOrThrow()).thenReturn(user);
+        lenient().when(securityUtil.getCurrentUserId()).thenReturn(user.getUserId());
     }
 
     @Test
@@ -107,6 +113,7 @@ class UserMetricServiceTest {
         assertThat(persisted.getBmr()).isEqualTo(new BigDecimal("1658.75"));
         assertEquals("MALE", persisted.getGender());
         assertEquals(user.getUserId(), persisted.getUser().getUserId());
+        verify(quickStatsCache).invalidate(4L);
     }
 
     @Test
@@ -123,6 +130,7 @@ class UserMetricServiceTest {
             () -> userMetricService.updateUserMetrics(30L, new UserMetricsRequestDto()));
 
         verify(userMetricsRepository, never()).save(any());
+        verify(quickStatsCache, never()).invalidate(any());
     }
 
     @Test
@@ -144,6 +152,49 @@ class UserMetricServiceTest {
         assertEquals(Long.valueOf(1L), response.getTotalItems());
     }
 
+    @Test
+    void getUserMetricsHistory_offsetPageOffersCursorAndCursorRequestSeeksPastIt() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 2, 7, 15);
+        UserMetrics newest = metricsEntry(42L, createdAt.plusDays(1));
+        UserMetrics last = metricsEntry(41L, createdAt);
+        when(userMetricsRepository.findByUserUserIdAndCreatedAtBetween(
+            eq(4L), any(), any(), any(org.springframework.data.domain.Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(newest, last),
+                org.springframework.data.domain.PageRequest.of(0, 2), 5));
+
+        GetMetricsHistoryRequestDto request = new GetMetricsHistoryRequestDto();
+        request.setSize(2);
+        PageResponse<UserMetricsResponseDto> first = userMetricService.getUserMetricsHistory(request);
+
+        assertThat(first.getNextCursor()).isNotNull();
+
+        UserMetrics older = metricsEntry(40L, createdAt.minusDays(1));
+        when(userMetricsRepository.findPageAfter(eq(4L), any(), any(), eq(createdAt), eq(41L), eq(Limit.of(3))))
+            .thenReturn(List.of(older));
+
+        request.setCursor(first.getNextCursor());
+        request.setPage(7);
+        PageResponse<UserMetricsResponseDto> second = userMetricService.getUserMetricsHistory(request);
+
+        assertThat(second.getData()).extracting(UserMetricsResponseDto::getMetricId).containsExactly(40L);
+        assertThat(second.getHasNext()).isFalse();
+        assertThat(second.getCurrentPage()).isNull();
+    }
+
+    @Test
+    void getUserMetricsHistory_customSortHasNoCursor() {
+        when(userMetricsRepository.findByUserUserIdAndCreatedAtBetween(
+            eq(4L), any(), any(), any(org.springframework.data.domain.Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(metricsEntry(41L, LocalDateTime.now())),
+                org.springframework.data.domain.PageRequest.of(0, 1), 5));
+
+        GetMetricsHistoryRequestDto request = new GetMetricsHistoryRequestDto();
+        request.setSize(1);
+        request.setSortDirection("ASC");
+
+        assertThat(userMetricService.getUserMetricsHistory(request).getNextCursor()).isNull();
+    }
+
     @Test
     void createUserMetrics_throwsWhenHeightInvalid() {
         UserMetricsRequestDto request = UserMetricsRequestDto.builder()
@@ -164,4 +215,12 @@ class UserMetricServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> userMetricService.getUserMetricsHistory(request));
     }
+
+    private UserMetrics metricsEntry(Long id, LocalDateTime createdAt) {
+        UserMetrics entry = new UserMetrics();
+        entry.setMetricId(id);
+        entry.setUser(user);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
 }
@@ -7,6 +7,7 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserProfileR
 import java.time.LocalDate;
 import java.util.Optional;
 
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.profile.UserProfileService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,9 @@ class UserUserMetricServiceTest {
     @Mock
     private UserProfileRepository userProfileRepository;
 
+    @Mock
+    private QuickStatsCache quickStatsCache;
+
     @InjectMocks
     private UserProfileService userProfileService;
 
@@ -52,6 +56,7 @@ class UserUserMetricServiceTest {
         ArgumentCaptor<UserProfile> captor = ArgumentCaptor.forClass(UserProfile.class);
         verify(userProfileRepository).save(captor.capture());
         assertThat(captor.getValue().getUser()).isSameAs(user);
+        verify(quickStatsCache).invalidate(88L);
     }
 
     @Test
@@ -3,10 +3,18 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.WorkoutDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Request.WorkoutRequestDto;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.WorkoutResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageCursor;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.common.PageResponse;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.WorkoutRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.QuickStatsCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary.DailySummaryService;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -19,20 +27,25 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,11 +60,21 @@ class WorkoutServiceTest {
     @Mock
     private CalorieEstimationService calorieEstimationService;
 
+    @Mock
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private QuickStatsCache quickStatsCache;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
     private WorkoutService workoutService;
 
     @BeforeEach
     void setUp() {
-        workoutService = new WorkoutService(workoutRepository, userRepository, calorieEstimationService);
+        workoutService = new WorkoutService(workoutRepository, userRepository, calorieEstimationService,
+            dailySummaryService, quickStatsCache, syncTombstoneRepository);
     }
 
     @Test
@@ -88,6 +111,8 @@ class WorkoutServiceTest {
         Workout saved = captor.getValue();
         assertThat(saved.getUser()).isSameAs(user);
         assertThat(saved.getCaloriesBurned()).isEqualByComparingTo("320");
+        verify(dailySummaryService).recordWorkout(saved);
+        verify(quickStatsCache).invalidate(user.getUserId());
     }
 
     @Test
@@ -198,6 +223,31 @@ class WorkoutServiceTest {
         assertThat(result.status()).isEqualTo(HttpStatus.OK);
         assertThat(workout.getCaloriesBurned()).isEqualByComparingTo("500");
         verify(calorieEstimationService, never()).estimateCalories(anyString(), anyInt());
+
+        ArgumentCaptor<DailySummaryService.Contribution> before = ArgumentCaptor.forClass(DailySummaryService.Contribution.class);
+        verify(dailySummaryService).replaceWorkout(before.capture(), eq(workout));
+        assertThat(before.getValue().caloriesBurned()).isEqualByComparingTo("10");
+        assertThat(before.getValue().workoutMinutes()).isEqualTo(30);
+        // Previous and new owner are the same user here
+        verify(quickStatsCache, times(2)).invalidate(5L);
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void updateWorkout_leavesTombstoneForPreviousOwnerWhenOwnerChanges() {
+        Workout workout = buildWorkout(10L, LocalDate.now(), "Run", BigDecimal.TEN);
+        when(workoutRepository.findById(10L)).thenReturn(Optional.of(workout));
+        when(userRepository.findById(6L)).thenReturn(Optional.of(buildUser(6L)));
+        when(workoutRepository.save(workout)).thenReturn(workout);
+
+        workoutService.updateWorkout(10L, new WorkoutRequestDto(6L, LocalDate.now(), "Run", 30,
+            BigDecimal.TEN, null));
+
+        ArgumentCaptor<SyncTombstone> tombstone = ArgumentCaptor.forClass(SyncTombstone.class);
+        verify(syncTombstoneRepository).save(tombstone.capture());
+        assertThat(tombstone.getValue().getUserId()).isEqualTo(5L);
+        assertThat(tombstone.getValue().getEntityType()).isEqualTo(SyncEntityType.WORKOUT);
+        assertThat(tombstone.getValue().getEntityId()).isEqualTo(10L);
     }
 
     @Test
@@ -253,6 +303,10 @@ class WorkoutServiceTest {
 
         assertThat(result.status()).isEqualTo(HttpStatus.OK);
         verify(workoutRepository).delete(workout);
+        verify(dailySummaryService).removeWorkout(workout);
+        verify(quickStatsCache).invalidate(workout.getUser().getUserId());
+        verify(syncTombstoneRepository).save(argThat(tombstone -> tombstone.getEntityId() == 10L
+            && tombstone.getEntityType() == SyncEntityType.WORKOUT));
     }
 
     @Test
@@ -265,6 +319,73 @@ class WorkoutServiceTest {
         WorkoutService.WorkoutOperationResult result = workoutService.deleteWorkout(10L);
 
         assertThat(result.status()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        verify(dailySummaryService, never()).removeWorkout(any());
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void getWorkoutChanges_splitsCreatedFromUpdatedAtTheWatermark() {
+        LocalDateTime since = LocalDateTime.of(2025, 9, 2, 12, 0);
+        Workout edited = buildWorkout(7L, LocalDate.of(2025, 8, 30), "Run", BigDecimal.TEN);
+        edited.setCreatedAt(since.minusDays(3));
+        Workout added = buildWorkout(8L, LocalDate.of(2025, 9, 2), "Swim", BigDecimal.TEN);
+        added.setCreatedAt(since.plusMinutes(5));
+        when(workoutRepository.findByUserUserIdAndUpdatedAtAfter(5L, since)).thenReturn(List.of(edited, added));
+
+        EntityChanges<WorkoutDto> changes = workoutService.getWorkoutChanges(5L, since);
+
+        assertThat(changes.created()).extracting(WorkoutDto::getWorkoutId).containsExactly(8L);
+        assertThat(changes.updated()).extracting(WorkoutDto::getWorkoutId).containsExactly(7L);
+        assertThat(changes.deleted()).isEmpty();
+    }
+
+
+    @Test
+    void getWorkoutPage_returnsLimitRowsAndCursorAfterTheLast() {
+        when(userRepository.existsById(5L)).thenReturn(true);
+        when(workoutRepository.findByUserUserIdAndWorkoutDateNotNullOrderByWorkoutDateDescWorkoutIdDesc(5L, Limit.of(3)))
+            .thenReturn(List.of(
+                buildWorkout(9L, LocalDate.of(2025, 9, 3), "Run", BigDecimal.TEN),
+                buildWorkout(8L, LocalDate.of(2025, 9, 2), "Swim", BigDecimal.TEN),
+                buildWorkout(7L, LocalDate.of(2025, 9, 2), "Ride", BigDecimal.TEN)));
+
+        PageResponse<WorkoutDto> page = workoutService.getWorkoutPage(5L, null, 2);
+
+        assertThat(page.getData()).extracting(WorkoutDto::getWorkoutId).containsExactly(9L, 8L);
+        assertThat(page.getHasNext()).isTrue();
+        assertThat(page.getHasPrevious()).isFalse();
+        assertThat(PageCursor.decode(page.getNextCursor())).isEqualTo(new PageCursor("2025-09-02", 8L));
+        assertThat(page.getTotalItems()).isNull();
+    }
+
+    @Test
+    void getWorkoutPage_seeksPastCursorThenFallsThroughToUndatedWorkouts() {
+        when(userRepository.existsById(5L)).thenReturn(true);
+        when(workoutRepository.findPageAfter(5L, LocalDate.of(2025, 9, 2), 8L, Limit.of(3)))
+            .thenReturn(List.of(buildWorkout(7L, LocalDate.of(2025, 9, 2), "Ride", BigDecimal.TEN)));
+        when(workoutRepository.findByUserUserIdAndWorkoutDateIsNullAndWorkoutIdLessThanOrderByWorkoutIdDesc(
+            5L, Long.MAX_VALUE, Limit.of(2)))
+            .thenReturn(List.of(buildWorkout(12L, null, "Yoga", BigDecimal.ONE),
+                buildWorkout(4L, null, "Yoga", BigDecimal.ONE)));
+
+        PageResponse<WorkoutDto> page = workoutService.getWorkoutPage(5L, PageCursor.encode(LocalDate.of(2025, 9, 2), 8L), 2);
+
+        assertThat(page.getData()).extracting(WorkoutDto::getWorkoutId).containsExactly(7L, 12L);
+        assertThat(page.getHasPrevious()).isTrue();
+        // The next page continues among the undated workouts
+        assertThat(PageCursor.decode(page.getNextCursor())).isEqualTo(new PageCursor(null, 12L));
+    }
+
+    @Test
+    void getWorkoutPage_rejectsMalformedCursorAndOversizedLimit() {
+        when(userRepository.existsById(5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> workoutService.getWorkoutPage(5L, "not a cursor!", 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid page cursor");
+        assertThatThrownBy(() -> workoutService.getWorkoutPage(5L, null, 500))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(workoutRepository);
     }
 
     private User buildUser(long id) {
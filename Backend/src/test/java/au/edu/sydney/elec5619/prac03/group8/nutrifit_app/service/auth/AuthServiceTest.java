@@ -8,7 +8,12 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.VerificationToken;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.VerificationTokenRepository;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.exception.TooManyRequestsException;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.LoginThrottle;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.PasswordHasher;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailOutbox;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,7 +28,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -52,10 +56,16 @@ class AuthServiceTest {
     private VerificationTokenRepository verificationTokenRepository;
 
     @Mock
-    private BCryptPasswordEncoder encoder;
+    private PasswordHasher encoder;
 
     @Mock
-    private EmailService emailService;
+    private EmailOutbox emailOutbox;
+
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private LoginThrottle loginThrottle;
 
     @InjectMocks
     private AuthService authService;
@@ -70,12 +80,12 @@ class AuthServiceTest {
         RegisterRequestDto request = new RegisterRequestDto("taken@example.com", "taken", "password123");
         when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
 
-        AuthResponseDto response = authService.register(request);
+        AuthResponseDto response = authService.register(request, "10.0.0.1");
 
         assertThat(response.isSuccess()).isFalse();
         assertThat(response.getMessage()).isEqualTo("Email already exists");
         verify(userRepository, never()).save(any());
-        verify(emailService, never()).sendVerificationEmail(any(), any(), any());
+        verify(emailOutbox, never()).enqueueVerificationEmail(any(), any());
     }
 
     @Test
@@ -89,9 +99,9 @@ class AuthServiceTest {
             saved.setUserId(42L);
             return saved;
         });
-        when(jwtService.generateToken(any())).thenReturn("jwt-token");
+        when(jwtService.generateToken(any(), any())).thenReturn("jwt-token");
 
-        AuthResponseDto response = authService.register(request);
+        AuthResponseDto response = authService.register(request, "10.0.0.1");
 
         assertThat(response.isSuccess()).isTrue();
         assertThat(response.getToken()).isEqualTo("jwt-token");
@@ -107,23 +117,20 @@ class AuthServiceTest {
         assertThat(tokenCaptor.getValue().getUser()).isSameAs(userCaptor.getValue());
         assertThat(tokenCaptor.getValue().getToken()).isNotBlank();
 
-        verify(emailService).sendVerificationEmail("test@example.com", "tester", tokenCaptor.getValue().getToken());
+        verify(emailOutbox).enqueueVerificationEmail(userCaptor.getValue(), tokenCaptor.getValue().getToken());
     }
 
     @Test
-    void register_swallowsEmailFailureButStillSucceeds() {
+    void register_failsWhenVerificationEmailCannotBeQueued() {
         RegisterRequestDto request = new RegisterRequestDto("fail@example.com", "tester", "password123");
         when(userRepository.existsByEmail(request.getEmail())).thenReturn(false);
         when(encoder.encode(request.getPassword())).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(jwtService.generateToken(any())).thenReturn("jwt-token");
-        doThrow(new RuntimeException("mail down"))
-            .when(emailService).sendVerificationEmail(any(), any(), any());
+        doThrow(new RuntimeException("outbox insert failed"))
+            .when(emailOutbox).enqueueVerificationEmail(any(), any());
 
-        AuthResponseDto response = authService.register(request);
-
-        assertThat(response.isSuccess()).isTrue();
-        assertThat(response.getToken()).isEqualTo("jwt-token");
+        // The user, token and email commit together or not at all
+        assertThrows(RuntimeException.class, () -> authService.register(request, "10.0.0.1"));
     }
 
     @Test
@@ -142,13 +149,15 @@ class AuthServiceTest {
         Authentication authentication = mock(Authentication.class);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(jwtService.generateToken(user.getUuid().toString())).thenReturn("jwt-token");
+        when(jwtService.generateToken(user.getUuid().toString(), user.getUserId())).thenReturn("jwt-token");
 
-        AuthResponseDto response = authService.login(request);
+        AuthResponseDto response = authService.login(request, "10.0.0.1");
 
         assertThat(response.isSuccess()).isTrue();
         assertThat(response.getToken()).isEqualTo("jwt-token");
         assertThat(response.getUser().isEmailVerified()).isTrue();
+        verify(loginThrottle).acquire("user@example.com", "10.0.0.1");
+        verify(loginThrottle).recordSuccess("user@example.com");
     }
 
     @Test
@@ -163,10 +172,25 @@ class AuthServiceTest {
         when(authManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
             .thenThrow(new BadCredentialsException("bad"));
 
-        AuthResponseDto response = authService.login(request);
+        AuthResponseDto response = authService.login(request, "10.0.0.1");
 
         assertThat(response.isSuccess()).isFalse();
         assertThat(response.getMessage()).isEqualTo("Invalid email or password");
+        verify(loginThrottle).recordFailure("user@example.com");
+    }
+
+    @Test
+    void login_throttledAttemptNeverReachesPasswordCheck() {
+        LoginRequestDto request = new LoginRequestDto();
+        request.setEmail("user@example.com");
+        request.setPassword("guess");
+
+        doThrow(new TooManyRequestsException("Too many failed attempts", Duration.ofMinutes(5)))
+            .when(loginThrottle).acquire("user@example.com", "10.0.0.1");
+
+        assertThrows(TooManyRequestsException.class, () -> authService.login(request, "10.0.0.1"));
+        verify(userRepository, never()).findByEmail(any());
+        verify(authManager, never()).authenticate(any());
     }
 
     @Test
@@ -183,7 +207,7 @@ class AuthServiceTest {
         when(authentication.isAuthenticated()).thenReturn(false);
         when(authManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
 
-        AuthResponseDto response = authService.login(request);
+        AuthResponseDto response = authService.login(request, "10.0.0.1");
 
         assertThat(response.isSuccess()).isFalse();
         assertThat(response.getMessage()).isEqualTo("Authentication failed");
@@ -196,12 +220,14 @@ class AuthServiceTest {
 
         when(userRepository.findByEmail("absent@example.com")).thenReturn(Optional.empty());
 
-        assertThrows(BadCredentialsException.class, () -> authService.login(request));
+        assertThrows(BadCredentialsException.class, () -> authService.login(request, "10.0.0.1"));
+        verify(loginThrottle).recordFailure("absent@example.com");
     }
 
     @Test
     void verifyEmail_marksUserVerifiedWhenTokenValid() {
         User user = new User();
+        user.setUuid(UUID.randomUUID());
         user.setEmail("user@example.com");
 
         VerificationToken token = VerificationToken.builder()
@@ -220,6 +246,7 @@ class AuthServiceTest {
         assertThat(response.getMessage()).isEqualTo("Email verified successfully");
         assertThat(user.isEmailVerified()).isTrue();
         assertThat(token.isVerified()).isTrue();
+        verify(userPrincipalCache).invalidate(user.getUuid());
     }
 
     @Test
@@ -310,7 +337,7 @@ class AuthServiceTest {
     }
 
     @Test
-    void resendVerificationEmail_deletesOldTokenAndSendsNewEmail() {
+    void resendVerificationEmail_deletesOldTokenAndQueuesNewEmail() {
         User user = new User();
         user.setEmail("user@example.com");
         user.setUserName("user");
@@ -322,7 +349,6 @@ class AuthServiceTest {
             .expiresAt(Instant.now().plusSeconds(10))
             .build();
         when(verificationTokenRepository.findByUserAndVerifiedAtIsNull(user)).thenReturn(Optional.of(existing));
-        when(emailService.sendVerificationEmail(eq("user@example.com"), eq("user"), any())).thenReturn(true);
 
         EmailVerificationResponseDto response = authService.resendVerificationEmail("user@example.com");
 
@@ -331,21 +357,7 @@ class AuthServiceTest {
 
         verify(verificationTokenRepository).delete(existing);
         verify(verificationTokenRepository).save(any(VerificationToken.class));
-        verify(emailService).sendVerificationEmail(eq("user@example.com"), eq("user"), any());
-    }
-
-    @Test
-    void resendVerificationEmail_returnsFailureWhenEmailFails() {
-        User user = new User();
-        user.setEmail("user@example.com");
-        user.setUserName("user");
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(emailService.sendVerificationEmail(any(), any(), any())).thenReturn(false);
-
-        EmailVerificationResponseDto response = authService.resendVerificationEmail("user@example.com");
-
-        assertThat(response.isSuccess()).isFalse();
-        assertThat(response.getMessage()).isEqualTo("Failed to send verification email. Please try again later.");
+        verify(emailOutbox).enqueueVerificationEmail(eq(user), any());
     }
 
     @Test
@@ -354,8 +366,8 @@ class AuthServiceTest {
         user.setEmail("user@example.com");
         user.setUserName("user");
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        doThrow(new RuntimeException("smtp down"))
-            .when(emailService).sendVerificationEmail(any(), any(), any());
+        doThrow(new RuntimeException("outbox insert failed"))
+            .when(emailOutbox).enqueueVerificationEmail(any(), any());
 
         EmailVerificationResponseDto response = authService.resendVerificationEmail("user@example.com");
 
@@ -0,0 +1,138 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredTokenPurgeJobTest {
+
+    private static final Instant NOW = Instant.parse("2025-10-01T00:00:00Z");
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement lockStatement;
+    @Mock
+    private ResultSet lockResult;
+    @Mock
+    private PreparedStatement unlockStatement;
+    @Mock
+    private PreparedStatement verificationDelete;
+    @Mock
+    private PreparedStatement resetDelete;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void purge_deletesInBatchesUntilAShortBatchAndReleasesTheLock() throws SQLException {
+        lockAcquired(true);
+        when(connection.prepareStatement("SELECT pg_advisory_unlock(?)")).thenReturn(unlockStatement);
+        when(connection.prepareStatement(startsWith("DELETE FROM verification_tokens"))).thenReturn(verificationDelete);
+        when(connection.prepareStatement(startsWith("DELETE FROM password_reset_tokens"))).thenReturn(resetDelete);
+        when(verificationDelete.executeUpdate()).thenReturn(100, 100, 7);
+        when(resetDelete.executeUpdate()).thenReturn(0);
+
+        ExpiredTokenPurgeJob job = job(100, 10);
+        Map<String, Integer> purged = job.purge();
+
+        assertThat(purged).containsExactly(Map.entry("verification_tokens", 207), Map.entry("password_reset_tokens", 0));
+        verify(verificationDelete).setTimestamp(1, Timestamp.from(NOW));
+        verify(verificationDelete).setInt(2, 100);
+        verify(verificationDelete, times(3)).executeUpdate();
+        verify(unlockStatement).setLong(1, ExpiredTokenPurgeJob.ADVISORY_LOCK_KEY);
+        verify(unlockStatement).execute();
+        verify(connection).close();
+
+        ExpiredTokenPurgeJob.Stats stats = job.stats();
+        assertThat(stats.runs()).isEqualTo(1);
+        assertThat(stats.lastRunPurged()).isEqualTo(207);
+        assertThat(stats.purgedByTable()).containsEntry("verification_tokens", 207L);
+    }
+
+    @Test
+    void purge_stopsAfterMaxBatchesPerTable() throws SQLException {
+        lockAcquired(true);
+        when(connection.prepareStatement("SELECT pg_advisory_unlock(?)")).thenReturn(unlockStatement);
+        when(connection.prepareStatement(startsWith("DELETE FROM verification_tokens"))).thenReturn(verificationDelete);
+        when(connection.prepareStatement(startsWith("DELETE FROM password_reset_tokens"))).thenReturn(resetDelete);
+        when(verificationDelete.executeUpdate()).thenReturn(50);
+        when(resetDelete.executeUpdate()).thenReturn(50);
+
+        Map<String, Integer> purged = job(50, 3).purge();
+
+        assertThat(purged).containsEntry("verification_tokens", 150).containsEntry("password_reset_tokens", 150);
+        verify(verificationDelete, times(3)).executeUpdate();
+        verify(resetDelete, times(3)).executeUpdate();
+    }
+
+    @Test
+    void purge_skipsWhenAnotherInstanceHoldsTheLock() throws SQLException {
+        lockAcquired(false);
+
+        ExpiredTokenPurgeJob job = job(100, 10);
+
+        assertThat(job.purge()).isEmpty();
+        verify(connection, never()).prepareStatement(startsWith("DELETE"));
+        verify(connection, never()).prepareStatement("SELECT pg_advisory_unlock(?)");
+        assertThat(job.stats().skippedRuns()).isEqualTo(1);
+        assertThat(job.stats().runs()).isZero();
+    }
+
+    @Test
+    void purge_releasesTheLockWhenADeleteFails() throws SQLException {
+        lockAcquired(true);
+        when(connection.prepareStatement("SELECT pg_advisory_unlock(?)")).thenReturn(unlockStatement);
+        when(connection.prepareStatement(startsWith("DELETE FROM verification_tokens"))).thenReturn(verificationDelete);
+        when(verificationDelete.executeUpdate()).thenThrow(new SQLException("canceling statement due to timeout"));
+
+        ExpiredTokenPurgeJob job = job(100, 10);
+
+        // The scheduled entry point logs the failure so later runs still happen
+        assertThatCode(job::purgeExpiredTokens).doesNotThrowAnyException();
+        verify(unlockStatement).execute();
+        verify(connection, never()).prepareStatement(startsWith("DELETE FROM password_reset_tokens"));
+        assertThat(job.stats().runs()).isZero();
+    }
+
+    private ExpiredTokenPurgeJob job(int batchSize, int maxBatches) {
+        return new ExpiredTokenPurgeJob(jdbcTemplate, batchSize, maxBatches, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void lockAcquired(boolean acquired) throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT pg_try_advisory_lock(?)")).thenReturn(lockStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getBoolean(1)).thenReturn(acquired);
+    }
+}
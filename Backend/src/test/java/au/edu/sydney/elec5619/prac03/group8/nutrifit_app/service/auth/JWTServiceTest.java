@@ -1,5 +1,6 @@
 package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
 
+import io.jsonwebtoken.Claims;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.UUID;
@@ -7,7 +8,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -16,21 +16,20 @@ class JWTServiceTest {
 
     private static final String RAW_SECRET = "0123456789ABCDEF0123456789ABCDEF";
 
+    private static final String ENCODED_SECRET = Base64.getEncoder()
+        .encodeToString(RAW_SECRET.getBytes(StandardCharsets.UTF_8));
+
     private JWTService jwtService;
 
     @BeforeEach
     void setUp() {
-        jwtService = new JWTService();
-        String encodedSecret = Base64.getEncoder()
-            .encodeToString(RAW_SECRET.getBytes(StandardCharsets.UTF_8));
-        ReflectionTestUtils.setField(jwtService, "secret", encodedSecret);
-        ReflectionTestUtils.setField(jwtService, "expiration", 60_000L);
+        jwtService = new JWTService(ENCODED_SECRET, 60_000L, 100);
     }
 
     @Test
     void generateTokenAndValidate_returnsTrueForMatchingUser() {
         String uuid = UUID.randomUUID().toString();
-        String token = jwtService.generateToken(uuid);
+        String token = jwtService.generateToken(uuid, 42L);
 
         UserDetails userDetails = User.withUsername(uuid)
             .password("N/A")
@@ -44,7 +43,7 @@ class JWTServiceTest {
 
     @Test
     void validateToken_returnsFalseWhenUsernameDiffers() {
-        String token = jwtService.generateToken(UUID.randomUUID().toString());
+        String token = jwtService.generateToken(UUID.randomUUID().toString(), 42L);
 
         UserDetails otherUser = User.withUsername(UUID.randomUUID().toString())
             .password("N/A")
@@ -56,9 +55,9 @@ class JWTServiceTest {
 
     @Test
     void validateToken_returnsFalseWhenExpired() {
-        ReflectionTestUtils.setField(jwtService, "expiration", -1_000L);
+        jwtService = new JWTService(ENCODED_SECRET, -1_000L, 100);
         String uuid = UUID.randomUUID().toString();
-        String token = jwtService.generateToken(uuid);
+        String token = jwtService.generateToken(uuid, 42L);
 
         UserDetails userDetails = User.withUsername(uuid)
             .password("N/A")
@@ -82,4 +81,73 @@ class JWTServiceTest {
     void extractUuid_throwsForMalformedToken() {
         assertThrows(Exception.class, () -> jwtService.extractUuid("bad-token"));
     }
+
+    @Test
+    void extractAllClaims_reusesVerifiedClaimsForRepeatedToken() {
+        String uuid = UUID.randomUUID().toString();
+        String token = jwtService.generateToken(uuid, 42L);
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getSubject()).isEqualTo(uuid);
+    }
+
+    @Test
+    void extractAllClaims_stillRejectsTamperedCopyOfCachedToken() {
+        String token = jwtService.generateToken(UUID.randomUUID().toString(), 42L);
+        jwtService.extractAllClaims(token);
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            ("{\"sub\":\"" + UUID.randomUUID() + "\",\"exp\":9999999999}").getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThrows(Exception.class, () -> jwtService.extractAllClaims(forged));
+    }
+
+    @Test
+    void validateClaims_matchesValidateToken() {
+        String uuid = UUID.randomUUID().toString();
+        String token = jwtService.generateToken(uuid, 42L);
+        Claims claims = jwtService.extractAllClaims(token);
+
+        UserDetails userDetails = User.withUsername(uuid)
+            .password("N/A")
+            .authorities("USER")
+            .build();
+        UserDetails otherUser = User.withUsername(UUID.randomUUID().toString())
+            .password("N/A")
+            .authorities("USER")
+            .build();
+
+        assertThat(jwtService.validateClaims(claims, userDetails)).isTrue();
+        assertThat(jwtService.validateClaims(claims, otherUser)).isFalse();
+    }
+
+    @Test
+    void extractAllClaims_doesNotTrustTokensSignedWithAnotherSecret() {
+        JWTService otherService = new JWTService(
+            Base64.getEncoder().encodeToString("FEDCBA9876543210FEDCBA9876543210".getBytes(StandardCharsets.UTF_8)),
+            60_000L, 100);
+        String foreignToken = otherService.generateToken(UUID.randomUUID().toString(), 42L);
+        otherService.extractAllClaims(foreignToken);
+
+        assertThrows(Exception.class, () -> jwtService.extractAllClaims(foreignToken));
+    }
+
+    @Test
+    void extractUserId_readsSignedUserIdClaim() {
+        String token = jwtService.generateToken(UUID.randomUUID().toString(), 42L);
+
+        assertThat(jwtService.extractUserId(jwtService.extractAllClaims(token))).isEqualTo(42L);
+    }
+
+    @Test
+    void extractUserId_isNullForTokensWithoutTheClaim() {
+        String token = jwtService.generateToken(UUID.randomUUID().toString(), null);
+
+        assertThat(jwtService.extractUserId(jwtService.extractAllClaims(token))).isNull();
+    }
 }
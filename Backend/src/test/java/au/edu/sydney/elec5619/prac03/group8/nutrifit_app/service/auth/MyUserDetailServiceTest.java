@@ -2,10 +2,12 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.auth;
 
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import java.time.Duration;
 import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +16,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +26,13 @@ class MyUserDetailServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private MyUserDetailService myUserDetailService;
 
+    @BeforeEach
+    void setUp() {
+        myUserDetailService = new MyUserDetailService(new UserPrincipalCache(userRepository, 100, Duration.ofMinutes(2)));
+    }
+
     @Test
     void loadUserByUsername_returnsUserPrincipal() {
         UUID uuid = UUID.randomUUID();
@@ -50,4 +58,21 @@ class MyUserDetailServiceTest {
         assertThrows(UsernameNotFoundException.class,
             () -> myUserDetailService.loadUserByUsername(uuid.toString()));
     }
+
+    @Test
+    void loadUserByUsername_reusesCachedUser() {
+        UUID uuid = UUID.randomUUID();
+        User user = new User();
+        user.setUuid(uuid);
+        user.setPasswordHash("hash");
+        user.setEmailVerified(false);
+
+        when(userRepository.findByUuid(eq(uuid))).thenReturn(user);
+
+        myUserDetailService.loadUserByUsername(uuid.toString());
+        UserDetails second = myUserDetailService.loadUserByUsername(uuid.toString());
+
+        verify(userRepository, times(1)).findByUuid(uuid);
+        assertThat(second.isEnabled()).isFalse();
+    }
 }
@@ -5,7 +5,10 @@ import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.PasswordResetToke
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.PasswordResetTokenRepository;
 import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
-import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.LoginThrottle;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.PasswordHasher;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.security.UserPrincipalCache;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email.EmailOutbox;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
@@ -17,14 +20,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -40,10 +42,16 @@ class PasswordResetServiceTest {
     private PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordEncoder;
 
     @Mock
-    private EmailService emailService;
+    private EmailOutbox emailOutbox;
+
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private LoginThrottle loginThrottle;
 
     @InjectMocks
     private PasswordResetService passwordResetService;
@@ -51,7 +59,6 @@ class PasswordResetServiceTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(passwordResetService, "tokenValidityHours", 24);
-        ReflectionTestUtils.setField(passwordResetService, "frontendUrl", "https://frontend.app");
     }
 
     @Test
@@ -63,15 +70,13 @@ class PasswordResetServiceTest {
         assertTrue(response.isSuccess());
         assertThat(response.getMessage()).contains("If an account exists");
         verify(passwordResetTokenRepository, never()).save(any());
-        verify(emailService, never()).sendPasswordResetEmail(any(), any(), any());
+        verify(emailOutbox, never()).enqueuePasswordResetEmail(any(), any());
     }
 
     @Test
-    void requestPasswordReset_generatesTokenAndSendsEmail() {
+    void requestPasswordReset_generatesTokenAndQueuesEmail() {
         User user = buildUser();
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(emailService.sendPasswordResetEmail(eq(user.getEmail()), eq(user.getUserName()), any()))
-            .thenReturn(true);
 
         PasswordResetResponseDto response = passwordResetService.requestPasswordReset(user.getEmail());
 
@@ -85,27 +90,24 @@ class PasswordResetServiceTest {
         assertThat(savedToken.getToken()).isNotBlank();
         assertThat(savedToken.getExpiresAt()).isAfter(Instant.now());
 
-        verify(emailService).sendPasswordResetEmail(eq(user.getEmail()), eq(user.getUserName()), any());
+        verify(emailOutbox).enqueuePasswordResetEmail(user, savedToken.getToken());
     }
 
     @Test
-    void requestPasswordReset_returnsFailureWhenEmailSendThrows() {
+    void requestPasswordReset_propagatesOutboxFailureSoTheTokenRollsBack() {
         User user = buildUser();
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        doThrow(new RuntimeException("smtp down"))
-            .when(emailService).sendPasswordResetEmail(any(), any(), any());
-
-        PasswordResetResponseDto response = passwordResetService.requestPasswordReset(user.getEmail());
+        doThrow(new RuntimeException("outbox insert failed"))
+            .when(emailOutbox).enqueuePasswordResetEmail(any(), any());
 
-        assertFalse(response.isSuccess());
-        assertThat(response.getMessage()).isEqualTo("Failed to send password reset email. Please try again later.");
+        assertThrows(RuntimeException.class, () -> passwordResetService.requestPasswordReset(user.getEmail()));
     }
 
     @Test
     void resetPassword_returnsFailureForMissingToken() {
         when(passwordResetTokenRepository.findByToken("missing")).thenReturn(Optional.empty());
 
-        PasswordResetResponseDto response = passwordResetService.resetPassword("missing", "newPass");
+        PasswordResetResponseDto response = passwordResetService.resetPassword("missing", "newPass", "10.0.0.1");
 
         assertFalse(response.isSuccess());
         assertThat(response.getMessage()).contains("Invalid or expired password reset token.");
@@ -121,7 +123,7 @@ class PasswordResetServiceTest {
             .build();
         when(passwordResetTokenRepository.findByToken("expired")).thenReturn(Optional.of(token));
 
-        PasswordResetResponseDto response = passwordResetService.resetPassword("expired", "newPass");
+        PasswordResetResponseDto response = passwordResetService.resetPassword("expired", "newPass", "10.0.0.1");
 
         assertFalse(response.isSuccess());
         assertThat(response.getMessage()).contains("has expired");
@@ -137,10 +139,11 @@ class PasswordResetServiceTest {
             .build();
         when(passwordResetTokenRepository.findByToken("used")).thenReturn(Optional.of(token));
 
-        PasswordResetResponseDto response = passwordResetService.resetPassword("used", "newPass");
+        PasswordResetResponseDto response = passwordResetService.resetPassword("used", "newPass", "10.0.0.1");
 
         assertFalse(response.isSuccess());
         assertThat(response.getMessage()).contains("already been used");
+        verify(userPrincipalCache, never()).invalidate(any());
     }
 
     @Test
@@ -156,25 +159,15 @@ class PasswordResetServiceTest {
         when(passwordEncoder.encode("newPass")).thenReturn("encoded");
         when(userRepository.save(user)).thenReturn(user);
 
-        PasswordResetResponseDto response = passwordResetService.resetPassword("valid", "newPass");
+        PasswordResetResponseDto response = passwordResetService.resetPassword("valid", "newPass", "10.0.0.1");
 
         assertTrue(response.isSuccess());
         assertThat(user.getPasswordHash()).isEqualTo("encoded");
         verify(passwordResetTokenRepository).save(token);
+        verify(userPrincipalCache).invalidate(user.getUuid());
         assertThat(token.isUsed()).isTrue();
     }
 
-    @Test
-    void cleanupExpiredTokens_invokesRepositoryWithCurrentInstant() {
-        ArgumentCaptor<Instant> instantCaptor = ArgumentCaptor.forClass(Instant.class);
-
-        passwordResetService.cleanupExpiredTokens();
-
-        verify(passwordResetTokenRepository).deleteByExpiresAtBefore(instantCaptor.capture());
-        assertThat(instantCaptor.getValue()).isNotNull();
-        assertThat(Instant.now().minusSeconds(5)).isBefore(instantCaptor.getValue());
-    }
-
     private User buildUser() {
         User user = new User();
         user.setUserId(7L);
@@ -0,0 +1,179 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxStatus;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.EmailOutboxRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the dispatcher and a real EmailService against a local HTTP stub standing in for Mailgun
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2025-10-01T00:00:00Z");
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private HttpServer mailgun;
+    private volatile int mailgunStatus = 200;
+    private final Queue<String> mailgunRequests = new ConcurrentLinkedQueue<>();
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mailgun = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        mailgun.createContext("/v3/mg.example.com/messages", exchange -> {
+            mailgunRequests.add(URLDecoder.decode(
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+            byte[] body = "{\"message\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(mailgunStatus, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        mailgun.start();
+
+        EmailService emailService = new EmailService(new RestTemplate());
+        ReflectionTestUtils.setField(emailService, "mailgunBaseUrl", "http://localhost:" + mailgun.getAddress().getPort());
+        ReflectionTestUtils.setField(emailService, "mailgunApiKey", "test-api-key");
+        ReflectionTestUtils.setField(emailService, "mailgunDomain", "mg.example.com");
+        ReflectionTestUtils.setField(emailService, "fromEmail", "no-reply@example.com");
+        ReflectionTestUtils.setField(emailService, "fromName", "NutriFit");
+        ReflectionTestUtils.setField(emailService, "frontendBaseUrl", "https://front.app");
+
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, emailService, 2, 3, 4,
+            Duration.ofSeconds(30), Duration.ofMinutes(10), LEASE, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        mailgun.stop(0);
+    }
+
+    @Test
+    void dispatchBatch_sendsClaimedMessagesAndDeletesThem() {
+        when(emailOutboxRepository.claimDue(NOW, NOW.plus(LEASE), 3))
+            .thenReturn(List.of(message(1L, "a@example.com", 1), message(2L, "b@example.com", 1)));
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(2);
+
+        verify(emailOutboxRepository).deleteDelivered(1L);
+        verify(emailOutboxRepository).deleteDelivered(2L);
+        assertThat(mailgunRequests).hasSize(2)
+            .anySatisfy(request -> assertThat(request).contains("to=a@example.com")
+                .contains("https://front.app/verify-email?token=token-1"))
+            .anySatisfy(request -> assertThat(request).contains("to=b@example.com"));
+        assertThat(dispatcher.stats().sent()).isEqualTo(2);
+    }
+
+    @Test
+    void dispatchBatch_serverErrorIsRetriedWithBackoff() {
+        mailgunStatus = 503;
+        when(emailOutboxRepository.claimDue(any(), any(), eq(3)))
+            .thenReturn(List.of(message(1L, "a@example.com", 2)));
+
+        dispatcher.dispatchBatch();
+
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(emailOutboxRepository).scheduleRetry(eq(1L), nextAttempt.capture(), anyString());
+        // Second attempt: 60s doubled from the initial 30s, plus at most 20% jitter
+        assertThat(nextAttempt.getValue()).isBetween(NOW.plusSeconds(60), NOW.plusSeconds(72));
+        verify(emailOutboxRepository, never()).deleteDelivered(anyLong());
+        assertThat(dispatcher.stats().retried()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_parksRejectedMessagesStraightAway() {
+        mailgunStatus = 400;
+        when(emailOutboxRepository.claimDue(any(), any(), eq(3)))
+            .thenReturn(List.of(message(1L, "not-an-address", 1)));
+
+        dispatcher.dispatchBatch();
+
+        verify(emailOutboxRepository).updateStatus(eq(1L), eq(EmailOutboxStatus.PARKED), anyString());
+        verify(emailOutboxRepository, never()).scheduleRetry(anyLong(), any(), anyString());
+        assertThat(dispatcher.stats().parked()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_parksMessagesThatRunOutOfAttempts() {
+        mailgunStatus = 500;
+        when(emailOutboxRepository.claimDue(any(), any(), eq(3)))
+            .thenReturn(List.of(message(1L, "a@example.com", 4)));
+
+        dispatcher.dispatchBatch();
+
+        verify(emailOutboxRepository).updateStatus(eq(1L), eq(EmailOutboxStatus.PARKED), anyString());
+    }
+
+    @Test
+    void dispatchDue_keepsClaimingWhileBatchesAreFull() {
+        List<EmailOutboxMessage> fullBatch = IntStream.rangeClosed(1, 3)
+            .mapToObj(id -> message((long) id, "user" + id + "@example.com", 1))
+            .toList();
+        when(emailOutboxRepository.claimDue(any(), any(), eq(3)))
+            .thenReturn(fullBatch, List.of(message(4L, "user4@example.com", 1)));
+
+        dispatcher.dispatchDue();
+
+        verify(emailOutboxRepository, times(2)).claimDue(any(), any(), eq(3));
+        assertThat(mailgunRequests).hasSize(4);
+    }
+
+    @Test
+    void backoff_doublesPerAttemptUpToTheCap() {
+        assertThat(dispatcher.backoff(1)).isBetween(Duration.ofSeconds(30), Duration.ofSeconds(36));
+        assertThat(dispatcher.backoff(3)).isBetween(Duration.ofSeconds(120), Duration.ofSeconds(144));
+        assertThat(dispatcher.backoff(30)).isBetween(Duration.ofMinutes(10), Duration.ofMinutes(12));
+    }
+
+    private EmailOutboxMessage message(Long id, String recipient, int attempts) {
+        return EmailOutboxMessage.builder()
+            .outboxId(id)
+            .emailType(EmailType.VERIFICATION)
+            .recipient(recipient)
+            .recipientName("User")
+            .token("token-" + id)
+            .status(EmailOutboxStatus.PENDING)
+            .attempts(attempts)
+            .nextAttemptAt(NOW.plus(LEASE))
+            .build();
+    }
+}
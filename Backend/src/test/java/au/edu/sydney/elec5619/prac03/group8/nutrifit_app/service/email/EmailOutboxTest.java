@@ -0,0 +1,61 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxStatus;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @InjectMocks
+    private EmailOutbox emailOutbox;
+
+    @Test
+    void enqueueVerificationEmail_savesPendingMessageDueNow() {
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setUserName("user");
+
+        emailOutbox.enqueueVerificationEmail(user, "token123");
+
+        ArgumentCaptor<EmailOutboxMessage> captor = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        verify(emailOutboxRepository).save(captor.capture());
+        EmailOutboxMessage message = captor.getValue();
+        assertThat(message.getEmailType()).isEqualTo(EmailType.VERIFICATION);
+        assertThat(message.getRecipient()).isEqualTo("user@example.com");
+        assertThat(message.getRecipientName()).isEqualTo("user");
+        assertThat(message.getToken()).isEqualTo("token123");
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(message.getAttempts()).isZero();
+        assertThat(message.getNextAttemptAt()).isBeforeOrEqualTo(Instant.now());
+    }
+
+    @Test
+    void enqueuePasswordResetEmail_savesResetToken() {
+        User user = new User();
+        user.setEmail("user@example.com");
+
+        emailOutbox.enqueuePasswordResetEmail(user, "reset123");
+
+        ArgumentCaptor<EmailOutboxMessage> captor = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        verify(emailOutboxRepository).save(captor.capture());
+        assertThat(captor.getValue().getEmailType()).isEqualTo(EmailType.PASSWORD_RESET);
+        assertThat(captor.getValue().getToken()).isEqualTo("reset123");
+    }
+}
@@ -2,6 +2,10 @@ package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailOutboxMessage;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.EmailType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,12 +13,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,6 +41,7 @@ class EmailServiceTest {
     @BeforeEach
     void setUp() {
         emailService = new EmailService(restTemplate);
+        ReflectionTestUtils.setField(emailService, "mailgunBaseUrl", "https://api.mailgun.net");
         ReflectionTestUtils.setField(emailService, "mailgunApiKey", "test-api-key");
         ReflectionTestUtils.setField(emailService, "mailgunDomain", "mg.example.com");
         ReflectionTestUtils.setField(emailService, "fromEmail", "no-reply@example.com");
@@ -40,13 +50,11 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendVerificationEmail_returnsTrueWhenMailgunSucceeds() {
+    void deliver_postsVerificationEmailToMailgun() {
         when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
             .thenReturn(ResponseEntity.ok("ok"));
 
-        boolean result = emailService.sendVerificationEmail("user@example.com", "User", "token123");
-
-        assertThat(result).isTrue();
+        emailService.deliver(message(EmailType.VERIFICATION, "token123"));
 
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<HttpEntity<MultiValueMap<String, String>>> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
@@ -64,38 +72,93 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendVerificationEmail_returnsFalseWhenMailgunReturnsError() {
+    void deliver_buildsPasswordResetLink() {
         when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
-            .thenReturn(ResponseEntity.status(500).body("error"));
+            .thenReturn(ResponseEntity.ok("ok"));
 
-        boolean result = emailService.sendVerificationEmail("user@example.com", "User", "token123");
+        emailService.deliver(message(EmailType.PASSWORD_RESET, "resetToken"));
 
-        assertThat(result).isFalse();
+        ArgumentCaptor<HttpEntity<MultiValueMap<String, String>>> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(anyString(), entityCaptor.capture(), eq(String.class));
+
+        String html = entityCaptor.getValue().getBody().getFirst("html");
+        assertThat(html).contains("https://front.app/reset-password?token=resetToken");
     }
 
     @Test
-    void sendVerificationEmail_returnsFalseWhenExceptionThrown() {
+    void deliver_serverErrorIsRetryable() {
         when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
-            .thenThrow(new RuntimeException("network down"));
+            .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
 
-        boolean result = emailService.sendVerificationEmail("user@example.com", "User", "token123");
+        EmailDeliveryException e = catchThrowableOfType(EmailDeliveryException.class,
+            () -> emailService.deliver(message(EmailType.VERIFICATION, "token123")));
 
-        assertThat(result).isFalse();
+        assertThat(e.isPermanent()).isFalse();
     }
 
     @Test
-    void sendPasswordResetEmail_buildsResetLink() {
+    void deliver_rateLimitIsRetryable() {
         when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
-            .thenReturn(ResponseEntity.ok("ok"));
+            .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
 
-        boolean result = emailService.sendPasswordResetEmail("user@example.com", "User", "resetToken");
+        EmailDeliveryException e = catchThrowableOfType(EmailDeliveryException.class,
+            () -> emailService.deliver(message(EmailType.VERIFICATION, "token123")));
 
-        assertThat(result).isTrue();
+        assertThat(e.isPermanent()).isFalse();
+    }
 
-        ArgumentCaptor<HttpEntity<MultiValueMap<String, String>>> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
-        verify(restTemplate).postForEntity(anyString(), entityCaptor.capture(), eq(String.class));
+    @Test
+    void deliver_rejectedRequestIsPermanent() {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
-        String html = entityCaptor.getValue().getBody().getFirst("html");
-        assertThat(html).contains("/reset-password?token=resetToken");
+        EmailDeliveryException e = catchThrowableOfType(EmailDeliveryException.class,
+            () -> emailService.deliver(message(EmailType.VERIFICATION, "token123")));
+
+        assertThat(e.isPermanent()).isTrue();
+    }
+
+    @Test
+    void deliver_networkFailureIsRetryable() {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(new ResourceAccessException("network down"));
+
+        EmailDeliveryException e = catchThrowableOfType(EmailDeliveryException.class,
+            () -> emailService.deliver(message(EmailType.VERIFICATION, "token123")));
+
+        assertThat(e.isPermanent()).isFalse();
+        assertThat(e.getMessage()).contains("network down");
+    }
+
+    @Test
+    void renderAll_personalisesEachMessageInTheBatch() {
+        EmailOutboxMessage alex = message(EmailType.VERIFICATION, "token-a");
+        alex.setRecipientName("Alex");
+        EmailOutboxMessage sam = message(EmailType.PASSWORD_RESET, "token-s");
+        sam.setRecipient("sam@example.com");
+        sam.setRecipientName("Sam");
+
+        List<EmailService.RenderedEmail> rendered = emailService.renderAll(List.of(alex, sam));
+
+        assertThat(rendered).hasSize(2);
+        assertThat(rendered.get(0).to()).isEqualTo("user@example.com");
+        assertThat(rendered.get(0).html()).contains("<p>Hi Alex,</p>")
+            .contains("<a href=\"https://front.app/verify-email?token=token-a\"")
+            .doesNotContain("{{");
+        assertThat(rendered.get(0).text()).contains("Hi Alex,\n").contains("https://front.app/verify-email?token=token-a\n");
+        assertThat(rendered.get(1).to()).isEqualTo("sam@example.com");
+        assertThat(rendered.get(1).subject()).isEqualTo("Reset Your NutriFit Password");
+        assertThat(rendered.get(1).html()).contains("<p>Hi Sam,</p>")
+            .contains("https://front.app/reset-password?token=token-s")
+            .doesNotContain("token-a");
+    }
+
+    private EmailOutboxMessage message(EmailType emailType, String token) {
+        return EmailOutboxMessage.builder()
+            .emailType(emailType)
+            .recipient("user@example.com")
+            .recipientName("User")
+            .token(token)
+            .build();
     }
 }
@@ -0,0 +1,57 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.email;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTest {
+
+    @Test
+    void renderTo_fillsRepeatedAndReorderedPlaceholders() {
+        EmailTemplate template = EmailTemplate.compile("<a href=\"{{link}}\">Hi {{ name }}</a> {{link}}", "name", "link");
+
+        StringBuilder out = new StringBuilder();
+        template.renderTo(out, "Alex", "https://x/y?token=1");
+
+        assertThat(out).hasToString("<a href=\"https://x/y?token=1\">Hi Alex</a> https://x/y?token=1");
+        assertThat(template.literalLength()).isEqualTo("<a href=\"\">Hi </a> ".length());
+    }
+
+    @Test
+    void renderTo_appendsToReusedBufferAndRendersNullAsEmpty() {
+        EmailTemplate template = EmailTemplate.compile("{{a}}-{{b}}", "a", "b");
+
+        StringBuilder out = new StringBuilder("prefix:");
+        template.renderTo(out, "1", null);
+
+        assertThat(out).hasToString("prefix:1-");
+    }
+
+    @Test
+    void renderTo_templateWithoutPlaceholdersIsCopied() {
+        EmailTemplate template = EmailTemplate.compile("static body");
+
+        StringBuilder out = new StringBuilder();
+        template.renderTo(out);
+
+        assertThat(out).hasToString("static body");
+    }
+
+    @Test
+    void compile_rejectsUnknownOrUnclosedPlaceholders() {
+        assertThatThrownBy(() -> EmailTemplate.compile("Hi {{nmae}}", "name"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("nmae");
+        assertThatThrownBy(() -> EmailTemplate.compile("Hi {{name", "name"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void renderTo_rejectsWrongNumberOfValues() {
+        EmailTemplate template = EmailTemplate.compile("{{a}}", "a");
+
+        assertThatThrownBy(() -> template.renderTo(new StringBuilder(), "1", "2"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
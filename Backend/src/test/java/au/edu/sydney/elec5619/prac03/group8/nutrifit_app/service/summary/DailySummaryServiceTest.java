@@ -0,0 +1,255 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.summary;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.DailySummary;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Meal;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.User;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.Workout;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.DailySummaryRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DailySummaryServiceTest {
+
+    @Mock
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private DailySummaryService dailySummaryService;
+
+    private User user;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUserId(5L);
+        today = LocalDate.now();
+    }
+
+    @Test
+    void recordMeal_upsertsMealTotalsForItsDay() {
+        dailySummaryService.recordMeal(meal(today, 500, 30, 40, 15));
+
+        verify(dailySummaryRepository).lockUserForWrite(5L);
+        verifyDelta(today, 500, 0, 30, 40, 15, 1, 0, 0, 500);
+    }
+
+    @Test
+    void removeWorkout_upsertsNegatedWorkoutTotals() {
+        dailySummaryService.removeWorkout(workout(today, 45, 300));
+
+        verifyDelta(today, 0, -300, 0, 0, 0, 0, -1, -45, 300);
+    }
+
+    @Test
+    void recordWorkout_countsOnlyTheValuesItLogged() {
+        Workout workout = workout(today, 0, 0);
+        workout.setDurationMinutes(null);
+        workout.setCaloriesBurned(null);
+
+        dailySummaryService.recordWorkout(workout);
+
+        verifyDelta(today, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0);
+    }
+
+    @Test
+    void replaceMeal_sameDayAppliesOnlyTheDifference() {
+        Meal meal = meal(today, 500, 30, 40, 15);
+        DailySummaryService.Contribution before = DailySummaryService.Contribution.of(meal);
+        meal.setTotalCalories(bd(650));
+
+        dailySummaryService.replaceMeal(before, meal);
+
+        verifyDelta(today, 150, 0, 0, 0, 0, 0, 0, 0, 150);
+    }
+
+    @Test
+    void replaceMeal_movedToAnotherDayMovesWholeContribution() {
+        Meal meal = meal(today.minusDays(1), 500, 30, 40, 15);
+        DailySummaryService.Contribution before = DailySummaryService.Contribution.of(meal);
+        meal.setMealTime(today.atTime(9, 0));
+
+        dailySummaryService.replaceMeal(before, meal);
+
+        verifyDelta(today.minusDays(1), -500, 0, -30, -40, -15, -1, 0, 0, -500);
+        verifyDelta(today, 500, 0, 30, 40, 15, 1, 0, 0, 500);
+    }
+
+    @Test
+    void replaceWorkout_unchangedValuesSkipTheWrite() {
+        Workout workout = workout(today, 45, 300);
+
+        dailySummaryService.replaceWorkout(DailySummaryService.Contribution.of(workout), workout);
+
+        verifyNoInteractions(dailySummaryRepository);
+    }
+
+    @Test
+    void recordMeal_ignoresMealWithoutTimestamp() {
+        Meal meal = meal(today, 500, 30, 40, 15);
+        meal.setMealTime(null);
+
+        dailySummaryService.recordMeal(meal);
+
+        verify(dailySummaryRepository, never()).applyDelta(any(), any(), any(), any(), any(), any(), any(),
+            anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildForUser_replacesRowsWithRawAggregates() {
+        when(userRepository.getReferenceById(5L)).thenReturn(user);
+        when(dailySummaryRepository.aggregateRawTotalsByDay(5L))
+            .thenReturn(List.of(raw(today, 900, 2, 300, 45, 1)));
+
+        int rows = dailySummaryService.rebuildForUser(5L);
+
+        assertThat(rows).isEqualTo(1);
+        InOrder order = inOrder(dailySummaryRepository);
+        order.verify(dailySummaryRepository).lockUserForRebuild(5L);
+        order.verify(dailySummaryRepository).deleteByUserId(5L);
+        ArgumentCaptor<List<DailySummary>> saved = ArgumentCaptor.forClass(List.class);
+        verify(dailySummaryRepository).saveAll(saved.capture());
+        DailySummary summary = saved.getValue().get(0);
+        assertThat(summary.getUser()).isSameAs(user);
+        assertThat(summary.getMealCount()).isEqualTo(2);
+        assertThat(summary.getTotalWorkoutMinutes()).isEqualTo(45);
+        assertThat(summary.getNetCalories()).isEqualByComparingTo("600");
+    }
+
+    @Test
+    void checkConsistency_reportsDriftAndMissingRows() {
+        DailySummary drifted = new DailySummary();
+        drifted.setSummaryDate(today);
+        drifted.setTotalCaloriesConsumed(bd(800));
+        drifted.setMealCount(2);
+        drifted.setWorkoutCount(1);
+        drifted.setTotalWorkoutMinutes(45);
+        drifted.setWorkoutDurationCount(1);
+        drifted.setWorkoutCaloriesCount(1);
+        drifted.setTotalCaloriesBurned(bd(300));
+
+        when(dailySummaryRepository.aggregateRawTotalsByDay(5L))
+            .thenReturn(List.of(raw(today.minusDays(1), 200, 1, 0, 0, 0), raw(today, 900, 2, 300, 45, 1)));
+        when(dailySummaryRepository.findByUserUserIdOrderBySummaryDateAsc(5L)).thenReturn(List.of(drifted));
+
+        DailySummaryService.ConsistencyReport report = dailySummaryService.checkConsistency(5L);
+
+        assertThat(report.isConsistent()).isFalse();
+        assertThat(report.checkedDays()).isEqualTo(2);
+        assertThat(report.mismatches())
+            .extracting(DailySummaryService.Mismatch::day, DailySummaryService.Mismatch::column)
+            .containsExactly(
+                tuple(today.minusDays(1), "total_calories_consumed"),
+                tuple(today.minusDays(1), "meal_count"),
+                tuple(today, "total_calories_consumed"));
+    }
+
+    // Workouts here log both duration and calories unless a test says otherwise
+    private void verifyDelta(LocalDate day, double consumed, double burned, double protein, double carbs, double fat,
+                             int meals, int workouts, int minutes, double net) {
+        verifyDelta(day, consumed, burned, protein, carbs, fat, meals, workouts, minutes, workouts, workouts, net);
+    }
+
+    private void verifyDelta(LocalDate day, double consumed, double burned, double protein, double carbs, double fat,
+                             int meals, int workouts, int minutes, int timedWorkouts, int burnedWorkouts,
+                             double net) {
+        verify(dailySummaryRepository).applyDelta(eq(5L), eq(day), amount(consumed), amount(burned), amount(protein),
+            amount(carbs), amount(fat), eq(meals), eq(workouts), eq(minutes), eq(timedWorkouts), eq(burnedWorkouts),
+            amount(net));
+    }
+
+    // BigDecimal scale differs between deltas, so compare by value
+    private static BigDecimal amount(double value) {
+        return argThat(actual -> actual != null && actual.compareTo(BigDecimal.valueOf(value)) == 0);
+    }
+
+    private Meal meal(LocalDate day, double calories, double protein, double carbs, double fat) {
+        Meal meal = new Meal();
+        meal.setUser(user);
+        meal.setMealTime(day.atTime(12, 0));
+        meal.setTotalCalories(bd(calories));
+        meal.setProteinG(bd(protein));
+        meal.setCarbsG(bd(carbs));
+        meal.setFatG(bd(fat));
+        return meal;
+    }
+
+    private Workout workout(LocalDate day, int minutes, double calories) {
+        Workout workout = new Workout();
+        workout.setUser(user);
+        workout.setWorkoutDate(day);
+        workout.setDurationMinutes(minutes);
+        workout.setCaloriesBurned(bd(calories));
+        return workout;
+    }
+
+    private DailySummaryRepository.RawDailyTotals raw(LocalDate day, double calories, int meals,
+                                                      double burned, int minutes, int workouts) {
+        return new DailySummaryRepository.RawDailyTotals() {
+            @Override
+            public LocalDate getDay() { return day; }
+
+            @Override
+            public BigDecimal getCaloriesConsumed() { return bd(calories); }
+
+            @Override
+            public BigDecimal getProteinG() { return BigDecimal.ZERO; }
+
+            @Override
+            public BigDecimal getCarbsG() { return BigDecimal.ZERO; }
+
+            @Override
+            public BigDecimal getFatG() { return BigDecimal.ZERO; }
+
+            @Override
+            public Number getMealCount() { return meals; }
+
+            @Override
+            public BigDecimal getCaloriesBurned() { return bd(burned); }
+
+            @Override
+            public Number getWorkoutMinutes() { return minutes; }
+
+            @Override
+            public Number getWorkoutCount() { return workouts; }
+
+            @Override
+            public Number getWorkoutDurationCount() { return workouts; }
+
+            @Override
+            public Number getWorkoutCaloriesCount() { return workouts; }
+        };
+    }
+
+    private static BigDecimal bd(double value) {
+        return BigDecimal.valueOf(value);
+    }
+}
@@ -0,0 +1,129 @@
+package au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.sync;
+
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Common.WorkoutDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.MealDetailResponseDTO;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Profile.UserMetricsResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.EntityChanges;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.SyncChangesResponseDto;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.dto.Response.Sync.SyncWatermark;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncEntityType;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.model.SyncTombstone;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.repository.SyncTombstoneRepository;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.HomePageService.NutritionService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.WorkoutService;
+import au.edu.sydney.elec5619.prac03.group8.nutrifit_app.service.profile.UserMetricService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 9, 10, 8, 30);
+
+    @Mock
+    private NutritionService nutritionService;
+
+    @Mock
+    private WorkoutService workoutService;
+
+    @Mock
+    private UserMetricService userMetricService;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        ZoneId zone = ZoneId.systemDefault();
+        Clock clock = Clock.fixed(NOW.atZone(zone).toInstant(), zone);
+        syncService = new SyncService(nutritionService, workoutService, userMetricService, syncTombstoneRepository,
+            Duration.ofMinutes(1), Duration.ofDays(30), clock);
+    }
+
+    @Test
+    void getChanges_withoutWatermarkResetsWithEveryRow() {
+        stubChanges(null);
+
+        SyncChangesResponseDto response = syncService.getChanges(4L, null);
+
+        assertThat(response.reset()).isTrue();
+        assertThat(SyncWatermark.decode(response.watermark()).at()).isEqualTo(NOW.minusMinutes(1));
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void getChanges_sinceWatermarkAddsTombstonesToTheirEntityType() {
+        LocalDateTime since = NOW.minusHours(2);
+        stubChanges(since);
+        when(syncTombstoneRepository.findByUserIdAndDeletedAtAfter(4L, since)).thenReturn(List.of(
+            SyncTombstone.of(4L, SyncEntityType.MEAL, 31L),
+            SyncTombstone.of(4L, SyncEntityType.WORKOUT, 12L),
+            SyncTombstone.of(4L, SyncEntityType.MEAL, 30L)));
+
+        SyncChangesResponseDto response = syncService.getChanges(4L, new SyncWatermark(since).encode());
+
+        assertThat(response.reset()).isFalse();
+        assertThat(response.meals().deleted()).containsExactly(31L, 30L);
+        assertThat(response.workouts().deleted()).containsExactly(12L);
+        assertThat(response.metrics().deleted()).isEmpty();
+    }
+
+    @Test
+    void getChanges_watermarkOlderThanTombstoneRetentionResets() {
+        stubChanges(null);
+
+        SyncChangesResponseDto response = syncService.getChanges(4L, new SyncWatermark(NOW.minusDays(31)).encode());
+
+        assertThat(response.reset()).isTrue();
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void getChanges_rejectsMalformedWatermark() {
+        assertThatThrownBy(() -> syncService.getChanges(4L, "2025-09-10"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid sync watermark");
+        verifyNoInteractions(nutritionService, workoutService, userMetricService);
+    }
+
+    @Test
+    void purgeExpiredTombstones_deletesPastRetentionAndSurvivesFailures() {
+        when(syncTombstoneRepository.deleteDeletedBefore(NOW.minusDays(30)))
+            .thenReturn(3)
+            .thenThrow(new QueryTimeoutException("timeout"));
+
+        syncService.purgeExpiredTombstones();
+        syncService.purgeExpiredTombstones();
+
+        verify(syncTombstoneRepository, times(2)).deleteDeletedBefore(any());
+    }
+
+    private void stubChanges(LocalDateTime since) {
+        when(nutritionService.getMealChanges(4L, since))
+            .thenReturn(new EntityChanges<MealDetailResponseDTO>(List.of(), List.of(), List.of()));
+        when(workoutService.getWorkoutChanges(4L, since))
+            .thenReturn(new EntityChanges<WorkoutDto>(List.of(), List.of(), List.of()));
+        when(userMetricService.getMetricChanges(4L, since))
+            .thenReturn(new EntityChanges<UserMetricsResponseDto>(List.of(), List.of(), List.of()));
+    }
+}
@@ -0,0 +1,244 @@
+-- What ddl-auto: update created from the entities of the last release without migrations, as Hibernate printed it.
+-- SchemaMigrationTest builds a pre-migration database from this, independently of V1; do not edit it.
+
+create table ai_insights (
+    is_active boolean,
+    created_at timestamp(6),
+    expires_at timestamp(6),
+    insight_id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT,
+    suggestion_format varchar(255),
+    primary key (insight_id)
+);
+
+create table daily_summaries (
+    net_calories numeric(8,2),
+    summary_date date,
+    total_calories_burned numeric(8,2),
+    total_calories_consumed numeric(8,2),
+    total_carbs_g numeric(8,2),
+    total_fat_g numeric(8,2),
+    total_protein_g numeric(8,2),
+    workout_count integer,
+    created_at timestamp(6),
+    summary_id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint,
+    primary key (summary_id)
+);
+
+create table meal_items (
+    calories numeric(6,2),
+    carbs_g numeric(6,2),
+    confidence_score numeric(4,2),
+    fat_g numeric(6,2),
+    portion_size numeric(6,2),
+    protein_g numeric(6,2),
+    item_id bigint generated by default as identity,
+    meal_id bigint,
+    food_name varchar(255),
+    portion_unit varchar(255),
+    primary key (item_id)
+);
+
+create table meals (
+    carbs_g numeric(6,2),
+    fat_g numeric(6,2),
+    is_ai_generated boolean,
+    protein_g numeric(6,2),
+    total_calories numeric(8,2),
+    user_edited boolean,
+    created_at timestamp(6),
+    meal_id bigint generated by default as identity,
+    meal_time timestamp(6),
+    updated_at timestamp(6),
+    user_id bigint,
+    meal_description varchar(255),
+    photo_url varchar(255),
+    role varchar(255),
+    primary key (meal_id)
+);
+
+create table nutrition_targets (
+    daily_calcium float(53),
+    daily_calories integer,
+    daily_carbs integer,
+    daily_cholesterol integer,
+    daily_fats integer,
+    daily_fiber integer,
+    daily_iron float(53),
+    daily_protein integer,
+    daily_sodium integer,
+    daily_sugar integer,
+    daily_vitaminc float(53),
+    end_date date,
+    is_active boolean default true not null,
+    start_date date not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    user_id bigint,
+    description varchar(255),
+    target_type varchar(255) check (target_type in ('CUTTING','BULKING','MAINTENANCE','RECOMP')),
+    primary key (id)
+);
+
+create table password_reset_tokens (
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone not null,
+    token_id bigint generated by default as identity,
+    used_at timestamp(6) with time zone,
+    user_id bigint not null,
+    token varchar(255) not null unique,
+    primary key (token_id)
+);
+
+create table suggestions (
+    confidence_score integer,
+    is_active boolean,
+    created_at timestamp(6) not null,
+    suggestion_id bigint generated by default as identity,
+    user_id bigint not null,
+    rationale TEXT,
+    recommendations TEXT,
+    request_metadata TEXT,
+    specific_metrics TEXT,
+    suggestion_type varchar(255),
+    time_frame varchar(255),
+    user_goal varchar(255),
+    primary key (suggestion_id)
+);
+
+create table user_goals (
+    is_active boolean,
+    target_date date,
+    target_value numeric(10,2),
+    created_at timestamp(6),
+    goal_id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint,
+    goal_type varchar(255),
+    unit varchar(255),
+    primary key (goal_id)
+);
+
+create table user_metrics (
+    age integer,
+    bmi numeric(8,2),
+    bmr numeric(8,2),
+    height_cm numeric(5,2),
+    weight_kg numeric(5,2),
+    created_at timestamp(6),
+    metric_id bigint generated by default as identity,
+    record_at timestamp(6),
+    user_id bigint not null,
+    gender varchar(255),
+    user_goal varchar(255),
+    primary key (metric_id)
+);
+
+create table user_profile (
+    birth_date date,
+    profile_id bigint generated by default as identity,
+    user_id bigint not null unique,
+    gender varchar(20) check (gender in ('MALE','FEMALE','NON_BINARY','OTHER','UNDISCLOSED')),
+    primary key (profile_id)
+);
+
+create table users (
+    email_verified boolean not null,
+    created_at timestamp(6) with time zone not null,
+    reset_password_token_expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone not null,
+    user_id bigint generated by default as identity,
+    uuid UUID not null unique,
+    email varchar(255) not null unique,
+    password_hash varchar(255),
+    reset_password_token varchar(255),
+    user_name varchar(255) not null,
+    primary key (user_id)
+);
+
+create table verification_tokens (
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone not null,
+    token_id bigint generated by default as identity,
+    user_id bigint not null,
+    verified_at timestamp(6) with time zone,
+    token varchar(255) not null unique,
+    primary key (token_id)
+);
+
+create table workouts (
+    calories_burned numeric(38,2),
+    duration_minutes integer,
+    workout_date date,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    user_id bigint not null,
+    workout_id bigint generated by default as identity,
+    notes varchar(255),
+    workout_type varchar(255),
+    primary key (workout_id)
+);
+
+alter table if exists ai_insights 
+   add constraint FKt1kk1v2u52lo418b98ck0x7l6 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists daily_summaries 
+   add constraint FKojelgkag3qp1u779ojrw04oy 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists meal_items 
+   add constraint FKbkra8m7kb523wvlyg55di7ecx 
+   foreign key (meal_id) 
+   references meals;
+
+alter table if exists meals 
+   add constraint FK677c66qpjr7234luomahc1ale 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists nutrition_targets 
+   add constraint FKd8qpi1lrvry97x6xy31357rm2 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists password_reset_tokens 
+   add constraint FKk3ndxg5xp6v7wd4gjyusp15gq 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists suggestions 
+   add constraint FK7yns86oadd04hrdcstg7mhirm 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists user_goals 
+   add constraint FKbqj3pc51g999b3nsxgqm3fyj9 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists user_metrics 
+   add constraint FK65c9asnnjs3q0lktqj103mvcv 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists user_profile 
+   add constraint FKuganfwvnbll4kn2a3jeyxtyi 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists verification_tokens 
+   add constraint FK54y8mqsnq1rtyf581sfmrbp4f 
+   foreign key (user_id) 
+   references users;
+
+alter table if exists workouts 
+   add constraint FKpf8ql3wbw2drijbk1ugfvki3d 
+   foreign key (user_id) 
+   references users;
@@ -31,6 +31,27 @@ export interface GenerateInsightResponse {
   message: string;
 }
 
+export type InsightJobStatus = 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+
+export interface InsightJob {
+  jobId: string;
+  status: InsightJobStatus;
+  insight?: AIInsightDTO | null;
+  error?: string | null;
+  createdAt: string;
+  completedAt?: string | null;
+}
+
+interface InsightJobResponse {
+  job: InsightJob;
+  statusUrl?: string;
+  eventsUrl?: string;
+  message?: string;
+}
+
+const INSIGHT_JOB_POLL_INTERVAL_MS = 1000;
+const INSIGHT_JOB_TIMEOUT_MS = 120000;
+
 export interface DismissInsightResponse {
   message: string;
   success: boolean;
@@ -107,16 +128,44 @@ export async function getLatestInsights(): Promise<LatestInsightsResponse> {
   }
 }
 
+// Generation runs as a background job on the server; poll it until it finishes.
+// EventSource cannot send the Authorization header, so the events stream is not used here.
 export async function generateInsight(request: CreateInsightRequestDTO): Promise<GenerateInsightResponse> {
   try {
-    const response = await apiClient.post<GenerateInsightResponse>('/api/homepage/ai-insights/generate', request);
+    const response = await apiClient.post<InsightJobResponse>('/api/homepage/ai-insights/generate', request);
+    const job = await waitForInsightJob(response.data.job);
 
-    return response.data;
+    if (job.status === 'FAILED' || !job.insight) {
+      throw new Error(job.error || 'Failed to generate insight');
+    }
+    return { insight: job.insight, message: 'New AI insight generated successfully' };
   } catch (error) {
     throw toError(error);
   }
 }
 
+export async function getInsightJob(jobId: string): Promise<InsightJob> {
+  try {
+    const response = await apiClient.get<InsightJobResponse>(`/api/homepage/ai-insights/jobs/${jobId}`);
+    return response.data.job;
+  } catch (error) {
+    throw toError(error);
+  }
+}
+
+async function waitForInsightJob(job: InsightJob): Promise<InsightJob> {
+  const deadline = Date.now() + INSIGHT_JOB_TIMEOUT_MS;
+  let current = job;
+  while (current.status === 'QUEUED' || current.status === 'RUNNING') {
+    if (Date.now() > deadline) {
+      throw new Error('Insight generation is taking too long, please try again later');
+    }
+    await new Promise((resolve) => setTimeout(resolve, INSIGHT_JOB_POLL_INTERVAL_MS));
+    current = await getInsightJob(current.jobId);
+  }
+  return current;
+}
+
 export async function dismissInsight(insightId: number): Promise<DismissInsightResponse> {
   try {
     const response = await apiClient.delete<DismissInsightResponse>(`/api/homepage/ai-insights/${insightId}`);